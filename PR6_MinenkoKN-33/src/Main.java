@@ -3,20 +3,132 @@ import dao.ReviewDAO;
 import dao.ServiceDAO;
 import dao.UserDAO;
 import dao.DaoFactory;
+import entity.ImportReport;
 import entity.Review;
 import entity.Service;
 import entity.User;
+import util.DatabaseBackup;
 import util.DatabaseInit;
+import util.PasswordHashing;
 import presentation.GuestBookUI;
+import service.DataImportService;
+import service.JsonJournalMirror;
+import service.RatingStatsEngine;
+import service.ReviewSearchIndex;
+import service.ReviewService;
+import service.ServiceLeaderboard;
+import service.ServiceSearchIndex;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Main {
     public static void main(String[] args) {
-        // Ініціалізація бази даних та вставка тестових даних
-        DatabaseInit.Init();
-        DatabaseInit.InitS();
-        DatabaseInit.InitR();
+        // Відновлення - до міграцій, які виконуються лише раз на процес
+        int restoreIndex = Arrays.asList(args).indexOf("--restore");
+        if (restoreIndex >= 0) {
+            try {
+                Path file = restoreIndex + 1 < args.length
+                        ? Paths.get(args[restoreIndex + 1])
+                        : DatabaseBackup.latest(Paths.get("data", "backups"));
+                if (file == null) {
+                    System.err.println("Резервних копій не знайдено.");
+                    return;
+                }
+                DatabaseBackup.restore(file);
+                // Копія могла бути знята зі старішою схемою - доводимо її до поточної
+                DatabaseInit.EnsureSchema();
+                // Збережений пошуковий індекс описує попередні дані - при запуску він перебудується
+                Files.deleteIfExists(Paths.get("data", "review_index.bin"));
+                System.out.println("Базу відновлено з " + file);
+            } catch (IOException e) {
+                System.err.println("Помилка відновлення: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Міграції схеми (раз на процес) та тестові дані для порожньої бази
+        DatabaseInit.EnsureSchema();
         DatabaseInit.InsertTestData();
 
+        int backupIndex = Arrays.asList(args).indexOf("--backup");
+        if (backupIndex >= 0) {
+            String dir = backupIndex + 1 < args.length ? args[backupIndex + 1] : "data/backups";
+            try {
+                Path file = DatabaseBackup.backup(Paths.get(dir));
+                System.out.println("Резервну копію створено: " + file);
+            } catch (IOException e) {
+                System.err.println("Помилка резервного копіювання: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (Arrays.asList(args).contains("--rebuild-stats")) {
+            new ReviewService().rebuildRatingStats();
+            System.out.println("Статистику оцінок перераховано.");
+            return;
+        }
+
+        int importIndex = Arrays.asList(args).indexOf("--import");
+        if (importIndex >= 0) {
+            String dir = importIndex + 1 < args.length ? args[importIndex + 1] : "data";
+            try {
+                ImportReport report = new DataImportService().importAll(Paths.get(dir),
+                        (file, rows, done, total, speed) -> System.out.printf(
+                                "\r%s: %d рядків, %d%%, %.0f рядків/с", file, rows,
+                                total == 0 ? 100 : done * 100 / total, speed));
+                System.out.println();
+                System.out.printf("Імпортовано: користувачів %d (пропущено %d), послуг %d (пропущено %d), "
+                                + "відгуків %d (пропущено %d) за %d мс, %.0f рядків/с%n",
+                        report.getUsersImported(), report.getUsersSkipped(),
+                        report.getServicesImported(), report.getServicesSkipped(),
+                        report.getReviewsImported(), report.getReviewsSkipped(),
+                        report.getElapsedMillis(), report.getRowsPerSecond());
+            } catch (IOException e) {
+                System.err.println("Помилка імпорту: " + e.getMessage());
+            }
+            return;
+        }
+
+        int exportIndex = Arrays.asList(args).indexOf("--export-reviews");
+        if (exportIndex >= 0) {
+            String file = exportIndex + 1 < args.length ? args[exportIndex + 1] : "data/reviews_export.json";
+            try {
+                int count = new ReviewService().exportReviews(file, true);
+                System.out.println("Експортовано відгуків: " + count + " у " + file);
+            } catch (IOException e) {
+                System.err.println("Помилка експорту відгуків: " + e.getMessage());
+            }
+            return;
+        }
+
+        for (String problem : DatabaseInit.VerifyQueryPlans()) {
+            System.err.println(problem);
+        }
+
+        RatingStatsEngine.getInstance().warmUp(DaoFactory.getReviewDAO());
+        ServiceLeaderboard.getInstance().warmUp(DaoFactory.getReviewDAO());
+        ServiceSearchIndex.getInstance().warmUp(DaoFactory.getServiceDAO());
+        // Калібрування хешування паролів до першого входу, а не під час нього
+        PasswordHashing.getInstance();
+        ReviewSearchIndex.getInstance().open(Paths.get("data", "review_index.bin"), DaoFactory.getReviewDAO());
+
+        if (JsonJournalMirror.isEnabled()) {
+            try {
+                JsonJournalMirror.getInstance().open(Paths.get("data", "journal"),
+                        DaoFactory.getReviewDAO(), DaoFactory.getServiceDAO());
+            } catch (IOException e) {
+                System.err.println("Не вдалося відкрити JSON журнал: " + e.getMessage());
+            }
+        }
+
+        long backupInterval = Long.getLong("guestbook.backup.intervalMinutes", 0);
+        if (backupInterval > 0) {
+            DatabaseBackup.schedule(Paths.get("data", "backups"), backupInterval);
+        }
+
         GuestBookUI ui = new GuestBookUI();
         ui.start();
     }
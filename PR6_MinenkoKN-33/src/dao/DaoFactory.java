@@ -13,4 +13,8 @@ public class DaoFactory {
     public static ReviewDAO getReviewDAO() {
         return ReviewDAO.getInstance();
     }
+
+    public static SessionDAO getSessionDAO() {
+        return SessionDAO.getInstance();
+    }
 }
@@ -0,0 +1,221 @@
+package dao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import util.UnitOfWork;
+
+/**
+ * Обмежений кеш сутностей за ідентифікатором з LRU-витісненням та TTL.
+ *
+ * <p>Використовується DAO як read-through кеш перед {@code findById}: DAO інвалідує
+ * записи при оновленні та видаленні. Щоб уникнути гонки, коли значення, прочитане до
+ * інвалідації, потрапляє в кеш після неї, DAO бере {@link #stamp()} перед запитом і
+ * передає його в {@link #put(int, Object, long)}.
+ *
+ * <p>Сутності змінювані, тому кеш зберігає власну копію кожного значення і видає
+ * копію на кожне звернення: зміни в отриманому об'єкті (наприклад, {@code setPassword}
+ * перед {@code update}) не потрапляють у кеш і не видні іншим потокам.
+ *
+ * @param <V> тип сутності
+ */
+public class EntityCache<V> {
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final UnaryOperator<V> copier;
+  private final LinkedHashMap<Integer, Entry<V>> entries;
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  /**
+   * Створює кеш.
+   *
+   * @param maxSize максимальна кількість записів (0 - кеш вимкнено)
+   * @param ttlMillis час життя запису, мс
+   * @param copier створює незалежну копію сутності
+   */
+  public EntityCache(int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.copier = copier;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Entry<V>> eldest) {
+        if (size() > EntityCache.this.maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Отримує сутність з кешу.
+   *
+   * @param id ідентифікатор сутності
+   * @return копія сутності або null, якщо її немає в кеші або запис застарів
+   */
+  public synchronized V get(int id) {
+    Entry<V> entry = entries.get(id);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    if (System.currentTimeMillis() > entry.expiresAt) {
+      entries.remove(id);
+      expirations.increment();
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return copier.apply(entry.value);
+  }
+
+  /**
+   * Повертає мітку, яку треба взяти перед читанням з бази для {@link #put(int, Object, long)}.
+   *
+   * @return поточна кількість інвалідацій
+   */
+  public long stamp() {
+    return invalidations.get();
+  }
+
+  /**
+   * Кладе копію сутності у кеш, якщо з моменту {@code stamp} не було інвалідацій.
+   *
+   * @param id ідентифікатор сутності
+   * @param value сутність
+   * @param stamp мітка, взята перед читанням сутності з бази
+   */
+  public synchronized void put(int id, V value, long stamp) {
+    // Усередині одиниці роботи прочитане може бути незафіксованим і зникнути при відкаті
+    if (maxSize <= 0 || value == null || invalidations.get() != stamp || UnitOfWork.isActive()) {
+      return;
+    }
+    entries.put(id, new Entry<>(copier.apply(value), System.currentTimeMillis() + ttlMillis));
+  }
+
+  /**
+   * Видаляє сутність з кешу.
+   *
+   * @param id ідентифікатор сутності
+   */
+  public void invalidate(int id) {
+    invalidateNow(id);
+    // До фіксації інші потоки ще читають старе значення і можуть знову його закешувати
+    if (UnitOfWork.isActive()) {
+      UnitOfWork.afterCommit(() -> invalidateNow(id));
+    }
+  }
+
+  /**
+   * Очищує кеш повністю.
+   */
+  public void invalidateAll() {
+    invalidateAllNow();
+    if (UnitOfWork.isActive()) {
+      UnitOfWork.afterCommit(this::invalidateAllNow);
+    }
+  }
+
+  private synchronized void invalidateNow(int id) {
+    invalidations.incrementAndGet();
+    entries.remove(id);
+  }
+
+  private synchronized void invalidateAllNow() {
+    invalidations.incrementAndGet();
+    entries.clear();
+  }
+
+  /**
+   * Повертає знімок статистики кешу.
+   *
+   * @return статистика кешу
+   */
+  public synchronized Stats getStats() {
+    return new Stats(entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum(),
+        expirations.sum());
+  }
+
+  private static final class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Незмінний знімок статистики кешу.
+   */
+  public static final class Stats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+
+    private Stats(int size, int maxSize, long hits, long misses, long evictions,
+        long expirations) {
+      this.size = size;
+      this.maxSize = maxSize;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.expirations = expirations;
+    }
+
+    public int getSize() {
+      return size;
+    }
+
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public long getEvictions() {
+      return evictions;
+    }
+
+    public long getExpirations() {
+      return expirations;
+    }
+
+    /**
+     * Частка звернень, обслужених з кешу.
+     *
+     * @return значення від 0 до 1
+     */
+    public double getHitRate() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheStats{size=" + size + ", maxSize=" + maxSize + ", hits=" + hits
+          + ", misses=" + misses + ", evictions=" + evictions
+          + ", expirations=" + expirations + ", hitRate=" + getHitRate() + "}";
+    }
+  }
+}
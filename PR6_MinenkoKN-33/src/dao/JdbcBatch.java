@@ -0,0 +1,124 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Спільна логіка пакетних операцій DAO: один запит, JDBC batching і одна транзакція
+ * на всю колекцію.
+ */
+final class JdbcBatch {
+
+  /**
+   * Розмір пакета за замовчуванням.
+   */
+  static final int DEFAULT_BATCH_SIZE = 500;
+
+  /**
+   * Заповнює параметри запиту для одного елемента.
+   */
+  interface Binder<T> {
+    void bind(PreparedStatement ps, T item) throws SQLException;
+  }
+
+  /**
+   * Записує згенерований ключ у елемент.
+   */
+  interface KeySetter<T> {
+    void setKey(T item, int key);
+  }
+
+  private JdbcBatch() {
+  }
+
+  static int checkBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Розмір пакета повинен бути додатним: " + batchSize);
+    }
+    return batchSize;
+  }
+
+  /**
+   * Виконує запит для всіх елементів пакетами по {@code batchSize} в одній транзакції.
+   * У разі помилки транзакція відкочується повністю.
+   *
+   * @param sql запит з параметрами
+   * @param items елементи для обробки
+   * @param batchSize розмір пакета
+   * @param binder заповнення параметрів
+   * @param keySetter запис згенерованих ключів у порядку елементів або null
+   * @return кількість змінених рядків
+   * @throws SQLException якщо виконання запиту не вдалося
+   */
+  static <T> int execute(String sql, Collection<? extends T> items, int batchSize,
+      Binder<? super T> binder, KeySetter<? super T> keySetter) throws SQLException {
+    if (items.isEmpty()) {
+      return 0;
+    }
+    return JdbcTransaction.run(conn -> execute(conn, sql, items, batchSize, binder, keySetter));
+  }
+
+  /**
+   * Виконує запит для всіх елементів пакетами на переданому з'єднанні, не керуючи
+   * транзакцією, - для випадків, коли разом з пакетом у тій самій транзакції
+   * треба виконати ще щось.
+   *
+   * @param conn з'єднання з відкритою транзакцією
+   * @param sql запит з параметрами
+   * @param items елементи для обробки
+   * @param batchSize розмір пакета
+   * @param binder заповнення параметрів
+   * @param keySetter запис згенерованих ключів у порядку елементів або null
+   * @return кількість змінених рядків
+   * @throws SQLException якщо виконання запиту не вдалося
+   */
+  static <T> int execute(Connection conn, String sql, Collection<? extends T> items,
+      int batchSize, Binder<? super T> binder, KeySetter<? super T> keySetter)
+      throws SQLException {
+    try (PreparedStatement ps = keySetter == null
+        ? conn.prepareStatement(sql)
+        : conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+      int affected = 0;
+      List<T> chunk = new ArrayList<>(Math.min(batchSize, Math.max(items.size(), 1)));
+      for (T item : items) {
+        binder.bind(ps, item);
+        ps.addBatch();
+        chunk.add(item);
+        if (chunk.size() == batchSize) {
+          affected += flush(ps, chunk, keySetter);
+          chunk.clear();
+        }
+      }
+      if (!chunk.isEmpty()) {
+        affected += flush(ps, chunk, keySetter);
+      }
+      return affected;
+    }
+  }
+
+  private static <T> int flush(PreparedStatement ps, List<T> chunk,
+      KeySetter<? super T> keySetter) throws SQLException {
+    int affected = 0;
+    for (int count : ps.executeBatch()) {
+      affected += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+    }
+    if (keySetter != null) {
+      try (ResultSet rs = ps.getGeneratedKeys()) {
+        for (T item : chunk) {
+          if (!rs.next()) {
+            break;
+          }
+          keySetter.setKey(item, rs.getInt(1));
+        }
+      }
+    }
+    return affected;
+  }
+}
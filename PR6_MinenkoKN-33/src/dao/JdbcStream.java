@@ -0,0 +1,167 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import util.DatabaseCfg;
+
+/**
+ * Потокове читання результатів запиту: курсор лишається відкритим, а рядки
+ * перетворюються на об'єкти лише тоді, коли їх запитує споживач.
+ *
+ * <p>З'єднання повертається до пулу, щойно курсор дочитано до кінця, сталася помилка
+ * або потік закрито через {@link Stream#close()}. Якщо споживач зупиняється раніше
+ * (наприклад, {@code findFirst()} чи {@code limit()}), потік треба закрити явно,
+ * найпростіше - через try-with-resources.
+ */
+final class JdbcStream {
+
+  /**
+   * Розмір вибірки курсора за замовчуванням.
+   */
+  static final int DEFAULT_FETCH_SIZE = 1000;
+
+  /**
+   * Перетворює поточний рядок результату на об'єкт.
+   */
+  interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+  }
+
+  /**
+   * Заповнює параметри запиту.
+   */
+  interface ParameterSetter {
+    void set(PreparedStatement ps) throws SQLException;
+  }
+
+  private JdbcStream() {
+  }
+
+  /**
+   * Відкриває курсор і повертає ледачий потік рядків.
+   *
+   * @param sql запит
+   * @param fetchSize скільки рядків драйвер підвантажує за раз
+   * @param params заповнення параметрів запиту
+   * @param mapper перетворення рядка на об'єкт
+   * @return потік, який треба закрити, якщо його не дочитано до кінця
+   */
+  static <T> Stream<T> query(String sql, int fetchSize, ParameterSetter params,
+      RowMapper<T> mapper) {
+    if (fetchSize < 1) {
+      throw new IllegalArgumentException("Розмір вибірки повинен бути додатним: " + fetchSize);
+    }
+    Cursor<T> cursor = new Cursor<>(mapper);
+    try {
+      cursor.open(sql, fetchSize, params);
+    } catch (SQLException | RuntimeException e) {
+      cursor.close();
+      throw new RuntimeException("Помилка відкриття курсора: " + e.getMessage(), e);
+    }
+    return StreamSupport.stream(cursor, false).onClose(cursor::close);
+  }
+
+  private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+    private final RowMapper<T> mapper;
+    private Connection conn;
+    private PreparedStatement ps;
+    private ResultSet rs;
+    private boolean lazy;
+    private boolean closed;
+
+    private Cursor(RowMapper<T> mapper) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.mapper = mapper;
+    }
+
+    private void open(String sql, int fetchSize, ParameterSetter params) throws SQLException {
+      conn = DatabaseCfg.getConnection();
+      // Без лінивого виконання вбудований H2 матеріалізує весь результат ще до першого next()
+      try (Statement st = conn.createStatement()) {
+        st.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        lazy = true;
+      }
+      ps = conn.prepareStatement(sql);
+      ps.setFetchSize(fetchSize);
+      params.set(ps);
+      rs = ps.executeQuery();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (closed) {
+        return false;
+      }
+      T item;
+      try {
+        if (!rs.next()) {
+          close();
+          return false;
+        }
+        item = mapper.map(rs);
+      } catch (SQLException e) {
+        close();
+        throw new RuntimeException("Помилка читання курсора: " + e.getMessage(), e);
+      }
+      action.accept(item);
+      return true;
+    }
+
+    // Кожен крок закриття окремо: збій одного не лишає з'єднання в ледачому режимі
+    private void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        if (rs != null) {
+          try {
+            rs.close();
+          } catch (SQLException e) {
+            warn("Помилка закриття курсора", e);
+          }
+        }
+        if (ps != null) {
+          try {
+            ps.setFetchSize(0);
+          } catch (SQLException e) {
+            warn("Помилка скидання розміру вибірки", e);
+          } finally {
+            try {
+              ps.close();
+            } catch (SQLException e) {
+              warn("Помилка закриття запиту", e);
+            }
+          }
+        }
+      } finally {
+        if (lazy) {
+          try (Statement st = conn.createStatement()) {
+            st.execute("SET LAZY_QUERY_EXECUTION FALSE");
+          } catch (SQLException e) {
+            warn("Помилка вимкнення лінивого виконання", e);
+          }
+        }
+        if (conn != null) {
+          try {
+            conn.close();
+          } catch (SQLException e) {
+            warn("Помилка повернення з'єднання", e);
+          }
+        }
+      }
+    }
+
+    private static void warn(String message, SQLException e) {
+      System.err.println(message + ": " + e.getMessage());
+    }
+  }
+}
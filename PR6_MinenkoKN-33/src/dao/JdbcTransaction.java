@@ -0,0 +1,45 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import util.DatabaseCfg;
+
+/**
+ * Виконання кількох інструкцій DAO в одній транзакції на одному з'єднанні.
+ */
+final class JdbcTransaction {
+
+  /**
+   * Робота, що виконується в транзакції.
+   */
+  interface Work<T> {
+    T run(Connection conn) throws SQLException;
+  }
+
+  private JdbcTransaction() {
+  }
+
+  /**
+   * Виконує роботу в транзакції: фіксує її при успіху і відкочує при будь-якій помилці.
+   *
+   * @param work робота
+   * @return результат роботи
+   * @throws SQLException якщо робота або фіксація не вдалися
+   */
+  static <T> T run(Work<T> work) throws SQLException {
+    try (Connection conn = DatabaseCfg.getConnection()) {
+      boolean autoCommit = conn.getAutoCommit();
+      conn.setAutoCommit(false);
+      try {
+        T result = work.run(conn);
+        conn.commit();
+        return result;
+      } catch (SQLException | RuntimeException e) {
+        conn.rollback();
+        throw e;
+      } finally {
+        conn.setAutoCommit(autoCommit);
+      }
+    }
+  }
+}
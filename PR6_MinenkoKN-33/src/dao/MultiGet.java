@@ -0,0 +1,99 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import util.DatabaseCfg;
+
+/**
+ * Пакетне завантаження сутностей за списком ідентифікаторів через {@code id = ANY(?)}.
+ */
+final class MultiGet {
+
+  /**
+   * Максимальна кількість ID в одному масиві-параметрі.
+   */
+  static final int CHUNK_SIZE = 1000;
+
+  private MultiGet() {
+  }
+
+  /**
+   * Завантажує сутності без кешу запитом на кожні {@link #CHUNK_SIZE} ID в межах одного з'єднання.
+   *
+   * @see #fetch(Collection, EntityCache, String, JdbcStream.RowMapper, ToIntFunction)
+   */
+  static <T> Map<Integer, T> fetch(Collection<Integer> ids, String sql,
+      JdbcStream.RowMapper<T> mapper, ToIntFunction<T> idOf) throws SQLException {
+    return fetch(ids, null, sql, mapper, idOf);
+  }
+
+  /**
+   * Завантажує сутності: спершу з кешу, решту - запитом на кожні {@link #CHUNK_SIZE} ID
+   * в межах одного з'єднання.
+   *
+   * @param ids ідентифікатори; дублікати та null ігноруються
+   * @param cache кеш сутностей або null, якщо сутність не кешується
+   * @param sql запит з одним параметром-масивом, наприклад {@code ... WHERE id = ANY(?)}
+   * @param mapper перетворення рядка на сутність
+   * @param idOf ідентифікатор сутності
+   * @return знайдені сутності у порядку першої появи їхніх ID; відсутніх ID у мапі немає
+   * @throws SQLException якщо запит не вдався
+   */
+  static <T> Map<Integer, T> fetch(Collection<Integer> ids, EntityCache<T> cache, String sql,
+      JdbcStream.RowMapper<T> mapper, ToIntFunction<T> idOf) throws SQLException {
+    Set<Integer> unique = new LinkedHashSet<>(ids);
+    unique.remove(null);
+
+    Map<Integer, T> found = new HashMap<>();
+    List<Integer> missing = new ArrayList<>();
+    for (Integer id : unique) {
+      T cached = cache != null ? cache.get(id) : null;
+      if (cached != null) {
+        found.put(id, cached);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      long stamp = cache != null ? cache.stamp() : 0;
+      try (Connection conn = DatabaseCfg.getConnection();
+          PreparedStatement ps = conn.prepareStatement(sql)) {
+        for (int from = 0; from < missing.size(); from += CHUNK_SIZE) {
+          List<Integer> chunk = missing.subList(from, Math.min(from + CHUNK_SIZE, missing.size()));
+          ps.setObject(1, chunk.toArray(new Integer[0]));
+          try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+              T entity = mapper.map(rs);
+              int id = idOf.applyAsInt(entity);
+              found.put(id, entity);
+              if (cache != null) {
+                cache.put(id, entity, stamp);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    Map<Integer, T> result = new LinkedHashMap<>();
+    for (Integer id : unique) {
+      T entity = found.get(id);
+      if (entity != null) {
+        result.put(id, entity);
+      }
+    }
+    return result;
+  }
+}
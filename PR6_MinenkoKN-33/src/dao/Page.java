@@ -0,0 +1,84 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Сторінка результатів з токеном продовження.
+ *
+ * <p>Токен кодує ключ останнього рядка сторінки (keyset/seek-пагінація), тому
+ * наступна сторінка читається через {@code WHERE id > ?} по індексу, а не через
+ * {@code OFFSET}, і глибокі сторінки коштують стільки ж, скільки перша.
+ *
+ * @param <T> тип елементів сторінки
+ */
+public class Page<T> {
+
+  /**
+   * Найбільший дозволений розмір сторінки.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private final List<T> items;
+  private final String nextToken;
+
+  Page(List<T> items, String nextToken) {
+    this.items = Collections.unmodifiableList(items);
+    this.nextToken = nextToken;
+  }
+
+  /**
+   * Отримує елементи сторінки.
+   *
+   * @return незмінний список елементів
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * Отримує токен наступної сторінки.
+   *
+   * @return токен або null, якщо це остання сторінка
+   */
+  public String getNextToken() {
+    return nextToken;
+  }
+
+  /**
+   * Перевіряє, чи є наступна сторінка.
+   *
+   * @return true, якщо наступна сторінка існує
+   */
+  public boolean hasNext() {
+    return nextToken != null;
+  }
+
+  static String encodeToken(int lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(Integer.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  // Порожній токен означає першу сторінку
+  static int decodeToken(String token) {
+    if (token == null || token.isEmpty()) {
+      return 0;
+    }
+    try {
+      return Integer.parseInt(
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Невірний токен сторінки: " + token, e);
+    }
+  }
+
+  static int checkPageSize(int pageSize) {
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          "Розмір сторінки повинен бути від 1 до " + MAX_PAGE_SIZE + ": " + pageSize);
+    }
+    return pageSize;
+  }
+}
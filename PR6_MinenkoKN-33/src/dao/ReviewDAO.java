@@ -1,23 +1,34 @@
 package dao;
 
 import entity.Review;
+import entity.ReviewFeedItem;
+import entity.ServiceRatingStats;
+import entity.Watermark;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 import util.DatabaseCfg;
 import util.DatabaseInit;
 import exception.EntityNotFoundException;
+import exception.OptimisticLockException;
 
 public class ReviewDAO {
 
     private static ReviewDAO instance;
 
+    private volatile int batchSize = JdbcBatch.DEFAULT_BATCH_SIZE;
+
     public ReviewDAO() {
-        DatabaseInit.InitR();
+        DatabaseInit.EnsureSchema();
     }
 
     public static synchronized ReviewDAO getInstance() {
@@ -33,38 +44,125 @@ public class ReviewDAO {
         Integer serviceID = rs.getInt("serviceID");
         String text = rs.getString("text");
         Integer rating = rs.getInt("rating");
-        return new Review(ID, userID, serviceID, text, rating);
+        Review review = new Review(ID, userID, serviceID, text, rating);
+        review.setVersion(rs.getInt("version"));
+        return review;
+    }
+
+    private ReviewFeedItem extractFeedItemFromResultSet(ResultSet rs) throws SQLException {
+        Review review = extractReviewFromResultSet(rs);
+        return new ReviewFeedItem(review, rs.getString("userName"), rs.getString("serviceName"));
     }
 
+    // Відгук і агрегати послуги змінюються в одній транзакції
     public boolean create(Review review) {
         String sql = "INSERT INTO reviews (userID, serviceID, text, rating) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseCfg.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try {
+            return JdbcTransaction.run(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            ps.setInt(1, review.getUserId());
-            ps.setInt(2, review.getServiceId());
-            ps.setString(3, review.getText());
-            ps.setInt(4, review.getRating());
+                    ps.setInt(1, review.getUserId());
+                    ps.setInt(2, review.getServiceId());
+                    ps.setString(3, review.getText());
+                    ps.setInt(4, review.getRating());
 
-            int affectedRows = ps.executeUpdate();
+                    int affectedRows = ps.executeUpdate();
 
-            if (affectedRows > 0) {
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        review.setId(rs.getInt(1));
+                    if (affectedRows > 0) {
+                        try (ResultSet rs = ps.getGeneratedKeys()) {
+                            if (rs.next()) {
+                                review.setId(rs.getInt(1));
+                            }
+                        }
+                        applyStatsDelta(conn, review.getServiceId(), review.getRating(), 1);
+                        return true;
                     }
+                    return false;
                 }
-                return true;
-            }
-            return false;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка створення відгуку: " + e.getMessage(), e);
+        }
+    }
+
+    // Результат вставки з перевіркою посилань
+    public enum CreateResult {
+        CREATED,
+        USER_NOT_FOUND,
+        SERVICE_NOT_FOUND
+    }
+
+    // Перевірка користувача й послуги та вставка одним INSERT ... SELECT в одній транзакції з агрегатами.
+    // Причину відмови з'ясовує окремий запит лише тоді, коли вставка не відбулась
+    public CreateResult createIfReferenced(Review review) {
+        String sql = "INSERT INTO reviews (userID, serviceID, text, rating) "
+                + "SELECT ?, s.id, ?, ? FROM services s "
+                + "WHERE s.id = ? AND EXISTS (SELECT 1 FROM users u WHERE u.id = ?)";
+        try {
+            return JdbcTransaction.run(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+                    ps.setInt(1, review.getUserId());
+                    ps.setString(2, review.getText());
+                    ps.setInt(3, review.getRating());
+                    ps.setInt(4, review.getServiceId());
+                    ps.setInt(5, review.getUserId());
 
+                    if (ps.executeUpdate() == 0) {
+                        return missingReference(conn, review);
+                    }
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            review.setId(rs.getInt(1));
+                        }
+                    }
+                    applyStatsDelta(conn, review.getServiceId(), review.getRating(), 1);
+                    return CreateResult.CREATED;
+                }
+            });
         } catch (SQLException e) {
+            // Користувача чи послугу видалили між перевіркою та вставкою - спрацював зовнішній ключ
+            CreateResult result = referenceViolation(e);
+            if (result != null) {
+                return result;
+            }
             throw new RuntimeException("Помилка створення відгуку: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Перетворює порушення зовнішнього ключа відгуку на результат створення.
+     *
+     * @return USER_NOT_FOUND чи SERVICE_NOT_FOUND, або null для інших помилок
+     */
+    static CreateResult referenceViolation(SQLException e) {
+        if (!"23506".equals(e.getSQLState())) {
+            return null;
+        }
+        String message = String.valueOf(e.getMessage()).toUpperCase();
+        if (message.contains("FK_REVIEWS_USER")) {
+            return CreateResult.USER_NOT_FOUND;
+        }
+        if (message.contains("FK_REVIEWS_SERVICE")) {
+            return CreateResult.SERVICE_NOT_FOUND;
+        }
+        return null;
+    }
+
+    private CreateResult missingReference(Connection conn, Review review) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?), EXISTS (SELECT 1 FROM services WHERE id = ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, review.getUserId());
+            ps.setInt(2, review.getServiceId());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return !rs.getBoolean(1) ? CreateResult.USER_NOT_FOUND : CreateResult.SERVICE_NOT_FOUND;
+            }
+        }
+    }
+
     public Review findById(int id) {
-        String sql = "SELECT id, userID, serviceID, text, rating FROM reviews WHERE id = ?";
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE id = ?";
         try (Connection conn = DatabaseCfg.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -81,9 +179,19 @@ public class ReviewDAO {
         }
     }
 
+    // Відгуки за списком ID через MultiGet порціями; відсутніх ID у мапі немає
+    public Map<Integer, Review> findByIds(Collection<Integer> ids) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE id = ANY(?)";
+        try {
+            return MultiGet.fetch(ids, sql, this::extractReviewFromResultSet, Review::getId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пошуку відгуків за списком ID: " + e.getMessage(), e);
+        }
+    }
+
     public List<Review> findByServiceId(int serviceId) {
         List<Review> reviews = new ArrayList<>();
-        String sql = "SELECT id, userID, serviceID, text, rating FROM reviews WHERE serviceID = ?";
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE serviceID = ? ORDER BY id";
         try (Connection conn = DatabaseCfg.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -101,7 +209,7 @@ public class ReviewDAO {
 
     public List<Review> findByUserId(int userId) {
         List<Review> reviews = new ArrayList<>();
-        String sql = "SELECT id, userID, serviceID, text, rating FROM reviews WHERE userID = ?";
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE userID = ? ORDER BY id";
         try (Connection conn = DatabaseCfg.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -119,10 +227,10 @@ public class ReviewDAO {
 
     public List<Review> findAll() {
         List<Review> reviews = new ArrayList<>();
-        String sqlQuery = "SELECT id, userID, serviceID, text, rating FROM reviews";
+        String sqlQuery = "SELECT id, userID, serviceID, text, rating, version FROM reviews";
         try (Connection conn = DatabaseCfg.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sqlQuery)) {
+             PreparedStatement ps = conn.prepareStatement(sqlQuery);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
                 reviews.add(extractReviewFromResultSet(rs));
@@ -133,34 +241,505 @@ public class ReviewDAO {
         return reviews;
     }
 
-    public boolean update(Review review) {
-        String sql = "UPDATE reviews SET userID = ?, serviceID = ?, text = ?, rating = ? WHERE id = ?";
+    // --- Keyset-пагінація: сторінка читається від ID останнього рядка попередньої ---
+
+    public Page<Review> findPage(String token, int pageSize) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews "
+                + "WHERE id > ? ORDER BY id LIMIT ?";
+        return queryPage(sql, null, token, pageSize, this::extractReviewFromResultSet, Review::getId);
+    }
+
+    public Page<Review> findPageByServiceId(int serviceId, String token, int pageSize) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews "
+                + "WHERE serviceID = ? AND id > ? ORDER BY id LIMIT ?";
+        return queryPage(sql, serviceId, token, pageSize, this::extractReviewFromResultSet,
+                Review::getId);
+    }
+
+    public Page<Review> findPageByUserId(int userId, String token, int pageSize) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews "
+                + "WHERE userID = ? AND id > ? ORDER BY id LIMIT ?";
+        return queryPage(sql, userId, token, pageSize, this::extractReviewFromResultSet,
+                Review::getId);
+    }
+
+    // --- Стрічка: відгуки одразу з іменем автора та назвою послуги, один запит замість 1 + 2N ---
+
+    private static final String FEED_SELECT = "SELECT r.id, r.userID, r.serviceID, r.text, r.rating, r.version, "
+            + "u.name AS userName, s.name AS serviceName FROM reviews r "
+            + "LEFT JOIN users u ON u.id = r.userID "
+            + "LEFT JOIN services s ON s.id = r.serviceID ";
+
+    public Page<ReviewFeedItem> findFeedPage(String token, int pageSize) {
+        String sql = FEED_SELECT + "WHERE r.id > ? ORDER BY r.id LIMIT ?";
+        return queryPage(sql, null, token, pageSize, this::extractFeedItemFromResultSet,
+                item -> item.getReview().getId());
+    }
+
+    public Page<ReviewFeedItem> findFeedPageByUserId(int userId, String token, int pageSize) {
+        String sql = FEED_SELECT + "WHERE r.userID = ? AND r.id > ? ORDER BY r.id LIMIT ?";
+        return queryPage(sql, userId, token, pageSize, this::extractFeedItemFromResultSet,
+                item -> item.getReview().getId());
+    }
+
+    // Необов'язковий фільтр займає перший параметр, за ним ідуть ключ пошуку та ліміт
+    private <T> Page<T> queryPage(String sql, Integer filterId, String token, int pageSize,
+            JdbcStream.RowMapper<T> mapper, ToIntFunction<T> keyOf) {
+        int afterId = Page.decodeToken(token);
+        Page.checkPageSize(pageSize);
+        List<T> items = new ArrayList<>();
         try (Connection conn = DatabaseCfg.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, review.getUserId());
-            ps.setInt(2, review.getServiceId());
-            ps.setString(3, review.getText());
-            ps.setInt(4, review.getRating());
-            ps.setInt(5, review.getId());
+            int next = 1;
+            if (filterId != null) {
+                ps.setInt(next++, filterId);
+            }
+            ps.setInt(next, afterId);
+            // Читаємо на один рядок більше, щоб дізнатися, чи є наступна сторінка
+            ps.setInt(next + 1, pageSize + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка отримання сторінки відгуків: " + e.getMessage(), e);
+        }
+
+        if (items.size() <= pageSize) {
+            return new Page<>(items, null);
+        }
+        items.remove(pageSize);
+        return new Page<>(items, Page.encodeToken(keyOf.applyAsInt(items.get(pageSize - 1))));
+    }
+
+    // Ледачий потік усіх відгуків поверх відкритого курсора; закрийте його, якщо не дочитуєте до кінця
+    public Stream<Review> streamAll() {
+        return streamAll(JdbcStream.DEFAULT_FETCH_SIZE);
+    }
 
-            return ps.executeUpdate() > 0;
+    public Stream<Review> streamAll(int fetchSize) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews ORDER BY id";
+        return JdbcStream.query(sql, fetchSize, ps -> { }, this::extractReviewFromResultSet);
+    }
 
+    // Водяний знак таблиці відгуків: читає лише пари (id, version), без тексту відгуків
+    public Watermark findWatermark() {
+        try {
+            return Watermarks.of("reviews");
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка обчислення водяного знака відгуків: " + e.getMessage(), e);
+        }
+    }
+
+    public Stream<Review> streamByServiceId(int serviceId, int fetchSize) {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE serviceID = ? ORDER BY id";
+        return JdbcStream.query(sql, fetchSize, ps -> ps.setInt(1, serviceId),
+                this::extractReviewFromResultSet);
+    }
+
+    public boolean update(Review review) {
+        return updateAndGetPrevious(review) != null;
+    }
+
+    // Оновлює відгук і повертає його стан до оновлення (або null, якщо відгуку немає)
+    // Compare-and-set за версією замість SELECT ... FOR UPDATE: паралельні редактори не чекають
+    // один на одного, а той, чия версія застаріла, отримує OptimisticLockException.
+    // Рядок з очікуваною версією - саме той, що замінюється, тож дельта агрегатів точна
+    public Review updateAndGetPrevious(Review review) {
+        String sql = "UPDATE reviews SET userID = ?, serviceID = ?, text = ?, rating = ?, version = version + 1 "
+                + "WHERE id = ? AND version = ?";
+        try {
+            Review previous = JdbcTransaction.run(conn -> {
+                Review old = read(conn, review.getId());
+                if (old == null) {
+                    return null;
+                }
+                if (old.getVersion() != review.getVersion()) {
+                    throw conflict(review.getId());
+                }
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                    ps.setInt(1, review.getUserId());
+                    ps.setInt(2, review.getServiceId());
+                    ps.setString(3, review.getText());
+                    ps.setInt(4, review.getRating());
+                    ps.setInt(5, review.getId());
+                    ps.setInt(6, review.getVersion());
+
+                    if (ps.executeUpdate() == 0) {
+                        throw conflict(review.getId());
+                    }
+                }
+                if (old.getServiceId() != review.getServiceId() || old.getRating() != review.getRating()) {
+                    applyStatsDelta(conn, old.getServiceId(), old.getRating(), -1);
+                    applyStatsDelta(conn, review.getServiceId(), review.getRating(), 1);
+                }
+                return old;
+            });
+            if (previous != null) {
+                review.setVersion(review.getVersion() + 1);
+            }
+            return previous;
         } catch (SQLException e) {
             throw new RuntimeException("Помилка оновлення відгуку: " + e.getMessage(), e);
         }
     }
 
     public boolean delete(int id) {
-        String sql = "DELETE FROM reviews WHERE id = ?";
+        return deleteAndGetPrevious(id) != null;
+    }
+
+    // Видаляє відгук і повертає його стан до видалення (або null, якщо відгуку немає).
+    // Видаляється лише прочитана версія, тож дельта агрегатів точна; якщо відгук змінили між
+    // читанням і видаленням - OptimisticLockException, якщо вже видалили - null
+    public Review deleteAndGetPrevious(int id) {
+        String sql = "DELETE FROM reviews WHERE id = ? AND version = ?";
+        try {
+            return JdbcTransaction.run(conn -> {
+                Review old = read(conn, id);
+                if (old == null) {
+                    return null;
+                }
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                    ps.setInt(1, id);
+                    ps.setInt(2, old.getVersion());
+
+                    if (ps.executeUpdate() == 0) {
+                        if (read(conn, id) == null) {
+                            return null;
+                        }
+                        throw conflict(id);
+                    }
+                }
+                applyStatsDelta(conn, old.getServiceId(), old.getRating(), -1);
+                return old;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка видалення відгуку: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Агрегати оцінок послуг (service_stats) ---
+
+    private static final String[] HISTOGRAM_COLUMNS = {
+            "rating_1", "rating_2", "rating_3", "rating_4", "rating_5"
+    };
+
+    private static final String STATS_AGGREGATE = "INSERT INTO service_stats (serviceID, review_count, "
+            + "rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5) "
+            + "SELECT serviceID, COUNT(*), SUM(rating), "
+            + "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) FROM reviews ";
+
+    private Review read(Connection conn, int id) throws SQLException {
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? extractReviewFromResultSet(rs) : null;
+            }
+        }
+    }
+
+    private static OptimisticLockException conflict(int id) {
+        return new OptimisticLockException("Відгук з ID " + id + " вже змінено іншим користувачем.");
+    }
+
+    // Додає (sign = 1) або віднімає (sign = -1) один відгук з агрегатів послуги
+    private void applyStatsDelta(Connection conn, int serviceId, int rating, int sign) throws SQLException {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
+        }
+        try (PreparedStatement ensure = conn.prepareStatement(
+                "MERGE INTO service_stats (serviceID) KEY (serviceID) VALUES (?)")) {
+            ensure.setInt(1, serviceId);
+            ensure.executeUpdate();
+        }
+        String column = HISTOGRAM_COLUMNS[rating - 1];
+        String sql = "UPDATE service_stats SET review_count = review_count + ?, rating_sum = rating_sum + ?, "
+                + column + " = " + column + " + ? WHERE serviceID = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, sign);
+            ps.setInt(2, sign * rating);
+            ps.setInt(3, sign);
+            ps.setInt(4, serviceId);
+            ps.executeUpdate();
+        }
+    }
+
+    // Зміни агрегатів пакета по послугах: {кількість, сума, rating_1 ... rating_5}
+    private static void addStatsDelta(Map<Integer, long[]> deltas, int serviceId, int rating, int sign) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
+        }
+        long[] delta = deltas.computeIfAbsent(serviceId, id -> new long[2 + HISTOGRAM_COLUMNS.length]);
+        delta[0] += sign;
+        delta[1] += sign * rating;
+        delta[1 + rating] += sign;
+    }
+
+    // Застосовує накопичені зміни агрегатів - по одному рядку service_stats на послугу,
+    // незалежно від того, скільки відгуків послуга вже має
+    private void applyStatsDeltas(Connection conn, Map<Integer, long[]> deltas) throws SQLException {
+        List<Map.Entry<Integer, long[]>> changed = new ArrayList<>(deltas.size());
+        for (Map.Entry<Integer, long[]> entry : deltas.entrySet()) {
+            for (long value : entry.getValue()) {
+                if (value != 0) {
+                    changed.add(entry);
+                    break;
+                }
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        JdbcBatch.execute(conn, "MERGE INTO service_stats (serviceID) KEY (serviceID) VALUES (?)", changed,
+                batchSize, (ps, entry) -> ps.setInt(1, entry.getKey()), null);
+        StringBuilder sql = new StringBuilder(
+                "UPDATE service_stats SET review_count = review_count + ?, rating_sum = rating_sum + ?");
+        for (String column : HISTOGRAM_COLUMNS) {
+            sql.append(", ").append(column).append(" = ").append(column).append(" + ?");
+        }
+        sql.append(" WHERE serviceID = ?");
+        JdbcBatch.execute(conn, sql.toString(), changed, batchSize, (ps, entry) -> {
+            long[] delta = entry.getValue();
+            for (int i = 0; i < delta.length; i++) {
+                ps.setLong(i + 1, delta[i]);
+            }
+            ps.setInt(delta.length + 1, entry.getKey());
+        }, null);
+    }
+
+    // Поточний стан відгуків за списком ID порціями по batchSize; відсутніх ID у мапі немає
+    private Map<Integer, Review> readAll(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Review> reviews = new HashMap<>();
+        String sql = "SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE id = ANY(?)";
+        List<Integer> chunk = new ArrayList<>(Math.min(ids.size(), batchSize));
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Integer id : ids) {
+                chunk.add(id);
+                if (chunk.size() == batchSize) {
+                    readChunk(ps, chunk, reviews);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                readChunk(ps, chunk, reviews);
+            }
+        }
+        return reviews;
+    }
+
+    private void readChunk(PreparedStatement ps, List<Integer> chunk, Map<Integer, Review> reviews)
+            throws SQLException {
+        ps.setObject(1, chunk.toArray(new Integer[0]));
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Review review = extractReviewFromResultSet(rs);
+                reviews.put(review.getId(), review);
+            }
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Повністю перераховує таблицю service_stats з таблиці reviews.
+     */
+    public void rebuildServiceStats() {
+        try {
+            JdbcTransaction.run(conn -> {
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("DELETE FROM service_stats");
+                    st.executeUpdate(STATS_AGGREGATE + "GROUP BY serviceID");
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка перерахунку статистики оцінок: " + e.getMessage(), e);
+        }
+    }
+
+    // Агрегати оцінок послуги за O(1); для послуги без відгуків - нулі
+    public ServiceRatingStats findStatsByServiceId(int serviceId) {
+        String sql = "SELECT serviceID, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5 "
+                + "FROM service_stats WHERE serviceID = ?";
         try (Connection conn = DatabaseCfg.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
-            ps.setInt(1, id);
+            ps.setInt(1, serviceId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return extractStatsFromResultSet(rs);
+                }
+            }
+            return ServiceRatingStats.empty(serviceId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка отримання статистики оцінок: " + e.getMessage(), e);
+        }
+    }
 
-            return ps.executeUpdate() > 0;
+    public List<ServiceRatingStats> findAllStats() {
+        List<ServiceRatingStats> stats = new ArrayList<>();
+        String sql = "SELECT serviceID, review_count, rating_sum, rating_1, rating_2, rating_3, rating_4, rating_5 "
+                + "FROM service_stats ORDER BY serviceID";
+        try (Connection conn = DatabaseCfg.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                stats.add(extractStatsFromResultSet(rs));
+            }
         } catch (SQLException e) {
-            throw new RuntimeException("Помилка видалення відгуку: " + e.getMessage(), e);
+            throw new RuntimeException("Помилка отримання статистики оцінок: " + e.getMessage(), e);
+        }
+        return stats;
+    }
+
+    private ServiceRatingStats extractStatsFromResultSet(ResultSet rs) throws SQLException {
+        long[] histogram = new long[5];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = rs.getLong(HISTOGRAM_COLUMNS[i]);
+        }
+        return new ServiceRatingStats(rs.getInt("serviceID"), rs.getLong("review_count"),
+                rs.getLong("rating_sum"), histogram);
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = JdbcBatch.checkBatchSize(batchSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    // Пакетні операції не сповіщають слухачів ReviewService (статистика в пам'яті, рейтинг,
+    // пошуковий індекс, JSON журнал) - для них є createReviews, updateReviews та deleteReviews у
+    // ReviewService. Агрегати service_stats оновлюються дельтами по послугах, як і в create.
+
+    // Створює всі відгуки в одній транзакції; згенеровані ID записуються у порядку колекції
+    public int createAll(Collection<Review> reviews) {
+        String sql = "INSERT INTO reviews (userID, serviceID, text, rating) VALUES (?, ?, ?, ?)";
+        if (reviews.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, long[]> deltas = new HashMap<>();
+        for (Review review : reviews) {
+            addStatsDelta(deltas, review.getServiceId(), review.getRating(), 1);
         }
+        try {
+            return JdbcTransaction.run(conn -> {
+                int created = JdbcBatch.execute(conn, sql, reviews, batchSize, (ps, review) -> {
+                    ps.setInt(1, review.getUserId());
+                    ps.setInt(2, review.getServiceId());
+                    ps.setString(3, review.getText());
+                    ps.setInt(4, review.getRating());
+                }, Review::setId);
+                applyStatsDeltas(conn, deltas);
+                return created;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пакетного створення відгуків: " + e.getMessage(), e);
+        }
+    }
+
+    public int updateAll(Collection<Review> reviews) {
+        return updateAllAndGetPrevious(reviews).size();
+    }
+
+    // Усі або жодна: якщо хоч один відгук змінено чи видалено, пакет відкочується.
+    // Повертає стан відгуків до оновлення у порядку колекції
+    public List<Review> updateAllAndGetPrevious(Collection<Review> reviews) {
+        String sql = "UPDATE reviews SET userID = ?, serviceID = ?, text = ?, rating = ?, version = version + 1 "
+                + "WHERE id = ? AND version = ?";
+        if (reviews.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            List<Review> previous = JdbcTransaction.run(conn -> {
+                List<Integer> ids = new ArrayList<>(reviews.size());
+                for (Review review : reviews) {
+                    ids.add(review.getId());
+                }
+                // Рядок з очікуваною версією - саме той, що замінюється, тож дельти агрегатів точні
+                Map<Integer, Review> current = readAll(conn, ids);
+                List<Review> old = new ArrayList<>(reviews.size());
+                Map<Integer, long[]> deltas = new HashMap<>();
+                for (Review review : reviews) {
+                    Review before = current.get(review.getId());
+                    if (before == null || before.getVersion() != review.getVersion()) {
+                        throw batchConflict();
+                    }
+                    addStatsDelta(deltas, before.getServiceId(), before.getRating(), -1);
+                    addStatsDelta(deltas, review.getServiceId(), review.getRating(), 1);
+                    old.add(before);
+                }
+                int updated = JdbcBatch.execute(conn, sql, reviews, batchSize, (ps, review) -> {
+                    ps.setInt(1, review.getUserId());
+                    ps.setInt(2, review.getServiceId());
+                    ps.setString(3, review.getText());
+                    ps.setInt(4, review.getRating());
+                    ps.setInt(5, review.getId());
+                    ps.setInt(6, review.getVersion());
+                }, null);
+                if (updated < reviews.size()) {
+                    throw batchConflict();
+                }
+                applyStatsDeltas(conn, deltas);
+                return old;
+            });
+            for (Review review : reviews) {
+                review.setVersion(review.getVersion() + 1);
+            }
+            return previous;
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пакетного оновлення відгуків: " + e.getMessage(), e);
+        }
+    }
+
+    public int deleteAll(Collection<Integer> ids) {
+        return deleteAllAndGetPrevious(ids).size();
+    }
+
+    // Видаляє наявні відгуки зі списку і повертає їх стан до видалення; відсутні ID пропускаються.
+    // Якщо відгук змінили між читанням і видаленням, пакет відкочується
+    public List<Review> deleteAllAndGetPrevious(Collection<Integer> ids) {
+        String sql = "DELETE FROM reviews WHERE id = ? AND version = ?";
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            return JdbcTransaction.run(conn -> {
+                Map<Integer, Review> current = readAll(conn, ids);
+                List<Review> old = new ArrayList<>(current.size());
+                Map<Integer, long[]> deltas = new HashMap<>();
+                for (Integer id : ids) {
+                    Review before = current.remove(id);
+                    if (before != null) {
+                        addStatsDelta(deltas, before.getServiceId(), before.getRating(), -1);
+                        old.add(before);
+                    }
+                }
+                int deleted = JdbcBatch.execute(conn, sql, old, batchSize, (ps, review) -> {
+                    ps.setInt(1, review.getId());
+                    ps.setInt(2, review.getVersion());
+                }, null);
+                if (deleted < old.size()) {
+                    throw batchConflict();
+                }
+                applyStatsDeltas(conn, deltas);
+                return old;
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка пакетного видалення відгуків: " + e.getMessage(), e);
+        }
+    }
+
+    private static OptimisticLockException batchConflict() {
+        return new OptimisticLockException("Частину відгуків вже змінено або видалено іншим користувачем.");
     }
 }
@@ -1,23 +1,35 @@
 package dao;
 
 import entity.Service;
+import entity.Watermark;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import util.DatabaseCfg;
 import util.DatabaseInit;
 import exception.EntityNotFoundException;
+import exception.OptimisticLockException;
 
 public class ServiceDAO {
 
   private static ServiceDAO instance;
 
+  private volatile int batchSize = JdbcBatch.DEFAULT_BATCH_SIZE;
+
+  // Read-through кеш для findById; інвалідується при оновленні та видаленні
+  private final EntityCache<Service> cache = new EntityCache<>(
+      Integer.getInteger("guestbook.cache.services.maxSize", 1_000),
+      Long.getLong("guestbook.cache.services.ttlMs", 300_000), Service::new);
+
   public ServiceDAO() {
-    DatabaseInit.InitS();
+    DatabaseInit.EnsureSchema();
   }
 
   public static synchronized ServiceDAO getInstance() {
@@ -32,7 +44,9 @@ public class ServiceDAO {
     Integer id = rs.getInt("id");
     String name = rs.getString("name");
     String description = rs.getString("description");
-    return new Service(id, name, description);
+    Service service = new Service(id, name, description);
+    service.setVersion(rs.getInt("version"));
+    return service;
   }
 
   // --- C.R.U.D. Операції ---
@@ -63,14 +77,22 @@ public class ServiceDAO {
   }
 
   public Service findById(int id) {
-    String sql = "SELECT id, name, description FROM services WHERE id = ?";
+    Service cached = cache.get(id);
+    if (cached != null) {
+      return cached;
+    }
+
+    String sql = "SELECT id, name, description, version FROM services WHERE id = ?";
+    long stamp = cache.stamp();
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
 
       ps.setInt(1, id);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
-          return extractServiceFromResultSet(rs);
+          Service service = extractServiceFromResultSet(rs);
+          cache.put(id, service, stamp);
+          return service;
         }
       }
       throw new EntityNotFoundException("Послугу з ID " + id + " не знайдено.");
@@ -80,13 +102,23 @@ public class ServiceDAO {
     }
   }
 
+  // Мапа ID → послуга для багатьох ID за один запит на кожні 1000 ID; відсутніх ID у мапі немає
+  public Map<Integer, Service> findByIds(Collection<Integer> ids) {
+    String sql = "SELECT id, name, description, version FROM services WHERE id = ANY(?)";
+    try {
+      return MultiGet.fetch(ids, cache, sql, this::extractServiceFromResultSet, Service::getId);
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка пошуку послуг за списком ID: " + e.getMessage(), e);
+    }
+  }
+
   public List<Service> findAll() {
     List<Service> services = new ArrayList<>();
-    String sqlQuery = "SELECT id, name, description FROM services";
+    String sqlQuery = "SELECT id, name, description, version FROM services";
 
     try (Connection conn = DatabaseCfg.getConnection();
-        Statement stmt = conn.createStatement();
-        ResultSet rs = stmt.executeQuery(sqlQuery)) {
+        PreparedStatement ps = conn.prepareStatement(sqlQuery);
+        ResultSet rs = ps.executeQuery()) {
 
       while (rs.next()) {
         services.add(extractServiceFromResultSet(rs));
@@ -99,31 +131,147 @@ public class ServiceDAO {
     return services;
   }
 
+  // Ледачий потік усіх послуг поверх відкритого курсора; закрийте його, якщо не дочитуєте до кінця
+  public Stream<Service> streamAll() {
+    return streamAll(JdbcStream.DEFAULT_FETCH_SIZE);
+  }
+
+  public Stream<Service> streamAll(int fetchSize) {
+    String sql = "SELECT id, name, description, version FROM services ORDER BY id";
+    return JdbcStream.query(sql, fetchSize, ps -> { }, this::extractServiceFromResultSet);
+  }
+
+  // Водяний знак таблиці послуг: читає лише пари (id, version)
+  public Watermark findWatermark() {
+    try {
+      return Watermarks.of("services");
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка обчислення водяного знака послуг: " + e.getMessage(), e);
+    }
+  }
+
+  // Compare-and-set за версією: false - послуги немає, OptimisticLockException - її змінили
+  // після того, як service було прочитано. Блокувань не бере
   public boolean update(Service service) {
-    String sql = "UPDATE services SET name = ?, description = ? WHERE id = ?";
+    String sql = "UPDATE services SET name = ?, description = ?, version = version + 1 "
+        + "WHERE id = ? AND version = ?";
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
 
       ps.setString(1, service.getName());
       ps.setString(2, service.getDescription());
       ps.setInt(3, service.getId());
+      ps.setInt(4, service.getVersion());
 
-      return ps.executeUpdate() > 0;
+      int updated = ps.executeUpdate();
+      cache.invalidate(service.getId());
+      if (updated == 0) {
+        if (exists(conn, service.getId())) {
+          throw new OptimisticLockException("Послугу з ID " + service.getId() + " вже змінено іншим користувачем.");
+        }
+        return false;
+      }
+      service.setVersion(service.getVersion() + 1);
+      return true;
 
     } catch (SQLException e) {
       throw new RuntimeException("Помилка оновлення послуги: " + e.getMessage(), e);
     }
   }
 
+  private boolean exists(Connection conn, int id) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM services WHERE id = ?")) {
+      ps.setInt(1, id);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+
   public boolean delete(int id) {
     String sql = "DELETE FROM services WHERE id = ?";
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
       ps.setInt(1, id);
-      return ps.executeUpdate() > 0;
+      boolean deleted = ps.executeUpdate() > 0;
+      cache.invalidate(id);
+      return deleted;
     } catch (SQLException e) {
       throw new RuntimeException("Помилка видалення послуги: " + e.getMessage(), e);
     }
   }
 
+  // --- Пакетні операції ---
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = JdbcBatch.checkBatchSize(batchSize);
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  // Створює всі послуги в одній транзакції; згенеровані ID записуються у порядку колекції
+  public int createAll(Collection<Service> services) {
+    String sql = "INSERT INTO services (name, description) VALUES (?, ?)";
+    try {
+      return JdbcBatch.execute(sql, services, batchSize, (ps, service) -> {
+        ps.setString(1, service.getName());
+        ps.setString(2, service.getDescription());
+      }, Service::setId);
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка пакетного створення послуг: " + e.getMessage(), e);
+    }
+  }
+
+  // Усі або жодна: якщо хоч одну послугу змінено чи видалено, пакет відкочується
+  public int updateAll(Collection<Service> services) {
+    String sql = "UPDATE services SET name = ?, description = ?, version = version + 1 "
+        + "WHERE id = ? AND version = ?";
+    if (services.isEmpty()) {
+      return 0;
+    }
+    try {
+      int updated = JdbcTransaction.run(conn -> {
+        int count = JdbcBatch.execute(conn, sql, services, batchSize, (ps, service) -> {
+          ps.setString(1, service.getName());
+          ps.setString(2, service.getDescription());
+          ps.setInt(3, service.getId());
+          ps.setInt(4, service.getVersion());
+        }, null);
+        if (count < services.size()) {
+          throw new OptimisticLockException("Частину послуг вже змінено або видалено іншим користувачем.");
+        }
+        return count;
+      });
+      for (Service service : services) {
+        service.setVersion(service.getVersion() + 1);
+      }
+      return updated;
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка пакетного оновлення послуг: " + e.getMessage(), e);
+    } finally {
+      for (Service service : services) {
+        cache.invalidate(service.getId());
+      }
+    }
+  }
+
+  public int deleteAll(Collection<Integer> ids) {
+    String sql = "DELETE FROM services WHERE id = ?";
+    try {
+      return JdbcBatch.execute(sql, ids, batchSize, (ps, id) -> ps.setInt(1, id), null);
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка пакетного видалення послуг: " + e.getMessage(), e);
+    } finally {
+      for (Integer id : ids) {
+        cache.invalidate(id);
+      }
+    }
+  }
+
+  public EntityCache.Stats getCacheStats() {
+    return cache.getStats();
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package dao;
+
+import entity.Session;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import util.DatabaseCfg;
+import util.DatabaseInit;
+
+/**
+ * Клас для доступу до збережених сесій користувачів.
+ */
+public class SessionDAO {
+
+  private static SessionDAO instance;
+
+  public SessionDAO() {
+    DatabaseInit.EnsureSchema();
+  }
+
+  public static synchronized SessionDAO getInstance() {
+    if (instance == null) {
+      instance = new SessionDAO();
+    }
+    return instance;
+  }
+
+  private Session extractSessionFromResultSet(ResultSet rs) throws SQLException {
+    return new Session(rs.getString("token_hash"), rs.getInt("userID"),
+        rs.getLong("created_at"), rs.getLong("expires_at"));
+  }
+
+  // Вставка або оновлення за хешем токена
+  public void save(Session session) {
+    String sql = "MERGE INTO sessions (token_hash, userID, created_at, expires_at) KEY (token_hash) "
+        + "VALUES (?, ?, ?, ?)";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setString(1, session.getTokenHash());
+      ps.setInt(2, session.getUserId());
+      ps.setLong(3, session.getCreatedAt());
+      ps.setLong(4, session.getExpiresAt());
+      ps.executeUpdate();
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка збереження сесії: " + e.getMessage(), e);
+    }
+  }
+
+  // Зсув часу завершення; false, якщо сесії вже немає
+  public boolean updateExpiresAt(String tokenHash, long expiresAt) {
+    String sql = "UPDATE sessions SET expires_at = ? WHERE token_hash = ?";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setLong(1, expiresAt);
+      ps.setString(2, tokenHash);
+      return ps.executeUpdate() > 0;
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка оновлення сесії: " + e.getMessage(), e);
+    }
+  }
+
+  public boolean delete(String tokenHash) {
+    String sql = "DELETE FROM sessions WHERE token_hash = ?";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setString(1, tokenHash);
+      return ps.executeUpdate() > 0;
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка видалення сесії: " + e.getMessage(), e);
+    }
+  }
+
+  // Видалення всіх сесій користувача, наприклад після зміни пароля
+  public int deleteByUserId(int userId) {
+    String sql = "DELETE FROM sessions WHERE userID = ?";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setInt(1, userId);
+      return ps.executeUpdate();
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка видалення сесій користувача: " + e.getMessage(), e);
+    }
+  }
+
+  // Видалення всіх сесій, що завершились до вказаного часу (за індексом idx_sessions_expires_at)
+  public int deleteExpired(long now) {
+    String sql = "DELETE FROM sessions WHERE expires_at <= ?";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setLong(1, now);
+      return ps.executeUpdate();
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка видалення завершених сесій: " + e.getMessage(), e);
+    }
+  }
+
+  public List<Session> findActive(long now) {
+    List<Session> sessions = new ArrayList<>();
+    String sql = "SELECT token_hash, userID, created_at, expires_at FROM sessions WHERE expires_at > ?";
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+
+      ps.setLong(1, now);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          sessions.add(extractSessionFromResultSet(rs));
+        }
+      }
+
+    } catch (SQLException e) {
+      throw new RuntimeException("Помилка читання сесій: " + e.getMessage(), e);
+    }
+    return sessions;
+  }
+}
@@ -2,13 +2,17 @@ package dao;
 
 import entity.User;
 import exception.EntityNotFoundException;
+import exception.OptimisticLockException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import util.DatabaseCfg;
 import util.DatabaseInit;
 
@@ -19,12 +23,17 @@ public class UserDAO {
 
   private static UserDAO instance;
 
+  private volatile int batchSize = JdbcBatch.DEFAULT_BATCH_SIZE;
+
+  private final EntityCache<User> cache = new EntityCache<>(
+      Integer.getInteger("guestbook.cache.users.maxSize", 1_000),
+      Long.getLong("guestbook.cache.users.ttlMs", 300_000), User::new);
+
   /**
-   * Конструктор. Ініціалізує базу даних.
+   * Конструктор. Переконується, що схема бази даних актуальна (міграції виконуються раз на процес).
    */
   public UserDAO() {
-    // Припускаємо, що цей метод створює таблицю, якщо вона не існує
-    DatabaseInit.Init();
+    DatabaseInit.EnsureSchema();
   }
 
   public static synchronized UserDAO getInstance() {
@@ -36,11 +45,14 @@ public class UserDAO {
 
   // Helper метод для конвертації ResultSet у об'єкт User
   private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-    Integer id = rs.getInt("id");
-    String name = rs.getString("name");
-    String email = rs.getString("email");
-    String hashedPassword = rs.getString("hashedPassword");
-    return new User(id, name, email, hashedPassword);
+    // Через сетери: конструктор з паролем хешував би вже збережений хеш
+    User user = new User();
+    user.setId(rs.getInt("id"));
+    user.setName(rs.getString("name"));
+    user.setEmail(rs.getString("email"));
+    user.setHashedPassword(rs.getString("hashedPassword"));
+    user.setVersion(rs.getInt("version"));
+    return user;
   }
 
   /**
@@ -82,14 +94,22 @@ public class UserDAO {
    * @return користувач з вказаним ідентифікатором або null, якщо не знайдено
    */
   public User findById(int id) {
-    String sql = "SELECT id, name, email, hashedPassword FROM users WHERE id = ?";
+    User cached = cache.get(id);
+    if (cached != null) {
+      return cached;
+    }
+
+    String sql = "SELECT id, name, email, hashedPassword, version FROM users WHERE id = ?";
+    long stamp = cache.stamp();
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
 
       ps.setInt(1, id);
       try (ResultSet rs = ps.executeQuery()) {
         if (rs.next()) {
-          return extractUserFromResultSet(rs);
+          User user = extractUserFromResultSet(rs);
+          cache.put(id, user, stamp);
+          return user;
         }
       }
       throw new EntityNotFoundException("Користувача з ID " + id + " не знайдено.");
@@ -99,6 +119,22 @@ public class UserDAO {
     }
   }
 
+  /**
+   * Знаходить користувачів за списком ідентифікаторів одним запитом на кожні 1000 ID
+   * (з урахуванням кешу).
+   *
+   * @param ids ідентифікатори користувачів; дублікати ігноруються
+   * @return мапа ID → користувач; ID, яких немає в базі, у мапі відсутні
+   */
+  public Map<Integer, User> findByIds(Collection<Integer> ids) {
+    String sql = "SELECT id, name, email, hashedPassword, version FROM users WHERE id = ANY(?)";
+    try {
+      return MultiGet.fetch(ids, cache, sql, this::extractUserFromResultSet, User::getId);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Знаходить користувача за email адресою.
    *
@@ -106,7 +142,8 @@ public class UserDAO {
    * @return користувач з вказаним email або null, якщо не знайдено
    */
   public User findByEmail(String email) {
-    String sql = "SELECT id, name, email, hashedPassword FROM users WHERE email = ?";
+    // Пошук по обчислюваному email_lower використовує унікальний регістронезалежний індекс
+    String sql = "SELECT id, name, email, hashedPassword, version FROM users WHERE email_lower = LOWER(?)";
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -125,14 +162,14 @@ public class UserDAO {
 
   /**
    * Отримує всіх користувачів з бази даних.
-   * (Цей метод був майже правильний, але використовує Statement, що нормально для запиту без параметрів)
+   * (Використовує PreparedStatement, щоб запит потрапляв у кеш з'єднання)
    */
   public List<User> findAll() {
     List<User> users = new ArrayList<>();
-    String sqlQuery = "SELECT id, name, email, hashedPassword FROM users";
+    String sqlQuery = "SELECT id, name, email, hashedPassword, version FROM users";
     try (Connection conn = DatabaseCfg.getConnection();
-        Statement stmt = conn.createStatement();
-        ResultSet rs = stmt.executeQuery(sqlQuery)) {
+        PreparedStatement ps = conn.prepareStatement(sqlQuery);
+        ResultSet rs = ps.executeQuery()) {
 
       while (rs.next()) {
         users.add(extractUserFromResultSet(rs));
@@ -146,13 +183,38 @@ public class UserDAO {
   }
 
   /**
-   * Оновлює дані користувача у базі даних.
+   * Повертає всіх користувачів ледачим потоком поверх відкритого курсора.
+   * Потік треба закрити, якщо його не дочитано до кінця.
+   *
+   * @return потік користувачів
+   */
+  public Stream<User> streamAll() {
+    return streamAll(JdbcStream.DEFAULT_FETCH_SIZE);
+  }
+
+  /**
+   * Повертає всіх користувачів ледачим потоком поверх відкритого курсора.
+   * Потік треба закрити, якщо його не дочитано до кінця.
+   *
+   * @param fetchSize скільки рядків підвантажувати за раз
+   * @return потік користувачів
+   */
+  public Stream<User> streamAll(int fetchSize) {
+    String sql = "SELECT id, name, email, hashedPassword, version FROM users ORDER BY id";
+    return JdbcStream.query(sql, fetchSize, ps -> { }, this::extractUserFromResultSet);
+  }
+
+  /**
+   * Оновлює дані користувача у базі даних, якщо його не змінили після прочитання
+   * (порівняння версії без блокувань). При успіху версія користувача збільшується.
    *
-   * @param user користувач з оновленими даними
-   * @return true, якщо користувач успішно оновлений, false - інакше
+   * @param user користувач з оновленими даними та прочитаною версією
+   * @return true, якщо користувач успішно оновлений, false - якщо його не існує
+   * @throws OptimisticLockException якщо користувача вже змінено іншим записом
    */
   public boolean update(User user) {
-    String sql = "UPDATE users SET name = ?, email = ?, hashedPassword = ? WHERE id = ?";
+    String sql = "UPDATE users SET name = ?, email = ?, hashedPassword = ?, version = version + 1 "
+        + "WHERE id = ? AND version = ?";
     try (Connection conn = DatabaseCfg.getConnection();
         PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -160,14 +222,33 @@ public class UserDAO {
       ps.setString(2, user.getEmail());
       ps.setString(3, user.getHashedPassword());
       ps.setInt(4, user.getId());
+      ps.setInt(5, user.getVersion());
 
-      return ps.executeUpdate() > 0;
+      int updated = ps.executeUpdate();
+      cache.invalidate(user.getId());
+      if (updated == 0) {
+        if (exists(conn, user.getId())) {
+          throw new OptimisticLockException("Користувача з ID " + user.getId() + " вже змінено.");
+        }
+        return false;
+      }
+      user.setVersion(user.getVersion() + 1);
+      return true;
 
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
   }
 
+  private boolean exists(Connection conn, int id) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM users WHERE id = ?")) {
+      ps.setInt(1, id);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+
   /**
    * Видаляє користувача за ідентифікатором.
    *
@@ -181,11 +262,118 @@ public class UserDAO {
 
       ps.setInt(1, id);
 
-      return ps.executeUpdate() > 0;
+      boolean deleted = ps.executeUpdate() > 0;
+      cache.invalidate(id);
+      return deleted;
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Встановлює розмір пакета для пакетних операцій.
+   *
+   * @param batchSize кількість рядків в одному пакеті JDBC
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = JdbcBatch.checkBatchSize(batchSize);
+  }
 
-}
\ No newline at end of file
+  /**
+   * Повертає розмір пакета для пакетних операцій.
+   *
+   * @return кількість рядків в одному пакеті JDBC
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Створює всіх користувачів в одній транзакції пакетами JDBC.
+   * Згенеровані ідентифікатори записуються у користувачів у порядку колекції.
+   *
+   * @param users користувачі для створення
+   * @return кількість створених рядків
+   */
+  public int createAll(Collection<User> users) {
+    String sql = "INSERT INTO users (name, email, hashedPassword) VALUES (?, ?, ?)";
+    try {
+      return JdbcBatch.execute(sql, users, batchSize, (ps, user) -> {
+        ps.setString(1, user.getName());
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getHashedPassword());
+      }, User::setId);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Оновлює всіх користувачів в одній транзакції пакетами JDBC з перевіркою версій.
+   * Якщо хоч одного користувача змінено чи видалено, не оновлюється жоден.
+   *
+   * @param users користувачі з оновленими даними та прочитаними версіями
+   * @return кількість оновлених рядків
+   * @throws OptimisticLockException якщо когось із користувачів вже змінено або видалено
+   */
+  public int updateAll(Collection<User> users) {
+    String sql = "UPDATE users SET name = ?, email = ?, hashedPassword = ?, version = version + 1 "
+        + "WHERE id = ? AND version = ?";
+    if (users.isEmpty()) {
+      return 0;
+    }
+    try {
+      int updated = JdbcTransaction.run(conn -> {
+        int count = JdbcBatch.execute(conn, sql, users, batchSize, (ps, user) -> {
+          ps.setString(1, user.getName());
+          ps.setString(2, user.getEmail());
+          ps.setString(3, user.getHashedPassword());
+          ps.setInt(4, user.getId());
+          ps.setInt(5, user.getVersion());
+        }, null);
+        if (count < users.size()) {
+          throw new OptimisticLockException("Частину користувачів вже змінено або видалено.");
+        }
+        return count;
+      });
+      for (User user : users) {
+        user.setVersion(user.getVersion() + 1);
+      }
+      return updated;
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    } finally {
+      for (User user : users) {
+        cache.invalidate(user.getId());
+      }
+    }
+  }
+
+  /**
+   * Видаляє користувачів за ідентифікаторами в одній транзакції пакетами JDBC.
+   *
+   * @param ids ідентифікатори користувачів для видалення
+   * @return кількість видалених рядків
+   */
+  public int deleteAll(Collection<Integer> ids) {
+    String sql = "DELETE FROM users WHERE id = ?";
+    try {
+      return JdbcBatch.execute(sql, ids, batchSize, (ps, id) -> ps.setInt(1, id), null);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    } finally {
+      for (Integer id : ids) {
+        cache.invalidate(id);
+      }
+    }
+  }
+
+  /**
+   * Повертає статистику кешу користувачів за ID.
+   *
+   * @return статистика кешу
+   */
+  public EntityCache.Stats getCacheStats() {
+    return cache.getStats();
+  }
+}
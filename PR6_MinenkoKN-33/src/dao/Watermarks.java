@@ -0,0 +1,44 @@
+package dao;
+
+import entity.Watermark;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import util.DatabaseCfg;
+
+/**
+ * Обчислення {@link Watermark водяного знака} таблиці з колонками id та version.
+ */
+final class Watermarks {
+
+  private Watermarks() {
+  }
+
+  /**
+   * Читає потоком лише пари (id, version), без решти колонок.
+   *
+   * @param table назва таблиці; лише константа з коду DAO, не введення користувача
+   * @return кількість рядків, найбільший ID та контрольна сума пар (id, version)
+   * @throws SQLException якщо запит не вдався
+   */
+  static Watermark of(String table) throws SQLException {
+    String sql = "SELECT id, version FROM " + table;
+    long count = 0;
+    int maxId = 0;
+    long checksum = 0;
+    try (Connection conn = DatabaseCfg.getConnection();
+        PreparedStatement ps = conn.prepareStatement(sql)) {
+      ps.setFetchSize(JdbcStream.DEFAULT_FETCH_SIZE);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          int id = rs.getInt(1);
+          count++;
+          maxId = Math.max(maxId, id);
+          checksum += Watermark.hash(id, rs.getInt(2));
+        }
+      }
+    }
+    return new Watermark(count, maxId, checksum);
+  }
+}
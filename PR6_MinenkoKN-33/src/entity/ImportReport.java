@@ -0,0 +1,132 @@
+package entity;
+
+/**
+ * Підсумок масового імпорту даних з JSON файлів.
+ */
+public class ImportReport {
+    /**
+     * Кількість імпортованих та пропущених користувачів.
+     */
+    private final long usersImported;
+    private final long usersSkipped;
+    
+    /**
+     * Кількість імпортованих та пропущених послуг.
+     */
+    private final long servicesImported;
+    private final long servicesSkipped;
+    
+    /**
+     * Кількість імпортованих та пропущених відгуків.
+     */
+    private final long reviewsImported;
+    private final long reviewsSkipped;
+    
+    /**
+     * Тривалість імпорту в мілісекундах.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param usersImported імпортовано користувачів
+     * @param usersSkipped пропущено користувачів
+     * @param servicesImported імпортовано послуг
+     * @param servicesSkipped пропущено послуг
+     * @param reviewsImported імпортовано відгуків
+     * @param reviewsSkipped пропущено відгуків
+     * @param elapsedMillis тривалість імпорту в мілісекундах
+     */
+    public ImportReport(long usersImported, long usersSkipped, long servicesImported, long servicesSkipped,
+            long reviewsImported, long reviewsSkipped, long elapsedMillis) {
+        this.usersImported = usersImported;
+        this.usersSkipped = usersSkipped;
+        this.servicesImported = servicesImported;
+        this.servicesSkipped = servicesSkipped;
+        this.reviewsImported = reviewsImported;
+        this.reviewsSkipped = reviewsSkipped;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Отримує кількість імпортованих користувачів.
+     * 
+     * @return кількість імпортованих користувачів
+     */
+    public long getUsersImported() {
+        return usersImported;
+    }
+
+    /**
+     * Отримує кількість пропущених користувачів: некоректних або з уже наявним email.
+     * 
+     * @return кількість пропущених користувачів
+     */
+    public long getUsersSkipped() {
+        return usersSkipped;
+    }
+
+    /**
+     * Отримує кількість імпортованих послуг.
+     * 
+     * @return кількість імпортованих послуг
+     */
+    public long getServicesImported() {
+        return servicesImported;
+    }
+
+    /**
+     * Отримує кількість пропущених некоректних послуг.
+     * 
+     * @return кількість пропущених послуг
+     */
+    public long getServicesSkipped() {
+        return servicesSkipped;
+    }
+
+    /**
+     * Отримує кількість імпортованих відгуків.
+     * 
+     * @return кількість імпортованих відгуків
+     */
+    public long getReviewsImported() {
+        return reviewsImported;
+    }
+
+    /**
+     * Отримує кількість пропущених відгуків: некоректних або з неіснуючими посиланнями.
+     * 
+     * @return кількість пропущених відгуків
+     */
+    public long getReviewsSkipped() {
+        return reviewsSkipped;
+    }
+
+    /**
+     * Отримує тривалість імпорту.
+     * 
+     * @return тривалість у мілісекундах
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Обчислює загальну швидкість імпорту.
+     * 
+     * @return імпортованих рядків за секунду
+     */
+    public double getRowsPerSecond() {
+        long rows = usersImported + servicesImported + reviewsImported;
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{users=" + usersImported + "/" + usersSkipped
+                + ", services=" + servicesImported + "/" + servicesSkipped
+                + ", reviews=" + reviewsImported + "/" + reviewsSkipped
+                + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+}
@@ -33,6 +33,11 @@ public class Review {
      * Дата та час створення відгуку.
      */
     private String createdAt;
+    
+    /**
+     * Версія запису для оптимістичного блокування; зростає з кожним оновленням.
+     */
+    private int version;
 
     /**
      * Конструктор за замовчуванням.
@@ -168,6 +173,24 @@ public class Review {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Отримує версію запису, прочитану з бази.
+     * 
+     * @return версія запису
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Встановлює версію запису, з якою порівнюватиметься оновлення.
+     * 
+     * @param version версія запису
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Review{id=" + id + ", userId=" + userId + ", serviceId=" + serviceId + 
@@ -0,0 +1,68 @@
+package entity;
+
+/**
+ * Відгук для стрічки разом з іменем автора та назвою послуги.
+ * Будується одним запитом з JOIN, без окремих звернень за користувачем і послугою.
+ */
+public class ReviewFeedItem {
+    /**
+     * Сам відгук.
+     */
+    private final Review review;
+    
+    /**
+     * Ім'я автора відгуку або null, якщо користувача не знайдено.
+     */
+    private final String userName;
+    
+    /**
+     * Назва послуги або null, якщо послугу не знайдено.
+     */
+    private final String serviceName;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param review відгук
+     * @param userName ім'я автора відгуку
+     * @param serviceName назва послуги
+     */
+    public ReviewFeedItem(Review review, String userName, String serviceName) {
+        this.review = review;
+        this.userName = userName;
+        this.serviceName = serviceName;
+    }
+
+    /**
+     * Отримує відгук.
+     * 
+     * @return відгук
+     */
+    public Review getReview() {
+        return review;
+    }
+
+    /**
+     * Отримує ім'я автора відгуку.
+     * 
+     * @return ім'я автора або null, якщо користувача не знайдено
+     */
+    public String getUserName() {
+        return userName;
+    }
+
+    /**
+     * Отримує назву послуги.
+     * 
+     * @return назва послуги або null, якщо послугу не знайдено
+     */
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewFeedItem{review=" + review + ", userName='" + userName + 
+               "', serviceName='" + serviceName + "'}";
+    }
+}
@@ -0,0 +1,50 @@
+package entity;
+
+/**
+ * Результат повнотекстового пошуку: відгук та його релевантність запиту.
+ */
+public class ReviewSearchHit {
+    /**
+     * Знайдений відгук.
+     */
+    private final Review review;
+    
+    /**
+     * Оцінка релевантності BM25; більша - релевантніша.
+     */
+    private final double score;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param review знайдений відгук
+     * @param score оцінка релевантності
+     */
+    public ReviewSearchHit(Review review, double score) {
+        this.review = review;
+        this.score = score;
+    }
+
+    /**
+     * Отримує знайдений відгук.
+     * 
+     * @return відгук
+     */
+    public Review getReview() {
+        return review;
+    }
+
+    /**
+     * Отримує оцінку релевантності.
+     * 
+     * @return оцінка релевантності
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewSearchHit{review=" + review + ", score=" + score + "}";
+    }
+}
@@ -15,6 +15,11 @@ public class Service {
      * Опис послуги.
      */
     private String description;
+    
+    /**
+     * Версія запису для оптимістичного блокування; зростає з кожним оновленням.
+     */
+    private int version;
 
     /**
      * Конструктор за замовчуванням.
@@ -37,6 +42,19 @@ public class Service {
         this.description = description;
     }
 
+    /**
+     * Конструктор копіювання.
+     * Створює незалежну копію послуги разом з версією запису.
+     * 
+     * @param other послуга, що копіюється
+     */
+    public Service(Service other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.version = other.version;
+    }
+
     /**
      * Отримує ідентифікатор послуги.
      * 
@@ -91,6 +109,24 @@ public class Service {
         this.description = description;
     }
 
+    /**
+     * Отримує версію запису, прочитану з бази.
+     * 
+     * @return версія запису
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Встановлює версію запису, з якою порівнюватиметься оновлення.
+     * 
+     * @param version версія запису
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Service{id=" + id + ", name='" + name + "', description='" + description + "'}";
@@ -0,0 +1,83 @@
+package entity;
+
+/**
+ * Позиція послуги в рейтингу.
+ */
+public class ServiceRank {
+    /**
+     * Ідентифікатор послуги.
+     */
+    private final int serviceId;
+    
+    /**
+     * Кількість відгуків.
+     */
+    private final long reviewCount;
+    
+    /**
+     * Середня оцінка за відгуками.
+     */
+    private final double average;
+    
+    /**
+     * Байєсівська зважена оцінка, за якою впорядковано рейтинг.
+     */
+    private final double score;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param reviewCount кількість відгуків
+     * @param average середня оцінка
+     * @param score байєсівська зважена оцінка
+     */
+    public ServiceRank(int serviceId, long reviewCount, double average, double score) {
+        this.serviceId = serviceId;
+        this.reviewCount = reviewCount;
+        this.average = average;
+        this.score = score;
+    }
+
+    /**
+     * Отримує ідентифікатор послуги.
+     * 
+     * @return ідентифікатор послуги
+     */
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * Отримує кількість відгуків.
+     * 
+     * @return кількість відгуків
+     */
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * Отримує середню оцінку.
+     * 
+     * @return середня оцінка або 0, якщо відгуків немає
+     */
+    public double getAverage() {
+        return average;
+    }
+
+    /**
+     * Отримує байєсівську зважену оцінку.
+     * 
+     * @return зважена оцінка
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceRank{serviceId=" + serviceId + ", reviewCount=" + reviewCount + 
+               ", average=" + average + ", score=" + score + "}";
+    }
+}
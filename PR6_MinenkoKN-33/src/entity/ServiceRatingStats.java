@@ -0,0 +1,143 @@
+package entity;
+
+/**
+ * Агрегована статистика оцінок послуги: кількість відгуків, сума оцінок
+ * та кількість відгуків з кожною оцінкою від 1 до 5.
+ */
+public class ServiceRatingStats {
+    /**
+     * Ідентифікатор послуги.
+     */
+    private final int serviceId;
+    
+    /**
+     * Кількість відгуків.
+     */
+    private final long count;
+    
+    /**
+     * Сума всіх оцінок.
+     */
+    private final long sum;
+    
+    /**
+     * Кількість відгуків з оцінкою 1..5 (індекс 0 відповідає оцінці 1).
+     */
+    private final long[] histogram;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param count кількість відгуків
+     * @param sum сума всіх оцінок
+     * @param histogram кількість відгуків з оцінкою 1..5
+     */
+    public ServiceRatingStats(int serviceId, long count, long sum, long[] histogram) {
+        if (histogram.length != 5) {
+            throw new IllegalArgumentException("Гістограма повинна містити 5 значень");
+        }
+        this.serviceId = serviceId;
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram.clone();
+    }
+
+    /**
+     * Створює порожню статистику для послуги без відгуків.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @return статистика з нульовими значеннями
+     */
+    public static ServiceRatingStats empty(int serviceId) {
+        return new ServiceRatingStats(serviceId, 0, 0, new long[5]);
+    }
+
+    /**
+     * Отримує ідентифікатор послуги.
+     * 
+     * @return ідентифікатор послуги
+     */
+    public int getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * Отримує кількість відгуків.
+     * 
+     * @return кількість відгуків
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Отримує суму всіх оцінок.
+     * 
+     * @return сума оцінок
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Отримує кількість відгуків з вказаною оцінкою.
+     * 
+     * @param rating оцінка від 1 до 5
+     * @return кількість відгуків з цією оцінкою
+     */
+    public long getCount(int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
+        }
+        return histogram[rating - 1];
+    }
+
+    /**
+     * Отримує розподіл оцінок.
+     * 
+     * @return копія масиву, де індекс 0 відповідає оцінці 1
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Обчислює середню оцінку.
+     * 
+     * @return середня оцінка або 0, якщо відгуків немає
+     */
+    public double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Обчислює перцентиль оцінок за розподілом.
+     * 
+     * @param percentile перцентиль від 0 до 100
+     * @return найменша оцінка, не нижча за вказану частку відгуків, або 0, якщо відгуків немає
+     */
+    public int getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль повинен бути від 0 до 100");
+        }
+        if (count <= 0) {
+            return 0;
+        }
+        double rank = Math.max(1.0, Math.ceil(percentile / 100.0 * count));
+        long cumulative = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            cumulative += histogram[i];
+            if (cumulative >= rank) {
+                return i + 1;
+            }
+        }
+        return 5;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceRatingStats{serviceId=" + serviceId + ", count=" + count + 
+               ", average=" + getAverage() + "}";
+    }
+}
@@ -0,0 +1,92 @@
+package entity;
+
+/**
+ * Сесія авторизованого користувача.
+ * Замість самого токена зберігається його хеш.
+ */
+public class Session {
+    /**
+     * SHA-256 токена сесії у шістнадцятковому вигляді.
+     */
+    private final String tokenHash;
+    
+    /**
+     * Ідентифікатор користувача сесії.
+     */
+    private final int userId;
+    
+    /**
+     * Час створення сесії (мс від епохи).
+     */
+    private final long createdAt;
+    
+    /**
+     * Час завершення сесії (мс від епохи); зсувається при кожному зверненні.
+     */
+    private volatile long expiresAt;
+
+    /**
+     * Конструктор з параметрами.
+     * 
+     * @param tokenHash хеш токена
+     * @param userId ідентифікатор користувача
+     * @param createdAt час створення
+     * @param expiresAt час завершення
+     */
+    public Session(String tokenHash, int userId, long createdAt, long expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Отримує хеш токена.
+     * 
+     * @return хеш токена
+     */
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    /**
+     * Отримує ідентифікатор користувача.
+     * 
+     * @return ідентифікатор користувача
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * Отримує час створення сесії.
+     * 
+     * @return час створення (мс від епохи)
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Отримує час завершення сесії.
+     * 
+     * @return час завершення (мс від епохи)
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Встановлює час завершення сесії.
+     * 
+     * @param expiresAt час завершення (мс від епохи)
+     */
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Session{userId=" + userId + ", expiresAt=" + expiresAt + "}";
+    }
+}
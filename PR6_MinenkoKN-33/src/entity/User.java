@@ -1,7 +1,6 @@
 package entity;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import util.PasswordHashing;
 
 /**
  * Клас користувача системи "Гостьова книга басейну".
@@ -33,6 +32,11 @@ public class User {
      * Захешований пароль користувача.
      */
     private String hashedPassword;
+    
+    /**
+     * Версія запису для оптимістичного блокування; зростає з кожним оновленням.
+     */
+    private int version;
 
     /**
      * Конструктор за замовчуванням.
@@ -58,34 +62,47 @@ public class User {
     }
 
     /**
-     * Хешує пароль за допомогою алгоритму SHA-256.
+     * Конструктор копіювання.
+     * Створює незалежну копію користувача разом з хешем пароля та версією запису.
+     * 
+     * @param other користувач, що копіюється
+     */
+    public User(User other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.hashedPassword = other.hashedPassword;
+        this.version = other.version;
+    }
+
+    /**
+     * Хешує пароль поточним алгоритмом {@link PasswordHashing} з випадковою сіллю.
      * 
      * @param password пароль для хешування
      * @return захешований пароль у вигляді рядка
      */
     private String hashPassword(String password) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = md.digest(password.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("Помилка хешування пароля", e);
-        }
+        return PasswordHashing.getInstance().hash(password);
     }
 
     /**
      * Перевіряє, чи відповідає введений пароль збереженому хешу.
+     * Підтримуються і хеші попередніх алгоритмів.
      * 
      * @param password пароль для перевірки
      * @return true, якщо пароль правильний, false - інакше
      */
     public boolean checkPassword(String password) {
-        String hashed = hashPassword(password);
-        return hashed.equals(this.hashedPassword);
+        return PasswordHashing.getInstance().verify(password, this.hashedPassword);
+    }
+
+    /**
+     * Перевіряє, чи збережений хеш створено застарілим алгоритмом або параметрами.
+     * 
+     * @return true, якщо пароль варто перехешувати при наступному вході
+     */
+    public boolean passwordNeedsRehash() {
+        return PasswordHashing.getInstance().needsRehash(this.hashedPassword);
     }
 
     /**
@@ -169,6 +186,24 @@ public class User {
         this.hashedPassword = hashPassword(password);
     }
 
+    /**
+     * Отримує версію запису, прочитану з бази.
+     * 
+     * @return версія запису
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Встановлює версію запису, з якою порівнюватиметься оновлення.
+     * 
+     * @param version версія запису
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "User{id=" + id + ", name='" + name + "', email='" + email + "'}";
@@ -0,0 +1,106 @@
+package entity;
+
+import java.util.Objects;
+
+/**
+ * Водяний знак набору сутностей з версіями (відгуків, послуг): кількість,
+ * найбільший ID та контрольна сума пар (ID, версія).
+ *
+ * <p>Контрольна сума - це сума {@link #hash(int, int)} усіх сутностей, тож її можна
+ * підтримувати інкрементально: додавання сутності додає її хеш, видалення
+ * віднімає. Будь-яке створення, зміна (версія зростає) чи видалення сутності
+ * змінює водяний знак.
+ */
+public class Watermark {
+    /**
+     * Кількість сутностей.
+     */
+    private final long count;
+
+    /**
+     * Найбільший ID або 0, якщо набір порожній.
+     */
+    private final int maxId;
+
+    /**
+     * Сума хешів пар (ID, версія).
+     */
+    private final long checksum;
+
+    /**
+     * Конструктор з параметрами.
+     *
+     * @param count кількість сутностей
+     * @param maxId найбільший ID
+     * @param checksum сума хешів пар (ID, версія)
+     */
+    public Watermark(long count, int maxId, long checksum) {
+        this.count = count;
+        this.maxId = maxId;
+        this.checksum = checksum;
+    }
+
+    /**
+     * Хеш сутності для контрольної суми (перемішування SplitMix64).
+     *
+     * @param id ідентифікатор сутності
+     * @param version версія сутності
+     * @return хеш пари (ID, версія)
+     */
+    public static long hash(int id, int version) {
+        long z = ((long) id << 32 | (version & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Отримує кількість сутностей.
+     *
+     * @return кількість сутностей
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Отримує найбільший ID.
+     *
+     * @return найбільший ID або 0, якщо набір порожній
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * Отримує контрольну суму.
+     *
+     * @return сума хешів пар (ID, версія)
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Watermark)) {
+            return false;
+        }
+        Watermark other = (Watermark) o;
+        return count == other.count && maxId == other.maxId && checksum == other.checksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, maxId, checksum);
+    }
+
+    @Override
+    public String toString() {
+        return "Watermark{count=" + count + ", maxId=" + maxId +
+               ", checksum=" + Long.toHexString(checksum) + "}";
+    }
+}
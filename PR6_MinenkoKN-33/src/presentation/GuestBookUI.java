@@ -3,16 +3,40 @@ package presentation;
 import entity.User;
 import entity.Service;
 import entity.Review;
+import entity.ReviewFeedItem;
+import entity.ReviewSearchHit;
+import entity.ServiceRank;
+import dao.Page;
 import service.UserService;
 import service.ServiceService;
 import service.ReviewService;
+import service.SessionService;
+import exception.OptimisticLockException;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 
 public class GuestBookUI {
+    /**
+     * Кількість відгуків на одній сторінці.
+     */
+    private static final int REVIEWS_PAGE_SIZE = 10;
+
+    /**
+     * Кількість послуг у рейтингу.
+     */
+    private static final int LEADERBOARD_SIZE = 5;
+
+    /**
+     * Максимальна кількість результатів пошуку.
+     */
+    private static final int SEARCH_LIMIT = 10;
+
     /**
      * Сканер для читання введення користувача.
      */
@@ -34,9 +58,14 @@ public class GuestBookUI {
     private ReviewService reviewService;
     
     /**
-     * Поточний авторизований користувач.
+     * Сервіс сесій авторизованих користувачів.
+     */
+    private SessionService sessionService;
+    
+    /**
+     * Токен сесії поточного користувача або null, якщо вхід не виконано.
      */
-    private User currentUser;
+    private String sessionToken;
 
     /**
      * Конструктор.
@@ -47,6 +76,7 @@ public class GuestBookUI {
         this.userService = new UserService();
         this.serviceService = new ServiceService();
         this.reviewService = new ReviewService();
+        this.sessionService = SessionService.getInstance();
     }
 
     /**
@@ -56,10 +86,11 @@ public class GuestBookUI {
         printWelcomeMessage();
         
         while (true) {
+            User currentUser = currentUser();
             if (currentUser == null) {
                 showMainMenu();
             } else {
-                showUserMenu();
+                showUserMenu(currentUser);
             }
         }
     }
@@ -83,6 +114,8 @@ public class GuestBookUI {
         System.out.println("2. Вхід");
         System.out.println("3. Переглянути послуги");
         System.out.println("4. Переглянути відгуки");
+        System.out.println("5. Рейтинг послуг");
+        System.out.println("6. Пошук відгуків");
         System.out.println("0. Вихід");
         System.out.print("Виберіть опцію: ");
         
@@ -101,6 +134,12 @@ public class GuestBookUI {
             case 4:
                 showAllReviews();
                 break;
+            case 5:
+                showLeaderboard();
+                break;
+            case 6:
+                searchReviews();
+                break;
             case 0:
                 System.out.println("До побачення!");
                 System.exit(0);
@@ -110,16 +149,39 @@ public class GuestBookUI {
         }
     }
 
+    /**
+     * Отримує користувача поточної сесії, продовжуючи її.
+     * 
+     * @return користувач або null, якщо вхід не виконано чи сесія завершилась
+     */
+    private User currentUser() {
+        if (sessionToken == null) {
+            return null;
+        }
+        User user = sessionService.authenticate(sessionToken);
+        if (user == null) {
+            sessionToken = null;
+            System.out.println("Сесія завершилась. Увійдіть знову.");
+        }
+        return user;
+    }
+
     /**
      * Показує меню для авторизованих користувачів.
+     * 
+     * @param currentUser авторизований користувач
      */
-    private void showUserMenu() {
+    private void showUserMenu(User currentUser) {
         System.out.println("\n--- Меню користувача (" + currentUser.getName() + ") ---");
         System.out.println("1. Переглянути послуги");
         System.out.println("2. Залишити відгук");
         System.out.println("3. Переглянути відгуки");
         System.out.println("4. Мої відгуки");
         System.out.println("5. Вихід з акаунту");
+        System.out.println("6. Рейтинг послуг");
+        System.out.println("7. Пошук відгуків");
+        System.out.println("8. Змінити пароль");
+        System.out.println("9. Видалити акаунт");
         System.out.println("0. Вихід з програми");
         System.out.print("Виберіть опцію: ");
         
@@ -139,9 +201,22 @@ public class GuestBookUI {
                 showMyReviews();
                 break;
             case 5:
-                currentUser = null;
+                sessionService.invalidate(sessionToken);
+                sessionToken = null;
                 System.out.println("Ви вийшли з акаунту.");
                 break;
+            case 6:
+                showLeaderboard();
+                break;
+            case 7:
+                searchReviews();
+                break;
+            case 8:
+                changePassword(currentUser);
+                break;
+            case 9:
+                deleteAccount(currentUser);
+                break;
             case 0:
                 System.out.println("До побачення!");
                 System.exit(0);
@@ -151,6 +226,58 @@ public class GuestBookUI {
         }
     }
 
+    /**
+     * Змінює пароль поточного користувача. Усі його сесії завершуються, а для
+     * цього вікна створюється нова.
+     * 
+     * @param currentUser авторизований користувач
+     */
+    private void changePassword(User currentUser) {
+        System.out.println("\n--- Зміна пароля ---");
+        System.out.print("Введіть поточний пароль: ");
+        String currentPassword = scanner.nextLine();
+        
+        System.out.print("Введіть новий пароль: ");
+        String newPassword = scanner.nextLine();
+        
+        try {
+            if (userService.changePassword(currentUser.getId(), currentPassword, newPassword)) {
+                sessionToken = sessionService.createSession(currentUser);
+                System.out.println("Пароль змінено. Інші сесії завершено.");
+            } else {
+                System.out.println("Невірний поточний пароль.");
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Помилка: " + e.getMessage());
+        } catch (OptimisticLockException e) {
+            System.out.println("Акаунт щойно змінено в іншому вікні. Спробуйте ще раз.");
+        } catch (IOException e) {
+            System.out.println("Помилка збереження даних: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Видаляє акаунт поточного користувача разом з його відгуками.
+     * 
+     * @param currentUser авторизований користувач
+     */
+    private void deleteAccount(User currentUser) {
+        System.out.print("Видалити акаунт і всі ваші відгуки? Введіть \"так\" для підтвердження: ");
+        if (!"так".equalsIgnoreCase(scanner.nextLine().trim())) {
+            System.out.println("Видалення скасовано.");
+            return;
+        }
+        try {
+            userService.deleteUser(currentUser.getId());
+            sessionToken = null;
+            System.out.println("Акаунт видалено.");
+        } catch (OptimisticLockException e) {
+            System.out.println("Відгук щойно змінено в іншому вікні. Спробуйте ще раз.");
+        } catch (IOException e) {
+            System.out.println("Помилка збереження даних: " + e.getMessage());
+        }
+    }
+
     /**
      * Реєструє нового користувача.
      */
@@ -169,7 +296,7 @@ public class GuestBookUI {
             User user = userService.registerUser(name, email, password);
             if (user != null) {
                 System.out.println("Реєстрація успішна! Ваш ID: " + user.getId());
-                currentUser = user;
+                sessionToken = sessionService.createSession(user);
             } else {
                 System.out.println("Помилка реєстрації.");
             }
@@ -195,7 +322,7 @@ public class GuestBookUI {
             User user = userService.loginUser(email, password);
             if (user != null) {
                 System.out.println("Вхід успішний! Вітаємо, " + user.getName() + "!");
-                currentUser = user;
+                sessionToken = sessionService.createSession(user);
             } else {
                 System.out.println("Невірний email або пароль.");
             }
@@ -226,10 +353,54 @@ public class GuestBookUI {
         }
     }
 
+    /**
+     * Показує найкращі послуги за оцінкою та за кількістю відгуків.
+     */
+    private void showLeaderboard() {
+        System.out.println("\n--- Рейтинг послуг ---");
+        try {
+            List<ServiceRank> topRated = reviewService.getTopRatedServices(LEADERBOARD_SIZE);
+            List<ServiceRank> mostReviewed = reviewService.getMostReviewedServices(LEADERBOARD_SIZE);
+            if (topRated.isEmpty()) {
+                System.out.println("Відгуків поки що немає.");
+                return;
+            }
+
+            Set<Integer> ids = new HashSet<>();
+            for (ServiceRank rank : topRated) {
+                ids.add(rank.getServiceId());
+            }
+            for (ServiceRank rank : mostReviewed) {
+                ids.add(rank.getServiceId());
+            }
+            Map<Integer, Service> services = serviceService.getServicesByIds(ids);
+
+            System.out.println("Найкраща оцінка:");
+            int place = 1;
+            for (ServiceRank rank : topRated) {
+                Service service = services.get(rank.getServiceId());
+                System.out.printf("%d. %s - %.2f/5 (%d відгуків)%n", place++,
+                        service != null ? service.getName() : "Невідома",
+                        rank.getAverage(), rank.getReviewCount());
+            }
+
+            System.out.println("Найбільше відгуків:");
+            place = 1;
+            for (ServiceRank rank : mostReviewed) {
+                Service service = services.get(rank.getServiceId());
+                System.out.printf("%d. %s - %d відгуків%n", place++,
+                        service != null ? service.getName() : "Невідома", rank.getReviewCount());
+            }
+        } catch (IOException e) {
+            System.out.println("Помилка читання даних: " + e.getMessage());
+        }
+    }
+
     /**
      * Створює новий відгук.
      */
     private void createReview() {
+        User currentUser = currentUser();
         if (currentUser == null) {
             System.out.println("Спочатку увійдіть в систему.");
             return;
@@ -250,8 +421,11 @@ public class GuestBookUI {
                 System.out.println(service.getId() + ". " + service.getName());
             }
             
-            System.out.print("Виберіть ID послуги: ");
-            int serviceId = readInt();
+            System.out.print("Виберіть ID послуги або введіть її назву: ");
+            int serviceId = chooseService(scanner.nextLine().trim());
+            if (serviceId < 0) {
+                return;
+            }
             
             System.out.print("Введіть текст відгуку (мінімум 10 символів): ");
             String text = scanner.nextLine();
@@ -273,36 +447,73 @@ public class GuestBookUI {
     }
 
     /**
-     * Показує всі відгуки.
+     * Визначає послугу за введеним ID або назвою. Якщо за назвою знайдено
+     * кілька послуг, просить вибрати одну з них.
+     * 
+     * @param input введений ID або назва послуги
+     * @return ID послуги або -1, якщо послугу не вибрано
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    private int chooseService(String input) throws IOException {
+        try {
+            return Integer.parseInt(input);
+        } catch (NumberFormatException e) {
+            // Не число - шукаємо за назвою
+        }
+        
+        List<Service> matches = serviceService.searchServices(input, SEARCH_LIMIT);
+        if (matches.isEmpty()) {
+            System.out.println("Послугу не знайдено.");
+            return -1;
+        }
+        if (matches.size() == 1) {
+            System.out.println("Вибрано послугу: " + matches.get(0).getName());
+            return matches.get(0).getId();
+        }
+        
+        System.out.println("Знайдені послуги:");
+        for (Service service : matches) {
+            System.out.println(service.getId() + ". " + service.getName());
+        }
+        System.out.print("Виберіть ID послуги: ");
+        return readInt();
+    }
+
+    /**
+     * Показує всі відгуки посторінково.
      */
     private void showAllReviews() {
         System.out.println("\n--- Всі відгуки ---");
         try {
-            List<Review> reviews = reviewService.getAllReviews();
-            if (reviews.isEmpty()) {
-                System.out.println("Відгуків поки що немає.");
-            } else {
-                for (Review review : reviews) {
-                    User user = userService.getUserById(review.getUserId());
-                    Service service = serviceService.getServiceById(review.getServiceId());
+            String token = null;
+            do {
+                Page<ReviewFeedItem> page = reviewService.getFeedPage(token, REVIEWS_PAGE_SIZE);
+                if (token == null && page.getItems().isEmpty()) {
+                    System.out.println("Відгуків поки що немає.");
+                    return;
+                }
+                for (ReviewFeedItem item : page.getItems()) {
+                    Review review = item.getReview();
                     System.out.println("Відгук #" + review.getId());
-                    System.out.println("Користувач: " + (user != null ? user.getName() : "Невідомий"));
-                    System.out.println("Послуга: " + (service != null ? service.getName() : "Невідома"));
+                    System.out.println("Користувач: " + (item.getUserName() != null ? item.getUserName() : "Невідомий"));
+                    System.out.println("Послуга: " + (item.getServiceName() != null ? item.getServiceName() : "Невідома"));
                     System.out.println("Оцінка: " + review.getRating() + "/5");
                     System.out.println("Текст: " + review.getText());
                     System.out.println("Дата: " + review.getCreatedAt());
                     System.out.println("---");
                 }
-            }
+                token = page.getNextToken();
+            } while (token != null && askNextPage());
         } catch (IOException e) {
             System.out.println("Помилка читання даних: " + e.getMessage());
         }
     }
 
     /**
-     * Показує відгуки поточного користувача.
+     * Показує відгуки поточного користувача посторінково.
      */
     private void showMyReviews() {
+        User currentUser = currentUser();
         if (currentUser == null) {
             System.out.println("Спочатку увійдіть в систему.");
             return;
@@ -310,25 +521,85 @@ public class GuestBookUI {
         
         System.out.println("\n--- Мої відгуки ---");
         try {
-            List<Review> reviews = reviewService.getReviewsByUser(currentUser.getId());
-            if (reviews.isEmpty()) {
-                System.out.println("У вас поки що немає відгуків.");
-            } else {
-                for (Review review : reviews) {
-                    Service service = serviceService.getServiceById(review.getServiceId());
+            String token = null;
+            do {
+                Page<ReviewFeedItem> page = reviewService.getFeedByUserPage(
+                        currentUser.getId(), token, REVIEWS_PAGE_SIZE);
+                if (token == null && page.getItems().isEmpty()) {
+                    System.out.println("У вас поки що немає відгуків.");
+                    return;
+                }
+                for (ReviewFeedItem item : page.getItems()) {
+                    Review review = item.getReview();
                     System.out.println("Відгук #" + review.getId());
-                    System.out.println("Послуга: " + (service != null ? service.getName() : "Невідома"));
+                    System.out.println("Послуга: " + (item.getServiceName() != null ? item.getServiceName() : "Невідома"));
                     System.out.println("Оцінка: " + review.getRating() + "/5");
                     System.out.println("Текст: " + review.getText());
                     System.out.println("Дата: " + review.getCreatedAt());
                     System.out.println("---");
                 }
+                token = page.getNextToken();
+            } while (token != null && askNextPage());
+        } catch (IOException e) {
+            System.out.println("Помилка читання даних: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Шукає відгуки за текстом з необов'язковими фільтрами за послугою та оцінкою.
+     */
+    private void searchReviews() {
+        System.out.println("\n--- Пошук відгуків ---");
+        System.out.print("Введіть текст для пошуку: ");
+        String query = scanner.nextLine();
+        System.out.print("ID послуги (Enter - усі послуги): ");
+        String serviceInput = scanner.nextLine().trim();
+        System.out.print("Мінімальна оцінка (Enter - будь-яка): ");
+        String ratingInput = scanner.nextLine().trim();
+
+        Integer serviceId = null;
+        int minRating = 1;
+        try {
+            if (!serviceInput.isEmpty()) {
+                serviceId = Integer.parseInt(serviceInput);
+            }
+            if (!ratingInput.isEmpty()) {
+                minRating = Integer.parseInt(ratingInput);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Невірне число!");
+            return;
+        }
+
+        try {
+            List<ReviewSearchHit> hits = reviewService.searchReviews(query, serviceId, minRating, 5, SEARCH_LIMIT);
+            if (hits.isEmpty()) {
+                System.out.println("Нічого не знайдено.");
+                return;
+            }
+            for (ReviewSearchHit hit : hits) {
+                Review review = hit.getReview();
+                System.out.println("Відгук #" + review.getId() + " (послуга " + review.getServiceId() + ")");
+                System.out.println("Оцінка: " + review.getRating() + "/5");
+                System.out.println("Текст: " + review.getText());
+                System.out.println("---");
             }
         } catch (IOException e) {
             System.out.println("Помилка читання даних: " + e.getMessage());
         }
     }
 
+    /**
+     * Питає, чи показувати наступну сторінку.
+     * 
+     * @return true, якщо користувач хоче продовжити
+     */
+    private boolean askNextPage() {
+        System.out.print("Показати наступну сторінку? (т/н): ");
+        String answer = scanner.nextLine().trim().toLowerCase();
+        return answer.equals("т") || answer.equals("так") || answer.equals("y");
+    }
+
     /**
      * Читає ціле число з консолі.
      * 
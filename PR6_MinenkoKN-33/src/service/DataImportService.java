@@ -0,0 +1,401 @@
+package service;
+
+import dao.DaoFactory;
+import dao.ServiceDAO;
+import dao.UserDAO;
+import entity.ImportReport;
+import entity.Review;
+import entity.Service;
+import entity.User;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import util.JsonEntityMapper;
+import util.JsonReader;
+
+/**
+ * Масовий імпорт users.json, services.json та reviews.json у базу даних.
+ *
+ * <p>Кожен файл відображається в пам'ять і за один послідовний прохід по байтах
+ * ділиться на шматки по межах елементів верхнього масиву. Шматки розбираються
+ * паралельно у ForkJoinPool, а вставляються в базу по порядку пакетами через
+ * {@code createAll} ({@link ReviewService#createReviews} для відгуків), тож розбір наступних шматків іде одночасно зі вставкою.
+ * У роботі одночасно лише обмежене вікно шматків, тому пам'ять не залежить від
+ * розміру файлу.
+ *
+ * <p>ID з файлів замінюються на нові ID з бази: посилання відгуків на користувачів
+ * і послуги перераховуються, а відгуки з неіснуючими посиланнями пропускаються.
+ * Перевірка зовнішніх ключів лишається увімкненою весь час імпорту, тож паралельні
+ * зміни в базі не можуть залишити висячих посилань.
+ */
+public class DataImportService {
+
+    /**
+     * Приблизний розмір шматка файлу для одного завдання розбору.
+     */
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Максимальна довжина текстових стовпців (VARCHAR(255)).
+     */
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    /**
+     * Отримує звіт про хід імпорту після кожного вставленого шматка.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param file назва файлу, що імпортується
+         * @param rows кількість уже вставлених рядків з цього файлу
+         * @param bytesDone оброблено байтів файлу
+         * @param bytesTotal розмір файлу
+         * @param rowsPerSecond швидкість вставки з початку файлу
+         */
+        void onProgress(String file, long rows, long bytesDone, long bytesTotal, double rowsPerSecond);
+    }
+
+    /**
+     * Вставляє розібраний шматок у базу даних.
+     */
+    @FunctionalInterface
+    private interface ChunkLoader<T> {
+        /**
+         * @return кількість фактично вставлених рядків
+         */
+        long load(List<T> items) throws IOException;
+    }
+
+    private final UserDAO userDAO;
+    private final ServiceDAO serviceDAO;
+    private final ReviewService reviewService;
+    private final int parallelism;
+
+    /**
+     * Конструктор.
+     * Використовує спільні екземпляри DAO з DaoFactory і всі доступні процесори.
+     */
+    public DataImportService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Конструктор з кількістю потоків розбору.
+     *
+     * @param parallelism кількість потоків розбору
+     */
+    public DataImportService(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Кількість потоків має бути додатною: " + parallelism);
+        }
+        this.userDAO = DaoFactory.getUserDAO();
+        this.serviceDAO = DaoFactory.getServiceDAO();
+        this.reviewService = new ReviewService();
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Імпортує users.json, services.json та reviews.json з каталогу. Відсутні файли
+     * пропускаються. Відгуки створюються через ReviewService, тож статистика, рейтинг
+     * та індекс пошуку відгуків оновлюються сповіщеннями; індекс назв послуг
+     * перебудовується після імпорту.
+     *
+     * @param directory каталог з JSON файлами
+     * @param progress отримувач звітів про хід імпорту або null
+     * @return підсумок імпорту
+     * @throws IOException якщо файл не вдалося прочитати або JSON некоректний
+     */
+    public ImportReport importAll(Path directory, ProgressListener progress) throws IOException {
+        long start = System.nanoTime();
+        ProgressListener listener = progress != null ? progress : (file, rows, done, total, speed) -> { };
+        long[] users = new long[2];
+        long[] services = new long[2];
+        long[] reviews = new long[2];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<Integer, Integer> userIds = importUsers(directory.resolve("users.json"), pool, listener, users);
+            Map<Integer, Integer> serviceIds =
+                    importServices(directory.resolve("services.json"), pool, listener, services);
+            importReviews(directory.resolve("reviews.json"), pool, listener, userIds, serviceIds, reviews);
+        } finally {
+            pool.shutdown();
+        }
+
+        // Послуги вставлялися в обхід ServiceService - індекс назв їх не бачив
+        ServiceSearchIndex.getInstance().warmUp(serviceDAO);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new ImportReport(users[0], users[1], services[0], services[1],
+                reviews[0], reviews[1], elapsedMillis);
+    }
+
+    private Map<Integer, Integer> importUsers(Path file, ForkJoinPool pool, ProgressListener progress,
+            long[] counts) throws IOException {
+        Map<Integer, Integer> ids = new HashMap<>();
+        // Користувачі з уже наявним email не створюються, а зіставляються з наявними
+        Map<String, Integer> idsByEmail = new HashMap<>();
+        try (Stream<User> existing = userDAO.streamAll()) {
+            existing.forEach(u -> {
+                if (u.getEmail() != null) {
+                    idsByEmail.put(u.getEmail().toLowerCase(Locale.ROOT), u.getId());
+                }
+            });
+        }
+
+        load(file, pool, JsonEntityMapper::readUser, progress, users -> {
+            List<User> batch = new ArrayList<>(users.size());
+            List<Integer> oldIds = new ArrayList<>(users.size());
+            Map<String, User> pending = new HashMap<>();
+            Map<Integer, User> aliases = new HashMap<>();
+            for (User user : users) {
+                if (!isValidText(user.getName()) || !isValidText(user.getEmail())
+                        || !isValidText(user.getHashedPassword())) {
+                    counts[1]++;
+                    continue;
+                }
+                String email = user.getEmail().toLowerCase(Locale.ROOT);
+                Integer existingId = idsByEmail.get(email);
+                User duplicate = pending.get(email);
+                if (existingId != null || duplicate != null) {
+                    if (existingId != null) {
+                        ids.put(user.getId(), existingId);
+                    } else {
+                        aliases.put(user.getId(), duplicate);
+                    }
+                    counts[1]++;
+                    continue;
+                }
+                pending.put(email, user);
+                oldIds.add(user.getId());
+                batch.add(user);
+            }
+            int inserted = userDAO.createAll(batch);
+            counts[0] += inserted;
+            for (int i = 0; i < batch.size(); i++) {
+                User user = batch.get(i);
+                ids.put(oldIds.get(i), user.getId());
+                idsByEmail.put(user.getEmail().toLowerCase(Locale.ROOT), user.getId());
+            }
+            for (Map.Entry<Integer, User> alias : aliases.entrySet()) {
+                ids.put(alias.getKey(), alias.getValue().getId());
+            }
+            return inserted;
+        });
+        return ids;
+    }
+
+    private Map<Integer, Integer> importServices(Path file, ForkJoinPool pool, ProgressListener progress,
+            long[] counts) throws IOException {
+        Map<Integer, Integer> ids = new HashMap<>();
+        load(file, pool, JsonEntityMapper::readService, progress, services -> {
+            List<Service> batch = new ArrayList<>(services.size());
+            List<Integer> oldIds = new ArrayList<>(services.size());
+            for (Service service : services) {
+                if (!isValidText(service.getName()) || !isValidText(service.getDescription())) {
+                    counts[1]++;
+                    continue;
+                }
+                oldIds.add(service.getId());
+                batch.add(service);
+            }
+            int inserted = serviceDAO.createAll(batch);
+            counts[0] += inserted;
+            for (int i = 0; i < batch.size(); i++) {
+                ids.put(oldIds.get(i), batch.get(i).getId());
+            }
+            return inserted;
+        });
+        return ids;
+    }
+
+    private void importReviews(Path file, ForkJoinPool pool, ProgressListener progress,
+            Map<Integer, Integer> userIds, Map<Integer, Integer> serviceIds, long[] counts) throws IOException {
+        load(file, pool, JsonEntityMapper::readReview, progress, reviews -> {
+            List<Review> batch = new ArrayList<>(reviews.size());
+            for (Review review : reviews) {
+                Integer userId = userIds.get(review.getUserId());
+                Integer serviceId = serviceIds.get(review.getServiceId());
+                if (userId == null || serviceId == null || !isValidText(review.getText())
+                        || !ReviewService.isValidReviewContent(review.getText(), review.getRating())) {
+                    counts[1]++;
+                    continue;
+                }
+                review.setUserId(userId);
+                review.setServiceId(serviceId);
+                batch.add(review);
+            }
+            int inserted = reviewService.createReviews(batch);
+            counts[0] += inserted;
+            return inserted;
+        });
+    }
+
+    /**
+     * Розбирає файл шматками паралельно і передає їх у {@code loader} у порядку файлу.
+     */
+    private <T> void load(Path file, ForkJoinPool pool, JsonEntityMapper.ObjectReader<T> reader,
+            ProgressListener progress, ChunkLoader<T> loader) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        String name = file.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Файл завеликий для імпорту: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            List<int[]> chunks = split(mapped, name);
+
+            long start = System.nanoTime();
+            long rows = 0;
+            Deque<ForkJoinTask<List<T>>> inFlight = new ArrayDeque<>();
+            Deque<int[]> inFlightChunks = new ArrayDeque<>();
+            int next = 0;
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                // Розбір наперед не більше ніж на два шматки на потік
+                while (next < chunks.size() && inFlight.size() < parallelism * 2) {
+                    int[] chunk = chunks.get(next++);
+                    ByteBuffer slice = mapped.duplicate().position(chunk[0]).limit(chunk[1]).slice();
+                    inFlight.add(pool.submit(() -> parseChunk(slice, reader)));
+                    inFlightChunks.add(chunk);
+                }
+                List<T> items = join(inFlight.poll(), name);
+                int[] chunk = inFlightChunks.poll();
+                rows += loader.load(items);
+                double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+                progress.onProgress(name, rows, chunk[1], size, rows / seconds);
+            }
+        }
+    }
+
+    private static <T> List<T> parseChunk(ByteBuffer slice, JsonEntityMapper.ObjectReader<T> reader)
+            throws IOException {
+        JsonReader in = new JsonReader(slice);
+        List<T> items = new ArrayList<>();
+        in.beginFragment();
+        while (in.hasNext()) {
+            items.add(reader.read(in));
+        }
+        in.endFragment();
+        return items;
+    }
+
+    private static <T> List<T> join(ForkJoinTask<List<T>> task, String name) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Імпорт " + name + " перервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new IOException("Помилка розбору " + name + ": " + e.getCause().getMessage(), e.getCause());
+            }
+            throw new IOException("Помилка розбору " + name + ": " + e.getCause(), e.getCause());
+        }
+    }
+
+    /**
+     * Ділить JSON масив на шматки по комах між його елементами.
+     * Байти UTF-8 багатобайтових символів не збігаються з ASCII, тож лапки, дужки
+     * та коми можна шукати побайтово, враховуючи лише рядки та екранування.
+     *
+     * @return межі шматків {@code [початок, кінець)} без розділових ком
+     */
+    private static List<int[]> split(ByteBuffer bytes, String name) throws IOException {
+        List<int[]> chunks = new ArrayList<>();
+        int limit = bytes.limit();
+        int pos = skipWhitespace(bytes, 0, limit);
+        // BOM UTF-8
+        if (pos + 2 < limit && (bytes.get(pos) & 0xFF) == 0xEF
+                && (bytes.get(pos + 1) & 0xFF) == 0xBB && (bytes.get(pos + 2) & 0xFF) == 0xBF) {
+            pos = skipWhitespace(bytes, pos + 3, limit);
+        }
+        if (pos == limit) {
+            return chunks;
+        }
+        if (bytes.get(pos) != '[') {
+            throw new IOException("Файл " + name + " має містити JSON масив");
+        }
+
+        int chunkStart = pos + 1;
+        int depth = 0;
+        boolean inString = false;
+        for (int i = pos + 1; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (inString) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                    if (depth == 0) {
+                        throw new IOException("Некоректна вкладеність дужок у файлі " + name);
+                    }
+                    depth--;
+                    break;
+                case ']':
+                    if (depth == 0) {
+                        chunks.add(new int[] {chunkStart, i});
+                        if (skipWhitespace(bytes, i + 1, limit) != limit) {
+                            throw new IOException("Зайві дані після масиву у файлі " + name);
+                        }
+                        return chunks;
+                    }
+                    depth--;
+                    break;
+                case ',':
+                    if (depth == 0 && i - chunkStart >= CHUNK_BYTES) {
+                        chunks.add(new int[] {chunkStart, i});
+                        chunkStart = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        throw new IOException("Незакритий масив у файлі " + name);
+    }
+
+    private static int skipWhitespace(ByteBuffer bytes, int pos, int limit) {
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isValidText(String value) {
+        return value != null && !value.trim().isEmpty() && value.length() <= MAX_TEXT_LENGTH;
+    }
+}
@@ -0,0 +1,154 @@
+package service;
+
+import dao.ReviewDAO;
+import dao.ServiceDAO;
+import entity.Review;
+import entity.Service;
+import entity.Watermark;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import util.JournaledJsonStore;
+import util.JsonEntityMapper;
+
+/**
+ * Режим збереження відгуків і послуг у JSON файлах поряд з базою даних.
+ *
+ * <p>Кожна зміна дописується в журнал {@link JournaledJsonStore} замість
+ * перезапису всього файлу; самі JSON файли - це знімки, що оновлюються при
+ * ущільненні. Вмикається властивістю {@code -Dguestbook.json.journal=true}.
+ * Файли лежать в окремому каталозі (data/journal), а не поряд з data/*.json,
+ * які читає {@code --import}: інакше імпорт повторно вставив би вже наявні дані.
+ *
+ * <p>База даних лишається основним джерелом: помилка запису журналу не скасовує
+ * зміну, а лише повідомляється. Зміни, зроблені поки дзеркало закрите (імпорт,
+ * відновлення з копії, запуск без журналу), виявляються при відкритті за
+ * кількістю та найбільшим ID, і тоді знімок заповнюється з бази заново.
+ */
+public class JsonJournalMirror implements ReviewChangeListener, ServiceChangeListener {
+
+    private static JsonJournalMirror instance;
+
+    private JournaledJsonStore<Review> reviews;
+    private JournaledJsonStore<Service> services;
+
+    public static synchronized JsonJournalMirror getInstance() {
+        if (instance == null) {
+            instance = new JsonJournalMirror();
+        }
+        return instance;
+    }
+
+    /**
+     * Перевіряє, чи ввімкнено режим збереження у JSON властивістю guestbook.json.journal.
+     *
+     * @return true, якщо режим увімкнено
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("guestbook.json.journal");
+    }
+
+    /**
+     * Відкриває сховища у каталозі, відтворюючи журнали. Якщо кількість записів
+     * або найбільший ID сховища не збігаються з базою, знімок заповнюється з бази.
+     *
+     * @param directory окремий каталог дзеркала, не каталог файлів імпорту
+     * @param reviewDAO джерело відгуків для початкового заповнення
+     * @param serviceDAO джерело послуг для початкового заповнення
+     * @throws IOException якщо файли не вдалося прочитати або записати
+     */
+    public synchronized void open(Path directory, ReviewDAO reviewDAO, ServiceDAO serviceDAO)
+            throws IOException {
+        close();
+        reviews = new JournaledJsonStore<>(directory.resolve("reviews.json"),
+                JsonEntityMapper::readReview, JsonEntityMapper::writeReview, Review::getId);
+        services = new JournaledJsonStore<>(directory.resolve("services.json"),
+                JsonEntityMapper::readService, JsonEntityMapper::writeService, Service::getId);
+
+        if (diverges(reviews, reviewDAO.findWatermark())) {
+            try (Stream<Review> all = reviewDAO.streamAll()) {
+                reviews.replaceAll(all.iterator());
+            }
+        }
+        if (diverges(services, serviceDAO.findWatermark())) {
+            try (Stream<Service> all = serviceDAO.streamAll()) {
+                services.replaceAll(all.iterator());
+            }
+        }
+    }
+
+    // JSON файли не зберігають версій, тож порівнюються лише кількість і найбільший ID
+    private static boolean diverges(JournaledJsonStore<?> store, Watermark database) {
+        return store.size() != database.getCount() || store.maxId() != database.getMaxId();
+    }
+
+    /**
+     * Закриває сховища; після цього зміни не записуються.
+     *
+     * @throws IOException якщо закриття не вдалося
+     */
+    public synchronized void close() throws IOException {
+        if (reviews != null) {
+            reviews.close();
+            reviews = null;
+        }
+        if (services != null) {
+            services.close();
+            services = null;
+        }
+    }
+
+    @Override
+    public synchronized void onReviewCreated(Review review) {
+        if (reviews != null) {
+            write(() -> reviews.put(review));
+        }
+    }
+
+    @Override
+    public synchronized void onReviewUpdated(Review previous, Review updated) {
+        if (reviews != null) {
+            write(() -> reviews.put(updated));
+        }
+    }
+
+    @Override
+    public synchronized void onReviewDeleted(Review previous) {
+        if (reviews != null) {
+            write(() -> reviews.delete(previous.getId()));
+        }
+    }
+
+    @Override
+    public synchronized void onServiceCreated(Service service) {
+        if (services != null) {
+            write(() -> services.put(service));
+        }
+    }
+
+    @Override
+    public synchronized void onServiceUpdated(Service previous, Service updated) {
+        if (services != null) {
+            write(() -> services.put(updated));
+        }
+    }
+
+    @Override
+    public synchronized void onServiceDeleted(Service previous) {
+        if (services != null) {
+            write(() -> services.delete(previous.getId()));
+        }
+    }
+
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    private static void write(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            System.err.println("Не вдалося записати зміну в JSON журнал: " + e.getMessage());
+        }
+    }
+}
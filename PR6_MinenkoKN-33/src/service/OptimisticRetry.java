@@ -0,0 +1,84 @@
+package service;
+
+import exception.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import util.UnitOfWork;
+
+/**
+ * Повтор операції читання-зміни-запису при конфлікті оптимістичного блокування.
+ *
+ * <p>Кожна спроба виконується в окремій {@link UnitOfWork}, тож робота заново
+ * читає сутність з актуальною версією. Між спробами - коротка випадкова пауза,
+ * що зростає вдвічі, щоб редактори, які зіткнулися, не конфліктували знову
+ * синхронно. Якщо потік уже в одиниці роботи, повтор неможливий (зовнішню
+ * транзакцію після конфлікту позначено для відкату), тож робота виконується один
+ * раз, а конфлікт передається вище.
+ *
+ * <p>Повторювати можна лише роботу, яку безпечно застосувати заново до свіжого
+ * стану: наприклад, видалення за ідентифікатором. Правки, які користувач зробив
+ * на основі конкретної версії, не повторюються - конфлікт повертається йому.
+ */
+public final class OptimisticRetry {
+
+    /**
+     * Кількість спроб за замовчуванням.
+     */
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    private static final long BASE_BACKOFF_MS = 5;
+
+    private OptimisticRetry() {
+    }
+
+    /**
+     * Виконує роботу з {@link #DEFAULT_ATTEMPTS} спробами.
+     *
+     * @param work робота, яку безпечно повторити на свіжому стані
+     * @param <T> тип результату
+     * @return результат успішної спроби
+     * @throws RuntimeException якщо робота завершилась помилкою (див. {@link UnitOfWork#execute})
+     * @throws OptimisticLockException якщо конфлікт повторився в усіх спробах
+     */
+    public static <T> T run(UnitOfWork.Work<T> work) {
+        return run(DEFAULT_ATTEMPTS, work);
+    }
+
+    /**
+     * Виконує роботу, повторюючи її при {@link OptimisticLockException}.
+     *
+     * @param attempts максимальна кількість спроб, щонайменше 1
+     * @param work робота, яку безпечно повторити на свіжому стані
+     * @param <T> тип результату
+     * @return результат успішної спроби
+     * @throws RuntimeException якщо робота завершилась помилкою (див. {@link UnitOfWork#execute})
+     * @throws OptimisticLockException якщо конфлікт повторився в усіх спробах
+     */
+    public static <T> T run(int attempts, UnitOfWork.Work<T> work) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Кількість спроб має бути не менше 1");
+        }
+        if (UnitOfWork.isActive()) {
+            return UnitOfWork.execute(work);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return UnitOfWork.execute(work);
+            } catch (OptimisticLockException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private static void backoff(int attempt, OptimisticLockException conflict) {
+        long maxMillis = BASE_BACKOFF_MS << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
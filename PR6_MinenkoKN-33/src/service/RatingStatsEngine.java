@@ -0,0 +1,154 @@
+package service;
+
+import dao.ReviewDAO;
+import entity.Review;
+import entity.ServiceRatingStats;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика оцінок послуг у пам'яті процесу.
+ *
+ * <p>Для кожної послуги тримає п'ять лічильників {@link LongAdder} (по одному на оцінку),
+ * тому одночасні відгуки на ту саму послугу з багатьох потоків не конкурують за одну
+ * комірку пам'яті. Середнє, кількість, перцентилі та розподіл обчислюються з
+ * лічильників без звернень до H2.
+ *
+ * <p>Знімок читає лічильники без блокування, тому під час одночасних записів він
+ * може не містити щойно доданих відгуків, але завжди узгоджений сам із собою:
+ * кількість і сума обчислюються з того самого прочитаного розподілу.
+ */
+public class RatingStatsEngine implements ReviewChangeListener {
+
+    private static RatingStatsEngine instance;
+
+    /**
+     * Лічильники оцінок за ідентифікатором послуги.
+     */
+    private volatile ConcurrentHashMap<Integer, LongAdder[]> histograms = new ConcurrentHashMap<>();
+
+    public static synchronized RatingStatsEngine getInstance() {
+        if (instance == null) {
+            instance = new RatingStatsEngine();
+        }
+        return instance;
+    }
+
+    /**
+     * Завантажує статистику з агрегатів ReviewDAO, замінюючи поточну.
+     * Нові лічильники будуються окремо й підміняють старі одним записом, тож читачі
+     * під час завантаження бачать попередню статистику, а не порожню. Оновлення,
+     * що надійдуть під час завантаження, загубляться: викликати під час запуску або
+     * через {@link ReviewService#rebuildRatingStats()}, який на цей час притримує сповіщення.
+     * 
+     * @param reviewDAO джерело агрегатів оцінок
+     */
+    public void warmUp(ReviewDAO reviewDAO) {
+        ConcurrentHashMap<Integer, LongAdder[]> loaded = new ConcurrentHashMap<>();
+        for (ServiceRatingStats stats : reviewDAO.findAllStats()) {
+            LongAdder[] buckets = loaded.computeIfAbsent(stats.getServiceId(), id -> newBuckets());
+            for (int rating = 1; rating <= 5; rating++) {
+                buckets[rating - 1].add(stats.getCount(rating));
+            }
+        }
+        histograms = loaded;
+    }
+
+    /**
+     * Враховує новий відгук.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param rating оцінка від 1 до 5
+     */
+    public void record(int serviceId, int rating) {
+        bucketsOf(serviceId)[checkRating(rating) - 1].increment();
+    }
+
+    /**
+     * Прибирає раніше врахований відгук.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param rating оцінка від 1 до 5
+     */
+    public void remove(int serviceId, int rating) {
+        bucketsOf(serviceId)[checkRating(rating) - 1].decrement();
+    }
+
+    @Override
+    public void onReviewCreated(Review review) {
+        record(review.getServiceId(), review.getRating());
+    }
+
+    @Override
+    public void onReviewUpdated(Review previous, Review updated) {
+        remove(previous.getServiceId(), previous.getRating());
+        record(updated.getServiceId(), updated.getRating());
+    }
+
+    @Override
+    public void onReviewDeleted(Review previous) {
+        remove(previous.getServiceId(), previous.getRating());
+    }
+
+    /**
+     * Повертає знімок статистики послуги.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @return статистика; для послуги без відгуків - нулі
+     */
+    public ServiceRatingStats getStats(int serviceId) {
+        LongAdder[] buckets = histograms.get(serviceId);
+        if (buckets == null) {
+            return ServiceRatingStats.empty(serviceId);
+        }
+        long[] histogram = new long[5];
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = buckets[i].sum();
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+        return new ServiceRatingStats(serviceId, count, sum, histogram);
+    }
+
+    /**
+     * Обчислює середню оцінку послуги.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @return середня оцінка або 0, якщо відгуків немає
+     */
+    public double getAverage(int serviceId) {
+        return getStats(serviceId).getAverage();
+    }
+
+    /**
+     * Обчислює перцентиль оцінок послуги.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param percentile перцентиль від 0 до 100
+     * @return найменша оцінка, не нижча за вказану частку відгуків, або 0, якщо відгуків немає
+     */
+    public int getPercentile(int serviceId, double percentile) {
+        return getStats(serviceId).getPercentile(percentile);
+    }
+
+    private LongAdder[] bucketsOf(int serviceId) {
+        return histograms.computeIfAbsent(serviceId, id -> newBuckets());
+    }
+
+    private static LongAdder[] newBuckets() {
+        LongAdder[] buckets = new LongAdder[5];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        return buckets;
+    }
+
+    private static int checkRating(int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
+        }
+        return rating;
+    }
+}
@@ -0,0 +1,32 @@
+package service;
+
+import entity.Review;
+
+/**
+ * Отримує сповіщення ReviewService про успішні зміни відгуків.
+ * Використовується похідними структурами в пам'яті, що оновлюються інкрементально.
+ */
+public interface ReviewChangeListener {
+
+    /**
+     * Викликається після створення відгуку.
+     * 
+     * @param review створений відгук
+     */
+    void onReviewCreated(Review review);
+
+    /**
+     * Викликається після оновлення відгуку.
+     * 
+     * @param previous стан відгуку до оновлення
+     * @param updated стан відгуку після оновлення
+     */
+    void onReviewUpdated(Review previous, Review updated);
+
+    /**
+     * Викликається після видалення відгуку.
+     * 
+     * @param previous стан відгуку до видалення
+     */
+    void onReviewDeleted(Review previous);
+}
@@ -0,0 +1,604 @@
+package service;
+
+import dao.ReviewDAO;
+import entity.Review;
+import entity.Watermark;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import util.UkrainianTokenizer;
+
+/**
+ * Повнотекстовий індекс відгуків у пам'яті процесу.
+ *
+ * <p>Для кожного терміна зберігається список входжень - відсортовані масиви
+ * {@code int} з ID відгуків і частотою терміна, без об'єкта на кожне входження.
+ * Індекс оновлюється інкрементально як {@link ReviewChangeListener}, а запити
+ * ранжуються за BM25 з фільтрами за послугою та оцінкою.
+ *
+ * <p>Щоб не перебудовувати індекс з усієї таблиці при кожному запуску, він
+ * зберігається у файл (дельта-кодування ID та varint) разом з
+ * {@link Watermark водяним знаком} проіндексованих відгуків і завантажується
+ * з нього, лише якщо водяний знак збігається з поточним станом таблиці: будь-яке
+ * створення, редагування чи видалення відгуку повз індекс призводить до перебудови.
+ */
+public class ReviewSearchIndex implements ReviewChangeListener {
+
+    /**
+     * Параметри BM25: насичення частоти терміна та нормалізація за довжиною.
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int FILE_MAGIC = 0x47424958; // "GBIX"
+    private static final int FILE_VERSION = 3;
+
+    /**
+     * Як часто фоновий потік зберігає змінений індекс на диск.
+     */
+    private static final long SAVE_PERIOD_SECONDS = 30;
+
+    private static ReviewSearchIndex instance;
+
+    private final UkrainianTokenizer tokenizer = new UkrainianTokenizer();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> index = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * Сума {@link Watermark#hash(int, int)} проіндексованих відгуків.
+     */
+    private long checksum;
+
+    /**
+     * Лічильник змін; індекс зберігається лише якщо він змінився з моменту збереження.
+     */
+    private long modCount;
+    private long savedModCount;
+
+    private Path file;
+    private ScheduledExecutorService saver;
+
+    public static synchronized ReviewSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new ReviewSearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Завантажує індекс з файлу або, якщо файлу немає чи його водяний знак не
+     * збігається з таблицею відгуків, перебудовує його з таблиці. Після цього індекс періодично та при завершенні
+     * процесу зберігається у той самий файл.
+     *
+     * @param file файл індексу
+     * @param reviewDAO джерело відгуків для перебудови
+     */
+    public synchronized void open(Path file, ReviewDAO reviewDAO) {
+        this.file = file;
+        Watermark expected = reviewDAO.findWatermark();
+
+        boolean loaded = false;
+        if (Files.isRegularFile(file)) {
+            try {
+                loaded = load(file, expected);
+            } catch (IOException e) {
+                System.err.println("Не вдалося прочитати індекс пошуку: " + e.getMessage());
+            }
+        }
+        if (!loaded) {
+            rebuild(reviewDAO);
+            saveQuietly();
+        }
+
+        if (saver == null) {
+            saver = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "review-index-saver");
+                t.setDaemon(true);
+                return t;
+            });
+            saver.scheduleWithFixedDelay(this::saveQuietly,
+                    SAVE_PERIOD_SECONDS, SAVE_PERIOD_SECONDS, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::saveQuietly, "review-index-shutdown"));
+        }
+    }
+
+    /**
+     * Перебудовує індекс з усіх відгуків, читаючи їх потоком.
+     *
+     * @param reviewDAO джерело відгуків
+     */
+    public void rebuild(ReviewDAO reviewDAO) {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            docs.clear();
+            totalLength = 0;
+            checksum = 0;
+            try (Stream<Review> reviews = reviewDAO.streamAll()) {
+                reviews.forEach(this::add);
+            }
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onReviewCreated(Review review) {
+        lock.writeLock().lock();
+        try {
+            add(review);
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onReviewUpdated(Review previous, Review updated) {
+        lock.writeLock().lock();
+        try {
+            remove(previous.getId());
+            add(updated);
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onReviewDeleted(Review previous) {
+        lock.writeLock().lock();
+        try {
+            remove(previous.getId());
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Шукає відгуки за текстом запиту.
+     *
+     * @param query текст запиту
+     * @param serviceId ідентифікатор послуги або null для всіх послуг
+     * @param minRating мінімальна оцінка (включно)
+     * @param maxRating максимальна оцінка (включно)
+     * @param limit максимальна кількість результатів
+     * @return ID відгуків та їхня оцінка релевантності, від найрелевантніших
+     */
+    public Map<Integer, Double> search(String query, Integer serviceId, int minRating, int maxRating,
+            int limit) {
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        Set<String> terms = new LinkedHashSet<>(tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            if (n == 0) {
+                return result;
+            }
+            double avgLength = (double) totalLength / n;
+            Map<Integer, double[]> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings postings = index.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - postings.size + 0.5) / (postings.size + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    Doc doc = docs.get(postings.ids[i]);
+                    if ((serviceId != null && doc.serviceId != serviceId)
+                            || doc.rating < minRating || doc.rating > maxRating) {
+                        continue;
+                    }
+                    int tf = postings.freqs[i];
+                    double norm = K1 * (1 - B + B * doc.length / avgLength);
+                    scores.computeIfAbsent(postings.ids[i], id -> new double[1])[0] +=
+                            idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Мін-купа з limit найкращих; при рівній оцінці новіший відгук вище
+            PriorityQueue<Map.Entry<Integer, double[]>> top = new PriorityQueue<>(
+                    (a, b) -> a.getValue()[0] != b.getValue()[0]
+                            ? Double.compare(a.getValue()[0], b.getValue()[0])
+                            : Integer.compare(a.getKey(), b.getKey()));
+            for (Map.Entry<Integer, double[]> entry : scores.entrySet()) {
+                top.add(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Map.Entry<Integer, double[]>> ordered = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ordered.add(top.poll());
+            }
+            for (int i = ordered.size() - 1; i >= 0; i--) {
+                result.put(ordered.get(i).getKey(), ordered.get(i).getValue()[0]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Повертає кількість проіндексованих відгуків.
+     *
+     * @return кількість відгуків в індексі
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Повертає водяний знак проіндексованих відгуків.
+     *
+     * @return кількість, найбільший ID та контрольна сума відгуків в індексі
+     */
+    public Watermark watermark() {
+        lock.readLock().lock();
+        try {
+            return currentWatermark();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Зберігає індекс у файл, якщо він змінився з останнього збереження.
+     * Під блокуванням читання робиться лише знімок списків входжень; сам запис
+     * іде без блокування у тимчасовий файл, який потім атомарно замінює основний,
+     * тож зміни відгуків не чекають на диск.
+     *
+     * @throws IOException якщо запис не вдався
+     */
+    public synchronized void save() throws IOException {
+        Path target = file;
+        if (target == null) {
+            return;
+        }
+        Snapshot snapshot = snapshotIfChanged();
+        if (snapshot == null) {
+            return;
+        }
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, "review_index", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(out, snapshot);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        savedModCount = snapshot.modCount;
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException e) {
+            System.err.println("Не вдалося зберегти індекс пошуку: " + e.getMessage());
+        }
+    }
+
+    // Викликається під блокуванням запису
+    private void add(Review review) {
+        List<String> tokens = tokenizer.tokenize(review.getText());
+        Map<String, Integer> freqs = new HashMap<>();
+        for (String token : tokens) {
+            freqs.merge(token, 1, Integer::sum);
+        }
+        String[] terms = freqs.keySet().toArray(new String[0]);
+        docs.put(review.getId(), new Doc(review.getServiceId(), review.getRating(), review.getVersion(),
+                tokens.size(), terms));
+        totalLength += tokens.size();
+        checksum += Watermark.hash(review.getId(), review.getVersion());
+        for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+            index.computeIfAbsent(entry.getKey(), t -> new Postings()).add(review.getId(), entry.getValue());
+        }
+    }
+
+    // Викликається під блокуванням запису
+    private void remove(int reviewId) {
+        Doc doc = docs.remove(reviewId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= doc.length;
+        checksum -= Watermark.hash(reviewId, doc.version);
+        for (String term : doc.terms) {
+            Postings postings = index.get(term);
+            if (postings != null && postings.remove(reviewId) && postings.size == 0) {
+                index.remove(term);
+            }
+        }
+    }
+
+    // Викликається під блокуванням читання
+    private Watermark currentWatermark() {
+        int maxId = 0;
+        for (int id : docs.keySet()) {
+            maxId = Math.max(maxId, id);
+        }
+        return new Watermark(docs.size(), maxId, checksum);
+    }
+
+    private Snapshot snapshotIfChanged() {
+        lock.readLock().lock();
+        try {
+            if (modCount == savedModCount) {
+                return null;
+            }
+            Map<Integer, Doc> sortedDocs = new TreeMap<>(docs);
+            int[] docIds = new int[sortedDocs.size()];
+            Doc[] docValues = new Doc[sortedDocs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Doc> entry : sortedDocs.entrySet()) {
+                docIds[i] = entry.getKey();
+                docValues[i] = entry.getValue();
+                i++;
+            }
+            String[] terms = new String[index.size()];
+            int[][] ids = new int[index.size()][];
+            int[][] freqs = new int[index.size()][];
+            i = 0;
+            for (Map.Entry<String, Postings> entry : index.entrySet()) {
+                Postings postings = entry.getValue();
+                terms[i] = entry.getKey();
+                ids[i] = Arrays.copyOf(postings.ids, postings.size);
+                freqs[i] = Arrays.copyOf(postings.freqs, postings.size);
+                i++;
+            }
+            int maxId = docIds.length == 0 ? 0 : docIds[docIds.length - 1];
+            return new Snapshot(new Watermark(docIds.length, maxId, checksum), docIds, docValues,
+                    terms, ids, freqs, modCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void write(DataOutputStream out, Snapshot snapshot) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeLong(snapshot.watermark.getCount());
+        out.writeInt(snapshot.watermark.getMaxId());
+        out.writeLong(snapshot.watermark.getChecksum());
+
+        out.writeInt(snapshot.docIds.length);
+        int prevId = 0;
+        for (int i = 0; i < snapshot.docIds.length; i++) {
+            Doc doc = snapshot.docs[i];
+            writeVarInt(out, snapshot.docIds[i] - prevId);
+            prevId = snapshot.docIds[i];
+            writeVarInt(out, doc.serviceId);
+            out.writeByte(doc.rating);
+            writeVarInt(out, doc.version);
+            writeVarInt(out, doc.length);
+        }
+
+        out.writeInt(snapshot.terms.length);
+        for (int t = 0; t < snapshot.terms.length; t++) {
+            int[] ids = snapshot.postingIds[t];
+            int[] freqs = snapshot.postingFreqs[t];
+            out.writeUTF(snapshot.terms[t]);
+            writeVarInt(out, ids.length);
+            prevId = 0;
+            for (int i = 0; i < ids.length; i++) {
+                writeVarInt(out, ids[i] - prevId);
+                prevId = ids[i];
+                writeVarInt(out, freqs[i]);
+            }
+        }
+    }
+
+    // Завантажує індекс, лише якщо водяний знак у заголовку файлу дорівнює очікуваному
+    private boolean load(Path source, Watermark expected) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                return false;
+            }
+            Watermark stored = new Watermark(in.readLong(), in.readInt(), in.readLong());
+            if (!stored.equals(expected)) {
+                return false;
+            }
+
+            int docCount = in.readInt();
+            int[] docIds = new int[docCount];
+            Doc[] loadedDocs = new Doc[docCount];
+            long length = 0;
+            int id = 0;
+            for (int i = 0; i < docCount; i++) {
+                id += readVarInt(in);
+                docIds[i] = id;
+                loadedDocs[i] = new Doc(readVarInt(in), in.readByte(), readVarInt(in), readVarInt(in), null);
+                length += loadedDocs[i].length;
+            }
+
+            int termCount = in.readInt();
+            Map<String, Postings> loadedIndex = new HashMap<>(termCount * 2);
+            Map<Integer, List<String>> termsByDoc = new HashMap<>(docCount * 2);
+            for (int t = 0; t < termCount; t++) {
+                String term = in.readUTF();
+                int size = readVarInt(in);
+                Postings postings = new Postings(size);
+                id = 0;
+                for (int i = 0; i < size; i++) {
+                    id += readVarInt(in);
+                    postings.add(id, readVarInt(in));
+                    termsByDoc.computeIfAbsent(id, k -> new ArrayList<>()).add(term);
+                }
+                loadedIndex.put(term, postings);
+            }
+
+            lock.writeLock().lock();
+            try {
+                index.clear();
+                docs.clear();
+                index.putAll(loadedIndex);
+                for (int i = 0; i < docCount; i++) {
+                    List<String> terms = termsByDoc.getOrDefault(docIds[i], List.of());
+                    Doc doc = loadedDocs[i];
+                    docs.put(docIds[i], new Doc(doc.serviceId, doc.rating, doc.version, doc.length,
+                            terms.toArray(new String[0])));
+                }
+                totalLength = length;
+                checksum = stored.getChecksum();
+                savedModCount = modCount;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Пошкоджене число у файлі індексу");
+    }
+
+    /**
+     * Проіндексований відгук: поля для фільтрів, версія, довжина та його унікальні терміни.
+     */
+    private static final class Doc {
+        private final int serviceId;
+        private final int rating;
+        private final int version;
+        private final int length;
+        private final String[] terms;
+
+        private Doc(int serviceId, int rating, int version, int length, String[] terms) {
+            this.serviceId = serviceId;
+            this.rating = rating;
+            this.version = version;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Знімок індексу для запису у файл без блокування.
+     */
+    private static final class Snapshot {
+        private final Watermark watermark;
+        private final int[] docIds;
+        private final Doc[] docs;
+        private final String[] terms;
+        private final int[][] postingIds;
+        private final int[][] postingFreqs;
+        private final long modCount;
+
+        private Snapshot(Watermark watermark, int[] docIds, Doc[] docs, String[] terms,
+                int[][] postingIds, int[][] postingFreqs, long modCount) {
+            this.watermark = watermark;
+            this.docIds = docIds;
+            this.docs = docs;
+            this.terms = terms;
+            this.postingIds = postingIds;
+            this.postingFreqs = postingFreqs;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * Список входжень терміна: ID відгуків за зростанням і частота терміна в кожному.
+     */
+    private static final class Postings {
+        private int[] ids;
+        private int[] freqs;
+        private int size;
+
+        private Postings() {
+            this(4);
+        }
+
+        private Postings(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            freqs = new int[ids.length];
+        }
+
+        private void add(int id, int freq) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            // Нові відгуки мають найбільший ID, тож зазвичай це дописування в кінець
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size) {
+                freqs[pos] = freq;
+                return;
+            }
+            if (pos < 0) {
+                pos = -pos - 1;
+                System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+                System.arraycopy(freqs, pos, freqs, pos + 1, size - pos);
+            }
+            ids[pos] = id;
+            freqs[pos] = freq;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(freqs, pos + 1, freqs, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
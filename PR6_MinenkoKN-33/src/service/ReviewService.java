@@ -1,39 +1,85 @@
 package service;
 
 import entity.Review;
-import entity.User;
-import entity.Service;
+import entity.ReviewFeedItem;
+import entity.ReviewSearchHit;
+import entity.ServiceRank;
+import entity.ServiceRatingStats;
+import dao.DaoFactory;
+import dao.Page;
 import dao.ReviewDAO;
-import dao.UserDAO;
-import dao.ServiceDAO;
+import exception.EntityNotFoundException;
+import util.JsonEntityMapper;
+import util.JsonFileHandler;
+import util.JsonWriter;
+import util.UnitOfWork;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class ReviewService {
+    /**
+     * Зміни відгуків тримають спільне блокування від фіксації до сповіщення слухачів,
+     * перерахунок статистики - виключне: інакше він міг би прочитати вже зафіксовану
+     * зміну, а сповіщення про неї застосувалося б вдруге або загубилося б при заміні стану.
+     */
+    private static final ReentrantReadWriteLock NOTIFICATIONS = new ReentrantReadWriteLock();
+
     /**
      * Data Access Object для роботи з відгуками.
      */
     private ReviewDAO reviewDAO;
-    
+
+    /**
+     * Статистика оцінок у пам'яті процесу.
+     */
+    private RatingStatsEngine ratingEngine;
+
+    /**
+     * Рейтинг послуг, що оновлюється при зміні відгуків.
+     */
+    private ServiceLeaderboard leaderboard;
+
     /**
-     * Data Access Object для роботи з користувачами.
+     * Повнотекстовий індекс відгуків.
      */
-    private UserDAO userDAO;
-    
+    private ReviewSearchIndex searchIndex;
+
     /**
-     * Data Access Object для роботи з послугами.
+     * Слухачі, яких сповіщають про успішні зміни відгуків.
      */
-    private ServiceDAO serviceDAO;
+    private final List<ReviewChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Конструктор.
-     * Ініціалізує DAO об'єкти для роботи з даними.
+     * Використовує спільні екземпляри DAO з DaoFactory.
      */
     public ReviewService() {
-        this.reviewDAO = new ReviewDAO();
-        this.userDAO = new UserDAO();
-        this.serviceDAO = new ServiceDAO();
+        this.reviewDAO = DaoFactory.getReviewDAO();
+        this.ratingEngine = RatingStatsEngine.getInstance();
+        this.leaderboard = ServiceLeaderboard.getInstance();
+        this.searchIndex = ReviewSearchIndex.getInstance();
+        this.listeners.add(ratingEngine);
+        this.listeners.add(leaderboard);
+        this.listeners.add(searchIndex);
+        this.listeners.add(JsonJournalMirror.getInstance());
+    }
+
+    /**
+     * Додає слухача змін відгуків.
+     * 
+     * @param listener слухач
+     */
+    public void addChangeListener(ReviewChangeListener listener) {
+        listeners.add(listener);
     }
 
     /**
@@ -43,47 +89,177 @@ public class ReviewService {
      * @param serviceId ідентифікатор послуги, про яку відгук
      * @param text текст відгуку
      * @param rating оцінка послуги (від 1 до 5)
-     * @return створений відгук або null, якщо створення не вдалося
-     * @throws IllegalArgumentException якщо дані невалідні
+     * @return створений відгук
+     * @throws IllegalArgumentException якщо дані невалідні або користувача чи послуги не існує
      * @throws IOException якщо виникла помилка при роботі з файлом
      */
     public Review createReview(int userId, int serviceId, String text, int rating) 
             throws IllegalArgumentException, IOException {
-        // Перевірка існування користувача
-        User user = userDAO.findById(userId);
-        if (user == null) {
-            throw new IllegalArgumentException("Користувач з таким ID не існує");
-        }
-        
-        // Перевірка існування послуги
-        Service service = serviceDAO.findById(serviceId);
-        if (service == null) {
-            throw new IllegalArgumentException("Послуга з таким ID не існує");
-        }
-        
-        // Валідація тексту відгуку
-        if (text == null || text.trim().isEmpty()) {
-            throw new IllegalArgumentException("Текст відгуку не може бути порожнім");
-        }
-        
-        if (text.trim().length() < 10) {
-            throw new IllegalArgumentException("Текст відгуку повинен містити мінімум 10 символів");
-        }
+        validateReviewContent(text, rating);
         
-        // Валідація оцінки
-        if (rating < 1 || rating > 5) {
-            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
-        }
-        
-        // Створення відгуку
+        // Існування користувача та послуги перевіряє сама вставка - одна транзакція й один запит
         Review review = new Review(0, userId, serviceId, text.trim(), rating);
-        boolean created = reviewDAO.create(review);
-        
-        if (created) {
+        return notifying(() -> {
+            ReviewDAO.CreateResult result = reviewDAO.createIfReferenced(review);
+            if (result == ReviewDAO.CreateResult.USER_NOT_FOUND) {
+                throw new IllegalArgumentException("Користувач з таким ID не існує");
+            }
+            if (result == ReviewDAO.CreateResult.SERVICE_NOT_FOUND) {
+                throw new IllegalArgumentException("Послуга з таким ID не існує");
+            }
+
+            // Слухачі тримають стан у пам'яті - сповіщаємо лише про зафіксовані зміни
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    listener.onReviewCreated(review);
+                }
+            });
+            return review;
+        });
+    }
+
+    /**
+     * Змінює текст та оцінку відгуку. Зміна застосовується лише до тієї версії,
+     * яку бачив автор; автоматичного повтору немає, щоб не затерти чужу правку.
+     * 
+     * @param id ідентифікатор відгуку
+     * @param text новий текст відгуку
+     * @param rating нова оцінка (від 1 до 5)
+     * @param expectedVersion версія відгуку, яку редагував викликач
+     * @return оновлений відгук
+     * @throws IllegalArgumentException якщо дані невалідні або відгуку не існує
+     * @throws exception.OptimisticLockException якщо відгук уже змінено після прочитання
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Review updateReview(int id, String text, int rating, int expectedVersion)
+            throws IllegalArgumentException, IOException {
+        validateReviewContent(text, rating);
+
+        // Читання та оновлення з перевіркою версії в одній транзакції
+        return notifying(() -> UnitOfWork.execute(() -> {
+            Review review;
+            try {
+                review = reviewDAO.findById(id);
+            } catch (EntityNotFoundException e) {
+                throw new IllegalArgumentException("Відгук з таким ID не існує");
+            }
+            review.setText(text.trim());
+            review.setRating(rating);
+            review.setVersion(expectedVersion);
+            Review previous = reviewDAO.updateAndGetPrevious(review);
+            if (previous == null) {
+                throw new IllegalArgumentException("Відгук з таким ID не існує");
+            }
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    listener.onReviewUpdated(previous, review);
+                }
+            });
             return review;
+        }));
+    }
+
+    /**
+     * Видаляє відгук.
+     * 
+     * @param id ідентифікатор відгуку
+     * @return true, якщо відгук видалено, false - якщо його не існувало
+     * @throws exception.OptimisticLockException якщо відгук змінювали паралельно в усіх спробах
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public boolean deleteReview(int id) throws IOException {
+        // Видалення за ID не несе даних викликача, тож після конфлікту його безпечно повторити
+        return notifying(() -> OptimisticRetry.run(() -> {
+            Review previous = reviewDAO.deleteAndGetPrevious(id);
+            if (previous == null) {
+                return false;
+            }
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    listener.onReviewDeleted(previous);
+                }
+            });
+            return true;
+        }));
+    }
+
+    /**
+     * Створює кілька відгуків однією транзакцією з пакетною вставкою. Існування
+     * користувачів та послуг перевіряють зовнішні ключі: якщо хоч одне посилання
+     * порушене, не створюється жоден відгук.
+     * 
+     * @param reviews нові відгуки; після виклику мають ID з бази
+     * @return кількість створених відгуків
+     * @throws IllegalArgumentException якщо дані хоч одного відгуку невалідні
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public int createReviews(List<Review> reviews) throws IllegalArgumentException, IOException {
+        for (Review review : reviews) {
+            validateReviewContent(review.getText(), review.getRating());
+            review.setText(review.getText().trim());
         }
-        
-        return null;
+        return notifying(() -> {
+            int created = reviewDAO.createAll(reviews);
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    for (Review review : reviews) {
+                        listener.onReviewCreated(review);
+                    }
+                }
+            });
+            return created;
+        });
+    }
+
+    /**
+     * Оновлює кілька відгуків однією транзакцією. Кожен відгук має нести версію,
+     * з якою його було прочитано; якщо хоч один змінено чи видалено паралельно,
+     * не оновлюється жоден.
+     * 
+     * @param reviews відгуки з новими даними та прочитаною версією
+     * @return кількість оновлених відгуків
+     * @throws IllegalArgumentException якщо дані хоч одного відгуку невалідні
+     * @throws exception.OptimisticLockException якщо хоч один відгук змінено або видалено
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public int updateReviews(List<Review> reviews) throws IllegalArgumentException, IOException {
+        for (Review review : reviews) {
+            validateReviewContent(review.getText(), review.getRating());
+            review.setText(review.getText().trim());
+        }
+        return notifying(() -> {
+            List<Review> previous = reviewDAO.updateAllAndGetPrevious(reviews);
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    for (int i = 0; i < previous.size(); i++) {
+                        listener.onReviewUpdated(previous.get(i), reviews.get(i));
+                    }
+                }
+            });
+            return previous.size();
+        });
+    }
+
+    /**
+     * Видаляє кілька відгуків однією транзакцією; відсутні ID пропускаються.
+     * 
+     * @param ids ідентифікатори відгуків
+     * @return кількість видалених відгуків
+     * @throws exception.OptimisticLockException якщо відгук змінили під час видалення
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public int deleteReviews(Collection<Integer> ids) throws IOException {
+        return notifying(() -> {
+            List<Review> previous = reviewDAO.deleteAllAndGetPrevious(ids);
+            UnitOfWork.afterCommit(() -> {
+                for (ReviewChangeListener listener : listeners) {
+                    for (Review review : previous) {
+                        listener.onReviewDeleted(review);
+                    }
+                }
+            });
+            return previous.size();
+        });
     }
 
     /**
@@ -130,24 +306,251 @@ public class ReviewService {
     }
 
     /**
-     * Обчислює середню оцінку для послуги.
+     * Отримує сторінку відгуків.
+     * 
+     * @param token токен сторінки з попереднього виклику або null для першої сторінки
+     * @param pageSize кількість відгуків на сторінці, від 1 до {@link Page#MAX_PAGE_SIZE}
+     * @return сторінка відгуків
+     * @throws IllegalArgumentException якщо токен невірний або розмір сторінки поза межами
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Page<Review> getReviewsPage(String token, int pageSize) throws IOException {
+        return reviewDAO.findPage(token, pageSize);
+    }
+
+    /**
+     * Отримує сторінку відгуків для конкретної послуги.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @param token токен сторінки з попереднього виклику або null для першої сторінки
+     * @param pageSize кількість відгуків на сторінці, від 1 до {@link Page#MAX_PAGE_SIZE}
+     * @return сторінка відгуків для вказаної послуги
+     * @throws IllegalArgumentException якщо токен невірний або розмір сторінки поза межами
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Page<Review> getReviewsByServicePage(int serviceId, String token, int pageSize)
+            throws IOException {
+        return reviewDAO.findPageByServiceId(serviceId, token, pageSize);
+    }
+
+    /**
+     * Отримує сторінку відгуків конкретного користувача.
+     * 
+     * @param userId ідентифікатор користувача
+     * @param token токен сторінки з попереднього виклику або null для першої сторінки
+     * @param pageSize кількість відгуків на сторінці, від 1 до {@link Page#MAX_PAGE_SIZE}
+     * @return сторінка відгуків вказаного користувача
+     * @throws IllegalArgumentException якщо токен невірний або розмір сторінки поза межами
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Page<Review> getReviewsByUserPage(int userId, String token, int pageSize)
+            throws IOException {
+        return reviewDAO.findPageByUserId(userId, token, pageSize);
+    }
+
+    /**
+     * Отримує сторінку стрічки відгуків з іменами авторів та назвами послуг одним запитом.
+     * 
+     * @param token токен сторінки з попереднього виклику або null для першої сторінки
+     * @param pageSize кількість відгуків на сторінці, від 1 до {@link Page#MAX_PAGE_SIZE}
+     * @return сторінка стрічки відгуків
+     * @throws IllegalArgumentException якщо токен невірний або розмір сторінки поза межами
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Page<ReviewFeedItem> getFeedPage(String token, int pageSize) throws IOException {
+        return reviewDAO.findFeedPage(token, pageSize);
+    }
+
+    /**
+     * Отримує сторінку стрічки відгуків конкретного користувача одним запитом.
+     * 
+     * @param userId ідентифікатор користувача
+     * @param token токен сторінки з попереднього виклику або null для першої сторінки
+     * @param pageSize кількість відгуків на сторінці, від 1 до {@link Page#MAX_PAGE_SIZE}
+     * @return сторінка стрічки відгуків вказаного користувача
+     * @throws IllegalArgumentException якщо токен невірний або розмір сторінки поза межами
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Page<ReviewFeedItem> getFeedByUserPage(int userId, String token, int pageSize)
+            throws IOException {
+        return reviewDAO.findFeedPageByUserId(userId, token, pageSize);
+    }
+
+    /**
+     * Шукає відгуки за текстом з ранжуванням за релевантністю.
+     * 
+     * @param query текст запиту
+     * @param serviceId ідентифікатор послуги або null для всіх послуг
+     * @param minRating мінімальна оцінка (включно)
+     * @param maxRating максимальна оцінка (включно)
+     * @param limit максимальна кількість результатів
+     * @return знайдені відгуки від найрелевантніших
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public List<ReviewSearchHit> searchReviews(String query, Integer serviceId, int minRating,
+            int maxRating, int limit) throws IOException {
+        Map<Integer, Double> scores = searchIndex.search(query, serviceId, minRating, maxRating, limit);
+        Map<Integer, Review> reviews = reviewDAO.findByIds(scores.keySet());
+        List<ReviewSearchHit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            Review review = reviews.get(entry.getKey());
+            if (review != null) {
+                hits.add(new ReviewSearchHit(review, entry.getValue()));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Експортує всі відгуки у JSON файл. Відгуки читаються курсором і пишуться
+     * у файл по одному, тож пам'ять не залежить від кількості відгуків.
+     * 
+     * @param filePath шлях до файлу
+     * @param pretty true - форматувати з відступами
+     * @return кількість експортованих відгуків
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public int exportReviews(String filePath, boolean pretty) throws IOException {
+        try (Stream<Review> reviews = reviewDAO.streamAll();
+             JsonWriter out = new JsonFileHandler().openJsonWriter(filePath, pretty)) {
+            return JsonEntityMapper.writeArray(out, reviews.iterator(), JsonEntityMapper::writeReview);
+        }
+    }
+
+    /**
+     * Обчислює середню оцінку для послуги з агрегатів service_stats.
      * 
      * @param serviceId ідентифікатор послуги
      * @return середня оцінка послуги або 0, якщо відгуків немає
      * @throws IOException якщо виникла помилка при роботі з файлом
      */
     public double getAverageRating(int serviceId) throws IOException {
-        List<Review> reviews = reviewDAO.findByServiceId(serviceId);
-        if (reviews.isEmpty()) {
-            return 0.0;
+        return reviewDAO.findStatsByServiceId(serviceId).getAverage();
+    }
+
+    /**
+     * Отримує кількість відгуків, середню оцінку та розподіл оцінок послуги.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @return статистика оцінок послуги
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public ServiceRatingStats getRatingStats(int serviceId) throws IOException {
+        return reviewDAO.findStatsByServiceId(serviceId);
+    }
+
+    /**
+     * Отримує статистику оцінок послуги з пам'яті процесу, без звернення до бази даних.
+     * 
+     * @param serviceId ідентифікатор послуги
+     * @return статистика оцінок послуги
+     */
+    public ServiceRatingStats getLiveRatingStats(int serviceId) {
+        return ratingEngine.getStats(serviceId);
+    }
+
+    /**
+     * Перераховує агрегати оцінок усіх послуг з відгуків.
+     * Потрібно лише після змін у таблиці reviews в обхід ReviewDAO.
+     * Зміни відгуків з інших потоків чекають на завершення перерахунку.
+     *
+     * @throws IllegalStateException якщо потік усередині одиниці роботи, що вже змінювала відгуки
+     */
+    public void rebuildRatingStats() {
+        // Спільне блокування не підвищується до виключного - чекали б самі на себе
+        if (NOTIFICATIONS.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Перерахунок статистики неможливий до завершення змін відгуків");
+        }
+        NOTIFICATIONS.writeLock().lock();
+        try {
+            reviewDAO.rebuildServiceStats();
+            ratingEngine.warmUp(reviewDAO);
+            leaderboard.warmUp(reviewDAO);
+        } finally {
+            NOTIFICATIONS.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Повертає найкращі послуги за байєсівською зваженою оцінкою.
+     * 
+     * @param n максимальна кількість послуг
+     * @return послуги у порядку спадання оцінки
+     */
+    public List<ServiceRank> getTopRatedServices(int n) {
+        return leaderboard.topRated(n);
+    }
+
+    /**
+     * Повертає послуги з найбільшою кількістю відгуків.
+     * 
+     * @param n максимальна кількість послуг
+     * @return послуги у порядку спадання кількості відгуків
+     */
+    public List<ServiceRank> getMostReviewedServices(int n) {
+        return leaderboard.mostReviewed(n);
+    }
+
+    /**
+     * Перевіряє текст та оцінку відгуку без винятку - для масового імпорту,
+     * що пропускає невалідні записи.
+     * 
+     * @param text текст відгуку
+     * @param rating оцінка послуги
+     * @return true, якщо відгук можна створити
+     */
+    static boolean isValidReviewContent(String text, int rating) {
+        try {
+            validateReviewContent(text, rating);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Виконує зміну відгуків під спільним блокуванням сповіщень. Зміна має сама
+     * зафіксувати транзакцію й сповістити слухачів до повернення; у зовнішній одиниці
+     * роботи блокування тримається до її завершення, бо сповіщення відкладені до її фіксації.
+     * 
+     * @param change зміна відгуків
+     * @param <T> тип результату
+     * @return результат зміни
+     */
+    private static <T> T notifying(Supplier<T> change) {
+        Lock lock = NOTIFICATIONS.readLock();
+        lock.lock();
+        if (UnitOfWork.isActive()) {
+            UnitOfWork.afterCompletion(lock::unlock);
+            return change.get();
+        }
+        try {
+            return change.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Перевіряє текст та оцінку відгуку.
+     * 
+     * @param text текст відгуку
+     * @param rating оцінка послуги
+     * @throws IllegalArgumentException якщо дані невалідні
+     */
+    private static void validateReviewContent(String text, int rating) {
+        // Валідація тексту відгуку
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("Текст відгуку не може бути порожнім");
         }
         
-        int sum = 0;
-        for (Review review : reviews) {
-            sum += review.getRating();
+        if (text.trim().length() < 10) {
+            throw new IllegalArgumentException("Текст відгуку повинен містити мінімум 10 символів");
         }
         
-        return (double) sum / reviews.size();
+        // Валідація оцінки
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("Оцінка повинна бути від 1 до 5");
+        }
     }
 }
-
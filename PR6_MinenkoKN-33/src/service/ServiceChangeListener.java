@@ -0,0 +1,32 @@
+package service;
+
+import entity.Service;
+
+/**
+ * Отримує сповіщення ServiceService про успішні зміни послуг.
+ * Використовується похідними структурами в пам'яті, що оновлюються інкрементально.
+ */
+public interface ServiceChangeListener {
+
+    /**
+     * Викликається після створення послуги.
+     * 
+     * @param service створена послуга
+     */
+    void onServiceCreated(Service service);
+
+    /**
+     * Викликається після оновлення послуги.
+     * 
+     * @param previous стан послуги до оновлення
+     * @param updated стан послуги після оновлення
+     */
+    void onServiceUpdated(Service previous, Service updated);
+
+    /**
+     * Викликається після видалення послуги.
+     * 
+     * @param previous стан послуги до видалення
+     */
+    void onServiceDeleted(Service previous);
+}
@@ -0,0 +1,221 @@
+package service;
+
+import dao.ReviewDAO;
+import entity.Review;
+import entity.ServiceRank;
+import entity.ServiceRatingStats;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Рейтинг послуг, що оновлюється інкрементально при кожній зміні відгуку.
+ *
+ * <p>Послуги тримаються у двох впорядкованих деревах: за байєсівською зваженою
+ * оцінкою {@code (C * m + сума) / (C + кількість)} та за кількістю відгуків. Зміна
+ * відгуку переставляє лише одну послугу за O(log n), а читання top-N - це обхід
+ * перших N елементів дерева.
+ *
+ * <p>Апріорне середнє {@code m} фіксується при {@link #warmUp(ReviewDAO)} та
+ * {@link #rebalance()}, а не перераховується на кожен відгук: інакше кожен новий
+ * відгук змінював би оцінки всіх послуг. Перебудова за O(n log n) виконується
+ * автоматично після кожних {@code guestbook.leaderboard.rebalanceEvery} змін
+ * відгуків (типово {@value #DEFAULT_REBALANCE_EVERY}), тож між перебудовами
+ * {@code m} відстає від справжнього середнього щонайбільше на стільки змін.
+ */
+public class ServiceLeaderboard implements ReviewChangeListener {
+
+    /**
+     * Вага апріорного середнього - скільки «віртуальних» відгуків воно додає.
+     */
+    private static final double PRIOR_WEIGHT = 10.0;
+
+    /**
+     * Апріорне середнє до першого завантаження статистики.
+     */
+    private static final double DEFAULT_PRIOR_MEAN = 3.0;
+
+    /**
+     * Типова кількість змін відгуків між перебудовами рейтингу.
+     */
+    private static final int DEFAULT_REBALANCE_EVERY = 1000;
+
+    private static ServiceLeaderboard instance;
+
+    private final int rebalanceEvery;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byScore = new TreeSet<>(
+            Comparator.comparingDouble((Entry e) -> e.score).reversed()
+                    .thenComparingInt(e -> e.serviceId));
+    private final TreeSet<Entry> byCount = new TreeSet<>(
+            Comparator.comparingLong((Entry e) -> e.count).reversed()
+                    .thenComparingInt(e -> e.serviceId));
+
+    private double priorMean = DEFAULT_PRIOR_MEAN;
+    private long totalCount;
+    private long totalSum;
+    private int changesSinceRebalance;
+
+    public ServiceLeaderboard() {
+        this(Integer.getInteger("guestbook.leaderboard.rebalanceEvery", DEFAULT_REBALANCE_EVERY));
+    }
+
+    /**
+     * @param rebalanceEvery кількість змін відгуків між автоматичними перебудовами
+     */
+    ServiceLeaderboard(int rebalanceEvery) {
+        if (rebalanceEvery <= 0) {
+            throw new IllegalArgumentException("rebalanceEvery має бути додатним: " + rebalanceEvery);
+        }
+        this.rebalanceEvery = rebalanceEvery;
+    }
+
+    public static synchronized ServiceLeaderboard getInstance() {
+        if (instance == null) {
+            instance = new ServiceLeaderboard();
+        }
+        return instance;
+    }
+
+    /**
+     * Завантажує рейтинг з агрегатів ReviewDAO, замінюючи поточний.
+     * 
+     * @param reviewDAO джерело агрегатів оцінок
+     */
+    public synchronized void warmUp(ReviewDAO reviewDAO) {
+        entries.clear();
+        byScore.clear();
+        byCount.clear();
+        totalCount = 0;
+        totalSum = 0;
+        changesSinceRebalance = 0;
+        List<ServiceRatingStats> all = reviewDAO.findAllStats();
+        for (ServiceRatingStats stats : all) {
+            totalCount += stats.getCount();
+            totalSum += stats.getSum();
+        }
+        priorMean = totalCount == 0 ? DEFAULT_PRIOR_MEAN : (double) totalSum / totalCount;
+        for (ServiceRatingStats stats : all) {
+            put(new Entry(stats.getServiceId(), stats.getCount(), stats.getSum(), priorMean));
+        }
+    }
+
+    /**
+     * Оновлює апріорне середнє до поточного середнього всіх відгуків і перебудовує
+     * порядок за зваженою оцінкою. Викликається автоматично після кожних
+     * {@code rebalanceEvery} змін, але може бути викликаний і явно.
+     */
+    public synchronized void rebalance() {
+        changesSinceRebalance = 0;
+        priorMean = totalCount == 0 ? DEFAULT_PRIOR_MEAN : (double) totalSum / totalCount;
+        List<Entry> current = new ArrayList<>(entries.values());
+        byScore.clear();
+        byCount.clear();
+        entries.clear();
+        for (Entry e : current) {
+            put(new Entry(e.serviceId, e.count, e.sum, priorMean));
+        }
+    }
+
+    @Override
+    public synchronized void onReviewCreated(Review review) {
+        apply(review.getServiceId(), 1, review.getRating());
+        afterChange();
+    }
+
+    @Override
+    public synchronized void onReviewUpdated(Review previous, Review updated) {
+        apply(previous.getServiceId(), -1, -previous.getRating());
+        apply(updated.getServiceId(), 1, updated.getRating());
+        afterChange();
+    }
+
+    @Override
+    public synchronized void onReviewDeleted(Review previous) {
+        apply(previous.getServiceId(), -1, -previous.getRating());
+        afterChange();
+    }
+
+    /**
+     * Повертає найкращі послуги за байєсівською зваженою оцінкою.
+     * 
+     * @param n максимальна кількість послуг
+     * @return послуги у порядку спадання оцінки
+     */
+    public synchronized List<ServiceRank> topRated(int n) {
+        return top(byScore, n);
+    }
+
+    /**
+     * Повертає послуги з найбільшою кількістю відгуків.
+     * 
+     * @param n максимальна кількість послуг
+     * @return послуги у порядку спадання кількості відгуків
+     */
+    public synchronized List<ServiceRank> mostReviewed(int n) {
+        return top(byCount, n);
+    }
+
+    private void afterChange() {
+        if (++changesSinceRebalance >= rebalanceEvery) {
+            rebalance();
+        }
+    }
+
+    private void apply(int serviceId, long deltaCount, long deltaSum) {
+        Entry old = entries.get(serviceId);
+        long count = deltaCount;
+        long sum = deltaSum;
+        if (old != null) {
+            byScore.remove(old);
+            byCount.remove(old);
+            count += old.count;
+            sum += old.sum;
+        }
+        totalCount += deltaCount;
+        totalSum += deltaSum;
+        if (count <= 0) {
+            entries.remove(serviceId);
+            return;
+        }
+        put(new Entry(serviceId, count, sum, priorMean));
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.serviceId, entry);
+        byScore.add(entry);
+        byCount.add(entry);
+    }
+
+    private List<ServiceRank> top(TreeSet<Entry> ordered, int n) {
+        List<ServiceRank> result = new ArrayList<>(Math.min(Math.max(n, 0), ordered.size()));
+        Iterator<Entry> it = ordered.iterator();
+        while (it.hasNext() && result.size() < n) {
+            Entry e = it.next();
+            result.add(new ServiceRank(e.serviceId, e.count, (double) e.sum / e.count, e.score));
+        }
+        return result;
+    }
+
+    /**
+     * Незмінний стан послуги в рейтингу; при кожній зміні замінюється новим.
+     */
+    private static final class Entry {
+        private final int serviceId;
+        private final long count;
+        private final long sum;
+        private final double score;
+
+        private Entry(int serviceId, long count, long sum, double priorMean) {
+            this.serviceId = serviceId;
+            this.count = count;
+            this.sum = sum;
+            this.score = (PRIOR_WEIGHT * priorMean + sum) / (PRIOR_WEIGHT + count);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package service;
+
+import dao.ServiceDAO;
+import entity.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import util.UkrainianTokenizer;
+
+/**
+ * Пошук послуг за назвою та описом: автодоповнення за префіксом і нечіткий пошук
+ * з обмеженою відстанню редагування.
+ *
+ * <p>Слова назв і описів зберігаються у двох префіксних деревах (trie), кожен вузол
+ * якого тримає відсортовані масиви символів переходів та ID послуг, у яких слово
+ * закінчується в цьому вузлі. Автодоповнення - це спуск за префіксом і обхід
+ * піддерева до першого {@code limit} ID. Нечіткий пошук обходить дерево, будуючи
+ * рядок матриці Левенштейна на кожен вузол і відсікаючи гілки, де мінімум рядка
+ * вже перевищує допустиму відстань, тому переглядається лише мала частина слів.
+ *
+ * <p>Назви мають пріоритет над описами. Індекс оновлюється як {@link ServiceChangeListener}.
+ */
+public class ServiceSearchIndex implements ServiceChangeListener {
+
+    private static final int NAME = 0;
+    private static final int DESCRIPTION = 1;
+
+    /**
+     * Слова до цієї довжини допускають одну помилку, довші - дві.
+     */
+    private static final int SHORT_WORD_LENGTH = 4;
+
+    private static ServiceSearchIndex instance;
+
+    private final UkrainianTokenizer tokenizer = new UkrainianTokenizer();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node[] roots = {new Node(), new Node()};
+
+    /**
+     * Унікальні слова кожної послуги за полями - потрібні, щоб прибрати її з дерев.
+     */
+    private final Map<Integer, String[][]> wordsById = new HashMap<>();
+
+    public static synchronized ServiceSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new ServiceSearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Будує індекс з усіх послуг, замінюючи поточний.
+     *
+     * @param serviceDAO джерело послуг
+     */
+    public void warmUp(ServiceDAO serviceDAO) {
+        lock.writeLock().lock();
+        try {
+            roots[NAME] = new Node();
+            roots[DESCRIPTION] = new Node();
+            wordsById.clear();
+            try (Stream<Service> services = serviceDAO.streamAll()) {
+                services.forEach(this::add);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onServiceCreated(Service service) {
+        lock.writeLock().lock();
+        try {
+            add(service);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onServiceUpdated(Service previous, Service updated) {
+        lock.writeLock().lock();
+        try {
+            remove(previous.getId());
+            add(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onServiceDeleted(Service previous) {
+        lock.writeLock().lock();
+        try {
+            remove(previous.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Шукає послуги: спершу автодоповненням, а якщо результатів менше за ліміт -
+     * доповнює їх нечіткими збігами.
+     *
+     * @param query запит
+     * @param limit максимальна кількість результатів
+     * @return ID послуг від найкращих збігів
+     */
+    public List<Integer> search(String query, int limit) {
+        Set<Integer> result = new LinkedHashSet<>(complete(query, limit));
+        if (result.size() < limit) {
+            for (Integer id : fuzzy(query, limit)) {
+                result.add(id);
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Автодоповнення: усі слова запиту, крім останнього, мають збігатися повністю,
+     * останнє - бути префіксом слова послуги. Спершу шукається в назвах, потім в описах.
+     *
+     * @param query запит
+     * @param limit максимальна кількість результатів
+     * @return ID послуг: збіги в назвах перед збігами в описах, у межах кожного
+     *     коротші слова першими, а за рівної довжини - менші ID
+     */
+    public List<Integer> complete(String query, int limit) {
+        List<String> words = distinct(tokenizer.words(query));
+        Set<Integer> result = new LinkedHashSet<>();
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>(result);
+        }
+
+        lock.readLock().lock();
+        try {
+            for (Node root : roots) {
+                Set<Integer> candidates = null;
+                boolean matched = true;
+                for (int i = 0; i < words.size() - 1 && matched; i++) {
+                    Node node = find(root, words.get(i));
+                    matched = node != null && node.idCount > 0;
+                    if (matched) {
+                        candidates = intersect(candidates, node);
+                        matched = !candidates.isEmpty();
+                    }
+                }
+                Node prefix = matched ? find(root, words.get(words.size() - 1)) : null;
+                if (prefix != null) {
+                    collect(prefix, candidates, result, limit);
+                }
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Нечіткий пошук: кожне слово запиту має бути в межах відстані Левенштейна
+     * (1 для слів до чотирьох літер, 2 для довших) від якогось слова послуги.
+     *
+     * @param query запит
+     * @param limit максимальна кількість результатів
+     * @return ID послуг у порядку зростання сумарної відстані; збіги в назві першими
+     */
+    public List<Integer> fuzzy(String query, int limit) {
+        List<String> words = distinct(tokenizer.words(query));
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, Integer> best = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int field = NAME; field <= DESCRIPTION; field++) {
+                Map<Integer, Integer> total = null;
+                for (String word : words) {
+                    Map<Integer, Integer> distances = new HashMap<>();
+                    int maxDistance = word.length() <= SHORT_WORD_LENGTH ? 1 : 2;
+                    int[] firstRow = new int[word.length() + 1];
+                    for (int i = 0; i < firstRow.length; i++) {
+                        firstRow[i] = i;
+                    }
+                    Node root = roots[field];
+                    for (int c = 0; c < root.childCount; c++) {
+                        walk(root.children[c], root.keys[c], word, firstRow, maxDistance, distances);
+                    }
+                    total = total == null ? distances : sumCommon(total, distances);
+                    if (total.isEmpty()) {
+                        break;
+                    }
+                }
+                // Збіг в описі на одиницю гірший за такий самий збіг у назві
+                int penalty = field == NAME ? 0 : 1;
+                for (Map.Entry<Integer, Integer> entry : total.entrySet()) {
+                    best.merge(entry.getKey(), entry.getValue() + penalty, Math::min);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Integer, Integer>> ordered = new ArrayList<>(best.entrySet());
+        ordered.sort(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> result = new ArrayList<>(Math.min(limit, ordered.size()));
+        for (int i = 0; i < ordered.size() && i < limit; i++) {
+            result.add(ordered.get(i).getKey());
+        }
+        return result;
+    }
+
+    // Викликається під блокуванням запису
+    private void add(Service service) {
+        String[][] words = {
+                distinct(tokenizer.words(service.getName())).toArray(new String[0]),
+                distinct(tokenizer.words(service.getDescription())).toArray(new String[0])
+        };
+        wordsById.put(service.getId(), words);
+        for (int field = NAME; field <= DESCRIPTION; field++) {
+            for (String word : words[field]) {
+                Node node = roots[field];
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.childOrCreate(word.charAt(i));
+                }
+                node.addId(service.getId());
+            }
+        }
+    }
+
+    // Викликається під блокуванням запису
+    private void remove(int id) {
+        String[][] words = wordsById.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (int field = NAME; field <= DESCRIPTION; field++) {
+            for (String word : words[field]) {
+                removeFrom(roots[field], word, 0, id);
+            }
+        }
+    }
+
+    /**
+     * Прибирає ID зі слова та вузли, що стали порожніми.
+     *
+     * @return true, якщо вузол тепер порожній і його можна прибрати з батьківського
+     */
+    private boolean removeFrom(Node node, String word, int depth, int id) {
+        if (depth == word.length()) {
+            node.removeId(id);
+        } else {
+            Node child = node.child(word.charAt(depth));
+            if (child != null && removeFrom(child, word, depth + 1, id)) {
+                node.removeChild(word.charAt(depth));
+            }
+        }
+        return node.idCount == 0 && node.childCount == 0;
+    }
+
+    private static Node find(Node root, String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        return node;
+    }
+
+    // Обхід у ширину: рівень вузла - довжина слова, тож коротші слова першими,
+    // а в межах рівня ID за зростанням. Глибші рівні не обходяться, щойно ліміт набрано
+    private static void collect(Node node, Set<Integer> candidates, Set<Integer> result, int limit) {
+        List<Node> level = new ArrayList<>();
+        level.add(node);
+        while (!level.isEmpty() && result.size() < limit) {
+            List<Integer> ids = new ArrayList<>();
+            List<Node> next = new ArrayList<>();
+            for (Node current : level) {
+                for (int i = 0; i < current.idCount; i++) {
+                    if (candidates == null || candidates.contains(current.ids[i])) {
+                        ids.add(current.ids[i]);
+                    }
+                }
+                for (int c = 0; c < current.childCount; c++) {
+                    next.add(current.children[c]);
+                }
+            }
+            Collections.sort(ids);
+            for (int i = 0; i < ids.size() && result.size() < limit; i++) {
+                result.add(ids.get(i));
+            }
+            level = next;
+        }
+    }
+
+    private static void walk(Node node, char c, String word, int[] previousRow, int maxDistance,
+            Map<Integer, Integer> distances) {
+        int columns = word.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int replace = previousRow[i - 1] + (word.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), replace);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+        int distance = row[columns - 1];
+        if (distance <= maxDistance) {
+            for (int i = 0; i < node.idCount; i++) {
+                distances.merge(node.ids[i], distance, Math::min);
+            }
+        }
+        if (rowMin <= maxDistance) {
+            for (int i = 0; i < node.childCount; i++) {
+                walk(node.children[i], node.keys[i], word, row, maxDistance, distances);
+            }
+        }
+    }
+
+    private static Set<Integer> intersect(Set<Integer> candidates, Node node) {
+        Set<Integer> result = new LinkedHashSet<>();
+        for (int i = 0; i < node.idCount; i++) {
+            if (candidates == null || candidates.contains(node.ids[i])) {
+                result.add(node.ids[i]);
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, Integer> sumCommon(Map<Integer, Integer> a, Map<Integer, Integer> b) {
+        Map<Integer, Integer> result = new HashMap<>();
+        for (Map.Entry<Integer, Integer> entry : a.entrySet()) {
+            Integer other = b.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> distinct(List<String> words) {
+        return new ArrayList<>(new LinkedHashSet<>(words));
+    }
+
+    /**
+     * Вузол дерева: переходи за символами та ID послуг зі словом, що тут закінчується.
+     * Обидва набори - відсортовані масиви з двійковим пошуком.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private int[] ids = new int[0];
+        private int idCount;
+
+        private Node child(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            Node node = new Node();
+            keys[pos] = c;
+            children[pos] = node;
+            childCount++;
+            return node;
+        }
+
+        private void removeChild(char c) {
+            int pos = Arrays.binarySearch(keys, 0, childCount, c);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(keys, pos + 1, keys, pos, childCount - pos - 1);
+            System.arraycopy(children, pos + 1, children, pos, childCount - pos - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+
+        private void addId(int id) {
+            int pos = Arrays.binarySearch(ids, 0, idCount, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(2, idCount * 2));
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, idCount - pos);
+            ids[pos] = id;
+            idCount++;
+        }
+
+        private void removeId(int id) {
+            int pos = Arrays.binarySearch(ids, 0, idCount, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, idCount - pos - 1);
+            idCount--;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package service;
 
+import dao.DaoFactory;
+import dao.ReviewDAO;
 import dao.ServiceDAO;
 import entity.Service;
+import exception.EntityNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import util.UnitOfWork;
 
 
 public class ServiceService {
@@ -12,12 +20,40 @@ public class ServiceService {
      */
     private ServiceDAO serviceDAO;
 
+    /**
+     * Data Access Object для роботи з відгуками.
+     */
+    private ReviewDAO reviewDAO;
+
+    /**
+     * Індекс пошуку послуг за назвою та описом.
+     */
+    private ServiceSearchIndex searchIndex;
+
+    /**
+     * Слухачі, яких сповіщають про успішні зміни послуг.
+     */
+    private final List<ServiceChangeListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * Конструктор.
-     * Ініціалізує ServiceDAO для роботи з даними.
+     * Використовує спільні екземпляри DAO з DaoFactory.
      */
     public ServiceService() {
-        this.serviceDAO = new ServiceDAO();
+        this.serviceDAO = DaoFactory.getServiceDAO();
+        this.reviewDAO = DaoFactory.getReviewDAO();
+        this.searchIndex = ServiceSearchIndex.getInstance();
+        this.listeners.add(searchIndex);
+        this.listeners.add(JsonJournalMirror.getInstance());
+    }
+
+    /**
+     * Додає слухача змін послуг.
+     * 
+     * @param listener слухач
+     */
+    public void addChangeListener(ServiceChangeListener listener) {
+        listeners.add(listener);
     }
 
     /**
@@ -31,27 +67,94 @@ public class ServiceService {
      */
     public Service createService(String name, String description) 
             throws IllegalArgumentException, IOException {
-        // Валідація назви
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Назва послуги не може бути порожньою");
-        }
-        
-        // Валідація опису
-        if (description == null || description.trim().isEmpty()) {
-            throw new IllegalArgumentException("Опис послуги не може бути порожнім");
-        }
+        validateServiceContent(name, description);
         
         // Створення послуги
         Service service = new Service(0, name.trim(), description.trim());
         boolean created = serviceDAO.create(service);
         
         if (created) {
+            UnitOfWork.afterCommit(() -> {
+                for (ServiceChangeListener listener : listeners) {
+                    listener.onServiceCreated(service);
+                }
+            });
             return service;
         }
         
         return null;
     }
 
+    /**
+     * Змінює назву та опис послуги.
+     * 
+     * @param id ідентифікатор послуги
+     * @param name нова назва послуги
+     * @param description новий опис послуги
+     * @param expectedVersion версія послуги, яку редагував викликач
+     * @return оновлена послуга
+     * @throws IllegalArgumentException якщо дані невалідні або послуги не існує
+     * @throws exception.OptimisticLockException якщо послугу вже змінено після прочитання
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Service updateService(int id, String name, String description, int expectedVersion)
+            throws IllegalArgumentException, IOException {
+        validateServiceContent(name, description);
+
+        // Оновлення з перевіркою версії, яку бачив викликач; без повтору, щоб не затерти чужу правку
+        return UnitOfWork.execute(() -> {
+            Service previous;
+            try {
+                previous = serviceDAO.findById(id);
+            } catch (EntityNotFoundException e) {
+                throw new IllegalArgumentException("Послуга з таким ID не існує");
+            }
+            Service service = new Service(id, name.trim(), description.trim());
+            service.setVersion(expectedVersion);
+            if (!serviceDAO.update(service)) {
+                throw new IllegalArgumentException("Послуга з таким ID не існує");
+            }
+            UnitOfWork.afterCommit(() -> {
+                for (ServiceChangeListener listener : listeners) {
+                    listener.onServiceUpdated(previous, service);
+                }
+            });
+            return service;
+        });
+    }
+
+    /**
+     * Видаляє послугу, на яку ще немає відгуків.
+     * 
+     * @param id ідентифікатор послуги
+     * @return true, якщо послугу видалено, false - якщо її не існувало
+     * @throws IllegalArgumentException якщо на послугу є відгуки
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public boolean deleteService(int id) throws IllegalArgumentException, IOException {
+        // Перевірка відгуків і видалення - одна транзакція трьох таблиць
+        return UnitOfWork.execute(() -> {
+            Service previous;
+            try {
+                previous = serviceDAO.findById(id);
+            } catch (EntityNotFoundException e) {
+                return false;
+            }
+            if (reviewDAO.findStatsByServiceId(id).getCount() > 0) {
+                throw new IllegalArgumentException("Неможливо видалити послугу, на яку є відгуки");
+            }
+            if (!serviceDAO.delete(id)) {
+                return false;
+            }
+            UnitOfWork.afterCommit(() -> {
+                for (ServiceChangeListener listener : listeners) {
+                    listener.onServiceDeleted(previous);
+                }
+            });
+            return true;
+        });
+    }
+
     /**
      * Отримує послугу за ідентифікатором.
      * 
@@ -63,6 +166,17 @@ public class ServiceService {
         return serviceDAO.findById(id);
     }
 
+    /**
+     * Отримує послуги за списком ідентифікаторів за мінімальну кількість запитів.
+     * 
+     * @param ids ідентифікатори послуг
+     * @return мапа ідентифікатор → послуга; відсутніх послуг у мапі немає
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Map<Integer, Service> getServicesByIds(Collection<Integer> ids) throws IOException {
+        return serviceDAO.findByIds(ids);
+    }
+
     /**
      * Отримує всі послуги.
      * 
@@ -72,5 +186,45 @@ public class ServiceService {
     public List<Service> getAllServices() throws IOException {
         return serviceDAO.findAll();
     }
+
+    /**
+     * Шукає послуги за початком слів назви чи опису, а також з урахуванням описок.
+     * 
+     * @param query запит
+     * @param limit максимальна кількість результатів
+     * @return знайдені послуги від найкращих збігів
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public List<Service> searchServices(String query, int limit) throws IOException {
+        List<Integer> ids = searchIndex.search(query, limit);
+        Map<Integer, Service> services = serviceDAO.findByIds(ids);
+        List<Service> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Service service = services.get(id);
+            if (service != null) {
+                result.add(service);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Перевіряє назву та опис послуги.
+     * 
+     * @param name назва послуги
+     * @param description опис послуги
+     * @throws IllegalArgumentException якщо дані невалідні
+     */
+    private void validateServiceContent(String name, String description) {
+        // Валідація назви
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Назва послуги не може бути порожньою");
+        }
+        
+        // Валідація опису
+        if (description == null || description.trim().isEmpty()) {
+            throw new IllegalArgumentException("Опис послуги не може бути порожнім");
+        }
+    }
 }
 
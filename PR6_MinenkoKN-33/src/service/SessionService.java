@@ -0,0 +1,366 @@
+package service;
+
+import dao.DaoFactory;
+import dao.SessionDAO;
+import dao.UserDAO;
+import entity.Session;
+import entity.User;
+import exception.EntityNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервіс сесій: після входу користувач отримує непрозорий токен, і кожен
+ * наступний запит автентифікується пошуком у пам'яті замість findByEmail та
+ * хешування пароля.
+ *
+ * <p>Токен - 32 випадкові байти {@link SecureRandom} у Base64url. Зберігається
+ * лише його SHA-256: ключ мапи сесій - хеш, тож час пошуку залежить від хешу, а не
+ * від символів токена, а знайдений хеш додатково звіряється за сталий час.
+ *
+ * <p>Сесія зберігає лише ID користувача; сам користувач при кожному зверненні
+ * береться з {@link UserDAO#findById(int)} (через його кеш), тож зміни профілю
+ * видно одразу, а кожен виклик отримує власну копію. Якщо користувача вже
+ * видалено, сесія завершується. Зміна пароля та видалення користувача завершують
+ * усі його сесії через {@link #invalidateAllForUser(int)}.
+ *
+ * <p>Сесія завершується після {@code -Dguestbook.session.ttlMinutes} (30) хвилин
+ * бездіяльності: кожне звернення зсуває час завершення. Завершені сесії прибирає
+ * хешоване колесо таймера - {@value #WHEEL_SIZE} кошиків по одній секунді. Зсув
+ * терміну не переставляє сесію в колесі: коли доходить черга її кошика, сесія з
+ * відкладеним терміном просто переноситься в кошик нового терміну.
+ *
+ * <p>З {@code -Dguestbook.session.persist=true} сесії зберігаються в таблиці
+ * sessions і переживають перезапуск. Щоб не писати в базу на кожен запит, новий
+ * термін записується, лише коли він відійшов від збереженого більш ніж на чверть
+ * тривалості сесії; після перезапуску сесія може завершитися на стільки раніше.
+ */
+public class SessionService {
+
+    private static final long DEFAULT_TTL_MINUTES = 30;
+    private static final int TOKEN_BYTES = 32;
+    private static final int WHEEL_SIZE = 512;
+    private static final long TICK_MILLIS = 1_000;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Помилка хешування токена сесії", e);
+        }
+    });
+
+    private static SessionService instance;
+
+    private final SessionDAO sessionDAO;
+    private final UserDAO userDAO;
+    private final long ttlMillis;
+    private final boolean persistent;
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * Активні сесії за хешем токена.
+     */
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Кошики колеса таймера; доступ під блокуванням самого списку.
+     */
+    private final List<List<Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * Останній оброблений такт колеса (час / {@link #TICK_MILLIS}).
+     */
+    private long lastTick;
+
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Сесія разом з даними, потрібними лише сервісу.
+     */
+    private static final class Entry {
+        private final Session session;
+        private final byte[] tokenDigest;
+        private volatile long persistedExpiresAt;
+
+        private Entry(Session session, byte[] tokenDigest) {
+            this.session = session;
+            this.tokenDigest = tokenDigest;
+            this.persistedExpiresAt = session.getExpiresAt();
+        }
+    }
+
+    private SessionService() {
+        this(TimeUnit.MINUTES.toMillis(Long.getLong("guestbook.session.ttlMinutes", DEFAULT_TTL_MINUTES)),
+                Boolean.getBoolean("guestbook.session.persist"));
+    }
+
+    /**
+     * @param ttlMillis тривалість бездіяльності до завершення сесії
+     * @param persistent чи зберігати сесії в таблиці sessions
+     */
+    SessionService(long ttlMillis, boolean persistent) {
+        this.persistent = persistent;
+        this.sessionDAO = persistent ? DaoFactory.getSessionDAO() : null;
+        this.userDAO = DaoFactory.getUserDAO();
+        this.ttlMillis = ttlMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        lastTick = System.currentTimeMillis() / TICK_MILLIS;
+
+        if (persistent) {
+            load();
+        }
+
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::advanceQuietly, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized SessionService getInstance() {
+        if (instance == null) {
+            instance = new SessionService();
+        }
+        return instance;
+    }
+
+    /**
+     * Створює сесію для користувача, що щойно увійшов або зареєструвався.
+     *
+     * @param user користувач
+     * @return токен сесії; зберігається лише на боці клієнта
+     */
+    public String createSession(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = encoder.encodeToString(bytes);
+
+        byte[] digest = digest(token);
+        long now = System.currentTimeMillis();
+        Session session = new Session(toHex(digest), user.getId(), now, now + ttlMillis);
+        Entry entry = new Entry(session, digest);
+        if (persistent) {
+            sessionDAO.save(session);
+        }
+        sessions.put(session.getTokenHash(), entry);
+        synchronized (wheel) {
+            schedule(entry);
+        }
+        return token;
+    }
+
+    /**
+     * Знаходить користувача за токеном і продовжує сесію.
+     *
+     * @param token токен сесії
+     * @return власна копія користувача або null, якщо токен невідомий, сесія
+     *     завершилась чи користувача вже видалено
+     */
+    public User authenticate(String token) {
+        Entry entry = find(token);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Session session = entry.session;
+        if (session.getExpiresAt() <= now) {
+            expire(entry);
+            return null;
+        }
+        User user;
+        try {
+            user = userDAO.findById(session.getUserId());
+        } catch (EntityNotFoundException e) {
+            user = null;
+        }
+        if (user == null) {
+            expire(entry);
+            return null;
+        }
+
+        long expiresAt = now + ttlMillis;
+        session.setExpiresAt(expiresAt);
+        if (persistent && expiresAt - entry.persistedExpiresAt > ttlMillis / 4) {
+            entry.persistedExpiresAt = expiresAt;
+            try {
+                sessionDAO.updateExpiresAt(session.getTokenHash(), expiresAt);
+            } catch (RuntimeException e) {
+                System.err.println("Не вдалося продовжити збережену сесію: " + e.getMessage());
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Завершує сесію (вихід з акаунту).
+     *
+     * @param token токен сесії
+     * @return true, якщо сесію було завершено
+     */
+    public boolean invalidate(String token) {
+        Entry entry = find(token);
+        if (entry == null || !sessions.remove(entry.session.getTokenHash(), entry)) {
+            return false;
+        }
+        if (persistent) {
+            sessionDAO.delete(entry.session.getTokenHash());
+        }
+        return true;
+    }
+
+    /**
+     * Завершує всі сесії користувача, наприклад після зміни пароля чи видалення
+     * акаунту. Перебирає всі сесії в пам'яті - операція рідкісна.
+     *
+     * @param userId ідентифікатор користувача
+     * @return кількість завершених сесій у пам'яті
+     */
+    public int invalidateAllForUser(int userId) {
+        int removed = 0;
+        for (Entry entry : sessions.values()) {
+            if (entry.session.getUserId() == userId
+                    && sessions.remove(entry.session.getTokenHash(), entry)) {
+                removed++;
+            }
+        }
+        if (persistent) {
+            sessionDAO.deleteByUserId(userId);
+        }
+        return removed;
+    }
+
+    /**
+     * Отримує кількість активних сесій.
+     *
+     * @return кількість сесій у пам'яті
+     */
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    private Entry find(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        byte[] digest = digest(token);
+        Entry entry = sessions.get(toHex(digest));
+        if (entry == null || !MessageDigest.isEqual(entry.tokenDigest, digest)) {
+            return null;
+        }
+        return entry;
+    }
+
+    private void expire(Entry entry) {
+        if (sessions.remove(entry.session.getTokenHash(), entry) && persistent) {
+            try {
+                sessionDAO.delete(entry.session.getTokenHash());
+            } catch (RuntimeException e) {
+                System.err.println("Не вдалося видалити завершену сесію: " + e.getMessage());
+            }
+        }
+    }
+
+    // Викликається під блокуванням wheel
+    private void schedule(Entry entry) {
+        long tick = (entry.session.getExpiresAt() + TICK_MILLIS - 1) / TICK_MILLIS;
+        tick = Math.max(tick, lastTick + 1);
+        wheel.get((int) (tick % WHEEL_SIZE)).add(entry);
+    }
+
+    private void advanceQuietly() {
+        try {
+            advance();
+        } catch (RuntimeException e) {
+            System.err.println("Помилка завершення сесій: " + e.getMessage());
+        }
+    }
+
+    private void advance() {
+        long now = System.currentTimeMillis();
+        long nowTick = now / TICK_MILLIS;
+        boolean expired = false;
+        synchronized (wheel) {
+            // Після довгої паузи досить один раз пройти всі кошики
+            lastTick = Math.max(lastTick, nowTick - WHEEL_SIZE);
+        }
+        while (true) {
+            List<Entry> due;
+            synchronized (wheel) {
+                if (lastTick >= nowTick) {
+                    break;
+                }
+                lastTick++;
+                due = wheel.set((int) (lastTick % WHEEL_SIZE), new ArrayList<>());
+            }
+            for (Entry entry : due) {
+                if (sessions.get(entry.session.getTokenHash()) != entry) {
+                    // Сесію вже завершено виходом з акаунту
+                    continue;
+                }
+                if (entry.session.getExpiresAt() <= now) {
+                    expired |= sessions.remove(entry.session.getTokenHash(), entry);
+                } else {
+                    synchronized (wheel) {
+                        schedule(entry);
+                    }
+                }
+            }
+        }
+        if (expired && persistent) {
+            sessionDAO.deleteExpired(now);
+        }
+    }
+
+    // Сесії видалених користувачів прибирає каскад зовнішнього ключа sessions.userID
+    private void load() {
+        long now = System.currentTimeMillis();
+        sessionDAO.deleteExpired(now);
+        List<Session> stored = sessionDAO.findActive(now);
+        synchronized (wheel) {
+            for (Session session : stored) {
+                Entry entry = new Entry(session, fromHex(session.getTokenHash()));
+                sessions.put(session.getTokenHash(), entry);
+                schedule(entry);
+            }
+        }
+    }
+
+    private static byte[] digest(String token) {
+        return DIGEST.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ((Character.digit(hex.charAt(i * 2), 16) << 4)
+                    | Character.digit(hex.charAt(i * 2 + 1), 16));
+        }
+        return bytes;
+    }
+}
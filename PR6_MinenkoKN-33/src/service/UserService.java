@@ -1,16 +1,34 @@
 package service;
 
+import dao.DaoFactory;
 import dao.UserDAO;
+import entity.Review;
 import entity.User;
+import exception.EntityNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
+import util.PasswordHashing;
+import util.UnitOfWork;
 
 public class UserService {
     /**
      * Data Access Object для роботи з користувачами.
      */
     private UserDAO userDAO;
+
+    /**
+     * Сервіс відгуків: відгуки видаленого користувача видаляються зі сповіщенням слухачів.
+     */
+    private ReviewService reviewService;
+
+    /**
+     * Сесії користувачів, що завершуються при зміні пароля та видаленні акаунту.
+     */
+    private SessionService sessionService;
     
     /**
      * Патерн для перевірки email адреси.
@@ -20,10 +38,12 @@ public class UserService {
 
     /**
      * Конструктор.
-     * Ініціалізує UserDAO для роботи з даними.
+     * Використовує спільний UserDAO з DaoFactory.
      */
     public UserService() {
-        this.userDAO = new UserDAO();
+        this.userDAO = DaoFactory.getUserDAO();
+        this.reviewService = new ReviewService();
+        this.sessionService = SessionService.getInstance();
     }
 
     /**
@@ -57,10 +77,7 @@ public class UserService {
             throw new IllegalArgumentException("Користувач з таким email вже існує");
         }
         
-        // Валідація пароля
-        if (password == null || password.length() < 4) {
-            throw new IllegalArgumentException("Пароль повинен містити мінімум 4 символи");
-        }
+        validatePassword(password);
         
         // Створення користувача
         User user = new User(0, name.trim(), email.trim().toLowerCase(), password);
@@ -75,6 +92,7 @@ public class UserService {
 
     /**
      * Автентифікує користувача за email та паролем.
+     * Хеш у застарілому форматі після успішного входу замінюється поточним.
      * 
      * @param email email адреса користувача
      * @param password пароль користувача
@@ -82,16 +100,89 @@ public class UserService {
      * @throws IOException якщо виникла помилка при роботі з файлом
      */
     public User loginUser(String email, String password) throws IOException {
-        if (email == null || password == null) {
+        // Порожній пароль відхиляється до пошуку: інакше перевірка для наявного email
+        // повертала б false миттєво, а для відсутнього - після фіктивного хешування
+        if (email == null || password == null || password.isEmpty()) {
             return null;
         }
         
         User user = userDAO.findByEmail(email.trim().toLowerCase());
-        if (user != null && user.checkPassword(password)) {
-            return user;
+        if (user == null) {
+            // Та сама ціна, що й для існуючого email: час відповіді не видає зареєстровані адреси
+            PasswordHashing.getInstance().verifyDummy(password);
+            return null;
+        }
+        if (!user.checkPassword(password)) {
+            return null;
         }
         
-        return null;
+        // Пароль відомий лише зараз - перехешовуємо старий формат або слабші параметри
+        if (user.passwordNeedsRehash()) {
+            user.setPassword(password);
+            try {
+                userDAO.update(user);
+            } catch (RuntimeException e) {
+                System.err.println("Не вдалося оновити хеш пароля: " + e.getMessage());
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Змінює пароль користувача і завершує всі його сесії.
+     * 
+     * @param userId ідентифікатор користувача
+     * @param currentPassword поточний пароль
+     * @param newPassword новий пароль
+     * @return true, якщо пароль змінено; false, якщо користувача немає або поточний пароль невірний
+     * @throws IllegalArgumentException якщо новий пароль невалідний
+     * @throws exception.OptimisticLockException якщо користувача змінено паралельно
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public boolean changePassword(int userId, String currentPassword, String newPassword)
+            throws IllegalArgumentException, IOException {
+        validatePassword(newPassword);
+        if (currentPassword == null || currentPassword.isEmpty()) {
+            return false;
+        }
+        User user;
+        try {
+            user = userDAO.findById(userId);
+        } catch (EntityNotFoundException e) {
+            return false;
+        }
+        if (!user.checkPassword(currentPassword)) {
+            return false;
+        }
+        user.setPassword(newPassword);
+        if (!userDAO.update(user)) {
+            return false;
+        }
+        // Старий пароль міг бути скомпрометований - чинні сесії більше не довіряються
+        sessionService.invalidateAllForUser(userId);
+        return true;
+    }
+
+    /**
+     * Видаляє користувача разом з його відгуками однією транзакцією і завершує всі його сесії.
+     * 
+     * @param userId ідентифікатор користувача
+     * @return true, якщо користувача видалено; false, якщо його не було
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public boolean deleteUser(int userId) throws IOException {
+        boolean deleted = UnitOfWork.execute(() -> {
+            List<Integer> reviewIds = new ArrayList<>();
+            for (Review review : reviewService.getReviewsByUser(userId)) {
+                reviewIds.add(review.getId());
+            }
+            reviewService.deleteReviews(reviewIds);
+            return userDAO.delete(userId);
+        });
+        if (deleted) {
+            sessionService.invalidateAllForUser(userId);
+        }
+        return deleted;
     }
 
     /**
@@ -105,6 +196,17 @@ public class UserService {
         return userDAO.findById(id);
     }
 
+    /**
+     * Отримує користувачів за списком ідентифікаторів за мінімальну кількість запитів.
+     * 
+     * @param ids ідентифікатори користувачів
+     * @return мапа ідентифікатор → користувач; відсутніх користувачів у мапі немає
+     * @throws IOException якщо виникла помилка при роботі з файлом
+     */
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) throws IOException {
+        return userDAO.findByIds(ids);
+    }
+
     /**
      * Отримує всіх користувачів.
      * 
@@ -115,6 +217,18 @@ public class UserService {
         return userDAO.findAll();
     }
 
+    /**
+     * Перевіряє пароль нового користувача або новий пароль.
+     * 
+     * @param password пароль
+     * @throws IllegalArgumentException якщо пароль коротший за 4 символи
+     */
+    private static void validatePassword(String password) {
+        if (password == null || password.length() < 4) {
+            throw new IllegalArgumentException("Пароль повинен містити мінімум 4 символи");
+        }
+    }
+
     /**
      * Перевіряє валідність email адреси.
      * 
@@ -0,0 +1,793 @@
+package util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Обмежений пул JDBC з'єднань.
+ *
+ * <p>Тримає щонайменше {@code minSize} і не більше {@code maxSize} фізичних з'єднань.
+ * Перед видачею з'єднання перевіряється через {@link Connection#isValid(int)},
+ * простоюючі понад {@code idleTimeoutMillis} з'єднання закриваються фоновим потоком,
+ * а з'єднання, які не повернули довше за {@code leakThresholdMillis}, звітуються як витоки
+ * разом зі стеком місця, де їх було взято.
+ *
+ * <p>Пошук витоків вмикається явно: стек знімається при кожній видачі з'єднання, а це
+ * помітна ціна саме на тому шляху, який пул має пришвидшувати. Помилки фонового потоку
+ * (невдале відкриття з'єднань до мінімуму, збої обслуговування) пишуться в
+ * {@code System.err} завжди і рахуються в статистиці.
+ *
+ * <p>Виклик {@link Connection#close()} на виданому з'єднанні повертає його до пулу.
+ * Кожне фізичне з'єднання має власний кеш {@link PreparedStatement} за текстом SQL,
+ * тому повторні запити розбираються та плануються лише раз на з'єднання.
+ */
+public class ConnectionPool implements DataSource {
+
+  private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+  private static final long HOUSEKEEPING_PERIOD_MILLIS = 5_000;
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final int minSize;
+  private final int maxSize;
+  private final long acquireTimeoutMillis;
+  private final long idleTimeoutMillis;
+  private final long leakThresholdMillis;
+  private final int statementCacheSize;
+
+  // LIFO: найсвіжіші з'єднання на початку, найстаріші - в кінці черги
+  private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+  private final Semaphore permits;
+  private final AtomicInteger total = new AtomicInteger();
+  private final ScheduledExecutorService housekeeper;
+  private volatile boolean closed;
+
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder created = new LongAdder();
+  private final LongAdder destroyed = new LongAdder();
+  private final LongAdder borrowCount = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder validationFailures = new LongAdder();
+  private final LongAdder leaks = new LongAdder();
+  private final LongAdder backgroundErrors = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final LongAdder statementHits = new LongAdder();
+  private final LongAdder statementMisses = new LongAdder();
+  private final LongAdder statementEvictions = new LongAdder();
+
+  /**
+   * Створює пул та одразу відкриває {@code minSize} з'єднань.
+   *
+   * @param url JDBC URL бази даних
+   * @param user ім'я користувача бази даних
+   * @param password пароль користувача бази даних
+   * @param minSize мінімальна кількість з'єднань, що тримаються відкритими
+   * @param maxSize максимальна кількість з'єднань
+   * @param acquireTimeoutMillis скільки чекати вільне з'єднання, мс
+   * @param idleTimeoutMillis через скільки простою з'єднання понад мінімум закривається, мс
+   * @param leakThresholdMillis через скільки не повернуте з'єднання вважається витоком, мс (0 - вимкнено)
+   * @param statementCacheSize скільки підготовлених запитів кешувати на з'єднання (0 - вимкнено)
+   */
+  public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+      long acquireTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+      int statementCacheSize) {
+    if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+      throw new IllegalArgumentException(
+          "Невірний розмір пулу: min=" + minSize + ", max=" + maxSize);
+    }
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.leakThresholdMillis = leakThresholdMillis;
+    this.statementCacheSize = statementCacheSize;
+    this.permits = new Semaphore(maxSize, true);
+
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "connection-pool-housekeeper");
+      t.setDaemon(true);
+      return t;
+    });
+    fillToMinimum();
+    housekeeper.scheduleWithFixedDelay(this::housekeep,
+        HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Видає з'єднання з пулу, за потреби відкриваючи нове.
+   *
+   * @return з'єднання, яке треба закрити після використання
+   * @throws SQLTimeoutException якщо за {@code acquireTimeoutMillis} не звільнилось жодне з'єднання
+   * @throws SQLException якщо пул закрито або не вдалося відкрити з'єднання
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("Пул з'єднань закрито");
+    }
+
+    long start = System.nanoTime();
+    boolean acquired;
+    waiting.incrementAndGet();
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Очікування з'єднання перервано", e);
+    } finally {
+      waiting.decrementAndGet();
+    }
+    if (!acquired) {
+      timeouts.increment();
+      throw new SQLTimeoutException("Не вдалося отримати з'єднання за " + acquireTimeoutMillis
+          + " мс (активних: " + borrowed.size() + ", максимум: " + maxSize + ")");
+    }
+
+    try {
+      PooledConnection pc = takeIdle(start);
+      if (pc == null) {
+        pc = openPhysical();
+      }
+      long waited = System.nanoTime() - start;
+      totalWaitNanos.add(waited);
+      maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+      pc.borrowedAt = System.currentTimeMillis();
+      pc.borrowSite = leakDetection() ? new Throwable("З'єднання взято тут") : null;
+      pc.leakReported = false;
+      borrowed.add(pc);
+      borrowCount.increment();
+      return pc.newHandle();
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException("Пул працює лише з налаштованими обліковими даними");
+  }
+
+  // Повертає перевірене простоююче з'єднання або null, якщо треба відкрити нове
+  private PooledConnection takeIdle(long startNanos) throws SQLException {
+    while (true) {
+      PooledConnection pc = idle.pollFirst();
+      if (pc == null) {
+        if (reserveSlot()) {
+          return null;
+        }
+        // Слот зайняв фоновий потік, який саме відкриває з'єднання, - чекаємо його
+        long remaining = acquireTimeoutMillis
+            - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        try {
+          pc = idle.pollFirst(Math.max(remaining, 1), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("Очікування з'єднання перервано", e);
+        }
+        if (pc == null) {
+          throw new SQLTimeoutException("Не вдалося отримати з'єднання за "
+              + acquireTimeoutMillis + " мс");
+        }
+      }
+      if (isValid(pc)) {
+        return pc;
+      }
+      validationFailures.increment();
+      destroy(pc);
+    }
+  }
+
+  private boolean isValid(PooledConnection pc) {
+    try {
+      return pc.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private boolean reserveSlot() {
+    while (true) {
+      int current = total.get();
+      if (current >= maxSize) {
+        return false;
+      }
+      if (total.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  // Відкриває фізичне з'єднання у вже зарезервованому слоті
+  private PooledConnection openPhysical() throws SQLException {
+    try {
+      Connection physical = DriverManager.getConnection(url, user, password);
+      created.increment();
+      return new PooledConnection(physical);
+    } catch (SQLException | RuntimeException e) {
+      total.decrementAndGet();
+      throw e;
+    }
+  }
+
+  // Викликається при закритті виданого з'єднання
+  private void release(PooledConnection pc) {
+    borrowed.remove(pc);
+    try {
+      pc.reset();
+      if (closed) {
+        destroy(pc);
+      } else {
+        pc.idleSince = System.currentTimeMillis();
+        idle.offerFirst(pc);
+      }
+    } catch (SQLException e) {
+      destroy(pc);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void destroy(PooledConnection pc) {
+    total.decrementAndGet();
+    destroyed.increment();
+    try {
+      pc.physical.close();
+    } catch (SQLException e) {
+      // З'єднання вже непридатне, закрити його не вдалося - нічого не робимо
+    }
+  }
+
+  private void fillToMinimum() {
+    while (!closed && total.get() < minSize && reserveSlot()) {
+      try {
+        PooledConnection pc = openPhysical();
+        pc.idleSince = System.currentTimeMillis();
+        idle.offerLast(pc);
+      } catch (SQLException e) {
+        backgroundErrors.increment();
+        report("Не вдалося відкрити з'єднання для мінімуму пулу: " + e.getMessage(), null);
+        return;
+      }
+    }
+  }
+
+  // Пакетний доступ - для тестів, щоб не чекати періоду обслуговування
+  void housekeep() {
+    try {
+      long now = System.currentTimeMillis();
+
+      // Закриваємо найстаріші простоюючі з'єднання понад мінімум
+      Iterator<PooledConnection> it = idle.descendingIterator();
+      while (it.hasNext() && total.get() > minSize) {
+        PooledConnection pc = it.next();
+        if (now - pc.idleSince > idleTimeoutMillis && idle.remove(pc)) {
+          destroy(pc);
+        }
+      }
+
+      if (leakDetection()) {
+        for (PooledConnection pc : borrowed) {
+          if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMillis) {
+            pc.leakReported = true;
+            leaks.increment();
+            report("Можливий витік з'єднання: не повернуто до пулу протягом "
+                + (now - pc.borrowedAt) + " мс", pc.borrowSite);
+          }
+        }
+      }
+
+      fillToMinimum();
+    } catch (RuntimeException e) {
+      backgroundErrors.increment();
+      report("Помилка обслуговування пулу з'єднань: " + e.getMessage(), null);
+    }
+  }
+
+  private boolean leakDetection() {
+    return leakThresholdMillis > 0;
+  }
+
+  // Єдине місце, де пул пише в журнал; стек місця видачі є лише для витоків
+  private void report(String message, Throwable borrowSite) {
+    System.err.println(message);
+    if (borrowSite != null) {
+      borrowSite.printStackTrace();
+    }
+  }
+
+  /**
+   * Закриває пул: простоюючі з'єднання закриваються одразу, видані - при поверненні.
+   */
+  public void close() {
+    closed = true;
+    housekeeper.shutdownNow();
+    PooledConnection pc;
+    while ((pc = idle.pollFirst()) != null) {
+      destroy(pc);
+    }
+  }
+
+  /**
+   * Повертає знімок статистики пулу для підбору його розміру.
+   *
+   * @return статистика пулу
+   */
+  public Stats getStats() {
+    long borrows = borrowCount.sum();
+    return new Stats(total.get(), idle.size(), borrowed.size(), waiting.get(), minSize, maxSize,
+        created.sum(), destroyed.sum(), borrows, timeouts.sum(), validationFailures.sum(),
+        leaks.sum(), backgroundErrors.sum(),
+        borrows == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum() / borrows),
+        TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()),
+        statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+  }
+
+  @Override
+  public PrintWriter getLogWriter() {
+    return null;
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) {
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return 0;
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Не є обгорткою для " + iface.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+
+  /**
+   * Фізичне з'єднання разом зі станом, який пул веде для нього.
+   */
+  private final class PooledConnection {
+    private final Connection physical;
+    private volatile long borrowedAt;
+    private volatile long idleSince;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+
+    // Рівень ізоляції до першої зміни; -1 - не змінювався. Режим читання повертається у false
+    private int defaultIsolation = -1;
+    private boolean readOnlyChanged;
+
+    // Кеш підготовлених запитів за текстом SQL; порядок доступу дає LRU-витіснення.
+    // З'єднання одночасно використовує лише один потік, тож синхронізація не потрібна.
+    private final LinkedHashMap<String, CachedStatement> statements =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+            if (size() <= statementCacheSize) {
+              return false;
+            }
+            statementEvictions.increment();
+            eldest.getValue().evict();
+            return true;
+          }
+        };
+
+    private PooledConnection(Connection physical) {
+      this.physical = physical;
+    }
+
+    private Connection newHandle() {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[] {Connection.class}, new Handle(this));
+    }
+
+    // Видає закешований запит або готує новий; autoGeneratedKeys = null для звичайного запиту
+    private PreparedStatement prepare(Connection handle, String sql, Integer autoGeneratedKeys)
+        throws SQLException {
+      if (statementCacheSize <= 0) {
+        return prepareUncached(sql, autoGeneratedKeys);
+      }
+      String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + ":" + sql;
+      CachedStatement cached = statements.get(key);
+      if (cached != null && !cached.inUse) {
+        statementHits.increment();
+        cached.inUse = true;
+        return cached.newHandle(handle);
+      }
+      statementMisses.increment();
+      PreparedStatement ps = prepareUncached(sql, autoGeneratedKeys);
+      if (cached != null) {
+        // Той самий запит уже відкритий вище по стеку - віддаємо окремий, некешований
+        return ps;
+      }
+      cached = new CachedStatement(ps);
+      cached.inUse = true;
+      statements.put(key, cached);
+      return cached.newHandle(handle);
+    }
+
+    private PreparedStatement prepareUncached(String sql, Integer autoGeneratedKeys)
+        throws SQLException {
+      return autoGeneratedKeys == null
+          ? physical.prepareStatement(sql)
+          : physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    // Повертає з'єднання до стану за замовчуванням перед наступною видачею
+    private void reset() throws SQLException {
+      for (CachedStatement cached : statements.values()) {
+        cached.release();
+      }
+      if (!physical.getAutoCommit()) {
+        physical.rollback();
+        physical.setAutoCommit(true);
+      }
+      if (defaultIsolation >= 0) {
+        physical.setTransactionIsolation(defaultIsolation);
+        defaultIsolation = -1;
+      }
+      if (readOnlyChanged) {
+        physical.setReadOnly(false);
+        readOnlyChanged = false;
+      }
+      physical.clearWarnings();
+    }
+  }
+
+  /**
+   * Фізичний підготовлений запит у кеші з'єднання.
+   */
+  private static final class CachedStatement {
+    private final PreparedStatement physical;
+    private boolean inUse;
+    private boolean evicted;
+    // Номер видачі: обгортка попередньої видачі стає недійсною, коли запит видано знову
+    private int lease;
+
+    private CachedStatement(PreparedStatement physical) {
+      this.physical = physical;
+    }
+
+    private PreparedStatement newHandle(Connection connectionHandle) {
+      return (PreparedStatement) Proxy.newProxyInstance(
+          PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+          new StatementHandle(this, ++lease, connectionHandle));
+    }
+
+    // З'єднання повернуто до пулу з незакритим запитом: обгортка позичальника більше не діє
+    private void release() {
+      if (inUse) {
+        inUse = false;
+        lease++;
+      }
+    }
+
+    // Повертає запит до кешу, очищуючи стан попереднього використання
+    private void giveBack() throws SQLException {
+      inUse = false;
+      if (evicted) {
+        physical.close();
+        return;
+      }
+      physical.clearParameters();
+      physical.clearBatch();
+      physical.clearWarnings();
+    }
+
+    private void evict() {
+      evicted = true;
+      if (!inUse) {
+        try {
+          physical.close();
+        } catch (SQLException e) {
+          // Запит витіснено з кешу; помилка закриття ні на що не впливає
+        }
+      }
+    }
+  }
+
+  /**
+   * Обгортка закешованого запиту: {@code close()} повертає його до кешу замість закриття.
+   */
+  private static final class StatementHandle implements InvocationHandler {
+    private final CachedStatement cached;
+    private final int lease;
+    private final Connection connectionHandle;
+    private boolean closed;
+
+    private StatementHandle(CachedStatement cached, int lease, Connection connectionHandle) {
+      this.cached = cached;
+      this.lease = lease;
+      this.connectionHandle = connectionHandle;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      // Запит уже належить наступному позичальнику з'єднання - ця обгортка закрита
+      if (!closed && lease != cached.lease) {
+        closed = true;
+      }
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            cached.giveBack();
+          }
+          return null;
+        case "isClosed":
+          return closed || cached.physical.isClosed();
+        case "getConnection":
+          return connectionHandle;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Cached[" + cached.physical + "]";
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("Запит уже закрито");
+      }
+      try {
+        return method.invoke(cached.physical, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Одноразова обгортка, яку отримує код. Після {@code close()} вона стає непридатною,
+   * тож застаріле посилання не може закрити з'єднання, повторно видане іншому потоку.
+   */
+  private final class Handle implements InvocationHandler {
+    private final PooledConnection pc;
+    private boolean closed;
+
+    private Handle(PooledConnection pc) {
+      this.pc = pc;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            release(pc);
+          }
+          return null;
+        case "isClosed":
+          return closed || pc.physical.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "Pooled[" + pc.physical + "]";
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("З'єднання вже повернуто до пулу");
+      }
+      // Запам'ятовуємо зміни стану сесії, щоб reset повертав їх лише за потреби
+      if ("setTransactionIsolation".equals(method.getName()) && pc.defaultIsolation < 0) {
+        pc.defaultIsolation = pc.physical.getTransactionIsolation();
+      } else if ("setReadOnly".equals(method.getName())) {
+        pc.readOnlyChanged = true;
+      }
+      if ("prepareStatement".equals(method.getName()) && args != null) {
+        if (args.length == 1) {
+          return pc.prepare((Connection) proxy, (String) args[0], null);
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+          return pc.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+        }
+      }
+      try {
+        return method.invoke(pc.physical, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Незмінний знімок статистики пулу.
+   */
+  public static final class Stats {
+    private final int total;
+    private final int idle;
+    private final int active;
+    private final int waiting;
+    private final int minSize;
+    private final int maxSize;
+    private final long created;
+    private final long destroyed;
+    private final long borrowed;
+    private final long timeouts;
+    private final long validationFailures;
+    private final long leaks;
+    private final long backgroundErrors;
+    private final long avgWaitMicros;
+    private final long maxWaitMicros;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    private Stats(int total, int idle, int active, int waiting, int minSize, int maxSize,
+        long created, long destroyed, long borrowed, long timeouts, long validationFailures,
+        long leaks, long backgroundErrors, long avgWaitMicros, long maxWaitMicros, long statementCacheHits,
+        long statementCacheMisses, long statementCacheEvictions) {
+      this.total = total;
+      this.idle = idle;
+      this.active = active;
+      this.waiting = waiting;
+      this.minSize = minSize;
+      this.maxSize = maxSize;
+      this.created = created;
+      this.destroyed = destroyed;
+      this.borrowed = borrowed;
+      this.timeouts = timeouts;
+      this.validationFailures = validationFailures;
+      this.leaks = leaks;
+      this.backgroundErrors = backgroundErrors;
+      this.avgWaitMicros = avgWaitMicros;
+      this.maxWaitMicros = maxWaitMicros;
+      this.statementCacheHits = statementCacheHits;
+      this.statementCacheMisses = statementCacheMisses;
+      this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getTotal() {
+      return total;
+    }
+
+    public int getIdle() {
+      return idle;
+    }
+
+    public int getActive() {
+      return active;
+    }
+
+    public int getWaiting() {
+      return waiting;
+    }
+
+    public int getMinSize() {
+      return minSize;
+    }
+
+    public int getMaxSize() {
+      return maxSize;
+    }
+
+    public long getCreated() {
+      return created;
+    }
+
+    public long getDestroyed() {
+      return destroyed;
+    }
+
+    public long getBorrowed() {
+      return borrowed;
+    }
+
+    public long getTimeouts() {
+      return timeouts;
+    }
+
+    public long getValidationFailures() {
+      return validationFailures;
+    }
+
+    public long getLeaks() {
+      return leaks;
+    }
+
+    /**
+     * Кількість помилок фонового потоку: невдале відкриття з'єднань до мінімуму тощо.
+     *
+     * @return кількість помилок
+     */
+    public long getBackgroundErrors() {
+      return backgroundErrors;
+    }
+
+    public long getAvgWaitMicros() {
+      return avgWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+      return maxWaitMicros;
+    }
+
+    public long getStatementCacheHits() {
+      return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+      return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+      return statementCacheEvictions;
+    }
+
+    /**
+     * Частка запитів, знайдених у кеші підготовлених запитів.
+     *
+     * @return значення від 0 до 1
+     */
+    public double getStatementCacheHitRate() {
+      long lookups = statementCacheHits + statementCacheMisses;
+      return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+      return "PoolStats{total=" + total + ", idle=" + idle + ", active=" + active
+          + ", waiting=" + waiting + ", min=" + minSize + ", max=" + maxSize
+          + ", created=" + created + ", destroyed=" + destroyed + ", borrowed=" + borrowed
+          + ", timeouts=" + timeouts + ", validationFailures=" + validationFailures
+          + ", leaks=" + leaks + ", backgroundErrors=" + backgroundErrors
+          + ", avgWaitMicros=" + avgWaitMicros
+          + ", maxWaitMicros=" + maxWaitMicros
+          + ", statementCacheHits=" + statementCacheHits
+          + ", statementCacheMisses=" + statementCacheMisses
+          + ", statementCacheEvictions=" + statementCacheEvictions + "}";
+    }
+  }
+}
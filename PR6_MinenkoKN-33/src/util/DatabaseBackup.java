@@ -0,0 +1,215 @@
+package util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Резервне копіювання та відновлення бази даних без зупинки застосунку.
+ *
+ * <p>Копія знімається командою H2 {@code SCRIPT TO ... COMPRESSION GZIP}: вона читає
+ * узгоджений MVCC-знімок бази в межах однієї транзакції, тож записи інших з'єднань
+ * не блокуються, і одразу стискає SQL-скрипт у файл. Скрипт пишеться у тимчасовий
+ * файл і атомарно перейменовується, тож обірвана копія ніколи не потрапляє в ротацію.
+ *
+ * <p>Копії мають імена {@code guestbook-yyyyMMdd-HHmmss.sql.gz}; після кожної нової
+ * копії в каталозі лишаються лише останні {@link #DEFAULT_KEEP} (або
+ * {@code -Dguestbook.backup.keep}).
+ *
+ * <p>Відновлення ({@code RUNSCRIPT}) видаляє всі об'єкти бази й виконує скрипт. H2
+ * записує дані багаторядковими INSERT до створення індексів та зовнішніх ключів,
+ * тож таблиці заповнюються пакетами без перевірки обмежень на кожен рядок. Перед
+ * видаленням знімається страхувальна копія поточної бази: якщо скрипт копії
+ * обірваний чи пошкоджений, база повертається до стану до відновлення.
+ */
+public final class DatabaseBackup {
+
+    /**
+     * Скільки останніх копій зберігати за замовчуванням.
+     */
+    public static final int DEFAULT_KEEP = 7;
+
+    private static final String PREFIX = "guestbook-";
+    private static final String SUFFIX = ".sql.gz";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static ScheduledExecutorService scheduler;
+
+    private DatabaseBackup() {
+    }
+
+    /**
+     * Запускає періодичне копіювання у фоновому потоці працюючого застосунку.
+     * Вбудована база H2 заблокована процесом застосунку, тож окремий процес
+     * не може зняти копію, поки той працює.
+     *
+     * @param directory каталог копій
+     * @param intervalMinutes інтервал між копіями у хвилинах
+     */
+    public static synchronized void schedule(Path directory, long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "database-backup");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                backup(directory);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Помилка резервного копіювання: " + e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Знімає стиснену копію бази у каталог і видаляє застарілі копії.
+     *
+     * @param directory каталог копій
+     * @return файл нової копії
+     * @throws IOException якщо каталог або файл недоступні
+     */
+    public static Path backup(Path directory) throws IOException {
+        return backup(directory, Integer.getInteger("guestbook.backup.keep", DEFAULT_KEEP));
+    }
+
+    /**
+     * Знімає стиснену копію бази у каталог і лишає лише останні {@code keep} копій.
+     *
+     * @param directory каталог копій
+     * @param keep скільки копій зберігати, щонайменше 1
+     * @return файл нової копії
+     * @throws IOException якщо каталог або файл недоступні
+     */
+    public static Path backup(Path directory, int keep) throws IOException {
+        if (keep < 1) {
+            throw new IllegalArgumentException("Кількість копій має бути не менше 1");
+        }
+        Path dir = directory.toAbsolutePath();
+        Files.createDirectories(dir);
+
+        String name = PREFIX + LocalDateTime.now().format(STAMP);
+        Path target = dir.resolve(name + SUFFIX);
+        // Дві копії за одну секунду не перезаписують одна одну
+        for (int i = 1; Files.exists(target); i++) {
+            target = dir.resolve(name + "-" + i + SUFFIX);
+        }
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+
+        try (Connection conn = DatabaseCfg.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("SCRIPT TO " + literal(tmp) + " COMPRESSION GZIP");
+        } catch (SQLException e) {
+            Files.deleteIfExists(tmp);
+            throw new RuntimeException("Помилка створення резервної копії: " + e.getMessage(), e);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        List<Path> backups = list(dir);
+        for (int i = 0; i < backups.size() - keep; i++) {
+            Files.deleteIfExists(backups.get(i));
+        }
+        return target;
+    }
+
+    /**
+     * Відновлює базу з копії. Поточні дані замінюються, тож викликати варто
+     * до запуску інтерфейсу, коли база не використовується. Якщо копію не вдалося
+     * виконати, поточні дані відновлюються зі страхувальної копії.
+     *
+     * @param backup файл копії
+     * @throws IOException якщо файл не існує або страхувальну копію не вдалося створити
+     */
+    public static void restore(Path backup) throws IOException {
+        if (!Files.isRegularFile(backup)) {
+            throw new IOException("Файл резервної копії не знайдено: " + backup);
+        }
+        Path safety = Files.createTempFile(PREFIX + "before-restore-", SUFFIX);
+        boolean keepSafety = false;
+        try (Connection conn = DatabaseCfg.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("SCRIPT TO " + literal(safety) + " COMPRESSION GZIP");
+            st.execute("DROP ALL OBJECTS");
+            try {
+                st.execute("RUNSCRIPT FROM " + literal(backup.toAbsolutePath()) + " COMPRESSION GZIP");
+            } catch (SQLException e) {
+                // Частково виконаний скрипт прибирається, поточні дані повертаються
+                try {
+                    st.execute("DROP ALL OBJECTS");
+                    st.execute("RUNSCRIPT FROM " + literal(safety) + " COMPRESSION GZIP");
+                } catch (SQLException again) {
+                    keepSafety = true;
+                    e.addSuppressed(again);
+                    throw new RuntimeException("Помилка відновлення з резервної копії; попередні дані "
+                            + "збережено у " + safety + ": " + e.getMessage(), e);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка відновлення з резервної копії: " + e.getMessage(), e);
+        } finally {
+            if (!keepSafety) {
+                Files.deleteIfExists(safety);
+            }
+        }
+    }
+
+    /**
+     * Знаходить найновішу копію в каталозі.
+     *
+     * @param directory каталог копій
+     * @return файл копії або null, якщо копій немає
+     * @throws IOException якщо каталог недоступний
+     */
+    public static Path latest(Path directory) throws IOException {
+        List<Path> backups = list(directory);
+        return backups.isEmpty() ? null : backups.get(backups.size() - 1);
+    }
+
+    /**
+     * Перелічує копії в каталозі від найстаршої до найновішої.
+     *
+     * @param directory каталог копій
+     * @return файли копій
+     * @throws IOException якщо каталог недоступний
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return backups;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                backups.add(file);
+            }
+        }
+        // Мітка часу в імені впорядковується лексикографічно
+        Collections.sort(backups, (a, b) -> backupOrder(a).compareTo(backupOrder(b)));
+        return backups;
+    }
+
+    private static String backupOrder(Path file) {
+        // guestbook-...-HHmmss.sql.gz має йти перед guestbook-...-HHmmss-1.sql.gz
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    private static String literal(Path path) {
+        return "'" + path.toString().replace("'", "''") + "'";
+    }
+}
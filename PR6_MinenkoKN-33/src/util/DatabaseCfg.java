@@ -1,15 +1,66 @@
 package util;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.sql.DataSource;
 
 public class DatabaseCfg {
 
-  private static final String URL = "jdbc:h2:~/testdb";
+  // URL можна перевизначити через -Dguestbook.db.url, наприклад базою в пам'яті для тестів
+  private static final String URL = System.getProperty("guestbook.db.url", "jdbc:h2:~/testdb");
   private static final String User = "sa";
   private static final String Password = "";
 
+  // Параметри пулу можна перевизначити через -Dguestbook.pool.* при запуску
+  private static final int POOL_MIN_SIZE = Integer.getInteger("guestbook.pool.minSize", 2);
+  private static final int POOL_MAX_SIZE = Integer.getInteger("guestbook.pool.maxSize", 10);
+  private static final long POOL_ACQUIRE_TIMEOUT_MS =
+      Long.getLong("guestbook.pool.acquireTimeoutMs", 5_000);
+  private static final long POOL_IDLE_TIMEOUT_MS =
+      Long.getLong("guestbook.pool.idleTimeoutMs", 60_000);
+  // Пошук витоків знімає стек на кожну видачу з'єднання, тож вмикається лише для діагностики
+  private static final long POOL_LEAK_THRESHOLD_MS =
+      Long.getLong("guestbook.pool.leakThresholdMs", 0);
+  private static final int STATEMENT_CACHE_SIZE =
+      Integer.getInteger("guestbook.pool.statementCacheSize", 64);
+
+  private static final ConnectionPool POOL = new ConnectionPool(URL, User, Password,
+      POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_ACQUIRE_TIMEOUT_MS, POOL_IDLE_TIMEOUT_MS,
+      POOL_LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(POOL::close, "connection-pool-shutdown"));
+  }
+
+  /**
+   * Видає з'єднання з пулу. Його треба закрити, щоб повернути до пулу.
+   * Усередині {@link UnitOfWork} видається з'єднання одиниці роботи.
+   *
+   * @return з'єднання з базою даних
+   * @throws SQLException якщо з'єднання не вдалося отримати
+   */
   public static Connection getConnection() throws SQLException {
-    return DriverManager.getConnection(URL, User, Password);
+    Connection bound = UnitOfWork.currentConnection();
+    if (bound != null) {
+      return bound;
+    }
+    return POOL.getConnection();
+  }
+
+  /**
+   * Повертає пул з'єднань як {@link DataSource}.
+   *
+   * @return джерело даних
+   */
+  public static DataSource getDataSource() {
+    return POOL;
+  }
+
+  /**
+   * Повертає поточну статистику пулу з'єднань.
+   *
+   * @return статистика пулу
+   */
+  public static ConnectionPool.Stats getPoolStats() {
+    return POOL.getStats();
   }
 }
@@ -1,13 +1,168 @@
 package util;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseInit {
 
+  /**
+   * Історія схеми. Застосовані міграції не можна змінювати - лише додавати нові версії.
+   */
+  private static final List<SchemaMigrator.Migration> MIGRATIONS = List.of(
+      new SchemaMigrator.Migration(1, "Базові таблиці",
+          """
+          CREATE TABLE IF NOT EXISTS users (
+              id INT PRIMARY KEY AUTO_INCREMENT,
+              name VARCHAR(255),
+              email VARCHAR(255),
+              hashedPassword VARCHAR(255)
+          )
+          """,
+          """
+          CREATE TABLE IF NOT EXISTS services (
+              id INT PRIMARY KEY AUTO_INCREMENT,
+              name VARCHAR(255),
+              description VARCHAR(255)
+          )
+          """,
+          """
+          CREATE TABLE IF NOT EXISTS reviews (
+              id INT PRIMARY KEY AUTO_INCREMENT,
+              userID INT,
+              serviceID INT,
+              text VARCHAR(255),
+              rating INT
+          )
+          """),
+      new SchemaMigrator.Migration(2, "Вторинні індекси та обмеження",
+          // H2 не підтримує індекси за виразом, тому регістронезалежний email - через обчислюваний стовпець
+          "ALTER TABLE users ADD COLUMN IF NOT EXISTS email_lower VARCHAR(255) "
+              + "GENERATED ALWAYS AS (LOWER(email))",
+          "CREATE UNIQUE INDEX IF NOT EXISTS ux_users_email_lower ON users(email_lower)",
+          // id у кінці індексу дає впорядкування для keyset-пагінації без сортування
+          "CREATE INDEX IF NOT EXISTS idx_reviews_service_id ON reviews(serviceID, id)",
+          "CREATE INDEX IF NOT EXISTS idx_reviews_user_id ON reviews(userID, id)",
+          "ALTER TABLE reviews ADD CONSTRAINT IF NOT EXISTS fk_reviews_user "
+              + "FOREIGN KEY (userID) REFERENCES users(id)",
+          "ALTER TABLE reviews ADD CONSTRAINT IF NOT EXISTS fk_reviews_service "
+              + "FOREIGN KEY (serviceID) REFERENCES services(id)",
+          "ALTER TABLE reviews ADD CONSTRAINT IF NOT EXISTS ck_reviews_rating "
+              + "CHECK (rating BETWEEN 1 AND 5)")
+          // Дані, створені до V2, можуть порушувати нові обмеження - звітуємо про них до DDL
+          .requires("Email, що повторюються без урахування регістру",
+              "SELECT e || ' x' || COUNT(*) FROM (SELECT LOWER(email) AS e FROM users "
+                  + "WHERE email IS NOT NULL) GROUP BY e HAVING COUNT(*) > 1 ORDER BY e")
+          .requires("Відгуки з неіснуючим користувачем",
+              "SELECT 'відгук ' || r.id || ' -> користувач ' || r.userID FROM reviews r "
+                  + "WHERE r.userID IS NOT NULL "
+                  + "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = r.userID) ORDER BY r.id")
+          .requires("Відгуки з неіснуючою послугою",
+              "SELECT 'відгук ' || r.id || ' -> послуга ' || r.serviceID FROM reviews r "
+                  + "WHERE r.serviceID IS NOT NULL "
+                  + "AND NOT EXISTS (SELECT 1 FROM services s WHERE s.id = r.serviceID) ORDER BY r.id")
+          .requires("Відгуки з оцінкою поза 1-5",
+              "SELECT 'відгук ' || id || ': ' || rating FROM reviews "
+                  + "WHERE rating NOT BETWEEN 1 AND 5 ORDER BY id"),
+      new SchemaMigrator.Migration(3, "Агрегати оцінок послуг",
+          """
+          CREATE TABLE IF NOT EXISTS service_stats (
+              serviceID INT PRIMARY KEY,
+              review_count BIGINT NOT NULL DEFAULT 0,
+              rating_sum BIGINT NOT NULL DEFAULT 0,
+              rating_1 BIGINT NOT NULL DEFAULT 0,
+              rating_2 BIGINT NOT NULL DEFAULT 0,
+              rating_3 BIGINT NOT NULL DEFAULT 0,
+              rating_4 BIGINT NOT NULL DEFAULT 0,
+              rating_5 BIGINT NOT NULL DEFAULT 0,
+              CONSTRAINT fk_service_stats_service FOREIGN KEY (serviceID)
+                  REFERENCES services(id) ON DELETE CASCADE
+          )
+          """,
+          """
+          INSERT INTO service_stats (serviceID, review_count, rating_sum,
+              rating_1, rating_2, rating_3, rating_4, rating_5)
+          SELECT serviceID, COUNT(*), SUM(rating),
+              SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END),
+              SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END)
+          FROM reviews
+          WHERE serviceID NOT IN (SELECT serviceID FROM service_stats)
+          GROUP BY serviceID
+          """),
+      new SchemaMigrator.Migration(4, "Сесії користувачів",
+          // Зберігається лише SHA-256 токена: витік таблиці не дає готових токенів
+          """
+          CREATE TABLE IF NOT EXISTS sessions (
+              token_hash VARCHAR(64) PRIMARY KEY,
+              userID INT NOT NULL,
+              created_at BIGINT NOT NULL,
+              expires_at BIGINT NOT NULL,
+              CONSTRAINT fk_sessions_user FOREIGN KEY (userID)
+                  REFERENCES users(id) ON DELETE CASCADE
+          )
+          """,
+          "CREATE INDEX IF NOT EXISTS idx_sessions_expires_at ON sessions(expires_at)"),
+      new SchemaMigrator.Migration(5, "Версії записів для оптимістичного блокування",
+          "ALTER TABLE users ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0",
+          "ALTER TABLE services ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0",
+          "ALTER TABLE reviews ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0")
+  );
+
+  private static volatile boolean schemaReady;
+
+  // Коментар плану H2 з обраним індексом: /* PUBLIC.IDX_NAME: умова */; повне сканування - без двокрапки
+  private static final Pattern PLAN_INDEX = Pattern.compile("/\\* PUBLIC\\.(\\w+):");
+
+  /**
+   * Доводить схему до останньої версії. Міграції виконуються лише при першому виклику
+   * в процесі, наступні виклики нічого не роблять.
+   */
+  public static void EnsureSchema() {
+    if (schemaReady) {
+      return;
+    }
+    synchronized (DatabaseInit.class) {
+      if (schemaReady) {
+        return;
+      }
+      try (Connection conn = DatabaseCfg.getConnection()) {
+        migrate(conn);
+        schemaReady = true;
+      } catch (SQLException e) {
+        throw new RuntimeException("Помилка ініціалізації схеми бази даних: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  // Пакетний доступ - для тестів на окремій базі
+  static int migrate(Connection conn) throws SQLException {
+    return new SchemaMigrator(MIGRATIONS).migrate(conn);
+  }
+
+  /**
+   * Додає тестові дані, якщо таблиця користувачів порожня.
+   */
   public static void InsertTestData() {
+    EnsureSchema();
     try (Connection conn = DatabaseCfg.getConnection();
         Statement st = conn.createStatement()) {
+      try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM users")) {
+        if (rs.next() && rs.getInt(1) > 0) {
+          return;
+        }
+      }
+
       st.execute("""
           INSERT INTO users (id, name, email, hashedPassword) VALUES
           (1, 'Іван Петров', 'ivan.petrov@example.com', 'hashedpassword123'),
@@ -25,61 +180,99 @@ public class DatabaseInit {
           (1, 1, 1, 'Відміний басейн чистий та великий.', 5),
           (2, 2, 2, 'Хороший басейн мілкий, через що не так страшно за дитину', 4);
           """);
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-  }
-  public static void Init() {
-    try (Connection conn = DatabaseCfg.getConnection();
-        Statement st = conn.createStatement()) {
 
       st.execute("""
-          CREATE TABLE IF NOT EXISTS users (
-              id INT PRIMARY KEY AUTO_INCREMENT,
-              name VARCHAR(255),
-              email VARCHAR(255),
-              hashedPassword VARCHAR(255)
-          );
+          INSERT INTO service_stats (serviceID, review_count, rating_sum, rating_4, rating_5) VALUES
+          (1, 1, 5, 0, 1),
+          (2, 1, 4, 1, 0);
           """);
 
+      // Явні ID не просувають лічильники AUTO_INCREMENT
+      st.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH 3");
+      st.execute("ALTER TABLE services ALTER COLUMN id RESTART WITH 3");
+      st.execute("ALTER TABLE reviews ALTER COLUMN id RESTART WITH 3");
     } catch (Exception e) {
       e.printStackTrace();
     }
   }
 
-  public static void InitS() {
-    try (Connection conn = DatabaseCfg.getConnection();
-        Statement st = conn.createStatement()) {
+  /**
+   * Перевіряє через EXPLAIN, що запити DAO використовують індекси зі схеми.
+   *
+   * <p>Запит вважається покритим, якщо план обирає індекс, що починається з потрібних
+   * стовпців. Назву індексу не порівнюємо: H2 створює для зовнішнього ключа власний
+   * індекс за його стовпцем і для рівності може обрати саме його, а вторинний індекс
+   * H2 і так упорядкований за первинним ключем.
+   *
+   * @return опис запитів, план яких не використовує очікуваний індекс; порожній список, якщо все гаразд
+   */
+  public static List<String> VerifyQueryPlans() {
+    EnsureSchema();
+    try (Connection conn = DatabaseCfg.getConnection()) {
+      return verifyQueryPlans(conn);
+    } catch (SQLException e) {
+      return List.of("Не вдалося перевірити плани запитів: " + e.getMessage());
+    }
+  }
 
-      st.execute("""
-          CREATE TABLE IF NOT EXISTS services (
-              id INT PRIMARY KEY AUTO_INCREMENT,
-            name VARCHAR(255),
-            description VARCHAR(255)
-          );
-          """);
+  // Пакетний доступ - для тестів на окремій базі
+  static List<String> verifyQueryPlans(Connection conn) throws SQLException {
+    // Запит -> стовпці, з яких має починатися обраний індекс
+    Map<String, List<String>> expected = new LinkedHashMap<>();
+    expected.put("SELECT id, name, email, hashedPassword, version FROM users WHERE email_lower = LOWER(?)",
+        List.of("EMAIL_LOWER"));
+    expected.put("SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE serviceID = ? ORDER BY id",
+        List.of("SERVICEID"));
+    expected.put("SELECT id, userID, serviceID, text, rating, version FROM reviews WHERE userID = ? ORDER BY id",
+        List.of("USERID"));
+    // Keyset-пагінація має обмежувати і id, тож потрібен складений індекс
+    expected.put("SELECT id, userID, serviceID, text, rating, version FROM reviews "
+        + "WHERE serviceID = ? AND id > ? ORDER BY id LIMIT ?", List.of("SERVICEID", "ID"));
+    expected.put("SELECT id, userID, serviceID, text, rating, version FROM reviews "
+        + "WHERE userID = ? AND id > ? ORDER BY id LIMIT ?", List.of("USERID", "ID"));
 
-    } catch (Exception e) {
-      e.printStackTrace();
+    List<String> problems = new ArrayList<>();
+    for (Map.Entry<String, List<String>> entry : expected.entrySet()) {
+      String plan = explain(conn, entry.getKey());
+      Matcher index = PLAN_INDEX.matcher(plan);
+      List<String> columns = index.find() ? indexColumns(conn, index.group(1)) : List.of();
+      if (columns.size() < entry.getValue().size()
+          || !columns.subList(0, entry.getValue().size()).equals(entry.getValue())) {
+        problems.add("Запит не використовує індекс за " + String.join(", ", entry.getValue()) + ": "
+            + entry.getKey() + System.lineSeparator() + "План: " + plan);
+      }
     }
+    return problems;
   }
 
-  public static void InitR() {
-    try (Connection conn = DatabaseCfg.getConnection();
-        Statement st = conn.createStatement()) {
-
-      st.execute("""
-          CREATE TABLE IF NOT EXISTS reviews (
-              id INT PRIMARY KEY AUTO_INCREMENT,
-              userID INT,
-              serviceID INT,
-              text VARCHAR(255),
-              rating INT
-          );
-          """);
+  private static List<String> indexColumns(Connection conn, String index) throws SQLException {
+    String sql = "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+        + "WHERE INDEX_SCHEMA = 'PUBLIC' AND INDEX_NAME = ? ORDER BY ORDINAL_POSITION";
+    List<String> columns = new ArrayList<>();
+    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+      ps.setString(1, index);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          columns.add(rs.getString(1));
+        }
+      }
+    }
+    return columns;
+  }
 
-    } catch (Exception e) {
-      e.printStackTrace();
+  private static String explain(Connection conn, String sql) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+      int params = ps.getParameterMetaData().getParameterCount();
+      for (int i = 1; i <= params; i++) {
+        ps.setString(i, "1");
+      }
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          plan.append(rs.getString(1));
+        }
+      }
+      return plan.toString();
     }
   }
 }
@@ -0,0 +1,307 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Сховище сутностей у JSON файлі з журналом змін.
+ *
+ * <p>Стан складається зі знімка - JSON масиву сутностей, як у data/*.json, - та
+ * журналу поруч з ним ({@code <знімок>.journal}), куди кожна зміна дописується
+ * одним рядком JSON: {@code {"op":"put","value":{...}}} або
+ * {@code {"op":"delete","id":N}}. Тож запис коштує пропорційно зміні, а не
+ * розміру даних.
+ *
+ * <p>Коли записів у журналі стає більше, ніж сутностей (але не менше
+ * {@link #MIN_COMPACT_RECORDS}), стан ущільнюється: новий знімок пишеться в
+ * тимчасовий файл, синхронізується з диском і атомарно замінює старий, після чого
+ * журнал очищується. Операції журналу ідемпотентні, тож збій між заміною знімка
+ * та очищенням журналу лише повторить уже застосовані зміни.
+ *
+ * <p>При відкритті знімок читається потоково, а журнал відтворюється поверх нього.
+ * Обірваний останній рядок журналу (збій посеред запису) відкидається.
+ *
+ * @param <T> тип сутності
+ */
+public class JournaledJsonStore<T> implements Closeable {
+
+    /**
+     * Мінімальна кількість записів журналу перед ущільненням.
+     */
+    public static final int MIN_COMPACT_RECORDS = 1000;
+
+    private final Path snapshot;
+    private final Path journal;
+    private final JsonEntityMapper.ObjectReader<T> reader;
+    private final JsonEntityMapper.ObjectWriter<T> writer;
+    private final ToIntFunction<T> idOf;
+
+    private final TreeMap<Integer, T> values = new TreeMap<>();
+    private final StringWriter record = new StringWriter();
+    private FileChannel journalChannel;
+    private long journalRecords;
+
+    /**
+     * Чи синхронізувати журнал з диском після кожного запису.
+     */
+    private boolean syncOnWrite;
+
+    /**
+     * Відкриває сховище: читає знімок і відтворює журнал.
+     *
+     * @param snapshot файл знімка (JSON масив)
+     * @param reader читання сутності
+     * @param writer запис сутності
+     * @param idOf ідентифікатор сутності
+     * @throws IOException якщо файли не вдалося прочитати або вони пошкоджені
+     */
+    public JournaledJsonStore(Path snapshot, JsonEntityMapper.ObjectReader<T> reader,
+            JsonEntityMapper.ObjectWriter<T> writer, ToIntFunction<T> idOf) throws IOException {
+        this.snapshot = snapshot.toAbsolutePath();
+        this.journal = this.snapshot.resolveSibling(this.snapshot.getFileName() + ".journal");
+        this.reader = reader;
+        this.writer = writer;
+        this.idOf = idOf;
+
+        Files.createDirectories(this.snapshot.getParent());
+        loadSnapshot();
+        journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replayJournal();
+    }
+
+    /**
+     * Вмикає синхронізацію журналу з диском після кожного запису: повільніше,
+     * але зміна не губиться при збої живлення.
+     *
+     * @param syncOnWrite true - викликати force після кожного запису
+     */
+    public synchronized void setSyncOnWrite(boolean syncOnWrite) {
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    /**
+     * Отримує сутність за ідентифікатором.
+     *
+     * @param id ідентифікатор
+     * @return сутність або null
+     */
+    public synchronized T get(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Отримує всі сутності у порядку ідентифікаторів.
+     *
+     * @return копія списку сутностей
+     */
+    public synchronized List<T> values() {
+        return new ArrayList<>(values.values());
+    }
+
+    /**
+     * Отримує кількість сутностей.
+     *
+     * @return кількість сутностей
+     */
+    public synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Отримує найбільший ідентифікатор.
+     *
+     * @return найбільший ідентифікатор або 0, якщо сховище порожнє
+     */
+    public synchronized int maxId() {
+        return values.isEmpty() ? 0 : values.lastKey();
+    }
+
+    /**
+     * Додає або замінює сутність, дописуючи запис у журнал.
+     *
+     * @param value сутність
+     * @throws IOException якщо запис у журнал не вдався
+     */
+    public synchronized void put(T value) throws IOException {
+        JsonWriter out = beginRecord("put");
+        out.name("value");
+        writer.write(out, value);
+        endRecord(out);
+        values.put(idOf.applyAsInt(value), value);
+        compactIfNeeded();
+    }
+
+    /**
+     * Видаляє сутність, дописуючи запис у журнал.
+     *
+     * @param id ідентифікатор
+     * @throws IOException якщо запис у журнал не вдався
+     */
+    public synchronized void delete(int id) throws IOException {
+        JsonWriter out = beginRecord("delete");
+        out.name("id").value(id);
+        endRecord(out);
+        values.remove(id);
+        compactIfNeeded();
+    }
+
+    /**
+     * Замінює весь вміст сховища і одразу записує знімок.
+     *
+     * @param all нові сутності
+     * @throws IOException якщо запис не вдався
+     */
+    public synchronized void replaceAll(Iterator<? extends T> all) throws IOException {
+        values.clear();
+        while (all.hasNext()) {
+            T value = all.next();
+            values.put(idOf.applyAsInt(value), value);
+        }
+        compact();
+    }
+
+    /**
+     * Записує поточний стан у знімок і очищує журнал.
+     *
+     * @throws IOException якщо запис не вдався
+     */
+    public synchronized void compact() throws IOException {
+        // Не createTempFile: той створює файл з правами лише для власника, а знімок їх успадкує
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                JsonWriter out = new JsonWriter(channel).setIndent("  ");
+                JsonEntityMapper.writeArray(out, values.values().iterator(), writer);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        journalChannel.truncate(0);
+        journalChannel.force(true);
+        journalRecords = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        journalChannel.close();
+    }
+
+    private JsonWriter beginRecord(String op) throws IOException {
+        record.getBuffer().setLength(0);
+        JsonWriter out = new JsonWriter(record);
+        out.beginObject().name("op").value(op);
+        return out;
+    }
+
+    private void endRecord(JsonWriter out) throws IOException {
+        out.endObject().flush();
+        record.write('\n');
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(record.toString());
+        journalChannel.position(journalChannel.size());
+        while (bytes.hasRemaining()) {
+            journalChannel.write(bytes);
+        }
+        if (syncOnWrite) {
+            journalChannel.force(false);
+        }
+        journalRecords++;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        if (journalRecords >= Math.max(MIN_COMPACT_RECORDS, values.size())) {
+            compact();
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        if (!Files.isRegularFile(snapshot) || Files.size(snapshot) == 0) {
+            return;
+        }
+        try (JsonReader in = new JsonReader(Files.newBufferedReader(snapshot, StandardCharsets.UTF_8))) {
+            JsonEntityMapper.readArray(in, reader, value -> values.put(idOf.applyAsInt(value), value));
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        long size = journalChannel.size();
+        if (size == 0) {
+            return;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Журнал завеликий: " + journal);
+        }
+        // Журнал обмежений порогом ущільнення, тож читаємо його цілком; без відображення
+        // в пам'ять, бо обірваний хвіст далі обрізається
+        ByteBuffer bytes = ByteBuffer.allocate((int) size);
+        while (bytes.hasRemaining() && journalChannel.read(bytes, bytes.position()) >= 0) {
+            // читаємо до кінця файлу
+        }
+        bytes.flip();
+        int lineStart = 0;
+        for (int i = 0; i < bytes.limit(); i++) {
+            if (bytes.get(i) != '\n') {
+                continue;
+            }
+            if (i > lineStart) {
+                replay(bytes.duplicate().position(lineStart).limit(i).slice());
+                journalRecords++;
+            }
+            lineStart = i + 1;
+        }
+        // Рядок без переведення рядка в кінці - обірваний запис; відкидаємо його
+        if (lineStart < size) {
+            journalChannel.truncate(lineStart);
+        }
+    }
+
+    private void replay(ByteBuffer line) throws IOException {
+        JsonReader in = new JsonReader(line);
+        String op = null;
+        T value = null;
+        Integer id = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "op":
+                    op = in.nextString();
+                    break;
+                case "value":
+                    value = reader.read(in);
+                    break;
+                case "id":
+                    id = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        in.peek();
+
+        if ("put".equals(op) && value != null) {
+            values.put(idOf.applyAsInt(value), value);
+        } else if ("delete".equals(op) && id != null) {
+            values.remove(id);
+        } else {
+            throw new IOException("Некоректний запис журналу " + journal);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package util;
+
+import entity.Review;
+import entity.Service;
+import entity.User;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Перетворення JSON-об'єктів на сутності і навпаки безпосередньо через
+ * {@link JsonReader} та {@link JsonWriter}, без проміжних рядків та мап.
+ *
+ * <p>Невідомі поля пропускаються, відсутні лишаються зі значенням за замовчуванням.
+ * Користувач читається з уже захешованим паролем, без повторного хешування.
+ */
+public final class JsonEntityMapper {
+
+    /**
+     * Читає один JSON-об'єкт у сутність.
+     *
+     * @param <T> тип сутності
+     */
+    @FunctionalInterface
+    public interface ObjectReader<T> {
+        T read(JsonReader in) throws IOException;
+    }
+
+    /**
+     * Записує одну сутність як JSON-об'єкт.
+     *
+     * @param <T> тип сутності
+     */
+    @FunctionalInterface
+    public interface ObjectWriter<T> {
+        void write(JsonWriter out, T value) throws IOException;
+    }
+
+    private JsonEntityMapper() {
+    }
+
+    /**
+     * Читає відгук з JSON-об'єкта.
+     *
+     * @param in парсер, позиціонований перед об'єктом
+     * @return відгук
+     * @throws IOException якщо JSON некоректний
+     */
+    public static Review readReview(JsonReader in) throws IOException {
+        Review review = new Review();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    review.setId(in.nextInt());
+                    break;
+                case "userId":
+                    review.setUserId(in.nextInt());
+                    break;
+                case "serviceId":
+                    review.setServiceId(in.nextInt());
+                    break;
+                case "text":
+                    review.setText(nextNullableString(in));
+                    break;
+                case "rating":
+                    review.setRating(in.nextInt());
+                    break;
+                case "createdAt":
+                    review.setCreatedAt(nextNullableString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return review;
+    }
+
+    /**
+     * Читає користувача з JSON-об'єкта.
+     *
+     * @param in парсер, позиціонований перед об'єктом
+     * @return користувач
+     * @throws IOException якщо JSON некоректний
+     */
+    public static User readUser(JsonReader in) throws IOException {
+        User user = new User();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    user.setId(in.nextInt());
+                    break;
+                case "name":
+                    user.setName(nextNullableString(in));
+                    break;
+                case "email":
+                    user.setEmail(nextNullableString(in));
+                    break;
+                case "hashedPassword":
+                    user.setHashedPassword(nextNullableString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return user;
+    }
+
+    /**
+     * Читає послугу з JSON-об'єкта.
+     *
+     * @param in парсер, позиціонований перед об'єктом
+     * @return послуга
+     * @throws IOException якщо JSON некоректний
+     */
+    public static Service readService(JsonReader in) throws IOException {
+        Service service = new Service();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    service.setId(in.nextInt());
+                    break;
+                case "name":
+                    service.setName(nextNullableString(in));
+                    break;
+                case "description":
+                    service.setDescription(nextNullableString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return service;
+    }
+
+    /**
+     * Читає JSON-масив об'єктів, передаючи кожну сутність одразу після розбору.
+     * У пам'яті одночасно тримається лише одна сутність.
+     *
+     * @param in парсер, позиціонований перед масивом
+     * @param reader читання одного об'єкта
+     * @param sink отримувач сутностей
+     * @throws IOException якщо JSON некоректний
+     */
+    public static <T> void readArray(JsonReader in, ObjectReader<T> reader, Consumer<? super T> sink)
+            throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            sink.accept(reader.read(in));
+        }
+        in.endArray();
+    }
+
+    /**
+     * Читає JSON-масив об'єктів у список.
+     *
+     * @param in парсер, позиціонований перед масивом
+     * @param reader читання одного об'єкта
+     * @return список сутностей
+     * @throws IOException якщо JSON некоректний
+     */
+    public static <T> List<T> readList(JsonReader in, ObjectReader<T> reader) throws IOException {
+        List<T> result = new ArrayList<>();
+        readArray(in, reader, result::add);
+        return result;
+    }
+
+    /**
+     * Записує відгук як JSON-об'єкт.
+     *
+     * @param out генератор
+     * @param review відгук
+     * @throws IOException якщо запис не вдався
+     */
+    public static void writeReview(JsonWriter out, Review review) throws IOException {
+        out.beginObject()
+                .name("id").value(review.getId())
+                .name("userId").value(review.getUserId())
+                .name("serviceId").value(review.getServiceId())
+                .name("text").value(review.getText())
+                .name("rating").value(review.getRating())
+                .name("createdAt").value(review.getCreatedAt())
+                .endObject();
+    }
+
+    /**
+     * Записує користувача як JSON-об'єкт разом з хешем пароля.
+     *
+     * @param out генератор
+     * @param user користувач
+     * @throws IOException якщо запис не вдався
+     */
+    public static void writeUser(JsonWriter out, User user) throws IOException {
+        out.beginObject()
+                .name("id").value(user.getId())
+                .name("name").value(user.getName())
+                .name("email").value(user.getEmail())
+                .name("hashedPassword").value(user.getHashedPassword())
+                .endObject();
+    }
+
+    /**
+     * Записує послугу як JSON-об'єкт.
+     *
+     * @param out генератор
+     * @param service послуга
+     * @throws IOException якщо запис не вдався
+     */
+    public static void writeService(JsonWriter out, Service service) throws IOException {
+        out.beginObject()
+                .name("id").value(service.getId())
+                .name("name").value(service.getName())
+                .name("description").value(service.getDescription())
+                .endObject();
+    }
+
+    /**
+     * Записує сутності як JSON-масив по одній, щойно ітератор їх видає.
+     *
+     * @param out генератор
+     * @param values сутності, наприклад ледачий потік з бази даних
+     * @param writer запис однієї сутності
+     * @return кількість записаних сутностей
+     * @throws IOException якщо запис не вдався
+     */
+    public static <T> int writeArray(JsonWriter out, Iterator<? extends T> values, ObjectWriter<T> writer)
+            throws IOException {
+        int count = 0;
+        out.beginArray();
+        while (values.hasNext()) {
+            writer.write(out, values.next());
+            count++;
+        }
+        out.endArray();
+        return count;
+    }
+
+    private static String nextNullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonReader.Token.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
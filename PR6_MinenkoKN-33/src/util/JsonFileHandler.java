@@ -1,9 +1,12 @@
 package util;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class JsonFileHandler {
     /**
@@ -21,6 +24,21 @@ public class JsonFileHandler {
         }
     }
 
+    /**
+     * Відкриває JSON файл для потокового читання без завантаження вмісту в пам'ять.
+     * 
+     * @param filePath шлях до JSON файлу
+     * @return парсер поверх файлу; його потрібно закрити
+     * @throws IOException якщо файл не вдалося відкрити
+     */
+    public JsonReader openJsonReader(String filePath) throws IOException {
+        try {
+            return new JsonReader(Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IOException("Помилка читання файлу: " + filePath, e);
+        }
+    }
+
     /**
      * Записує рядок у JSON файл.
      * 
@@ -44,6 +62,27 @@ public class JsonFileHandler {
         }
     }
 
+    /**
+     * Відкриває JSON файл для потокового запису в UTF-8 через FileChannel.
+     * Наявний файл перезаписується.
+     * 
+     * @param filePath шлях до JSON файлу
+     * @param pretty true - форматувати з відступами
+     * @return генератор поверх файлу; його потрібно закрити
+     * @throws IOException якщо файл не вдалося відкрити
+     */
+    public JsonWriter openJsonWriter(String filePath, boolean pretty) throws IOException {
+        try {
+            Path path = Paths.get(filePath).toAbsolutePath();
+            Files.createDirectories(path.getParent());
+            JsonWriter writer = new JsonWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+            return writer.setIndent(pretty ? "  " : null);
+        } catch (IOException e) {
+            throw new IOException("Помилка запису файлу: " + filePath, e);
+        }
+    }
+
     /**
      * Перевіряє, чи існує файл за вказаним шляхом.
      * 
@@ -0,0 +1,602 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Потоковий JSON-парсер, що читає вхід за один прохід посимвольно.
+ *
+ * <p>Вхід читається блоками фіксованого розміру з {@link Reader} або декодується з
+ * {@link ByteBuffer} як UTF-8, тож пам'ять не залежить від розміру файлу. Парсер
+ * видає типізовані токени ({@link #peek()}) і значення ({@link #nextString()},
+ * {@link #nextLong()} тощо), а вкладеність відстежує стеком областей.
+ * Некоректний JSON призводить до {@link IOException} з номером рядка.
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * Типи токенів JSON.
+     */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Області вкладеності
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+    private static final int EMPTY_FRAGMENT = 7;
+    private static final int NONEMPTY_FRAGMENT = 8;
+
+    private final Reader reader;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private boolean decoded;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private int line = 1;
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Створює парсер поверх потоку символів.
+     *
+     * @param reader джерело символів
+     */
+    public JsonReader(Reader reader) {
+        this.reader = reader;
+        this.bytes = null;
+        this.decoder = null;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Створює парсер поверх байтів у UTF-8, наприклад відображеного в пам'ять файлу.
+     * Позиція буфера зсувається в міру читання.
+     *
+     * @param bytes байти JSON у UTF-8
+     */
+    public JsonReader(ByteBuffer bytes) {
+        this.reader = null;
+        this.bytes = bytes;
+        this.decoder = StandardCharsets.UTF_8.newDecoder();
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Повертає тип наступного токена, не споживаючи його.
+     *
+     * @return тип наступного токена
+     * @throws IOException якщо вхід не є коректним JSON
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int c;
+        switch (stack[stackSize - 1]) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Очікується ',' або ']'");
+                }
+                pos++;
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw syntaxError("Очікується ',' або '}'");
+                    }
+                    pos++;
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("Очікується назва поля в лапках");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Очікується ':'");
+                }
+                pos++;
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_FRAGMENT:
+                stack[stackSize - 1] = NONEMPTY_FRAGMENT;
+                if (nextNonWhitespace() == -1) {
+                    return peeked = Token.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_FRAGMENT:
+                c = nextNonWhitespace();
+                if (c == -1) {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Очікується ','");
+                }
+                pos++;
+                break;
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("Зайві дані після кінця документа");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                pos++;
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                pos++;
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                return peeked = Token.NULL;
+            case -1:
+                throw syntaxError("Неочікуваний кінець документа");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Неочікуваний символ '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Перевіряє, чи є ще елементи в поточному масиві чи об'єкті.
+     *
+     * @return true, якщо далі йде елемент, а не кінець масиву, об'єкта чи документа
+     * @throws IOException якщо вхід не є коректним JSON
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Споживає початок масиву.
+     */
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Споживає кінець масиву.
+     */
+    public void endArray() throws IOException {
+        if (stack[stackSize - 1] >= EMPTY_FRAGMENT) {
+            throw new IllegalStateException("Фрагмент закривається через endFragment()");
+        }
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Починає читання фрагмента масиву - елементів через кому без квадратних дужок,
+     * наприклад частини великого масиву, вирізаної по межах елементів. Кінець входу
+     * читається як {@link Token#END_ARRAY}.
+     *
+     * @throws IllegalStateException якщо читання документа вже почалося
+     */
+    public void beginFragment() {
+        if (peeked != null || stackSize != 1 || stack[0] != EMPTY_DOCUMENT) {
+            throw new IllegalStateException("Фрагмент можна почати лише на початку входу");
+        }
+        stack[0] = NONEMPTY_DOCUMENT;
+        push(EMPTY_FRAGMENT);
+    }
+
+    /**
+     * Закінчує читання фрагмента масиву.
+     *
+     * @throws IOException якщо після останнього елемента є зайві дані
+     */
+    public void endFragment() throws IOException {
+        if (stack[stackSize - 1] < EMPTY_FRAGMENT) {
+            throw new IllegalStateException("Фрагмент не розпочато");
+        }
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Споживає початок об'єкта.
+     */
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Споживає кінець об'єкта.
+     */
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    /**
+     * Читає назву поля об'єкта.
+     *
+     * @return назва поля
+     * @throws IOException якщо наступний токен - не назва поля
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Читає рядок. Число також повертається як рядок у тому вигляді, як записане.
+     *
+     * @return значення рядка
+     * @throws IOException якщо наступний токен - не рядок і не число
+     */
+    public String nextString() throws IOException {
+        if (peek() == Token.NUMBER) {
+            peeked = null;
+            return readNumber();
+        }
+        expect(Token.STRING);
+        return readString();
+    }
+
+    /**
+     * Читає ціле число.
+     *
+     * @return значення числа
+     * @throws IOException якщо наступний токен - не ціле число в межах long
+     */
+    public long nextLong() throws IOException {
+        expect(Token.NUMBER);
+        String number = readNumber();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Очікується ціле число, отримано " + number);
+        }
+    }
+
+    /**
+     * Читає ціле число в межах int.
+     *
+     * @return значення числа
+     * @throws IOException якщо наступний токен - не ціле число в межах int
+     */
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw syntaxError("Число " + value + " виходить за межі int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Читає число з дробовою частиною чи експонентою.
+     *
+     * @return значення числа
+     * @throws IOException якщо наступний токен - не число
+     */
+    public double nextDouble() throws IOException {
+        expect(Token.NUMBER);
+        return Double.parseDouble(readNumber());
+    }
+
+    /**
+     * Читає булеве значення.
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        if (buffer[pos] == 't') {
+            readLiteral("true");
+            return true;
+        }
+        readLiteral("false");
+        return false;
+    }
+
+    /**
+     * Споживає значення null.
+     */
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * Пропускає наступне значення разом з усіма вкладеними масивами та об'єктами.
+     *
+     * @throws IOException якщо вхід не є коректним JSON
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                case NUMBER:
+                    nextString();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                default:
+                    throw syntaxError("Неочікуваний кінець документа");
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peeked = null;
+        stackSize = 0;
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    private void expect(Token token) throws IOException {
+        Token actual = peek();
+        if (actual != token) {
+            throw syntaxError("Очікується " + token + ", отримано " + actual);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    /**
+     * Пропускає пробільні символи і повертає наступний символ, не споживаючи його.
+     *
+     * @return наступний символ або -1 у кінці входу
+     */
+    private int nextNonWhitespace() throws IOException {
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if (c == '\n') {
+                line++;
+            } else if (c != ' ' && c != '\t' && c != '\r') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    // Вхід споживається посимвольно, тому непрочитаний хвіст буфера зберігати не треба
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        if (reader != null) {
+            int n = reader.read(buffer, 0, buffer.length);
+            if (n > 0) {
+                limit = n;
+            }
+            return limit > 0;
+        }
+        if (decoded) {
+            return false;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer);
+        CoderResult result = decoder.decode(bytes, out, true);
+        if (result.isError()) {
+            throw syntaxError("Некоректна послідовність байтів UTF-8");
+        }
+        if (!bytes.hasRemaining()) {
+            // Після flush декодер не можна викликати знову
+            decoder.flush(out);
+            decoded = true;
+        }
+        limit = out.position();
+        return limit > 0;
+    }
+
+    // Позиція - на відкривній лапці
+    private String readString() throws IOException {
+        pos++;
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw syntaxError("Незакритий рядок");
+            }
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\') {
+                text.append(readEscape());
+            } else if (c < 0x20) {
+                throw syntaxError("Керуючий символ у рядку");
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Некоректна послідовність \\u");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Некоректна екранована послідовність");
+        }
+    }
+
+    // Число за граматикою JSON: -?(0|[1-9]\d*)(\.\d+)?([eE][+-]?\d+)?
+    private String readNumber() throws IOException {
+        text.setLength(0);
+        while (pos < limit || fill()) {
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+
+        int i = 0;
+        int n = text.length();
+        if (i < n && text.charAt(i) == '-') {
+            i++;
+        }
+        if (i < n && text.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            i = skipDigits(i);
+            if (i == start) {
+                throw syntaxError("Некоректне число " + text);
+            }
+        }
+        if (i < n && text.charAt(i) == '.') {
+            int start = ++i;
+            i = skipDigits(i);
+            if (i == start) {
+                throw syntaxError("Некоректне число " + text);
+            }
+        }
+        if (i < n && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+                i++;
+            }
+            int start = i;
+            i = skipDigits(i);
+            if (i == start) {
+                throw syntaxError("Некоректне число " + text);
+            }
+        }
+        if (i != n) {
+            throw syntaxError("Некоректне число " + text);
+        }
+        return text.toString();
+    }
+
+    private int skipDigits(int i) {
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntaxError("Очікується " + literal);
+            }
+        }
+        if ((pos < limit || fill()) && Character.isLetterOrDigit(buffer[pos])) {
+            throw syntaxError("Очікується " + literal);
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Некоректний JSON (рядок " + line + "): " + message);
+    }
+}
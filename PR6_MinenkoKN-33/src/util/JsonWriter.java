@@ -0,0 +1,396 @@
+package util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Потоковий JSON-генератор, що пише документ одразу у {@link Writer} або
+ * {@link WritableByteChannel}, не збираючи його в рядок.
+ *
+ * <p>Символи накопичуються у буфері фіксованого розміру; для каналу той самий
+ * буфер кодується в UTF-8 через один перевикористовуваний байтовий буфер. Тож
+ * пам'ять не залежить від розміру документа. Рядки екрануються за специфікацією
+ * JSON, а з відступом документ форматується для читання людиною.
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Області вкладеності
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer encoded;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    /**
+     * Відступ одного рівня вкладеності або null для компактного запису.
+     */
+    private String indent;
+
+    /**
+     * Створює генератор поверх потоку символів.
+     *
+     * @param writer приймач символів
+     */
+    public JsonWriter(Writer writer) {
+        this.writer = writer;
+        this.channel = null;
+        this.encoder = null;
+        this.encoded = null;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Створює генератор, що пише UTF-8 у канал, наприклад у FileChannel.
+     *
+     * @param channel приймач байтів
+     */
+    public JsonWriter(WritableByteChannel channel) {
+        this.writer = null;
+        this.channel = channel;
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.encoded = ByteBuffer.allocate(BUFFER_SIZE * 3);
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Вмикає форматування з відступами.
+     *
+     * @param indent відступ одного рівня, наприклад два пробіли; null або порожній - без форматування
+     * @return цей генератор
+     */
+    public JsonWriter setIndent(String indent) {
+        this.indent = indent == null || indent.isEmpty() ? null : indent;
+        return this;
+    }
+
+    /**
+     * Починає масив.
+     *
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter beginArray() throws IOException {
+        beforeValue();
+        push(EMPTY_ARRAY);
+        append('[');
+        return this;
+    }
+
+    /**
+     * Закінчує масив.
+     *
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+    }
+
+    /**
+     * Починає об'єкт.
+     *
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter beginObject() throws IOException {
+        beforeValue();
+        push(EMPTY_OBJECT);
+        append('{');
+        return this;
+    }
+
+    /**
+     * Закінчує об'єкт.
+     *
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter endObject() throws IOException {
+        return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+    }
+
+    /**
+     * Записує назву поля об'єкта; за нею має йти значення.
+     *
+     * @param name назва поля
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter name(String name) throws IOException {
+        int scope = stack[stackSize - 1];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+            throw new IllegalStateException("Назва поля можлива лише всередині об'єкта");
+        }
+        if (scope == NONEMPTY_OBJECT) {
+            append(',');
+        }
+        newline();
+        stack[stackSize - 1] = DANGLING_NAME;
+        string(name);
+        append(':');
+        if (indent != null) {
+            append(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Записує рядок з екрануванням або null.
+     *
+     * @param value значення
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     */
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        append(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Записує дробове число.
+     *
+     * @param value значення
+     * @return цей генератор
+     * @throws IOException якщо запис не вдався
+     * @throws IllegalArgumentException якщо значення - NaN або нескінченність
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON не підтримує значення " + value);
+        }
+        beforeValue();
+        append(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        append(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        append("null");
+        return this;
+    }
+
+    /**
+     * Передає накопичені символи у приймач.
+     *
+     * @throws IOException якщо запис не вдався
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Дописує залишок буфера та закриває приймач.
+     *
+     * @throws IOException якщо документ не завершено або запис не вдався
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (writer != null) {
+                writer.close();
+            } else {
+                channel.close();
+            }
+        }
+        if (stackSize != 1 || stack[0] != NONEMPTY_DOCUMENT) {
+            throw new IOException("Незавершений JSON документ");
+        }
+    }
+
+    private JsonWriter close(int empty, int nonempty, char bracket) throws IOException {
+        int scope = stack[stackSize - 1];
+        if (scope != empty && scope != nonempty) {
+            throw new IllegalStateException("Некоректна вкладеність JSON");
+        }
+        stackSize--;
+        if (scope == nonempty) {
+            newline();
+        }
+        append(bracket);
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        switch (stack[stackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                newline();
+                break;
+            case NONEMPTY_ARRAY:
+                append(',');
+                newline();
+                break;
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("JSON документ може мати лише одне значення верхнього рівня");
+            default:
+                throw new IllegalStateException("Очікується назва поля");
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private void newline() throws IOException {
+        if (indent == null) {
+            return;
+        }
+        append('\n');
+        for (int i = 1; i < stackSize; i++) {
+            append(indent);
+        }
+    }
+
+    private void string(String value) throws IOException {
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    append("\\\"");
+                    break;
+                case '\\':
+                    append("\\\\");
+                    break;
+                case '\n':
+                    append("\\n");
+                    break;
+                case '\r':
+                    append("\\r");
+                    break;
+                case '\t':
+                    append("\\t");
+                    break;
+                case '\b':
+                    append("\\b");
+                    break;
+                case '\f':
+                    append("\\f");
+                    break;
+                default:
+                    // Керуючі символи та роздільники рядків, що ламають JavaScript
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        append("\\u");
+                        append(HEX[(c >> 12) & 0xF]);
+                        append(HEX[(c >> 8) & 0xF]);
+                        append(HEX[(c >> 4) & 0xF]);
+                        append(HEX[c & 0xF]);
+                    } else {
+                        append(c);
+                    }
+            }
+        }
+        append('"');
+    }
+
+    private void append(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            append(s.charAt(i));
+        }
+    }
+
+    private void append(char c) throws IOException {
+        if (length == buffer.length) {
+            drain();
+        }
+        buffer[length++] = c;
+    }
+
+    private void drain() throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (writer != null) {
+            writer.write(buffer, 0, length);
+            length = 0;
+            return;
+        }
+
+        // Сурогатна пара не розривається між скиданнями: старша половина лишається в буфері
+        int end = length;
+        if (Character.isHighSurrogate(buffer[end - 1])) {
+            end--;
+        }
+        CharBuffer chars = CharBuffer.wrap(buffer, 0, end);
+        while (true) {
+            CoderResult result = encoder.encode(chars, encoded, false);
+            if (result.isError()) {
+                throw new IOException("Некоректний символ для кодування UTF-8");
+            }
+            writeEncoded();
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        int rest = length - end;
+        if (rest > 0) {
+            buffer[0] = buffer[end];
+        }
+        length = rest;
+    }
+
+    private void writeEncoded() throws IOException {
+        encoded.flip();
+        while (encoded.hasRemaining()) {
+            channel.write(encoded);
+        }
+        encoded.clear();
+    }
+}
@@ -0,0 +1,68 @@
+package util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Попередній формат паролів: несолений SHA-256 у вигляді 64 шістнадцяткових
+ * символів. Лишається лише для перевірки старих хешів - після успішного входу
+ * вони перераховуються поточним алгоритмом.
+ */
+public class LegacySha256PasswordHasher implements PasswordHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // MessageDigest не потокобезпечний, а getInstance на кожен виклик шукає провайдера
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Помилка хешування пароля", e);
+        }
+    });
+
+    @Override
+    public String hash(String password) {
+        // getBytes() без кодування - як у попередній версії User.hashPassword
+        byte[] digest = DIGEST.get().digest(password.getBytes());
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public boolean verify(String password, String stored) {
+        byte[] expected = parseHex(stored);
+        byte[] actual = DIGEST.get().digest(password.getBytes());
+        return expected != null && MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean supports(String stored) {
+        return parseHex(stored) != null;
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        return true;
+    }
+
+    private static byte[] parseHex(String stored) {
+        if (stored == null || stored.length() != 64) {
+            return null;
+        }
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = Character.digit(stored.charAt(i * 2), 16);
+            int lo = Character.digit(stored.charAt(i * 2 + 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((hi << 4) | lo);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,43 @@
+package util;
+
+/**
+ * Алгоритм хешування паролів.
+ *
+ * <p>Хеш зберігається одним рядком, за яким реалізація впізнає свій формат і
+ * параметри, тож у базі можуть одночасно жити хеші різних алгоритмів.
+ */
+public interface PasswordHasher {
+
+    /**
+     * Хешує пароль з поточними параметрами.
+     *
+     * @param password пароль
+     * @return рядок хешу для збереження
+     */
+    String hash(String password);
+
+    /**
+     * Перевіряє пароль за збереженим хешем за сталий час порівняння.
+     *
+     * @param password пароль
+     * @param stored збережений хеш цього формату
+     * @return true, якщо пароль правильний
+     */
+    boolean verify(String password, String stored);
+
+    /**
+     * Перевіряє, чи хеш має формат цього алгоритму.
+     *
+     * @param stored збережений хеш
+     * @return true, якщо хеш можна перевірити цим алгоритмом
+     */
+    boolean supports(String stored);
+
+    /**
+     * Перевіряє, чи хеш створено зі слабшими за поточні параметрами.
+     *
+     * @param stored збережений хеш цього формату
+     * @return true, якщо після успішного входу хеш варто перерахувати
+     */
+    boolean needsRehash(String stored);
+}
@@ -0,0 +1,163 @@
+package util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Точка хешування паролів для всього застосунку.
+ *
+ * <p>Нові паролі хешуються поточним алгоритмом - за замовчуванням
+ * {@link Pbkdf2PasswordHasher}, відкаліброваним під
+ * {@code -Dguestbook.password.targetMs} (100 мс), або з фіксованою кількістю
+ * ітерацій {@code -Dguestbook.password.iterations}. Перевірка обирає алгоритм за
+ * форматом збереженого хешу, тож старі хеші SHA-256 продовжують працювати, а
+ * {@link #needsRehash(String)} підказує перерахувати їх після входу.
+ *
+ * <p>Одночасно хешів рахується не більше, ніж є процесорів: при сплеску входів
+ * решта чекає в черзі, а не ділить процесор, тож час кожного входу лишається
+ * близьким до відкаліброваного.
+ */
+public class PasswordHashing {
+
+    private static final long DEFAULT_TARGET_MS = 100;
+
+    private static PasswordHashing instance;
+
+    private volatile PasswordHasher current;
+    private final List<PasswordHasher> legacy = new CopyOnWriteArrayList<>();
+    private final Semaphore permits = new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+
+    /**
+     * Хеш для перевірки неіснуючого користувача, щоб час відповіді не видавав,
+     * чи зареєстровано email.
+     */
+    private volatile String dummyHash;
+
+    private PasswordHashing() {
+        Integer iterations = Integer.getInteger("guestbook.password.iterations");
+        current = iterations != null
+                ? new Pbkdf2PasswordHasher(iterations)
+                : Pbkdf2PasswordHasher.calibrate(Long.getLong("guestbook.password.targetMs", DEFAULT_TARGET_MS));
+        legacy.add(new LegacySha256PasswordHasher());
+    }
+
+    /**
+     * Отримує екземпляр; перший виклик калібрує алгоритм, тож його варто зробити при запуску.
+     *
+     * @return екземпляр
+     */
+    public static synchronized PasswordHashing getInstance() {
+        if (instance == null) {
+            instance = new PasswordHashing();
+        }
+        return instance;
+    }
+
+    /**
+     * Замінює алгоритм нових хешів. Попередній лишається для перевірки старих хешів.
+     *
+     * @param hasher новий алгоритм
+     */
+    public synchronized void setHasher(PasswordHasher hasher) {
+        legacy.add(0, current);
+        current = hasher;
+        dummyHash = null;
+    }
+
+    /**
+     * Отримує алгоритм нових хешів.
+     *
+     * @return поточний алгоритм
+     */
+    public PasswordHasher getHasher() {
+        return current;
+    }
+
+    /**
+     * Хешує пароль поточним алгоритмом.
+     *
+     * @param password пароль
+     * @return рядок хешу
+     */
+    public String hash(String password) {
+        acquire();
+        try {
+            return current.hash(password);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Перевіряє пароль алгоритмом, якому належить формат хешу.
+     *
+     * @param password пароль
+     * @param stored збережений хеш
+     * @return true, якщо пароль правильний; false і для хешу невідомого формату
+     */
+    public boolean verify(String password, String stored) {
+        PasswordHasher hasher = hasherFor(stored);
+        if (password == null || hasher == null) {
+            return false;
+        }
+        acquire();
+        try {
+            return hasher.verify(password, stored);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Витрачає на перевірку стільки ж часу, скільки на справжній хеш, і повертає false.
+     *
+     * @param password введений пароль
+     * @return завжди false
+     */
+    public boolean verifyDummy(String password) {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = hash("dummy-password");
+            dummyHash = hash;
+        }
+        verify(password == null || password.isEmpty() ? "-" : password, hash);
+        return false;
+    }
+
+    /**
+     * Перевіряє, чи хеш варто перерахувати поточним алгоритмом.
+     *
+     * @param stored збережений хеш
+     * @return true для хешу іншого алгоритму або слабших параметрів
+     */
+    public boolean needsRehash(String stored) {
+        PasswordHasher hasher = current;
+        return !hasher.supports(stored) || hasher.needsRehash(stored);
+    }
+
+    private PasswordHasher hasherFor(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        PasswordHasher hasher = current;
+        if (hasher.supports(stored)) {
+            return hasher;
+        }
+        for (PasswordHasher old : legacy) {
+            if (old.supports(stored)) {
+                return old;
+            }
+        }
+        return null;
+    }
+
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хешування пароля перервано", e);
+        }
+    }
+}
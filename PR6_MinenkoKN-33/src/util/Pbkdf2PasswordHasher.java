@@ -0,0 +1,184 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * PBKDF2-HMAC-SHA256 з випадковою сіллю.
+ *
+ * <p>Формат хешу: {@code pbkdf2-sha256$<ітерації>$<сіль>$<ключ>} (Base64 без
+ * доповнення), тож зміна кількості ітерацій не ламає старі хеші. Кількість ітерацій
+ * підбирається {@link #calibrate(long)} під цільовий час одного хешування на цій
+ * машині.
+ *
+ * <p>Ключ має довжину одного блоку HMAC-SHA256, тож PBKDF2 зводиться до ланцюжка
+ * HMAC. Він рахується через перевикористовуваний на потік {@link Mac} у
+ * попередньо виділені масиви, без створення об'єктів на кожну ітерацію.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2-sha256$";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BYTES = 32;
+
+    /**
+     * Мінімальна кількість ітерацій незалежно від калібрування.
+     */
+    public static final int MIN_ITERATIONS = 10_000;
+
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    /**
+     * Частка поточної кількості ітерацій, нижче якої хеш перераховується. Калібрування
+     * на кожному запуску дає трохи різні числа, і без допуску хеші перераховувалися б
+     * при кожному вході після запуску з дещо більшим результатом.
+     */
+    private static final double REHASH_TOLERANCE = 0.8;
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(MAC_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Помилка хешування пароля", e);
+        }
+    });
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+
+    /**
+     * Створює хешер з фіксованою кількістю ітерацій.
+     *
+     * @param iterations кількість ітерацій, не менше {@link #MIN_ITERATIONS}
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations < MIN_ITERATIONS) {
+            throw new IllegalArgumentException("Кількість ітерацій має бути не менше " + MIN_ITERATIONS);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Підбирає кількість ітерацій, за якої хешування триває приблизно заданий час.
+     *
+     * @param targetMillis цільовий час одного хешування у мілісекундах
+     * @return хешер з підібраною кількістю ітерацій
+     */
+    public static Pbkdf2PasswordHasher calibrate(long targetMillis) {
+        byte[] password = "calibration".getBytes(StandardCharsets.UTF_8);
+        byte[] salt = new byte[SALT_BYTES];
+        byte[] key = new byte[KEY_BYTES];
+        // Прогрів, щоб JIT скомпілював HMAC до вимірювання
+        for (int i = 0; i < 5; i++) {
+            derive(password, salt, 2_000, key);
+        }
+        int probe = 20_000;
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            derive(password, salt, probe, key);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perIteration = (double) Math.max(best, 1) / probe;
+        long iterations = Math.round(targetMillis * 1_000_000L / perIteration / 1_000) * 1_000;
+        return new Pbkdf2PasswordHasher((int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations)));
+    }
+
+    /**
+     * Отримує кількість ітерацій нових хешів.
+     *
+     * @return кількість ітерацій
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] key = new byte[KEY_BYTES];
+        derive(passwordBytes(password), salt, iterations, key);
+        return PREFIX + iterations + '$' + ENCODER.encodeToString(salt) + '$' + ENCODER.encodeToString(key);
+    }
+
+    @Override
+    public boolean verify(String password, String stored) {
+        if (!supports(stored) || password.isEmpty()) {
+            return false;
+        }
+        String[] parts = stored.substring(PREFIX.length()).split("\\$");
+        byte[] salt;
+        byte[] expected;
+        int storedIterations;
+        try {
+            storedIterations = Integer.parseInt(parts[0]);
+            salt = DECODER.decode(parts[1]);
+            expected = DECODER.decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (storedIterations < 1 || expected.length != KEY_BYTES) {
+            return false;
+        }
+        byte[] actual = new byte[KEY_BYTES];
+        derive(passwordBytes(password), salt, storedIterations, actual);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    @Override
+    public boolean supports(String stored) {
+        return stored != null && stored.startsWith(PREFIX) && stored.split("\\$").length == 4;
+    }
+
+    @Override
+    public boolean needsRehash(String stored) {
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations * REHASH_TOLERANCE;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static byte[] passwordBytes(String password) {
+        if (password.isEmpty()) {
+            // HMAC-ключ не може бути порожнім у SecretKeySpec
+            throw new IllegalArgumentException("Пароль не може бути порожнім");
+        }
+        return password.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // PBKDF2 для одного блоку: U1 = HMAC(P, S || 1), Ui = HMAC(P, Ui-1), ключ = U1 ^ ... ^ Uc
+    private static void derive(byte[] password, byte[] salt, int iterations, byte[] key) {
+        Mac mac = MAC.get();
+        byte[] u = new byte[KEY_BYTES];
+        try {
+            mac.init(new SecretKeySpec(password, MAC_ALGORITHM));
+            mac.update(salt);
+            mac.update(new byte[] {0, 0, 0, 1});
+            mac.doFinal(u, 0);
+            System.arraycopy(u, 0, key, 0, KEY_BYTES);
+            for (int i = 1; i < iterations; i++) {
+                mac.update(u);
+                mac.doFinal(u, 0);
+                for (int j = 0; j < KEY_BYTES; j++) {
+                    key[j] ^= u[j];
+                }
+            }
+        } catch (InvalidKeyException | ShortBufferException e) {
+            throw new RuntimeException("Помилка хешування пароля", e);
+        }
+    }
+}
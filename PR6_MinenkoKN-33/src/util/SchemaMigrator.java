@@ -0,0 +1,231 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Версійні міграції схеми бази даних.
+ *
+ * <p>Застосовані версії записуються в таблицю {@code schema_version} разом із контрольною
+ * сумою інструкцій. Вже застосовані міграції не виконуються повторно, а зміна їхнього
+ * тексту виявляється за контрольною сумою.
+ *
+ * <p>H2 фіксує кожну DDL-інструкцію окремо, тож міграція не атомарна: якщо вона
+ * обірвалась посередині, створені нею таблиці та індекси лишаються, а версія не
+ * записується. Тому кожна інструкція має бути ідемпотентною ({@code IF NOT EXISTS},
+ * {@code IF EXISTS}, вставка лише відсутніх рядків) - при наступному запуску міграція
+ * виконується знову з початку і доходить до кінця.
+ *
+ * <p>Міграція може мати передумови - запити, що шукають рядки, через які її
+ * інструкції впадуть (дублікати для унікального індексу, посилання в нікуди для
+ * зовнішнього ключа). Передумови перевіряються до першої інструкції, і якщо такі
+ * рядки є, міграція не починається, а помилка перелічує їх.
+ */
+public class SchemaMigrator {
+
+  /**
+   * Одна версія схеми.
+   */
+  public static final class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final List<Precondition> preconditions;
+
+    public Migration(int version, String description, String... statements) {
+      this(version, description, List.of(statements), List.of());
+    }
+
+    private Migration(int version, String description, List<String> statements,
+        List<Precondition> preconditions) {
+      this.version = version;
+      this.description = description;
+      this.statements = statements;
+      this.preconditions = preconditions;
+    }
+
+    /**
+     * Додає передумову. Передумови не входять до контрольної суми, тож їх можна
+     * додавати й до вже застосованих міграцій.
+     *
+     * @param problem опис проблеми, яку знаходить запит
+     * @param conflictQuery запит, що повертає конфліктні рядки; перший стовпець - їх опис
+     * @return нова міграція з передумовою
+     */
+    public Migration requires(String problem, String conflictQuery) {
+      List<Precondition> extended = new ArrayList<>(preconditions);
+      extended.add(new Precondition(problem, conflictQuery));
+      return new Migration(version, description, statements, List.copyOf(extended));
+    }
+
+    public int getVersion() {
+      return version;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+
+    public List<String> getStatements() {
+      return statements;
+    }
+
+    /**
+     * Обчислює контрольну суму інструкцій міграції.
+     *
+     * @return CRC32 тексту інструкцій
+     */
+    public int checksum() {
+      CRC32 crc = new CRC32();
+      for (String sql : statements) {
+        crc.update(sql.trim().getBytes(StandardCharsets.UTF_8));
+        crc.update('\n');
+      }
+      return (int) crc.getValue();
+    }
+  }
+
+  /**
+   * Передумова міграції: опис проблеми та запит, що знаходить конфліктні рядки.
+   */
+  private static final class Precondition {
+    private final String problem;
+    private final String conflictQuery;
+
+    private Precondition(String problem, String conflictQuery) {
+      this.problem = problem;
+      this.conflictQuery = conflictQuery;
+    }
+  }
+
+  // Скільки конфліктних рядків показувати в повідомленні для кожної передумови
+  private static final int MAX_REPORTED_CONFLICTS = 10;
+
+  private final List<Migration> migrations;
+
+  /**
+   * Створює мігратор для впорядкованого списку міграцій.
+   *
+   * @param migrations міграції зі строго зростаючими версіями
+   */
+  public SchemaMigrator(List<Migration> migrations) {
+    List<Migration> sorted = new ArrayList<>(migrations);
+    sorted.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+    for (int i = 1; i < sorted.size(); i++) {
+      if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+        throw new IllegalArgumentException(
+            "Дубльована версія міграції: " + sorted.get(i).getVersion());
+      }
+    }
+    this.migrations = Collections.unmodifiableList(sorted);
+  }
+
+  /**
+   * Застосовує всі ще не застосовані міграції.
+   *
+   * @param conn з'єднання з базою даних
+   * @return кількість застосованих міграцій
+   * @throws SQLException якщо міграція не вдалася
+   * @throws IllegalStateException якщо текст застосованої міграції змінився або дані
+   *     порушують передумови міграції
+   */
+  public int migrate(Connection conn) throws SQLException {
+    try (Statement st = conn.createStatement()) {
+      st.execute("""
+          CREATE TABLE IF NOT EXISTS schema_version (
+              version INT PRIMARY KEY,
+              description VARCHAR(255),
+              checksum INT,
+              installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+          );
+          """);
+    }
+
+    Map<Integer, Integer> applied = new HashMap<>();
+    try (PreparedStatement ps = conn.prepareStatement(
+        "SELECT version, checksum FROM schema_version");
+        ResultSet rs = ps.executeQuery()) {
+      while (rs.next()) {
+        applied.put(rs.getInt("version"), rs.getInt("checksum"));
+      }
+    }
+
+    int count = 0;
+    for (Migration migration : migrations) {
+      Integer checksum = applied.get(migration.getVersion());
+      if (checksum != null) {
+        if (checksum != migration.checksum()) {
+          throw new IllegalStateException("Контрольна сума міграції V" + migration.getVersion()
+              + " (" + migration.getDescription() + ") не збігається із застосованою");
+        }
+        continue;
+      }
+      checkPreconditions(conn, migration);
+      apply(conn, migration);
+      count++;
+    }
+    return count;
+  }
+
+  private void checkPreconditions(Connection conn, Migration migration) throws SQLException {
+    StringBuilder report = new StringBuilder();
+    for (Precondition precondition : migration.preconditions) {
+      List<String> conflicts = new ArrayList<>();
+      int total = 0;
+      try (Statement st = conn.createStatement();
+          ResultSet rs = st.executeQuery(precondition.conflictQuery)) {
+        while (rs.next()) {
+          if (total++ < MAX_REPORTED_CONFLICTS) {
+            conflicts.add(rs.getString(1));
+          }
+        }
+      }
+      if (total > 0) {
+        report.append(System.lineSeparator()).append("  ").append(precondition.problem)
+            .append(" (").append(total).append("): ").append(String.join(", ", conflicts));
+        if (total > conflicts.size()) {
+          report.append(", ...");
+        }
+      }
+    }
+    if (report.length() > 0) {
+      throw new IllegalStateException("Міграцію V" + migration.getVersion() + " ("
+          + migration.getDescription() + ") не застосовано - дані треба виправити вручну:"
+          + report);
+    }
+  }
+
+  // Інструкції DML відкочуються при помилці, DDL H2 фіксує одразу - див. опис класу
+  private void apply(Connection conn, Migration migration) throws SQLException {
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    try (Statement st = conn.createStatement();
+        PreparedStatement ps = conn.prepareStatement(
+            "INSERT INTO schema_version (version, description, checksum) VALUES (?, ?, ?)")) {
+      for (String sql : migration.getStatements()) {
+        st.execute(sql);
+      }
+      ps.setInt(1, migration.getVersion());
+      ps.setString(2, migration.getDescription());
+      ps.setInt(3, migration.checksum());
+      ps.executeUpdate();
+      conn.commit();
+    } catch (SQLException e) {
+      conn.rollback();
+      throw new SQLException("Помилка міграції V" + migration.getVersion() + " ("
+          + migration.getDescription() + "): " + e.getMessage(), e);
+    } finally {
+      conn.setAutoCommit(autoCommit);
+    }
+  }
+}
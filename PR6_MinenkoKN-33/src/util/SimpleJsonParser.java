@@ -1,5 +1,10 @@
 package util;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,7 +13,7 @@ public class SimpleJsonParser {
      * Представляє JSON об'єкт як пари ключ-значення.
      */
     public static class JsonObject {
-        private java.util.Map<String, Object> map = new java.util.HashMap<>();
+        private java.util.Map<String, Object> map = new java.util.LinkedHashMap<>();
 
         /**
          * Додає пару ключ-значення до об'єкта.
@@ -45,51 +50,44 @@ public class SimpleJsonParser {
      * Парсить JSON рядок у список об'єктів.
      * 
      * @param json JSON рядок
-     * @return список JSON об'єктів
+     * @return список JSON об'єктів; порожній, якщо рядок null або не є масивом
+     * @throws UncheckedIOException якщо JSON некоректний; причина містить номер рядка
      */
     public static List<JsonObject> parseArray(String json) {
-        List<JsonObject> result = new ArrayList<>();
-        if (json == null || json.trim().isEmpty()) {
-            return result;
+        if (json == null) {
+            return new ArrayList<>();
         }
-        
-        json = json.trim();
-        
-        if (!json.startsWith("[") || !json.endsWith("]")) {
-            return result;
+        try {
+            return parseArray(new StringReader(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Некоректний JSON: " + e.getMessage(), e);
         }
-        
-        // Видаляємо квадратні дужки
-        json = json.substring(1, json.length() - 1).trim();
-        
-        if (json.isEmpty()) {
+    }
+
+    /**
+     * Парсить JSON масив з потоку символів за один прохід.
+     * Елементи масиву, що не є об'єктами, пропускаються.
+     * 
+     * @param reader джерело JSON
+     * @return список JSON об'єктів
+     * @throws IOException якщо JSON некоректний або читання не вдалося
+     */
+    public static List<JsonObject> parseArray(Reader reader) throws IOException {
+        List<JsonObject> result = new ArrayList<>();
+        JsonReader in = new JsonReader(reader);
+        if (in.peek() != JsonReader.Token.BEGIN_ARRAY) {
             return result;
         }
-        
-        // Парсимо об'єкти з урахуванням вкладених структур
-        int braceCount = 0;
-        int start = -1;
-        
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') {
-                if (braceCount == 0) {
-                    start = i;
-                }
-                braceCount++;
-            } else if (c == '}') {
-                braceCount--;
-                if (braceCount == 0 && start != -1) {
-                    String objectStr = json.substring(start, i + 1);
-                    JsonObject obj = parseObject(objectStr);
-                    if (obj != null) {
-                        result.add(obj);
-                    }
-                    start = -1;
-                }
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                result.add(readObject(in));
+            } else {
+                in.skipValue();
             }
         }
-        
+        in.endArray();
+        in.peek(); // перевірка, що після масиву немає зайвих даних
         return result;
     }
 
@@ -97,118 +95,152 @@ public class SimpleJsonParser {
      * Парсить JSON рядок у об'єкт.
      * 
      * @param json JSON рядок
-     * @return JSON об'єкт або null
+     * @return JSON об'єкт або null, якщо рядок null або не є об'єктом
+     * @throws UncheckedIOException якщо JSON некоректний; причина містить номер рядка
      */
     public static JsonObject parseObject(String json) {
-        if (json == null || json.trim().isEmpty()) {
-            return null;
-        }
-        
-        JsonObject obj = new JsonObject();
-        json = json.trim();
-        
-        if (!json.startsWith("{") || !json.endsWith("}")) {
+        if (json == null) {
             return null;
         }
-        
-        // Видаляємо фігурні дужки
-        json = json.substring(1, json.length() - 1).trim();
-        
-        if (json.isEmpty()) {
-            return obj;
-        }
-        
-        // Парсимо пари ключ:значення з урахуванням вкладених структур
-        List<String> pairs = new ArrayList<>();
-        int braceCount = 0;
-        int start = 0;
-        
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            if (c == '{') {
-                braceCount++;
-            } else if (c == '}') {
-                braceCount--;
-            } else if (c == ',' && braceCount == 0) {
-                pairs.add(json.substring(start, i).trim());
-                start = i + 1;
+        try {
+            JsonReader in = new JsonReader(new StringReader(json));
+            if (in.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                return null;
             }
+            JsonObject obj = readObject(in);
+            in.peek();
+            return obj;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Некоректний JSON: " + e.getMessage(), e);
         }
-        if (start < json.length()) {
-            pairs.add(json.substring(start).trim());
+    }
+
+    /**
+     * Читає значення: рядок, ціле число як Long, дробове як Double, булеве значення,
+     * null, вкладений об'єкт як JsonObject або масив як List.
+     */
+    private static Object readValue(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(in);
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    list.add(readValue(in));
+                }
+                in.endArray();
+                return list;
+            case NUMBER:
+                String number = in.nextString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException e) {
+                        // Не вміщується в long - повертаємо як дробове
+                    }
+                }
+                return Double.parseDouble(number);
+            case BOOLEAN:
+                return in.nextBoolean();
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                return in.nextString();
         }
-        
-        for (String pair : pairs) {
-            if (pair.isEmpty()) continue;
-            
-            int colonIndex = pair.indexOf(':');
-            if (colonIndex == -1) continue;
-            
-            String key = pair.substring(0, colonIndex).trim().replaceAll("^\"|\"$", "");
-            String value = pair.substring(colonIndex + 1).trim();
-            
-            // Обробка значень
-            if (value.startsWith("\"") && value.endsWith("\"")) {
-                // Рядок
-                obj.put(key, value.substring(1, value.length() - 1));
-            } else if (value.matches("\\d+")) {
-                // Число
-                obj.put(key, Long.parseLong(value));
-            } else if (value.equals("true") || value.equals("false")) {
-                // Булеве значення
-                obj.put(key, Boolean.parseBoolean(value));
-            } else {
-                obj.put(key, value);
-            }
+    }
+
+    private static JsonObject readObject(JsonReader in) throws IOException {
+        JsonObject obj = new JsonObject();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            obj.put(key, readValue(in));
         }
-        
+        in.endObject();
         return obj;
     }
 
     /**
-     * Конвертує об'єкт у JSON рядок.
+     * Конвертує об'єкт у JSON рядок з екрануванням значень.
      * 
      * @param obj об'єкт для конвертації
      * @return JSON рядок
      */
     public static String toJsonString(JsonObject obj) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
-        boolean first = true;
-        for (java.util.Map.Entry<String, Object> entry : obj.map.entrySet()) {
-            if (!first) {
-                sb.append(",");
-            }
-            sb.append("\"").append(entry.getKey()).append("\":");
-            Object value = entry.getValue();
-            if (value instanceof String) {
-                sb.append("\"").append(value).append("\"");
-            } else {
-                sb.append(value);
-            }
-            first = false;
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writeValue(writer, obj);
+            writer.flush();
+        } catch (IOException e) {
+            // StringWriter не кидає IOException
+            throw new UncheckedIOException(e);
         }
-        sb.append("}");
-        return sb.toString();
+        return out.toString();
     }
 
     /**
-     * Конвертує список об'єктів у JSON рядок.
+     * Конвертує список об'єктів у JSON рядок з екрануванням значень.
      * 
      * @param objects список об'єктів
      * @return JSON рядок
      */
     public static String arrayToJsonString(List<JsonObject> objects) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
-        for (int i = 0; i < objects.size(); i++) {
-            if (i > 0) {
-                sb.append(",");
+        StringWriter out = new StringWriter();
+        try {
+            writeArray(new JsonWriter(out), objects);
+        } catch (IOException e) {
+            // StringWriter не кидає IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Записує список об'єктів як JSON масив одразу в генератор, без проміжного рядка,
+     * і закриває його.
+     * 
+     * @param writer генератор, наприклад поверх файлу
+     * @param objects список об'єктів
+     * @throws IOException якщо запис не вдався
+     */
+    public static void writeArray(JsonWriter writer, List<JsonObject> objects) throws IOException {
+        try (JsonWriter out = writer) {
+            out.beginArray();
+            for (JsonObject obj : objects) {
+                writeValue(out, obj);
+            }
+            out.endArray();
+        }
+    }
+
+    private static void writeValue(JsonWriter out, Object value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else if (value instanceof JsonObject) {
+            out.beginObject();
+            for (java.util.Map.Entry<String, Object> entry : ((JsonObject) value).map.entrySet()) {
+                out.name(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+            out.endObject();
+        } else if (value instanceof List) {
+            out.beginArray();
+            for (Object item : (List<?>) value) {
+                writeValue(out, item);
             }
-            sb.append(toJsonString(objects.get(i)));
+            out.endArray();
+        } else if (value instanceof Boolean) {
+            out.value((Boolean) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.value(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            out.value(((Number) value).longValue());
+        } else {
+            out.value(value.toString());
         }
-        sb.append("]");
-        return sb.toString();
     }
 }
 
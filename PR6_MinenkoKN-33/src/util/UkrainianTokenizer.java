@@ -0,0 +1,121 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Токенізатор для українського тексту.
+ *
+ * <p>Розбиває текст на слова з літер і цифр, переводить їх у нижній регістр
+ * (з урахуванням кирилиці), прибирає апостроф усередині слова («п'ять» → «пять»),
+ * відкидає службові слова та відсікає найпоширеніші закінчення кириличних слів.
+ * Стемінг навмисно простий: однакові форми слова зводяться до спільної основи,
+ * а короткі основи не обрізаються.
+ */
+public class UkrainianTokenizer {
+
+  /**
+   * Мінімальна довжина основи, що лишається після відсікання закінчення.
+   */
+  private static final int MIN_STEM_LENGTH = 3;
+
+  private static final Set<String> STOP_WORDS = Set.of(
+      "і", "й", "та", "а", "але", "або", "в", "у", "на", "з", "із", "зі", "до", "за", "по",
+      "від", "для", "о", "об", "що", "це", "не", "як", "так", "же", "б", "би", "ж", "то");
+
+  // Від довших до коротших, щоб відсікалося найдовше закінчення
+  private static final String[] SUFFIXES = {
+      "ється", "ються", "ення", "ання", "ими", "ами", "ями", "ого", "ому", "ові", "еві",
+      "ій", "их", "ів", "ям", "ах", "ях", "ою", "ею", "ий", "ім", "ом", "ем", "ам", "ти",
+      "ть", "ся", "ла", "ло", "ли",
+      "а", "я", "о", "е", "и", "і", "ї", "у", "ю", "ь"
+  };
+
+  /**
+   * Розбиває текст на нормалізовані терміни.
+   *
+   * @param text текст
+   * @return терміни у порядку появи, з повтореннями
+   */
+  public List<String> tokenize(String text) {
+    List<String> terms = new ArrayList<>();
+    for (String word : words(text)) {
+      if (!STOP_WORDS.contains(word)) {
+        terms.add(stem(word));
+      }
+    }
+    return terms;
+  }
+
+  /**
+   * Розбиває текст на слова в нижньому регістрі без відкидання службових слів
+   * і без стемінгу. Підходить для пошуку за префіксом, де основа слова заважає.
+   *
+   * @param text текст
+   * @return слова у порядку появи, з повтореннями
+   */
+  public List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+    if (text == null) {
+      return words;
+    }
+    StringBuilder word = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      // Апостроф перевіряється першим: U+02BC - це літера-модифікатор, і
+      // isLetterOrDigit увімкнув би його у слово
+      if (isApostrophe(c)) {
+        if (word.length() > 0 && i + 1 < text.length() && Character.isLetter(text.charAt(i + 1))
+            && !isApostrophe(text.charAt(i + 1))) {
+          // Апостроф усередині слова не розриває його і не входить у слово
+          continue;
+        }
+        if (word.length() > 0) {
+          words.add(word.toString());
+          word.setLength(0);
+        }
+      } else if (Character.isLetterOrDigit(c)) {
+        word.append(Character.toLowerCase(c));
+      } else if (word.length() > 0) {
+        words.add(word.toString());
+        word.setLength(0);
+      }
+    }
+    if (word.length() > 0) {
+      words.add(word.toString());
+    }
+    return words;
+  }
+
+  /**
+   * Відсікає закінчення кириличного слова.
+   *
+   * @param term слово в нижньому регістрі
+   * @return основа слова
+   */
+  public String stem(String term) {
+    if (!isCyrillic(term)) {
+      return term;
+    }
+    for (String suffix : SUFFIXES) {
+      if (term.length() - suffix.length() >= MIN_STEM_LENGTH && term.endsWith(suffix)) {
+        return term.substring(0, term.length() - suffix.length());
+      }
+    }
+    return term;
+  }
+
+  private static boolean isCyrillic(String term) {
+    for (int i = 0; i < term.length(); i++) {
+      if (Character.UnicodeBlock.of(term.charAt(i)) != Character.UnicodeBlock.CYRILLIC) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isApostrophe(char c) {
+    return c == '\'' || c == '’' || c == 'ʼ';
+  }
+}
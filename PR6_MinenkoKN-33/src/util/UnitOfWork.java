@@ -0,0 +1,366 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Одиниця роботи: кілька викликів UserDAO, ServiceDAO та ReviewDAO в одній
+ * транзакції на одному з'єднанні.
+ *
+ * <p>Поки робота виконується, з'єднання прив'язане до потоку, і
+ * {@link DatabaseCfg#getConnection()} видає DAO його обгортку замість нового
+ * з'єднання з пулу. Обгортка ігнорує {@code close}, {@code commit} та
+ * {@code setAutoCommit}, тож DAO не треба знати про одиницю роботи: їхні власні
+ * транзакції стають частиною спільної. {@code rollback} з боку DAO позначає
+ * одиницю роботи лише для відкату. Вкладений виклик {@link #execute} приєднується
+ * до зовнішньої одиниці роботи з її параметрами.
+ *
+ * <p>Дії, які мають бачити лише зафіксовані зміни (сповіщення слухачів,
+ * інвалідація кешів), реєструються через {@link #afterCommit(Runnable)} і
+ * виконуються після фіксації; при відкаті вони відкидаються. Дії
+ * {@link #afterCompletion(Runnable)} (звільнення ресурсів) виконуються в будь-якому разі.
+ *
+ * <p>Масові операції можуть фіксувати зміни порціями через {@link #checkpoint()}:
+ * робота сама вирішує, після якої кількості записів зафіксувати проміжний
+ * результат. Атомарною тоді є кожна порція, а не вся робота.
+ */
+public final class UnitOfWork {
+
+    /**
+     * Робота, що виконується в одиниці роботи.
+     *
+     * @param <T> тип результату
+     */
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Незмінні параметри одиниці роботи.
+     */
+    public static final class Options {
+
+        private static final Options DEFAULTS = new Options(-1, false);
+
+        private final int isolation;
+        private final boolean readOnly;
+
+        private Options(int isolation, boolean readOnly) {
+            this.isolation = isolation;
+            this.readOnly = readOnly;
+        }
+
+        /**
+         * Параметри за замовчуванням: рівень ізоляції з'єднання, запис дозволено.
+         *
+         * @return параметри за замовчуванням
+         */
+        public static Options defaults() {
+            return DEFAULTS;
+        }
+
+        /**
+         * Задає рівень ізоляції транзакції.
+         *
+         * @param isolation константа {@code Connection.TRANSACTION_*}
+         * @return нові параметри
+         */
+        public Options withIsolation(int isolation) {
+            return new Options(isolation, readOnly);
+        }
+
+        /**
+         * Позначає роботу як лише читання; база може не брати блокувань на запис.
+         *
+         * @param readOnly true - лише читання
+         * @return нові параметри
+         */
+        public Options readOnly(boolean readOnly) {
+            return new Options(isolation, readOnly);
+        }
+    }
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Виконує роботу в одиниці роботи з параметрами за замовчуванням.
+     *
+     * @param work робота
+     * @param <T> тип результату
+     * @return результат роботи
+     * @throws RuntimeException якщо робота завершилась помилкою; перевірювані винятки загорнуто
+     */
+    public static <T> T execute(Work<T> work) {
+        return execute(Options.defaults(), work);
+    }
+
+    /**
+     * Виконує роботу в одиниці роботи: фіксує зміни при успіху і відкочує їх при
+     * будь-якій помилці чи позначці лише для відкату.
+     *
+     * @param options параметри; ігноруються, якщо потік уже в одиниці роботи
+     * @param work робота
+     * @param <T> тип результату
+     * @return результат роботи
+     * @throws RuntimeException якщо робота завершилась помилкою; перевірюваний виняток
+     *         загортається один раз, неперевірювані передаються як є
+     */
+    public static <T> T execute(Options options, Work<T> work) {
+        Scope outer = CURRENT.get();
+        if (outer != null) {
+            try {
+                return work.run();
+            } catch (Exception | Error e) {
+                outer.rollbackOnly = true;
+                throw unchecked(e);
+            }
+        }
+
+        Scope scope;
+        try {
+            scope = new Scope(DatabaseCfg.getDataSource().getConnection(), options);
+        } catch (SQLException e) {
+            throw new RuntimeException("Помилка початку транзакції: " + e.getMessage(), e);
+        }
+        try {
+            T result;
+            List<Runnable> hooks;
+            CURRENT.set(scope);
+            try {
+                try {
+                    scope.begin();
+                    result = work.run();
+                } catch (Exception | Error e) {
+                    scope.rollbackQuietly(e);
+                    throw unchecked(e);
+                }
+                if (scope.rollbackOnly) {
+                    scope.rollbackQuietly(null);
+                    throw new IllegalStateException("Транзакцію позначено лише для відкату");
+                }
+                scope.commit();
+                hooks = scope.takeHooks();
+            } finally {
+                CURRENT.remove();
+                scope.close();
+            }
+            // Поза одиницею роботи: дії з базою в сповіщеннях бачать зафіксовані дані
+            for (Runnable hook : hooks) {
+                hook.run();
+            }
+            return result;
+        } finally {
+            for (Runnable action : scope.completions) {
+                action.run();
+            }
+        }
+    }
+
+    /**
+     * Фіксує зміни поточної одиниці роботи, виконує зареєстровані до цього дії
+     * після фіксації і продовжує роботу в новій транзакції на тому ж з'єднанні.
+     * Поза одиницею роботи нічого не робить.
+     *
+     * @throws IllegalStateException якщо одиницю роботи позначено лише для відкату
+     */
+    public static void checkpoint() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        if (scope.rollbackOnly) {
+            throw new IllegalStateException("Транзакцію позначено лише для відкату");
+        }
+        scope.commit();
+        List<Runnable> done = scope.takeHooks();
+        CURRENT.remove();
+        try {
+            for (Runnable hook : done) {
+                hook.run();
+            }
+        } finally {
+            CURRENT.set(scope);
+        }
+    }
+
+    /**
+     * Перевіряє, чи поточний потік виконує одиницю роботи.
+     *
+     * @return true, якщо є прив'язане з'єднання
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Реєструє дію після фіксації поточної одиниці роботи. Поза одиницею роботи
+     * дія виконується одразу.
+     *
+     * @param hook дія
+     */
+    public static void afterCommit(Runnable hook) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            hook.run();
+        } else {
+            scope.hooks.add(hook);
+        }
+    }
+
+    /**
+     * Реєструє дію після завершення поточної одиниці роботи: після фіксації та дій
+     * {@link #afterCommit} або після відкату. Поза одиницею роботи дія виконується одразу.
+     *
+     * @param action дія
+     */
+    public static void afterCompletion(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.completions.add(action);
+        }
+    }
+
+    /**
+     * Позначає поточну одиницю роботи лише для відкату.
+     */
+    public static void setRollbackOnly() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * Видає обгортку з'єднання поточної одиниці роботи.
+     *
+     * @return з'єднання або null, якщо потік не в одиниці роботи
+     */
+    static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope == null ? null : scope.participant;
+    }
+
+    // Помилки DAO та сервісів уже неперевірювані; загортаємо лише перевірювані винятки роботи
+    private static RuntimeException unchecked(Throwable e) {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new RuntimeException("Помилка одиниці роботи: " + e.getMessage(), e);
+    }
+
+    /**
+     * Стан одиниці роботи, прив'язаної до потоку.
+     */
+    private static final class Scope implements InvocationHandler {
+        private final Connection connection;
+        private final Options options;
+        private final Connection participant;
+        private List<Runnable> hooks = new ArrayList<>();
+        private final List<Runnable> completions = new ArrayList<>();
+        private boolean rollbackOnly;
+
+        private Scope(Connection connection, Options options) {
+            this.connection = connection;
+            this.options = options;
+            this.participant = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, this);
+        }
+
+        private void begin() {
+            try {
+                connection.setAutoCommit(false);
+                if (options.isolation >= 0) {
+                    connection.setTransactionIsolation(options.isolation);
+                }
+                if (options.readOnly) {
+                    connection.setReadOnly(true);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Помилка початку транзакції: " + e.getMessage(), e);
+            }
+        }
+
+        private void commit() {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                rollbackQuietly(e);
+                throw new RuntimeException("Помилка фіксації транзакції: " + e.getMessage(), e);
+            }
+        }
+
+        private List<Runnable> takeHooks() {
+            List<Runnable> taken = hooks;
+            hooks = new ArrayList<>();
+            return taken;
+        }
+
+        private void rollbackQuietly(Throwable cause) {
+            hooks.clear();
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                if (cause != null) {
+                    cause.addSuppressed(e);
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                // Пул сам повертає автофіксацію, рівень ізоляції та режим читання
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Помилка повернення з'єднання до пулу: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                case "setTransactionIsolation":
+                case "setReadOnly":
+                    // З'єднанням і транзакцією керує одиниця роботи
+                    return null;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "getAutoCommit":
+                    return false;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + connection + "]";
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
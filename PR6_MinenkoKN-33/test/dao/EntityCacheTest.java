@@ -0,0 +1,123 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import entity.Service;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+import util.UnitOfWork;
+
+/**
+ * Кеш сутностей: копії значень, мітки інвалідації, витіснення та одиниця роботи.
+ */
+class EntityCacheTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void returnsIndependentCopies() {
+        EntityCache<Service> cache = new EntityCache<>(10, 60_000, Service::new);
+        Service original = new Service(1, "Басейн", "Опис");
+        cache.put(1, original, cache.stamp());
+
+        original.setName("Змінено після put");
+        Service first = cache.get(1);
+        assertEquals("Басейн", first.getName());
+
+        first.setName("Змінено після get");
+        Service second = cache.get(1);
+        assertEquals("Басейн", second.getName());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void putWithStaleStampIsIgnored() {
+        EntityCache<Service> cache = new EntityCache<>(10, 60_000, Service::new);
+        long stamp = cache.stamp();
+        // Значення прочитане до інвалідації не повинне повернутися в кеш після неї
+        cache.invalidate(1);
+        cache.put(1, new Service(1, "Застаріле", "Опис"), stamp);
+        assertNull(cache.get(1));
+
+        cache.put(1, new Service(1, "Свіже", "Опис"), cache.stamp());
+        assertEquals("Свіже", cache.get(1).getName());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        EntityCache<Service> cache = new EntityCache<>(2, 60_000, Service::new);
+        cache.put(1, new Service(1, "a", "a"), cache.stamp());
+        cache.put(2, new Service(2, "b", "b"), cache.stamp());
+        cache.get(1);
+        cache.put(3, new Service(3, "c", "c"), cache.stamp());
+
+        assertNotNull(cache.get(1));
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(3));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void expiresAfterTtl() throws InterruptedException {
+        EntityCache<Service> cache = new EntityCache<>(10, 1, Service::new);
+        cache.put(1, new Service(1, "a", "a"), cache.stamp());
+        Thread.sleep(20);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        EntityCache<Service> cache = new EntityCache<>(0, 60_000, Service::new);
+        cache.put(1, new Service(1, "a", "a"), cache.stamp());
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void putInsideUnitOfWorkIsSkipped() throws Exception {
+        EntityCache<Service> cache = new EntityCache<>(10, 60_000, Service::new);
+        UnitOfWork.execute(() -> {
+            // Прочитане в одиниці роботи може бути незафіксованим
+            cache.put(1, new Service(1, "Незафіксоване", "Опис"), cache.stamp());
+            return null;
+        });
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void invalidationIsRepeatedAfterCommit() throws Exception {
+        EntityCache<Service> cache = new EntityCache<>(10, 60_000, Service::new);
+        cache.put(1, new Service(1, "Старе", "Опис"), cache.stamp());
+
+        UnitOfWork.execute(() -> {
+            cache.invalidate(1);
+            // Інший потік до фіксації ще бачить старий рядок і кладе його в кеш
+            CompletableFuture.runAsync(() ->
+                    cache.put(1, new Service(1, "Старе", "Опис"), cache.stamp())).join();
+            assertNotNull(cache.get(1));
+            return null;
+        });
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void rolledBackUnitOfWorkStillInvalidates() {
+        EntityCache<Service> cache = new EntityCache<>(10, 60_000, Service::new);
+        cache.put(1, new Service(1, "Старе", "Опис"), cache.stamp());
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            cache.invalidate(1);
+            throw new IllegalStateException("відкат");
+        }));
+        assertNull(cache.get(1));
+    }
+}
@@ -0,0 +1,166 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import entity.Review;
+import entity.ReviewFeedItem;
+import entity.Service;
+import entity.User;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Стрічка відгуків з JOIN користувачів і послуг: порядок, імена та межі сторінок.
+ */
+class FeedPageTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void userFeedPagesFollowIdOrderWithJoinedNames() {
+        User author = createUser("Авторка стрічки");
+        User other = createUser("Інший автор");
+        Service cafe = createService("Кав'ярня");
+        Service gym = createService("Спортзал");
+
+        // Чужі відгуки між відгуками автора не повинні потрапити в його стрічку чи зсунути сторінки
+        List<Review> expected = new ArrayList<>();
+        expected.addAll(createReviews(author, cafe, 2));
+        createReviews(other, cafe, 2);
+        expected.addAll(createReviews(author, gym, 3));
+        createReviews(other, gym, 1);
+        expected.addAll(createReviews(author, cafe, 2));
+
+        List<ReviewFeedItem> items = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String token = null;
+        do {
+            Page<ReviewFeedItem> page = DaoFactory.getReviewDAO()
+                    .findFeedPageByUserId(author.getId(), token, PAGE_SIZE);
+            items.addAll(page.getItems());
+            pageSizes.add(page.getItems().size());
+            token = page.getNextToken();
+        } while (token != null);
+
+        assertEquals(List.of(3, 3, 1), pageSizes);
+        assertEquals(ids(expected), feedIds(items));
+        for (int i = 0; i < items.size(); i++) {
+            Review review = expected.get(i);
+            ReviewFeedItem item = items.get(i);
+            assertEquals(review.getText(), item.getReview().getText());
+            assertEquals(review.getRating(), item.getReview().getRating());
+            assertEquals(author.getName(), item.getUserName());
+            assertEquals(review.getServiceId() == cafe.getId() ? cafe.getName() : gym.getName(),
+                    item.getServiceName());
+        }
+    }
+
+    @Test
+    void feedCoversEveryReviewOnceInIdOrder() {
+        User author = createUser("Автор");
+        Service service = createService("Пекарня");
+        List<Review> created = createReviews(author, service, PAGE_SIZE * 2 + 1);
+
+        List<ReviewFeedItem> items = new ArrayList<>();
+        String token = null;
+        do {
+            Page<ReviewFeedItem> page = DaoFactory.getReviewDAO().findFeedPage(token, PAGE_SIZE);
+            assertTrue(page.getItems().size() <= PAGE_SIZE);
+            items.addAll(page.getItems());
+            token = page.getNextToken();
+        } while (token != null);
+
+        List<Integer> all = new ArrayList<>();
+        for (Review review : DaoFactory.getReviewDAO().findAll()) {
+            all.add(review.getId());
+        }
+        all.sort(null);
+        assertEquals(all, feedIds(items));
+
+        List<Integer> tail = feedIds(items).subList(items.size() - created.size(), items.size());
+        assertEquals(ids(created), tail);
+        ReviewFeedItem last = items.get(items.size() - 1);
+        assertEquals(author.getName(), last.getUserName());
+        assertEquals(service.getName(), last.getServiceName());
+    }
+
+    @Test
+    void lastFullPageHasNoNextToken() {
+        User author = createUser("Автор");
+        List<Review> created = createReviews(author, createService("Квіти"), PAGE_SIZE * 2);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Page<ReviewFeedItem> first = dao.findFeedPageByUserId(author.getId(), null, PAGE_SIZE);
+        assertEquals(Page.encodeToken(created.get(PAGE_SIZE - 1).getId()), first.getNextToken());
+
+        Page<ReviewFeedItem> second = dao.findFeedPageByUserId(author.getId(), first.getNextToken(), PAGE_SIZE);
+        assertEquals(ids(created.subList(PAGE_SIZE, PAGE_SIZE * 2)), feedIds(second.getItems()));
+        assertFalse(second.hasNext());
+        assertNull(second.getNextToken());
+    }
+
+    @Test
+    void reviewAddedWhilePagingAppearsOnLaterPage() {
+        User author = createUser("Автор");
+        Service service = createService("Ательє");
+        List<Review> created = createReviews(author, service, PAGE_SIZE + 1);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Page<ReviewFeedItem> first = dao.findFeedPageByUserId(author.getId(), null, PAGE_SIZE);
+        // Видалення прочитаного рядка й новий відгук не зсувають і не дублюють наступну сторінку
+        dao.delete(created.get(0).getId());
+        Review added = createReviews(author, service, 1).get(0);
+
+        Page<ReviewFeedItem> second = dao.findFeedPageByUserId(author.getId(), first.getNextToken(), PAGE_SIZE);
+        assertEquals(List.of(created.get(PAGE_SIZE).getId(), added.getId()), feedIds(second.getItems()));
+        assertFalse(second.hasNext());
+    }
+
+    private static User createUser(String name) {
+        User user = new User(0, name, TestDatabase.unique("feed") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(user));
+        return user;
+    }
+
+    private static Service createService(String name) {
+        Service service = new Service(0, TestDatabase.unique(name), "Опис послуги");
+        assertTrue(DaoFactory.getServiceDAO().create(service));
+        return service;
+    }
+
+    private static List<Review> createReviews(User user, Service service, int count) {
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(0, user.getId(), service.getId(), "Відгук у стрічці " + i, 1 + i % 5));
+        }
+        DaoFactory.getReviewDAO().createAll(reviews);
+        return reviews;
+    }
+
+    private static List<Integer> ids(List<Review> reviews) {
+        List<Integer> ids = new ArrayList<>();
+        for (Review review : reviews) {
+            ids.add(review.getId());
+        }
+        return ids;
+    }
+
+    private static List<Integer> feedIds(List<ReviewFeedItem> items) {
+        List<Integer> ids = new ArrayList<>();
+        for (ReviewFeedItem item : items) {
+            ids.add(item.getReview().getId());
+        }
+        return ids;
+    }
+}
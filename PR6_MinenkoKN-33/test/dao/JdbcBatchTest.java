@@ -0,0 +1,137 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import entity.Review;
+import entity.Service;
+import entity.User;
+import exception.OptimisticLockException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Пакетні операції DAO: ключі в порядку колекції між кількома пакетами та
+ * відкат усієї колекції при помилці посередині.
+ */
+class JdbcBatchTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void generatedIdsFollowCollectionOrderAcrossFlushes() {
+        ServiceDAO dao = new ServiceDAO();
+        dao.setBatchSize(BATCH_SIZE);
+        List<Service> services = services(3 * BATCH_SIZE + 1);
+
+        assertEquals(services.size(), dao.createAll(services));
+        for (int i = 1; i < services.size(); i++) {
+            assertTrue(services.get(i).getId() > services.get(i - 1).getId());
+        }
+        for (Service service : services) {
+            assertEquals(service.getName(), dao.findById(service.getId()).getName());
+        }
+    }
+
+    @Test
+    void createFailureInLaterBatchRollsBackEarlierBatches() {
+        ServiceDAO dao = new ServiceDAO();
+        dao.setBatchSize(BATCH_SIZE);
+        List<Service> services = services(2 * BATCH_SIZE);
+        // Назва довша за VARCHAR(255) - помилка лише у другому пакеті
+        services.get(BATCH_SIZE + 1).setName("x".repeat(300));
+
+        assertThrows(RuntimeException.class, () -> dao.createAll(services));
+        for (Service service : services) {
+            assertEquals(0, countServicesNamed(dao, service.getName()));
+        }
+    }
+
+    @Test
+    void reviewCreateFailureKeepsStatsUnchanged() {
+        Review seed = ReviewDAOTest.createReviews(1).get(0);
+        ReviewDAO dao = new ReviewDAO();
+        dao.setBatchSize(BATCH_SIZE);
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < 2 * BATCH_SIZE; i++) {
+            reviews.add(new Review(0, seed.getUserId(), seed.getServiceId(), "Пакетний " + i, 4));
+        }
+        // Неіснуюча послуга в другому пакеті порушує зовнішній ключ
+        reviews.get(BATCH_SIZE + 1).setServiceId(-1);
+
+        assertThrows(RuntimeException.class, () -> dao.createAll(reviews));
+        assertEquals(1, dao.findByUserId(seed.getUserId()).size());
+        assertEquals(1, dao.findStatsByServiceId(seed.getServiceId()).getCount());
+    }
+
+    @Test
+    void updateConflictInLaterBatchRollsBackAll() {
+        ServiceDAO dao = new ServiceDAO();
+        dao.setBatchSize(BATCH_SIZE);
+        List<Service> services = services(2 * BATCH_SIZE);
+        dao.createAll(services);
+        List<String> names = new ArrayList<>();
+        for (Service service : services) {
+            names.add(service.getName());
+            service.setDescription("Оновлено");
+        }
+        // Застаріла версія в другому пакеті
+        services.get(BATCH_SIZE + 1).setVersion(services.get(BATCH_SIZE + 1).getVersion() + 5);
+
+        assertThrows(OptimisticLockException.class, () -> dao.updateAll(services));
+        Map<Integer, Service> stored = dao.findByIds(ids(services, Service::getId));
+        for (Service service : services) {
+            assertEquals("Опис", stored.get(service.getId()).getDescription());
+            assertEquals(0, stored.get(service.getId()).getVersion());
+        }
+    }
+
+    @Test
+    void deleteFailureInLaterBatchRollsBackAll() {
+        UserDAO dao = new UserDAO();
+        dao.setBatchSize(2);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            users.add(new User(0, "Пакет " + i, TestDatabase.unique("batch") + "@example.com", "secret123"));
+        }
+        assertEquals(4, dao.createAll(users));
+        // На останнього користувача посилається відгук - зовнішній ключ не дасть його видалити
+        Service service = services(1).get(0);
+        assertTrue(DaoFactory.getServiceDAO().create(service));
+        DaoFactory.getReviewDAO().create(new Review(0, users.get(3).getId(), service.getId(), "Тримає користувача", 5));
+
+        assertThrows(RuntimeException.class, () -> dao.deleteAll(ids(users, User::getId)));
+        assertEquals(4, dao.findByIds(ids(users, User::getId)).size());
+    }
+
+    private static List<Service> services(int count) {
+        List<Service> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            services.add(new Service(0, TestDatabase.unique("Пакетна послуга"), "Опис"));
+        }
+        return services;
+    }
+
+    private static <T> List<Integer> ids(List<T> items, Function<T, Integer> idOf) {
+        List<Integer> ids = new ArrayList<>();
+        for (T item : items) {
+            ids.add(idOf.apply(item));
+        }
+        return ids;
+    }
+
+    private static long countServicesNamed(ServiceDAO dao, String name) {
+        return dao.findAll().stream().filter(s -> name.equals(s.getName())).count();
+    }
+}
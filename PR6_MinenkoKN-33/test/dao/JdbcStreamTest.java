@@ -0,0 +1,107 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import entity.Review;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.DatabaseCfg;
+import util.TestDatabase;
+
+/**
+ * Потокове читання відгуків: порядок, повернення з'єднання та скидання ледачого режиму.
+ */
+class JdbcStreamTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void streamByServiceIdReadsAllRowsInIdOrder() {
+        List<Review> created = ReviewDAOTest.createReviews(7);
+        int serviceId = created.get(0).getServiceId();
+
+        List<Integer> ids;
+        try (Stream<Review> reviews = DaoFactory.getReviewDAO().streamByServiceId(serviceId, 2)) {
+            ids = reviews.map(Review::getId).collect(Collectors.toList());
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (Review review : created) {
+            expected.add(review.getId());
+        }
+        assertEquals(expected, ids);
+        assertConnectionReturnedClean();
+    }
+
+    @Test
+    void fullyReadStreamReturnsConnectionWithoutClose() {
+        List<Review> created = ReviewDAOTest.createReviews(3);
+        Iterator<Review> it = DaoFactory.getReviewDAO().streamByServiceId(created.get(0).getServiceId(), 1).iterator();
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertEquals(3, count);
+        assertConnectionReturnedClean();
+    }
+
+    @Test
+    void earlyCloseReturnsConnection() {
+        Review last = ReviewDAOTest.createReviews(3).get(2);
+        Optional<Review> first;
+        try (Stream<Review> reviews = DaoFactory.getReviewDAO().streamAll(1)) {
+            first = reviews.filter(r -> r.getId() == last.getId()).findFirst();
+        }
+        assertEquals(last.getText(), first.get().getText());
+        assertConnectionReturnedClean();
+    }
+
+    @Test
+    void halfReadStreamIsReleasedOnClose() {
+        List<Review> created = ReviewDAOTest.createReviews(5);
+        Stream<Review> reviews = DaoFactory.getReviewDAO().streamByServiceId(created.get(0).getServiceId(), 2);
+        Iterator<Review> it = reviews.iterator();
+        assertEquals(created.get(0).getId(), it.next().getId());
+        assertEquals(created.get(1).getId(), it.next().getId());
+        assertEquals(1, DatabaseCfg.getPoolStats().getActive());
+
+        reviews.close();
+        reviews.close();
+        assertConnectionReturnedClean();
+    }
+
+    @Test
+    void failedOpenReturnsConnection() {
+        assertThrows(RuntimeException.class, () -> JdbcStream.query("SELECT * FROM no_such_table", 10,
+                ps -> { }, rs -> rs.getInt(1)));
+        assertThrows(IllegalArgumentException.class, () -> DaoFactory.getReviewDAO().streamAll(0));
+        assertConnectionReturnedClean();
+    }
+
+    // Пул віддає останнє повернуте з'єднання першим, тож саме його і перевіряємо
+    private static void assertConnectionReturnedClean() {
+        assertEquals(0, DatabaseCfg.getPoolStats().getActive());
+        // Режим сесії H2 не видно через INFORMATION_SCHEMA, тож читаємо його з сесії драйвера
+        try (Connection conn = DatabaseCfg.getConnection()) {
+            SessionLocal session = (SessionLocal) conn.unwrap(JdbcConnection.class).getSession();
+            assertFalse(session.isLazyQueryExecution());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import entity.Review;
+import entity.Service;
+import entity.User;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Токени keyset-пагінації та межі сторінок ReviewDAO.
+ */
+class PageTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void tokenRoundTrip() {
+        assertEquals(0, Page.decodeToken(null));
+        assertEquals(0, Page.decodeToken(""));
+        assertEquals(42, Page.decodeToken(Page.encodeToken(42)));
+        assertEquals(Integer.MAX_VALUE, Page.decodeToken(Page.encodeToken(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void invalidTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Page.decodeToken("не токен"));
+        assertThrows(IllegalArgumentException.class, () -> Page.decodeToken(Page.encodeToken(1) + "!"));
+    }
+
+    @Test
+    void pageSizeIsBounded() {
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        assertThrows(IllegalArgumentException.class, () -> dao.findPage(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> dao.findPage(null, Page.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> dao.findPage(null, Integer.MAX_VALUE));
+        assertNotNull(dao.findPage(null, Page.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void exactMultipleOfPageSizeHasNoTrailingEmptyPage() {
+        List<Review> created = createReviews(PAGE_SIZE * 2);
+        int serviceId = created.get(0).getServiceId();
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Page<Review> first = dao.findPageByServiceId(serviceId, null, PAGE_SIZE);
+        assertEquals(ids(created.subList(0, PAGE_SIZE)), ids(first.getItems()));
+        assertTrue(first.hasNext());
+
+        Page<Review> second = dao.findPageByServiceId(serviceId, first.getNextToken(), PAGE_SIZE);
+        assertEquals(ids(created.subList(PAGE_SIZE, PAGE_SIZE * 2)), ids(second.getItems()));
+        assertFalse(second.hasNext());
+        assertNull(second.getNextToken());
+    }
+
+    @Test
+    void oneRowOverPageSizeStartsNextPage() {
+        List<Review> created = createReviews(PAGE_SIZE + 1);
+        int serviceId = created.get(0).getServiceId();
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Page<Review> first = dao.findPageByServiceId(serviceId, null, PAGE_SIZE);
+        assertEquals(PAGE_SIZE, first.getItems().size());
+        assertEquals(Page.encodeToken(created.get(PAGE_SIZE - 1).getId()), first.getNextToken());
+
+        Page<Review> last = dao.findPageByServiceId(serviceId, first.getNextToken(), PAGE_SIZE);
+        assertEquals(ids(created.subList(PAGE_SIZE, PAGE_SIZE + 1)), ids(last.getItems()));
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void changesBeforeTokenDoNotShiftNextPage() {
+        List<Review> created = createReviews(PAGE_SIZE * 2);
+        int serviceId = created.get(0).getServiceId();
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Page<Review> first = dao.findPageByServiceId(serviceId, null, PAGE_SIZE);
+        // Видалення рядка з уже прочитаної сторінки не зсуває наступну, як це робив би OFFSET
+        dao.delete(created.get(0).getId());
+        Page<Review> second = dao.findPageByServiceId(serviceId, first.getNextToken(), PAGE_SIZE);
+        assertEquals(ids(created.subList(PAGE_SIZE, PAGE_SIZE * 2)), ids(second.getItems()));
+    }
+
+    @Test
+    void emptyResultHasNoNextPage() {
+        Page<Review> page = DaoFactory.getReviewDAO().findPageByServiceId(-1, null, PAGE_SIZE);
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+    }
+
+    private static List<Review> createReviews(int count) {
+        User user = new User(0, "Автор", TestDatabase.unique("page") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(user));
+        Service service = new Service(0, TestDatabase.unique("Послуга"), "Опис послуги");
+        assertTrue(DaoFactory.getServiceDAO().create(service));
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(0, user.getId(), service.getId(), "Відгук номер " + i, 1 + i % 5));
+        }
+        DaoFactory.getReviewDAO().createAll(reviews);
+        return reviews;
+    }
+
+    private static List<Integer> ids(List<Review> reviews) {
+        List<Integer> ids = new ArrayList<>();
+        for (Review review : reviews) {
+            ids.add(review.getId());
+        }
+        return ids;
+    }
+}
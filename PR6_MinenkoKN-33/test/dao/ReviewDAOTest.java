@@ -0,0 +1,152 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.ReviewDAO.CreateResult;
+import entity.Review;
+import entity.Service;
+import entity.User;
+import exception.OptimisticLockException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.DatabaseCfg;
+import util.TestDatabase;
+import util.UnitOfWork;
+
+/**
+ * Операції ReviewDAO над кількома відгуками.
+ */
+class ReviewDAOTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void findByIdsSpansChunks() {
+        List<Review> created = createReviews(MultiGet.CHUNK_SIZE + 1);
+        List<Integer> ids = new ArrayList<>();
+        for (Review review : created) {
+            ids.add(review.getId());
+        }
+
+        Map<Integer, Review> found = DaoFactory.getReviewDAO().findByIds(ids);
+        assertEquals(ids, new ArrayList<>(found.keySet()));
+        Review last = created.get(created.size() - 1);
+        assertEquals(last.getText(), found.get(last.getId()).getText());
+    }
+
+    @Test
+    void findByIdsSkipsMissingAndDuplicates() {
+        Review review = createReviews(1).get(0);
+        Map<Integer, Review> found = DaoFactory.getReviewDAO()
+                .findByIds(Arrays.asList(review.getId(), -1, review.getId(), null));
+        assertEquals(List.of(review.getId()), new ArrayList<>(found.keySet()));
+        assertTrue(DaoFactory.getReviewDAO().findByIds(List.of()).isEmpty());
+    }
+
+    @Test
+    void createIfReferencedReportsMissingReferences() {
+        Review existing = createReviews(1).get(0);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Review orphanUser = new Review(0, -1, existing.getServiceId(), "Без автора", 4);
+        assertEquals(CreateResult.USER_NOT_FOUND, dao.createIfReferenced(orphanUser));
+        Review orphanService = new Review(0, existing.getUserId(), -1, "Без послуги", 4);
+        assertEquals(CreateResult.SERVICE_NOT_FOUND, dao.createIfReferenced(orphanService));
+        Review orphanBoth = new Review(0, -1, -1, "Нічого немає", 4);
+        assertEquals(CreateResult.USER_NOT_FOUND, dao.createIfReferenced(orphanBoth));
+        assertEquals(1, dao.findStatsByServiceId(existing.getServiceId()).getCount());
+
+        Review review = new Review(0, existing.getUserId(), existing.getServiceId(), "Другий відгук", 2);
+        assertEquals(CreateResult.CREATED, dao.createIfReferenced(review));
+        assertTrue(review.getId() > 0);
+        assertEquals(2, dao.findStatsByServiceId(existing.getServiceId()).getCount());
+    }
+
+    @Test
+    void referenceViolationMapsForeignKeyErrors() throws SQLException {
+        Review existing = createReviews(1).get(0);
+
+        SQLException missingUser = insertRaw(-1, existing.getServiceId());
+        assertEquals(CreateResult.USER_NOT_FOUND, ReviewDAO.referenceViolation(missingUser));
+        SQLException missingService = insertRaw(existing.getUserId(), -1);
+        assertEquals(CreateResult.SERVICE_NOT_FOUND, ReviewDAO.referenceViolation(missingService));
+
+        assertNull(ReviewDAO.referenceViolation(new SQLException("Таблиця заблокована", "HYT00")));
+        assertNull(ReviewDAO.referenceViolation(new SQLException("FK_SESSIONS_USER", "23506")));
+        assertNull(ReviewDAO.referenceViolation(new SQLException(null, "23506")));
+    }
+
+    @Test
+    void deleteReturnsPreviousStateOnce() {
+        Review review = createReviews(1).get(0);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+
+        Review previous = dao.deleteAndGetPrevious(review.getId());
+        assertEquals(review.getText(), previous.getText());
+        assertNull(dao.deleteAndGetPrevious(review.getId()));
+        assertEquals(0, dao.findStatsByServiceId(review.getServiceId()).getCount());
+    }
+
+    @Test
+    void deleteConflictsWithConcurrentUpdate() throws Exception {
+        Review review = createReviews(1).get(0);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        CountDownLatch updated = new CountDownLatch(1);
+        CountDownLatch deleting = new CountDownLatch(1);
+
+        // Редактор змінює відгук і фіксує зміну, коли видалення вже прочитало стару версію
+        CompletableFuture<Void> editor = CompletableFuture.runAsync(() -> UnitOfWork.execute(() -> {
+            Review edited = dao.findById(review.getId());
+            edited.setRating(5);
+            dao.update(edited);
+            updated.countDown();
+            deleting.await();
+            Thread.sleep(200);
+            return null;
+        }));
+        updated.await();
+        deleting.countDown();
+        assertThrows(OptimisticLockException.class, () -> dao.deleteAndGetPrevious(review.getId()));
+        editor.join();
+
+        assertEquals(5, dao.findById(review.getId()).getRating());
+        assertEquals(1, dao.findStatsByServiceId(review.getServiceId()).getCount());
+    }
+
+    private static SQLException insertRaw(int userId, int serviceId) throws SQLException {
+        try (Connection conn = DatabaseCfg.getConnection();
+             Statement st = conn.createStatement()) {
+            return assertThrows(SQLException.class, () -> st.executeUpdate(
+                    "INSERT INTO reviews (userID, serviceID, text, rating) VALUES ("
+                            + userId + ", " + serviceId + ", 'Сирий запис', 3)"));
+        }
+    }
+
+    static List<Review> createReviews(int count) {
+        User user = new User(0, "Автор", TestDatabase.unique("review") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(user));
+        Service service = new Service(0, TestDatabase.unique("Послуга"), "Опис послуги");
+        assertTrue(DaoFactory.getServiceDAO().create(service));
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reviews.add(new Review(0, user.getId(), service.getId(), "Відгук номер " + i, 1 + i % 5));
+        }
+        DaoFactory.getReviewDAO().createAll(reviews);
+        return reviews;
+    }
+}
@@ -0,0 +1,141 @@
+package dao;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import entity.Review;
+import entity.Service;
+import entity.ServiceRatingStats;
+import exception.OptimisticLockException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.DatabaseCfg;
+import util.TestDatabase;
+
+/**
+ * Агрегати service_stats, що ведуться дельтами, збігаються з повним COUNT/SUM/AVG
+ * по reviews після змішаних одиночних і пакетних змін.
+ */
+class ServiceStatsTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void deltasMatchFullAggregateAfterMixedChanges() {
+        ReviewDAO dao = new ReviewDAO();
+        dao.setBatchSize(2);
+        Review seed = ReviewDAOTest.createReviews(1).get(0);
+        int userId = seed.getUserId();
+        int first = seed.getServiceId();
+        Service other = new Service(0, TestDatabase.unique("Друга послуга"), "Опис");
+        assertTrue(DaoFactory.getServiceDAO().create(other));
+        int second = other.getId();
+
+        // Одиночні створення
+        Review a = new Review(0, userId, first, "Перший", 5);
+        assertTrue(dao.create(a));
+        Review b = new Review(0, userId, second, "Другий", 2);
+        assertEquals(ReviewDAO.CreateResult.CREATED, dao.createIfReferenced(b));
+
+        // Пакетне створення на дві послуги кількома пакетами
+        List<Review> batch = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            batch.add(new Review(0, userId, i % 2 == 0 ? first : second, "Пакет " + i, 1 + i % 5));
+        }
+        assertEquals(7, dao.createAll(batch));
+
+        // Зміна оцінки та перенесення на іншу послугу
+        a.setRating(1);
+        assertTrue(dao.update(a));
+        b.setServiceId(first);
+        b.setRating(4);
+        assertTrue(dao.update(b));
+
+        // Пакетне оновлення з перенесеннями
+        List<Review> updates = new ArrayList<>(batch.subList(0, 4));
+        for (Review review : updates) {
+            review.setServiceId(review.getServiceId() == first ? second : first);
+            review.setRating(6 - review.getRating());
+        }
+        assertEquals(4, dao.updateAll(updates));
+
+        // Невдалий пакет не змінює агрегати
+        Review stale = new Review(batch.get(5).getId(), userId, first, "Застарілий", 3);
+        stale.setVersion(batch.get(5).getVersion() + 1);
+        List<Review> conflicting = List.of(batch.get(6), stale);
+        batch.get(6).setRating(5);
+        assertThrows(OptimisticLockException.class, () -> dao.updateAll(conflicting));
+
+        // Одиночне та пакетне видалення
+        assertTrue(dao.delete(seed.getId()));
+        assertEquals(2, dao.deleteAll(List.of(batch.get(1).getId(), batch.get(2).getId(), -1)));
+
+        assertStatsMatchReviews(dao);
+        assertTrue(dao.findStatsByServiceId(first).getCount() > 0);
+        assertTrue(dao.findStatsByServiceId(second).getCount() > 0);
+
+        dao.rebuildServiceStats();
+        assertStatsMatchReviews(dao);
+    }
+
+    // Кожна послуга з відгуками має рядок агрегатів, рівний повному перерахунку
+    private static void assertStatsMatchReviews(ReviewDAO dao) {
+        Map<Integer, long[]> expected = fullAggregate();
+        Map<Integer, ServiceRatingStats> actual = new HashMap<>();
+        for (ServiceRatingStats stats : dao.findAllStats()) {
+            actual.put(stats.getServiceId(), stats);
+        }
+        for (Map.Entry<Integer, long[]> entry : expected.entrySet()) {
+            ServiceRatingStats stats = actual.remove(entry.getKey());
+            long[] row = entry.getValue();
+            String service = "послуга " + entry.getKey();
+            assertTrue(stats != null, service);
+            assertEquals(row[0], stats.getCount(), service);
+            assertEquals(row[1], stats.getSum(), service);
+            assertEquals((double) row[1] / row[0], stats.getAverage(), 1e-9, service);
+            long[] histogram = new long[5];
+            System.arraycopy(row, 2, histogram, 0, 5);
+            assertArrayEquals(histogram, stats.getHistogram(), service);
+        }
+        // Решта рядків - послуги, з яких видалено всі відгуки
+        for (ServiceRatingStats stats : actual.values()) {
+            assertEquals(0, stats.getCount(), "послуга " + stats.getServiceId());
+            assertEquals(0, stats.getSum(), "послуга " + stats.getServiceId());
+        }
+    }
+
+    private static Map<Integer, long[]> fullAggregate() {
+        String sql = "SELECT serviceID, COUNT(*), SUM(rating), "
+                + "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), "
+                + "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) FROM reviews GROUP BY serviceID";
+        Map<Integer, long[]> aggregate = new HashMap<>();
+        try (Connection conn = DatabaseCfg.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                long[] row = new long[7];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getLong(i + 2);
+                }
+                aggregate.put(rs.getInt(1), row);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return aggregate;
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import entity.ImportReport;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.TestDatabase;
+
+/**
+ * Масовий імпорт JSON файлів: перерахунок ID, пропуски та звіти про хід.
+ */
+class DataImportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void progressCountsInsertedRowsNotParsedItems() throws Exception {
+        String email = TestDatabase.unique("import") + "@example.com";
+        write("users.json", "[{\"id\": 7, \"name\": \"Олена\", \"email\": \"" + email
+                + "\", \"hashedPassword\": \"hash\"},"
+                + " {\"id\": 8, \"name\": \"Дублікат\", \"email\": \"" + email.toUpperCase()
+                + "\", \"hashedPassword\": \"hash\"}]");
+        write("services.json", "[{\"id\": 3, \"name\": \"" + TestDatabase.unique("Пекарня")
+                + "\", \"description\": \"Свіжий хліб\"}, {\"id\": 4, \"name\": \"\", \"description\": \"Без назви\"}]");
+        write("reviews.json", "[{\"id\": 1, \"userId\": 7, \"serviceId\": 3, \"text\": \"Дуже смачна випічка\", \"rating\": 5},"
+                + " {\"id\": 2, \"userId\": 8, \"serviceId\": 3, \"text\": \"Від дубліката користувача\", \"rating\": 4},"
+                + " {\"id\": 3, \"userId\": 99, \"serviceId\": 3, \"text\": \"Неіснуючий автор\", \"rating\": 4},"
+                + " {\"id\": 4, \"userId\": 7, \"serviceId\": 4, \"text\": \"Пропущена послуга\", \"rating\": 3}]");
+
+        Map<String, Long> rows = new HashMap<>();
+        ImportReport report = new DataImportService(2).importAll(dir,
+                (file, inserted, done, total, speed) -> rows.put(file, inserted));
+
+        assertEquals(1, report.getUsersImported());
+        assertEquals(1, report.getUsersSkipped());
+        assertEquals(1, report.getServicesImported());
+        assertEquals(1, report.getServicesSkipped());
+        assertEquals(2, report.getReviewsImported());
+        assertEquals(2, report.getReviewsSkipped());
+        assertEquals(Map.of("users.json", 1L, "services.json", 1L, "reviews.json", 2L), rows);
+    }
+
+    @Test
+    void missingFilesAreSkipped() throws Exception {
+        ImportReport report = new DataImportService(1).importAll(dir, null);
+        assertEquals(0, report.getUsersImported() + report.getServicesImported() + report.getReviewsImported());
+    }
+
+    private void write(String name, String json) throws Exception {
+        Files.write(dir.resolve(name), json.getBytes(StandardCharsets.UTF_8));
+    }
+}
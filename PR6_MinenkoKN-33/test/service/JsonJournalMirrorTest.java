@@ -0,0 +1,64 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Service;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.JournaledJsonStore;
+import util.JsonEntityMapper;
+import util.TestDatabase;
+
+/**
+ * Дзеркало відгуків і послуг у JSON журналі та його звірка з базою при відкритті.
+ */
+class JsonJournalMirrorTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void divergedStoreIsRefilledAtOpen() throws Exception {
+        // Дзеркало, записане колись давно: одна послуга, якої в базі вже немає
+        try (JournaledJsonStore<Service> stale = new JournaledJsonStore<>(dir.resolve("services.json"),
+                JsonEntityMapper::readService, JsonEntityMapper::writeService, Service::getId)) {
+            stale.put(new Service(Integer.MAX_VALUE, "Застаріла", "Опис"));
+        }
+
+        JsonJournalMirror mirror = new JsonJournalMirror();
+        mirror.open(dir, DaoFactory.getReviewDAO(), DaoFactory.getServiceDAO());
+        mirror.close();
+
+        try (JournaledJsonStore<Service> services = new JournaledJsonStore<>(dir.resolve("services.json"),
+                JsonEntityMapper::readService, JsonEntityMapper::writeService, Service::getId)) {
+            assertEquals(DaoFactory.getServiceDAO().findWatermark().getCount(), services.size());
+            assertEquals(DaoFactory.getServiceDAO().findWatermark().getMaxId(), services.maxId());
+        }
+    }
+
+    @Test
+    void changesMadeWhileClosedAreCaughtUp() throws Exception {
+        JsonJournalMirror mirror = new JsonJournalMirror();
+        mirror.open(dir, DaoFactory.getReviewDAO(), DaoFactory.getServiceDAO());
+        mirror.close();
+
+        Service added = new Service(0, TestDatabase.unique("Нова"), "Створена без дзеркала");
+        assertTrue(DaoFactory.getServiceDAO().create(added));
+
+        mirror.open(dir, DaoFactory.getReviewDAO(), DaoFactory.getServiceDAO());
+        mirror.close();
+        try (JournaledJsonStore<Service> services = new JournaledJsonStore<>(dir.resolve("services.json"),
+                JsonEntityMapper::readService, JsonEntityMapper::writeService, Service::getId)) {
+            assertEquals(added.getName(), services.get(added.getId()).getName());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Review;
+import entity.Service;
+import entity.ServiceRatingStats;
+import entity.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+import util.UnitOfWork;
+
+/**
+ * Лічильники оцінок у пам'яті та їх узгодженість з базою під час перерахунку.
+ */
+class RatingStatsEngineTest {
+
+    private static final int WRITERS = 4;
+    private static final int WRITES_PER_WRITER = 60;
+
+    private static User author;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+        author = new User(0, "Автор", TestDatabase.unique("stats") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(author));
+    }
+
+    @Test
+    void countsAverageAndPercentiles() {
+        RatingStatsEngine engine = new RatingStatsEngine();
+        engine.record(1, 5);
+        engine.record(1, 5);
+        engine.record(1, 4);
+        engine.record(1, 1);
+        engine.remove(1, 1);
+
+        ServiceRatingStats stats = engine.getStats(1);
+        assertEquals(3, stats.getCount());
+        assertEquals(14.0 / 3, engine.getAverage(1), 1e-9);
+        assertEquals(4, engine.getPercentile(1, 0));
+        assertEquals(5, engine.getPercentile(1, 50));
+        assertEquals(0, stats.getCount(1));
+        assertEquals(0, engine.getStats(2).getCount());
+        assertEquals(0, engine.getAverage(2), 1e-9);
+    }
+
+    @Test
+    void invalidRatingIsRejected() {
+        RatingStatsEngine engine = new RatingStatsEngine();
+        assertThrows(IllegalArgumentException.class, () -> engine.record(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.remove(1, 6));
+        assertEquals(0, engine.getStats(1).getCount());
+    }
+
+    @Test
+    void updateMovesRatingBetweenServices() {
+        RatingStatsEngine engine = new RatingStatsEngine();
+        Review before = new Review(1, 1, 10, "Старий відгук", 2);
+        Review after = new Review(1, 1, 20, "Новий відгук", 4);
+        engine.onReviewCreated(before);
+        engine.onReviewUpdated(before, after);
+
+        assertEquals(0, engine.getStats(10).getCount());
+        assertEquals(1, engine.getStats(20).getCount(4));
+
+        engine.onReviewDeleted(after);
+        assertEquals(0, engine.getStats(20).getCount());
+    }
+
+    @Test
+    void warmUpReplacesCountersWithStoredStats() throws Exception {
+        ReviewService service = new ReviewService();
+        int serviceId = createService();
+        service.createReview(author.getId(), serviceId, "Дуже добре обслуговування", 5);
+        service.createReview(author.getId(), serviceId, "Непогано, але повільно", 3);
+
+        RatingStatsEngine engine = new RatingStatsEngine();
+        engine.record(serviceId, 1);
+        engine.record(-1, 2);
+        engine.warmUp(DaoFactory.getReviewDAO());
+
+        assertStatsEqual(service.getRatingStats(serviceId), engine.getStats(serviceId));
+        assertEquals(0, engine.getStats(-1).getCount());
+    }
+
+    @Test
+    void writesDuringRebuildAreNotLost() throws Exception {
+        ReviewService service = new ReviewService();
+        int first = createService();
+        int second = createService();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(pool.submit(() -> {
+                    writeMixed(service, first, second);
+                    return null;
+                }));
+            }
+            Thread rebuilds = new Thread(() -> {
+                while (writing.get()) {
+                    service.rebuildRatingStats();
+                }
+            });
+            rebuilds.start();
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                writing.set(false);
+                rebuilds.join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int serviceId : new int[] {first, second}) {
+            assertStatsEqual(service.getRatingStats(serviceId), service.getLiveRatingStats(serviceId));
+        }
+        assertTrue(service.getRatingStats(first).getCount() + service.getRatingStats(second).getCount() > 0);
+    }
+
+    @Test
+    void rebuildWaitsForOuterUnitOfWork() throws Exception {
+        ReviewService service = new ReviewService();
+        int serviceId = createService();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        Thread rebuild = new Thread(() -> {
+            try {
+                written.await();
+                service.rebuildRatingStats();
+                rebuilt.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        rebuild.start();
+
+        UnitOfWork.execute(() -> {
+            service.createReview(author.getId(), serviceId, "Відгук у спільній транзакції", 4);
+            assertThrows(IllegalStateException.class, service::rebuildRatingStats);
+            written.countDown();
+            // Зміна ще не зафіксована - перерахунок не повинен її побачити чи затерти
+            assertFalse(rebuilt.await(200, TimeUnit.MILLISECONDS));
+            return null;
+        });
+        assertTrue(rebuilt.await(10, TimeUnit.SECONDS));
+        rebuild.join();
+
+        assertEquals(1, service.getLiveRatingStats(serviceId).getCount());
+        assertStatsEqual(service.getRatingStats(serviceId), service.getLiveRatingStats(serviceId));
+    }
+
+    private static void writeMixed(ReviewService service, int first, int second) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Review> own = new ArrayList<>();
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            int choice = own.isEmpty() ? 0 : random.nextInt(3);
+            if (choice == 0) {
+                int serviceId = random.nextBoolean() ? first : second;
+                own.add(service.createReview(author.getId(), serviceId,
+                        "Відгук під час перерахунку " + i, random.nextInt(1, 6)));
+            } else if (choice == 1) {
+                int index = random.nextInt(own.size());
+                Review review = own.get(index);
+                own.set(index, service.updateReview(review.getId(), "Змінений відгук " + i,
+                        random.nextInt(1, 6), review.getVersion()));
+            } else {
+                Review review = own.remove(random.nextInt(own.size()));
+                assertTrue(service.deleteReview(review.getId()));
+            }
+        }
+    }
+
+    private static int createService() {
+        Service place = new Service(0, TestDatabase.unique("Перукарня"), "Стрижки");
+        assertTrue(DaoFactory.getServiceDAO().create(place));
+        return place.getId();
+    }
+
+    private static void assertStatsEqual(ServiceRatingStats expected, ServiceRatingStats actual) {
+        long[] expectedHistogram = new long[5];
+        long[] actualHistogram = new long[5];
+        for (int rating = 1; rating <= 5; rating++) {
+            expectedHistogram[rating - 1] = expected.getCount(rating);
+            actualHistogram[rating - 1] = actual.getCount(rating);
+        }
+        assertArrayEquals(expectedHistogram, actualHistogram, "послуга " + expected.getServiceId());
+        assertEquals(expected.getCount(), actual.getCount());
+    }
+}
@@ -0,0 +1,106 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import dao.ReviewDAO;
+import entity.Review;
+import entity.Service;
+import entity.User;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.TestDatabase;
+
+/**
+ * Файл повнотекстового індексу відгуків та його водяний знак.
+ */
+class ReviewSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void watermarkMatchesTableAfterRebuild() {
+        createReview("Смачна кава у затишній кав'ярні", 5);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.open(dir.resolve("index.bin"), dao);
+        assertEquals(dao.findWatermark(), index.watermark());
+    }
+
+    @Test
+    void incrementalChangesKeepWatermarkInSync() {
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.open(dir.resolve("index.bin"), dao);
+
+        Review review = createReview("Привітний персонал і швидке обслуговування", 4);
+        index.onReviewCreated(review);
+        assertEquals(dao.findWatermark(), index.watermark());
+
+        Review previous = dao.findById(review.getId());
+        review.setRating(2);
+        assertTrue(dao.update(review));
+        index.onReviewUpdated(previous, review);
+        assertEquals(dao.findWatermark(), index.watermark());
+
+        dao.delete(review.getId());
+        index.onReviewDeleted(review);
+        assertEquals(dao.findWatermark(), index.watermark());
+    }
+
+    @Test
+    void savedIndexIsReusedWhileTableIsUnchanged() throws Exception {
+        Review review = createReview("Ароматний чай з чебрецем", 5);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        Path file = dir.resolve("index.bin");
+        ReviewSearchIndex first = new ReviewSearchIndex();
+        first.open(file, dao);
+        first.save();
+
+        ReviewSearchIndex second = new ReviewSearchIndex();
+        second.open(file, dao);
+        assertEquals(first.watermark(), second.watermark());
+        assertTrue(second.search("чебрецем", null, 1, 5, 10).containsKey(review.getId()));
+    }
+
+    @Test
+    void editBypassingIndexForcesRebuild() throws Exception {
+        Review review = createReview("Ароматний чай з м'ятою", 5);
+        ReviewDAO dao = DaoFactory.getReviewDAO();
+        Path file = dir.resolve("index.bin");
+        ReviewSearchIndex first = new ReviewSearchIndex();
+        first.open(file, dao);
+        first.save();
+
+        // Кількість відгуків не змінюється, змінюється лише текст і версія
+        review.setText("Холодний лимонад з базиліком");
+        assertTrue(dao.update(review));
+
+        ReviewSearchIndex second = new ReviewSearchIndex();
+        second.open(file, dao);
+        assertEquals(dao.findWatermark(), second.watermark());
+        assertTrue(second.search("базиліком", null, 1, 5, 10).containsKey(review.getId()));
+        assertFalse(second.search("м'ятою", null, 1, 5, 10).containsKey(review.getId()));
+    }
+
+    private static Review createReview(String text, int rating) {
+        User user = new User(0, "Автор", TestDatabase.unique("index") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(user));
+        Service service = new Service(0, TestDatabase.unique("Кав'ярня"), "Опис послуги");
+        assertTrue(DaoFactory.getServiceDAO().create(service));
+        Review review = new Review(0, user.getId(), service.getId(), text, rating);
+        DaoFactory.getReviewDAO().createAll(List.of(review));
+        return review;
+    }
+}
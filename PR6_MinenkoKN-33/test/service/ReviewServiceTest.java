@@ -0,0 +1,84 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Review;
+import entity.Service;
+import entity.User;
+import exception.OptimisticLockException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Оптимістичне блокування при зміні та видаленні відгуків.
+ */
+class ReviewServiceTest {
+
+    private static User author;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+        author = new User(0, "Автор", TestDatabase.unique("reviews") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(author));
+    }
+
+    @Test
+    void updateAppliesToExpectedVersion() throws Exception {
+        ReviewService service = new ReviewService();
+        Review review = createReview(service, 3);
+        int version = review.getVersion();
+
+        Review updated = service.updateReview(review.getId(), "  Стало краще  ", 5, version);
+        assertEquals(version + 1, updated.getVersion());
+        assertEquals("Стало краще", updated.getText());
+        assertEquals(5, service.getReviewById(review.getId()).getRating());
+        assertEquals(5, service.getRatingStats(review.getServiceId()).getAverage(), 1e-9);
+    }
+
+    @Test
+    void staleVersionIsRejectedWithoutRetry() throws Exception {
+        ReviewService service = new ReviewService();
+        Review review = createReview(service, 3);
+        int seen = review.getVersion();
+
+        // Інший редактор встиг зберегти свою правку
+        service.updateReview(review.getId(), "Правка іншого редактора", 4, seen);
+        assertThrows(OptimisticLockException.class,
+                () -> service.updateReview(review.getId(), "Моя застаріла правка", 1, seen));
+
+        Review current = service.getReviewById(review.getId());
+        assertEquals("Правка іншого редактора", current.getText());
+        assertEquals(4, current.getRating());
+        assertEquals(4, service.getRatingStats(review.getServiceId()).getAverage(), 1e-9);
+    }
+
+    @Test
+    void updateOfMissingReviewIsRejected() {
+        ReviewService service = new ReviewService();
+        assertThrows(IllegalArgumentException.class,
+                () -> service.updateReview(-1, "Такого відгуку немає", 3, 0));
+    }
+
+    @Test
+    void deleteRemovesCurrentVersion() throws Exception {
+        ReviewService service = new ReviewService();
+        Review review = createReview(service, 2);
+        service.updateReview(review.getId(), "Перед видаленням", 5, review.getVersion());
+
+        assertTrue(service.deleteReview(review.getId()));
+        assertFalse(service.deleteReview(review.getId()));
+        assertEquals(0, service.getRatingStats(review.getServiceId()).getCount());
+    }
+
+    private static Review createReview(ReviewService service, int rating) throws Exception {
+        Service place = new Service(0, TestDatabase.unique("Кав'ярня"), "Кава та десерти");
+        assertTrue(DaoFactory.getServiceDAO().create(place));
+        return service.createReview(author.getId(), place.getId(), "Непогана кава", rating);
+    }
+}
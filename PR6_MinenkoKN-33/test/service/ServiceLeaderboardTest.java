@@ -0,0 +1,51 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import entity.Review;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Інкрементальний рейтинг послуг та його автоматична перебудова.
+ */
+class ServiceLeaderboardTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void priorMeanIsRefreshedAfterConfiguredChanges() {
+        ServiceLeaderboard leaderboard = new ServiceLeaderboard(3);
+        leaderboard.onReviewCreated(new Review(1, 1, 1, "Чудова послуга", 5));
+        leaderboard.onReviewCreated(new Review(2, 1, 1, "Чудова послуга", 5));
+        // До перебудови апріорне середнє лишається типовим (3.0)
+        assertEquals((10 * 3.0 + 10) / 12, leaderboard.topRated(1).get(0).getScore(), DELTA);
+
+        leaderboard.onReviewCreated(new Review(3, 1, 1, "Чудова послуга", 5));
+        assertEquals((10 * 5.0 + 15) / 13, leaderboard.topRated(1).get(0).getScore(), DELTA);
+    }
+
+    @Test
+    void updateAndDeleteMoveServices() {
+        ServiceLeaderboard leaderboard = new ServiceLeaderboard(1000);
+        Review first = new Review(1, 1, 1, "Добра послуга", 4);
+        Review second = new Review(2, 1, 2, "Погана послуга", 2);
+        leaderboard.onReviewCreated(first);
+        leaderboard.onReviewCreated(second);
+        assertEquals(1, leaderboard.topRated(1).get(0).getServiceId());
+
+        Review moved = new Review(2, 1, 2, "Відмінна послуга", 5);
+        leaderboard.onReviewUpdated(second, moved);
+        assertEquals(2, leaderboard.topRated(1).get(0).getServiceId());
+
+        leaderboard.onReviewDeleted(moved);
+        assertEquals(1, leaderboard.mostReviewed(10).size());
+        assertEquals(1, leaderboard.mostReviewed(10).get(0).getReviewCount());
+    }
+
+    @Test
+    void rebalanceEveryMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ServiceLeaderboard(0));
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import entity.Service;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Автодоповнення та нечіткий пошук послуг за назвою й описом.
+ */
+class ServiceSearchIndexTest {
+
+    @Test
+    void completionOrdersByWordLengthThenId() {
+        ServiceSearchIndex index = new ServiceSearchIndex();
+        // Лексикографічний обхід поставив би «кавалер» (id 1) перед «кава» (id 3)
+        index.onServiceCreated(new Service(1, "Кавалер", "Опис"));
+        index.onServiceCreated(new Service(2, "Кавʼярня", "Опис"));
+        index.onServiceCreated(new Service(3, "Кава", "Опис"));
+        index.onServiceCreated(new Service(4, "Кави", "Опис"));
+
+        assertEquals(List.of(3, 4, 1, 2), index.complete("ка", 10));
+        assertEquals(List.of(3, 4), index.complete("ка", 2));
+    }
+
+    @Test
+    void nameMatchesComeBeforeDescriptionMatches() {
+        ServiceSearchIndex index = new ServiceSearchIndex();
+        index.onServiceCreated(new Service(1, "Пекарня", "Свіжий хліб"));
+        index.onServiceCreated(new Service(2, "Хлібний дім", "Випічка"));
+
+        assertEquals(List.of(2, 1), index.complete("хліб", 10));
+    }
+
+    @Test
+    void previousWordsMustMatchExactly() {
+        ServiceSearchIndex index = new ServiceSearchIndex();
+        index.onServiceCreated(new Service(1, "Зелена кава", "Опис"));
+        index.onServiceCreated(new Service(2, "Чорна кава", "Опис"));
+
+        assertEquals(List.of(2), index.complete("чорна ка", 10));
+    }
+
+    @Test
+    void fuzzyToleratesTypos() {
+        ServiceSearchIndex index = new ServiceSearchIndex();
+        index.onServiceCreated(new Service(1, "Перукарня", "Стрижка"));
+
+        assertEquals(List.of(1), index.fuzzy("перукрня", 10));
+        assertEquals(List.of(1), index.search("перукрня", 10));
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import entity.Service;
+import exception.OptimisticLockException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Оптимістичне блокування при зміні послуг.
+ */
+class ServiceServiceTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void updateAppliesToExpectedVersion() throws Exception {
+        ServiceService services = new ServiceService();
+        Service service = services.createService(TestDatabase.unique("Перукарня"), "Стрижки");
+        String name = TestDatabase.unique("Барбершоп");
+
+        Service updated = services.updateService(service.getId(), name, "Стрижки та гоління", service.getVersion());
+        assertEquals(service.getVersion() + 1, updated.getVersion());
+        assertEquals(name, services.getServiceById(service.getId()).getName());
+    }
+
+    @Test
+    void staleVersionIsRejectedWithoutRetry() throws Exception {
+        ServiceService services = new ServiceService();
+        Service service = services.createService(TestDatabase.unique("Пральня"), "Прання");
+        int seen = service.getVersion();
+        String winner = TestDatabase.unique("Хімчистка");
+
+        services.updateService(service.getId(), winner, "Прання та хімчистка", seen);
+        assertThrows(OptimisticLockException.class, () ->
+                services.updateService(service.getId(), TestDatabase.unique("Застаріла"), "Застарілий опис", seen));
+
+        Service current = services.getServiceById(service.getId());
+        assertEquals(winner, current.getName());
+        assertEquals("Прання та хімчистка", current.getDescription());
+    }
+
+    @Test
+    void updateOfMissingServiceIsRejected() {
+        ServiceService services = new ServiceService();
+        assertThrows(IllegalArgumentException.class,
+                () -> services.updateService(-1, TestDatabase.unique("Немає"), "Такої послуги немає", 0));
+    }
+}
@@ -0,0 +1,123 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.TestDatabase;
+
+/**
+ * Токени сесій, ковзний термін та завершення сесій.
+ */
+class SessionServiceTest {
+
+    private static final long LONG_TTL = 60_000;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void authenticateResolvesFreshCopyOfUser() {
+        SessionService sessions = new SessionService(LONG_TTL, false);
+        User user = createUser();
+        String token = sessions.createSession(user);
+
+        User first = sessions.authenticate(token);
+        assertEquals(user.getId(), first.getId());
+        first.setName("Змінено викликачем");
+        User second = sessions.authenticate(token);
+        assertNotSame(first, second);
+        assertEquals("Олена", second.getName());
+
+        assertNull(sessions.authenticate(token + "x"));
+        assertNull(sessions.authenticate(null));
+    }
+
+    @Test
+    void profileChangesAreVisibleWithoutNewSession() {
+        SessionService sessions = new SessionService(LONG_TTL, false);
+        User user = createUser();
+        String token = sessions.createSession(user);
+
+        user.setName("Нове ім'я");
+        assertTrue(DaoFactory.getUserDAO().update(user));
+        assertEquals("Нове ім'я", sessions.authenticate(token).getName());
+    }
+
+    @Test
+    void sessionExpiresAfterInactivity() throws InterruptedException {
+        SessionService sessions = new SessionService(100, false);
+        String token = sessions.createSession(createUser());
+        Thread.sleep(150);
+        assertNull(sessions.authenticate(token));
+        assertEquals(0, sessions.getActiveCount());
+    }
+
+    @Test
+    void accessExtendsSession() throws InterruptedException {
+        SessionService sessions = new SessionService(300, false);
+        String token = sessions.createSession(createUser());
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(150);
+            assertNotNull(sessions.authenticate(token));
+        }
+    }
+
+    @Test
+    void timerWheelRemovesIdleSessions() throws InterruptedException {
+        SessionService sessions = new SessionService(100, false);
+        sessions.createSession(createUser());
+        assertEquals(1, sessions.getActiveCount());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sessions.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, sessions.getActiveCount());
+    }
+
+    @Test
+    void sessionOfDeletedUserEnds() {
+        SessionService sessions = new SessionService(LONG_TTL, false);
+        User user = createUser();
+        String token = sessions.createSession(user);
+        assertTrue(DaoFactory.getUserDAO().delete(user.getId()));
+
+        assertNull(sessions.authenticate(token));
+        assertEquals(0, sessions.getActiveCount());
+    }
+
+    @Test
+    void invalidateEndsOneOrAllSessionsOfUser() {
+        SessionService sessions = new SessionService(LONG_TTL, false);
+        User user = createUser();
+        User other = createUser();
+        String first = sessions.createSession(user);
+        String second = sessions.createSession(user);
+        String third = sessions.createSession(user);
+        String foreign = sessions.createSession(other);
+
+        assertTrue(sessions.invalidate(first));
+        assertFalse(sessions.invalidate(first));
+        assertNull(sessions.authenticate(first));
+
+        assertEquals(2, sessions.invalidateAllForUser(user.getId()));
+        assertNull(sessions.authenticate(second));
+        assertNull(sessions.authenticate(third));
+        assertNotNull(sessions.authenticate(foreign));
+    }
+
+    private static User createUser() {
+        User user = new User(0, "Олена", TestDatabase.unique("session") + "@example.com", "secret123");
+        assertTrue(DaoFactory.getUserDAO().create(user));
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Review;
+import entity.Service;
+import entity.User;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.LegacySha256PasswordHasher;
+import util.TestDatabase;
+
+/**
+ * Реєстрація та вхід користувачів.
+ */
+class UserServiceTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void loginChecksPassword() throws Exception {
+        UserService service = new UserService();
+        String email = TestDatabase.unique("login") + "@example.com";
+        User registered = service.registerUser("Олена", email, "secret123");
+
+        User loggedIn = service.loginUser(email.toUpperCase(), "secret123");
+        assertNotNull(loggedIn);
+        assertEquals(registered.getId(), loggedIn.getId());
+        assertNull(service.loginUser(email, "wrong-password"));
+        assertNull(service.loginUser("nobody-" + email, "secret123"));
+    }
+
+    @Test
+    void emptyPasswordIsRejectedBeforeLookup() throws Exception {
+        UserService service = new UserService();
+        String email = TestDatabase.unique("empty") + "@example.com";
+        service.registerUser("Олена", email, "secret123");
+
+        assertNull(service.loginUser(email, ""));
+        assertNull(service.loginUser("nobody-" + email, ""));
+        assertNull(service.loginUser(email, null));
+    }
+
+    @Test
+    void legacyHashIsUpgradedAfterLogin() throws Exception {
+        String email = TestDatabase.unique("legacy") + "@example.com";
+        User user = new User(0, "Олена", email, "secret123");
+        user.setHashedPassword(new LegacySha256PasswordHasher().hash("secret123"));
+        assertTrue(DaoFactory.getUserDAO().create(user));
+
+        assertNotNull(new UserService().loginUser(email, "secret123"));
+        assertTrue(DaoFactory.getUserDAO().findById(user.getId()).getHashedPassword().startsWith("pbkdf2-sha256$"));
+    }
+
+    @Test
+    void passwordChangeEndsAllSessions() throws Exception {
+        UserService service = new UserService();
+        String email = TestDatabase.unique("change") + "@example.com";
+        User user = service.registerUser("Олена", email, "secret123");
+        String token = SessionService.getInstance().createSession(user);
+
+        assertFalse(service.changePassword(user.getId(), "wrong-password", "new-secret"));
+        assertNotNull(SessionService.getInstance().authenticate(token));
+        assertThrows(IllegalArgumentException.class, () -> service.changePassword(user.getId(), "secret123", "abc"));
+
+        assertTrue(service.changePassword(user.getId(), "secret123", "new-secret"));
+        assertNull(SessionService.getInstance().authenticate(token));
+        assertNull(service.loginUser(email, "secret123"));
+        assertNotNull(service.loginUser(email, "new-secret"));
+    }
+
+    @Test
+    void deleteRemovesReviewsAndEndsSessions() throws Exception {
+        UserService service = new UserService();
+        User user = service.registerUser("Олена", TestDatabase.unique("delete") + "@example.com", "secret123");
+        Service place = new Service(0, TestDatabase.unique("Пекарня"), "Свіжий хліб");
+        assertTrue(DaoFactory.getServiceDAO().create(place));
+        new ReviewService().createReview(user.getId(), place.getId(), "Смачний хліб щоранку", 5);
+        String token = SessionService.getInstance().createSession(user);
+
+        assertTrue(service.deleteUser(user.getId()));
+        assertNull(SessionService.getInstance().authenticate(token));
+        assertEquals(List.<Review>of(), DaoFactory.getReviewDAO().findByUserId(user.getId()));
+        assertEquals(0, DaoFactory.getReviewDAO().findStatsByServiceId(place.getId()).getCount());
+        assertFalse(service.deleteUser(user.getId()));
+    }
+}
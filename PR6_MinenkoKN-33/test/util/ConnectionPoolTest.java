@@ -0,0 +1,318 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Межі пулу з'єднань, перевірка при видачі, витіснення простоюючих, витоки, статистика
+ * та кеш підготовлених запитів.
+ */
+class ConnectionPoolTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void acquisitionTimesOutWhenPoolIsExhausted() throws SQLException {
+        ConnectionPool pool = pool(0, 2, 100, 60_000, 0);
+        try {
+            Connection first = pool.getConnection();
+            Connection second = pool.getConnection();
+            long start = System.nanoTime();
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+            assertTrue(System.nanoTime() - start >= 90_000_000L);
+
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.getTimeouts());
+            assertEquals(2, stats.getActive());
+            assertEquals(2, stats.getTotal());
+
+            first.close();
+            try (Connection third = pool.getConnection()) {
+                assertFalse(third.isClosed());
+            }
+            second.close();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void borrowerWaitsForReleaseAtMaxSize() throws Exception {
+        ConnectionPool pool = pool(0, 1, 5_000, 60_000, 0);
+        try {
+            Connection held = pool.getConnection();
+            CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return pool.getConnection();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (pool.getStats().getWaiting() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, pool.getStats().getWaiting());
+            assertFalse(waiter.isDone());
+            Thread.sleep(50);
+
+            held.close();
+            try (Connection next = waiter.get()) {
+                assertNotNull(next);
+            }
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.getCreated());
+            assertEquals(2, stats.getBorrowed());
+            assertTrue(stats.getMaxWaitMicros() >= 50_000);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void idleConnectionsAboveMinimumAreClosed() throws Exception {
+        ConnectionPool pool = pool(1, 3, 1_000, 1, 0);
+        try {
+            Connection a = pool.getConnection();
+            Connection b = pool.getConnection();
+            Connection c = pool.getConnection();
+            a.close();
+            b.close();
+            c.close();
+            assertEquals(3, pool.getStats().getIdle());
+
+            Thread.sleep(10);
+            pool.housekeep();
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.getTotal());
+            assertEquals(1, stats.getIdle());
+            assertEquals(2, stats.getDestroyed());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void brokenIdleConnectionIsReplacedOnBorrow() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 1_000, 60_000, 0);
+        try {
+            Connection handle = pool.getConnection();
+            Connection physical = handle.unwrap(Connection.class);
+            handle.close();
+            // З'єднання розірвано, поки воно простоювало в пулі
+            physical.close();
+
+            try (Connection fresh = pool.getConnection();
+                 Statement st = fresh.createStatement()) {
+                assertTrue(st.execute("SELECT 1"));
+            }
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.getValidationFailures());
+            assertEquals(2, stats.getCreated());
+            assertEquals(1, stats.getTotal());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void leakIsReportedOnceWithBorrowSite() throws Exception {
+        ConnectionPool pool = pool(0, 2, 1_000, 60_000, 1);
+        try {
+            Connection leaked = pool.getConnection();
+            Thread.sleep(10);
+            String log = captureErr(() -> {
+                pool.housekeep();
+                pool.housekeep();
+            });
+            assertEquals(1, pool.getStats().getLeaks());
+            assertTrue(log.contains("Можливий витік з'єднання"));
+            assertTrue(log.contains("leakIsReportedOnceWithBorrowSite"));
+            leaked.close();
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void backgroundErrorsAreLoggedWithoutLeakDetection() {
+        String[] log = new String[1];
+        ConnectionPool[] pool = new ConnectionPool[1];
+        log[0] = captureErr(() -> pool[0] = new ConnectionPool("jdbc:nosuchdriver:db", "sa", "",
+                1, 2, 100, 60_000, 0, 0));
+        try {
+            assertEquals(1, pool[0].getStats().getBackgroundErrors());
+            assertTrue(log[0].contains("Не вдалося відкрити з'єднання для мінімуму пулу"));
+            assertEquals(0, pool[0].getStats().getTotal());
+        } finally {
+            pool[0].close();
+        }
+    }
+
+    @Test
+    void returnedHandleIsUnusableAndClosedPoolRejectsBorrow() throws SQLException {
+        ConnectionPool pool = pool(1, 2, 1_000, 60_000, 0);
+        Connection handle = pool.getConnection();
+        handle.close();
+        handle.close();
+        assertTrue(handle.isClosed());
+        assertThrows(SQLException.class, handle::createStatement);
+
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.getCreated());
+        assertEquals(1, stats.getBorrowed());
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+
+        pool.close();
+        assertEquals(0, pool.getStats().getTotal());
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    @Test
+    void cachedStatementIsReusedAcrossBorrowers() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 1_000, 60_000, 0);
+        try {
+            PreparedStatement first;
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("SELECT ?")) {
+                ps.setInt(1, 7);
+                assertEquals(7, single(ps));
+                first = ps.unwrap(PreparedStatement.class);
+            }
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("SELECT ?")) {
+                assertSame(first, ps.unwrap(PreparedStatement.class));
+                // Параметри попереднього позичальника очищено
+                assertThrows(SQLException.class, ps::executeQuery);
+                ps.setInt(1, 8);
+                assertEquals(8, single(ps));
+            }
+            ConnectionPool.Stats stats = pool.getStats();
+            assertEquals(1, stats.getStatementCacheHits());
+            assertEquals(1, stats.getStatementCacheMisses());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void sameSqlOpenTwiceGetsSeparateStatement() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 1_000, 60_000, 0);
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement("SELECT ?");
+             PreparedStatement inner = conn.prepareStatement("SELECT ?")) {
+            assertNotSame(outer.unwrap(PreparedStatement.class), inner.unwrap(PreparedStatement.class));
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            assertEquals(1, single(outer));
+            assertEquals(2, single(inner));
+            assertSame(conn, outer.getConnection());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void evictedStatementIsClosed() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(TestDatabase.URL, "sa", "", 0, 1, 1_000, 60_000, 0, 2);
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement held = conn.prepareStatement("SELECT 1");
+            PreparedStatement heldPhysical = held.unwrap(PreparedStatement.class);
+            PreparedStatement idlePhysical;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 2")) {
+                idlePhysical = ps.unwrap(PreparedStatement.class);
+            }
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 3")) {
+                assertEquals(3, single(ps));
+            }
+            // Найдавніший запит витіснено, але він ще відкритий у викликача
+            assertEquals(1, pool.getStats().getStatementCacheEvictions());
+            assertFalse(heldPhysical.isClosed());
+            assertEquals(1, single(held));
+            held.close();
+            assertTrue(heldPhysical.isClosed());
+
+            try (PreparedStatement ps = conn.prepareStatement("SELECT 4")) {
+                assertEquals(4, single(ps));
+            }
+            assertEquals(2, pool.getStats().getStatementCacheEvictions());
+            assertTrue(idlePhysical.isClosed());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    void resetReleasesStatementsLeftOpenByBorrower() throws SQLException {
+        ConnectionPool pool = pool(0, 1, 1_000, 60_000, 0);
+        try {
+            Connection first = pool.getConnection();
+            PreparedStatement stale = first.prepareStatement("SELECT ?");
+            PreparedStatement physical = stale.unwrap(PreparedStatement.class);
+            first.close();
+
+            try (Connection second = pool.getConnection();
+                 PreparedStatement ps = second.prepareStatement("SELECT ?")) {
+                // Незакритий запит повернувся до кешу разом із з'єднанням
+                assertEquals(1, pool.getStats().getStatementCacheHits());
+                assertSame(physical, ps.unwrap(PreparedStatement.class));
+                ps.setInt(1, 5);
+
+                // Застаріла обгортка не може ні виконати, ні повернути чужий запит
+                assertTrue(stale.isClosed());
+                assertThrows(SQLException.class, () -> stale.setInt(1, 6));
+                stale.close();
+                assertEquals(5, single(ps));
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static int single(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    static ConnectionPool pool(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+            long leakThresholdMillis) {
+        return new ConnectionPool(TestDatabase.URL, "sa", "", minSize, maxSize, acquireTimeoutMillis,
+                idleTimeoutMillis, leakThresholdMillis, 16);
+    }
+
+    private static String captureErr(Runnable action) {
+        PrintStream original = System.err;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setErr(original);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
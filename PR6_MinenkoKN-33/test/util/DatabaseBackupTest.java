@@ -0,0 +1,108 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Service;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Резервні копії: відновлення, ротація та захист даних від пошкодженої копії.
+ */
+class DatabaseBackupTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void restoreReturnsRowCountsOfBackup() throws IOException {
+        createService();
+        long[] before = rowCounts();
+        Path backup = DatabaseBackup.backup(directory, 3);
+
+        createService();
+        createService();
+        assertEquals(before[1] + 2, rowCounts()[1]);
+
+        DatabaseBackup.restore(backup);
+        assertEquals(before[0], rowCounts()[0]);
+        assertEquals(before[1], rowCounts()[1]);
+        assertEquals(before[2], rowCounts()[2]);
+        // Після відновлення база придатна для запису
+        createService();
+    }
+
+    @Test
+    void rotationKeepsNewestCopies() throws IOException {
+        Path first = DatabaseBackup.backup(directory, 2);
+        Path second = DatabaseBackup.backup(directory, 2);
+        Path third = DatabaseBackup.backup(directory, 2);
+
+        assertEquals(List.of(second, third), DatabaseBackup.list(directory));
+        assertTrue(Files.notExists(first));
+        assertEquals(third, DatabaseBackup.latest(directory));
+        assertThrows(IllegalArgumentException.class, () -> DatabaseBackup.backup(directory, 0));
+    }
+
+    @Test
+    void corruptBackupLeavesDatabaseIntact() throws IOException {
+        createService();
+        Path good = DatabaseBackup.backup(directory, 3);
+        long[] before = rowCounts();
+
+        byte[] bytes = Files.readAllBytes(good);
+        Path truncated = directory.resolve("truncated.sql.gz");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        Path garbage = directory.resolve("garbage.sql.gz");
+        Files.write(garbage, new byte[] {1, 2, 3, 4});
+
+        assertThrows(RuntimeException.class, () -> DatabaseBackup.restore(truncated));
+        assertEquals(before[1], rowCounts()[1]);
+        assertThrows(RuntimeException.class, () -> DatabaseBackup.restore(garbage));
+        assertEquals(before[0], rowCounts()[0]);
+        assertEquals(before[1], rowCounts()[1]);
+        assertEquals(before[2], rowCounts()[2]);
+        createService();
+
+        assertThrows(IOException.class, () -> DatabaseBackup.restore(directory.resolve("missing.sql.gz")));
+    }
+
+    private static void createService() {
+        assertTrue(DaoFactory.getServiceDAO().create(new Service(0, TestDatabase.unique("Копія"), "Опис")));
+    }
+
+    private static long[] rowCounts() {
+        String[] tables = {"users", "services", "reviews"};
+        long[] counts = new long[tables.length];
+        try (Connection conn = DatabaseCfg.getConnection();
+             Statement st = conn.createStatement()) {
+            for (int i = 0; i < tables.length; i++) {
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + tables[i])) {
+                    rs.next();
+                    counts[i] = rs.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,67 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Перевірка планів запитів на індекси V2: на окремій базі в пам'яті, щоб можна
+ * було видаляти індекси.
+ */
+class DatabaseInitTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void open() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:" + TestDatabase.unique("plans"));
+        DatabaseInit.migrate(conn);
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void migratedSchemaPassesPlanCheck() throws SQLException {
+        assertEquals(List.of(), DatabaseInit.verifyQueryPlans(conn));
+    }
+
+    @Test
+    void sharedDatabasePassesPlanCheck() {
+        TestDatabase.use();
+        assertEquals(List.of(), DatabaseInit.VerifyQueryPlans());
+    }
+
+    @Test
+    void missingCompositeIndexIsReported() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX idx_reviews_user_id");
+        }
+        List<String> problems = DatabaseInit.verifyQueryPlans(conn);
+        // Рівність за userID ще покриває індекс зовнішнього ключа, keyset-запит - ні
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).startsWith("Запит не використовує індекс за USERID, ID"), problems.get(0));
+        assertTrue(problems.get(0).contains("WHERE userID = ? AND id > ?"), problems.get(0));
+    }
+
+    @Test
+    void missingUniqueEmailIndexIsReported() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX ux_users_email_lower");
+        }
+        List<String> problems = DatabaseInit.verifyQueryPlans(conn);
+        assertEquals(1, problems.size());
+        assertTrue(problems.get(0).contains("EMAIL_LOWER"));
+        assertTrue(problems.get(0).contains("tableScan"), problems.get(0));
+    }
+}
@@ -0,0 +1,112 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import entity.Service;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Знімок і журнал JournaledJsonStore: відтворення, обірваний запис та ущільнення.
+ */
+class JournaledJsonStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void changesSurviveReopen() throws IOException {
+        Path file = dir.resolve("services.json");
+        try (JournaledJsonStore<Service> store = open(file)) {
+            store.put(new Service(1, "Пекарня", "Хліб"));
+            store.put(new Service(2, "Кав'ярня", "Кава"));
+            store.put(new Service(1, "Пекарня", "Хліб і булки"));
+            store.delete(2);
+        }
+
+        try (JournaledJsonStore<Service> store = open(file)) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.maxId());
+            assertEquals("Хліб і булки", store.get(1).getDescription());
+            assertNull(store.get(2));
+        }
+    }
+
+    @Test
+    void tornLastLineIsDiscarded() throws IOException {
+        Path file = dir.resolve("services.json");
+        Path journal = dir.resolve("services.json.journal");
+        try (JournaledJsonStore<Service> store = open(file)) {
+            store.put(new Service(1, "Пекарня", "Хліб"));
+        }
+        long intact = Files.size(journal);
+        // Збій посеред запису: рядок без переведення рядка в кінці
+        Files.write(journal, "{\"op\":\"put\",\"value\":{\"id\":2,\"na".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (JournaledJsonStore<Service> store = open(file)) {
+            assertEquals(1, store.size());
+            assertEquals(intact, Files.size(journal));
+            store.put(new Service(3, "Квіти", "Букети"));
+        }
+
+        // Наступний запис дописано після цілих рядків, а не до обірваного
+        try (JournaledJsonStore<Service> store = open(file)) {
+            assertEquals(2, store.size());
+            assertEquals("Квіти", store.get(3).getName());
+        }
+    }
+
+    @Test
+    void corruptedCompleteLineIsAnError() throws IOException {
+        Path file = dir.resolve("services.json");
+        open(file).close();
+        Files.write(dir.resolve("services.json.journal"), "{\"op\":\"put\",\"value\":\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> open(file));
+    }
+
+    @Test
+    void compactionRewritesSnapshotAndClearsJournal() throws IOException {
+        Path file = dir.resolve("services.json");
+        Path journal = dir.resolve("services.json.journal");
+        try (JournaledJsonStore<Service> store = open(file)) {
+            store.put(new Service(5, "Старе", "Опис"));
+            store.replaceAll(List.of(new Service(1, "Пекарня", "Хліб"), new Service(4, "Квіти", "Букети"))
+                    .iterator());
+            assertEquals(0, Files.size(journal));
+        }
+
+        try (JournaledJsonStore<Service> store = open(file)) {
+            assertEquals(2, store.size());
+            assertEquals(4, store.maxId());
+            assertNull(store.get(5));
+        }
+    }
+
+    @Test
+    void journalIsCompactedAfterThreshold() throws IOException {
+        Path file = dir.resolve("services.json");
+        try (JournaledJsonStore<Service> store = open(file)) {
+            for (int i = 0; i < JournaledJsonStore.MIN_COMPACT_RECORDS; i++) {
+                store.put(new Service(1, "Пекарня " + i, "Хліб"));
+            }
+            assertEquals(0, Files.size(dir.resolve("services.json.journal")));
+        }
+        try (JournaledJsonStore<Service> store = open(file)) {
+            assertEquals("Пекарня " + (JournaledJsonStore.MIN_COMPACT_RECORDS - 1), store.get(1).getName());
+        }
+    }
+
+    private static JournaledJsonStore<Service> open(Path file) throws IOException {
+        return new JournaledJsonStore<>(file, JsonEntityMapper::readService, JsonEntityMapper::writeService,
+                Service::getId);
+    }
+}
@@ -0,0 +1,184 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Потокові JsonReader/JsonWriter та SimpleJsonParser поверх них.
+ */
+class JsonRoundTripTest {
+
+    private static final String TRICKY = "лапки \" слеш \\ / табуляція \t рядок \n \u0001   емодзі 😀";
+
+    @Test
+    void stringsWithEscapesRoundTrip() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginObject().name(TRICKY).value(TRICKY).endObject();
+        }
+
+        JsonReader reader = new JsonReader(new StringReader(out.toString()));
+        reader.beginObject();
+        assertEquals(TRICKY, reader.nextName());
+        assertEquals(TRICKY, reader.nextString());
+        reader.endObject();
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    void unicodeEscapesAreDecoded() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("[\"\\u0416\\ud83d\\ude00\\n\"]"));
+        reader.beginArray();
+        assertEquals("Ж😀\n", reader.nextString());
+        reader.endArray();
+    }
+
+    @Test
+    void numbersRoundTrip() throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.beginArray()
+                    .value(-42L).value(Long.MIN_VALUE).value(Long.MAX_VALUE)
+                    .value(-0.5).value(3.25).value(1e-7).value(-2.5e300)
+                    .endArray();
+        }
+
+        JsonReader reader = new JsonReader(new StringReader(out.toString()));
+        reader.beginArray();
+        assertEquals(-42, reader.nextInt());
+        assertEquals(Long.MIN_VALUE, reader.nextLong());
+        assertEquals(Long.MAX_VALUE, reader.nextLong());
+        assertEquals(-0.5, reader.nextDouble());
+        assertEquals(3.25, reader.nextDouble());
+        assertEquals(1e-7, reader.nextDouble());
+        assertEquals(-2.5e300, reader.nextDouble());
+        reader.endArray();
+    }
+
+    @Test
+    void invalidNumbersAreRejected() {
+        assertThrows(IOException.class, () -> readLong("[12345678901234567890]"));
+        assertThrows(IOException.class, () -> readLong("[1.5]"));
+        assertThrows(IOException.class, () -> new JsonReader(new StringReader("[2147483648]")).nextInt());
+        assertThrows(IllegalArgumentException.class,
+                () -> new JsonWriter(new StringWriter()).value(Double.NaN));
+    }
+
+    @Test
+    void channelWriterAndByteBufferReaderUseUtf8() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(Channels.newChannel(bytes))) {
+            writer.beginArray().value(TRICKY).value(true).nullValue().endArray();
+        }
+
+        JsonReader reader = new JsonReader(ByteBuffer.wrap(bytes.toByteArray()));
+        reader.beginArray();
+        assertEquals(TRICKY, reader.nextString());
+        assertTrue(reader.nextBoolean());
+        reader.nextNull();
+        reader.endArray();
+        assertTrue(new String(bytes.toByteArray(), StandardCharsets.UTF_8).contains("емодзі"));
+    }
+
+    @Test
+    void fragmentReadsElementsWithoutBrackets() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(" {\"a\": 1}, [2, 3], \"x\" "));
+        reader.beginFragment();
+        reader.beginObject();
+        assertEquals("a", reader.nextName());
+        assertEquals(1, reader.nextInt());
+        reader.endObject();
+        reader.skipValue();
+        assertEquals("x", reader.nextString());
+        assertFalse(reader.hasNext());
+        reader.endFragment();
+    }
+
+    @Test
+    void emptyFragmentHasNoElements() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("   "));
+        reader.beginFragment();
+        assertFalse(reader.hasNext());
+        reader.endFragment();
+    }
+
+    @Test
+    void fragmentMustBeClosedWithEndFragment() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("1, 2"));
+        reader.beginFragment();
+        assertThrows(IllegalStateException.class, reader::endArray);
+    }
+
+    @Test
+    void malformedJsonReportsLine() {
+        IOException e = assertThrows(IOException.class,
+                () -> new JsonReader(new StringReader("[1,\n2\n3]")).skipValue());
+        assertTrue(e.getMessage().contains("(рядок 3)"), e.getMessage());
+        assertThrows(IOException.class, () -> {
+            JsonReader reader = new JsonReader(new StringReader("[1, 2] 3"));
+            reader.skipValue();
+            reader.peek();
+        });
+    }
+
+    @Test
+    void writerRejectsUnfinishedDocument() {
+        JsonWriter writer = new JsonWriter(new StringWriter());
+        assertThrows(IOException.class, () -> {
+            writer.beginArray();
+            writer.close();
+        });
+    }
+
+    @Test
+    void parserRoundTripsNestedValues() {
+        SimpleJsonParser.JsonObject obj = new SimpleJsonParser.JsonObject();
+        obj.put("text", TRICKY);
+        obj.put("int", -7L);
+        obj.put("double", -0.125);
+        obj.put("flag", false);
+        obj.put("nothing", null);
+        obj.put("list", List.of(1L, "два", List.of()));
+
+        List<SimpleJsonParser.JsonObject> parsed =
+                SimpleJsonParser.parseArray(SimpleJsonParser.arrayToJsonString(List.of(obj, obj)));
+        assertEquals(2, parsed.size());
+        SimpleJsonParser.JsonObject copy = parsed.get(1);
+        assertEquals(TRICKY, copy.get("text"));
+        assertEquals(-7L, copy.get("int"));
+        assertEquals(-0.125, copy.get("double"));
+        assertEquals(false, copy.get("flag"));
+        assertTrue(copy.containsKey("nothing"));
+        assertNull(copy.get("nothing"));
+        assertEquals(List.of(1L, "два", List.of()), copy.get("list"));
+    }
+
+    @Test
+    void parserPropagatesSyntaxErrors() {
+        assertThrows(UncheckedIOException.class, () -> SimpleJsonParser.parseArray("[{\"a\": 1},"));
+        assertThrows(UncheckedIOException.class, () -> SimpleJsonParser.parseArray("[] []"));
+        assertThrows(UncheckedIOException.class, () -> SimpleJsonParser.parseObject("{\"a\" 1}"));
+        assertTrue(SimpleJsonParser.parseArray((String) null).isEmpty());
+        assertNull(SimpleJsonParser.parseObject("[1]"));
+    }
+
+    private static long readLong(String json) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.beginArray();
+        return reader.nextLong();
+    }
+}
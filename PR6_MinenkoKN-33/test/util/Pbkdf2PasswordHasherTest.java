@@ -0,0 +1,68 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PBKDF2-HMAC-SHA256: відомі тестові вектори, формат хешу та перерахунок.
+ */
+class Pbkdf2PasswordHasherTest {
+
+    private final Pbkdf2PasswordHasher hasher = new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS);
+
+    @Test
+    void matchesKnownTestVectors() {
+        // PBKDF2-HMAC-SHA256, P = "password", S = "salt", dkLen = 32
+        assertTrue(hasher.verify("password", stored(1,
+                "120fb6cffcf8b32c43e7225256c4f837a86548c92ccc35480805987cb70be17b")));
+        assertTrue(hasher.verify("password", stored(2,
+                "ae4d0c95af6b46d32d0adff928f06dd02a303f8ef3c251dfd6e2d85a95474c43")));
+        assertTrue(hasher.verify("password", stored(4096,
+                "c5e478d59288c841aa530db6845c4c8d962893a001ce4e11a4963873aa98134a")));
+        assertFalse(hasher.verify("Password", stored(1,
+                "120fb6cffcf8b32c43e7225256c4f837a86548c92ccc35480805987cb70be17b")));
+    }
+
+    @Test
+    void hashRoundTripsWithRandomSalt() {
+        String first = hasher.hash("секретний пароль");
+        String second = hasher.hash("секретний пароль");
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("секретний пароль", first));
+        assertTrue(hasher.verify("секретний пароль", second));
+        assertFalse(hasher.verify("інший пароль", first));
+        assertFalse(hasher.verify("", first));
+    }
+
+    @Test
+    void malformedHashesAreRejected() {
+        assertFalse(hasher.supports("pbkdf2-sha256$1000$abc"));
+        assertFalse(hasher.verify("password", "pbkdf2-sha256$x$c2FsdA$AAAA"));
+        assertFalse(hasher.verify("password", "pbkdf2-sha256$1$c2FsdA$AAAA"));
+    }
+
+    @Test
+    void rehashToleratesCalibrationJitter() {
+        Pbkdf2PasswordHasher current = new Pbkdf2PasswordHasher(100_000);
+        assertFalse(current.needsRehash(new Pbkdf2PasswordHasher(100_000).hash("пароль")));
+        assertFalse(current.needsRehash(new Pbkdf2PasswordHasher(90_000).hash("пароль")));
+        assertTrue(current.needsRehash(new Pbkdf2PasswordHasher(50_000).hash("пароль")));
+        assertTrue(current.needsRehash("pbkdf2-sha256$"));
+    }
+
+    private static String stored(int iterations, String hexKey) {
+        byte[] key = new byte[hexKey.length() / 2];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) Integer.parseInt(hexKey.substring(2 * i, 2 * i + 2), 16);
+        }
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return "pbkdf2-sha256$" + iterations + "$"
+                + encoder.encodeToString("salt".getBytes(StandardCharsets.UTF_8)) + "$"
+                + encoder.encodeToString(key);
+    }
+}
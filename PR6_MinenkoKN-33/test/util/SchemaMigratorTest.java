@@ -0,0 +1,117 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Міграції на окремій базі в пам'яті: повторний запуск після обриву, передумови
+ * та контрольні суми.
+ */
+class SchemaMigratorTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void open() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:" + TestDatabase.unique("migrator"));
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void appliesEachVersionOnce() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+                new SchemaMigrator.Migration(1, "таблиця", "CREATE TABLE IF NOT EXISTS t (id INT)"),
+                new SchemaMigrator.Migration(2, "стовпець", "ALTER TABLE t ADD COLUMN IF NOT EXISTS v INT")));
+        assertEquals(2, migrator.migrate(conn));
+        assertEquals(0, migrator.migrate(conn));
+        assertEquals(2, count("SELECT COUNT(*) FROM schema_version"));
+    }
+
+    @Test
+    void failedMigrationResumesOnNextRun() throws SQLException {
+        execute("CREATE TABLE t (id INT, v INT)");
+        execute("INSERT INTO t VALUES (1, 1), (2, 1)");
+        SchemaMigrator.Migration failing = new SchemaMigrator.Migration(1, "індекси",
+                "CREATE INDEX IF NOT EXISTS idx_t_id ON t(id)",
+                "CREATE UNIQUE INDEX IF NOT EXISTS ux_t_v ON t(v)");
+        assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(failing)).migrate(conn));
+        // DDL до помилки вже зафіксовано, версію - ні
+        assertTrue(indexExists("IDX_T_ID"));
+        assertEquals(0, count("SELECT COUNT(*) FROM schema_version"));
+
+        execute("UPDATE t SET v = id");
+        assertEquals(1, new SchemaMigrator(List.of(failing)).migrate(conn));
+        assertTrue(indexExists("UX_T_V"));
+    }
+
+    @Test
+    void preconditionReportsConflictsBeforeAnyStatement() throws SQLException {
+        execute("CREATE TABLE t (id INT, email VARCHAR(255))");
+        execute("INSERT INTO t VALUES (1, 'a@x.com'), (2, 'A@x.com'), (3, 'b@x.com')");
+        SchemaMigrator.Migration migration = new SchemaMigrator.Migration(1, "унікальний email",
+                "CREATE INDEX IF NOT EXISTS idx_t_id ON t(id)",
+                "CREATE UNIQUE INDEX IF NOT EXISTS ux_t_email ON t(email)")
+                .requires("Дубльовані email",
+                        "SELECT LOWER(email) FROM t GROUP BY LOWER(email) HAVING COUNT(*) > 1");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new SchemaMigrator(List.of(migration)).migrate(conn));
+        assertTrue(e.getMessage().contains("Дубльовані email (1): a@x.com"), e.getMessage());
+        assertFalse(indexExists("IDX_T_ID"));
+
+        execute("DELETE FROM t WHERE id = 2");
+        assertEquals(1, new SchemaMigrator(List.of(migration)).migrate(conn));
+    }
+
+    @Test
+    void preconditionsDoNotChangeChecksum() throws SQLException {
+        SchemaMigrator.Migration plain = new SchemaMigrator.Migration(1, "таблиця",
+                "CREATE TABLE IF NOT EXISTS t (id INT)");
+        new SchemaMigrator(List.of(plain)).migrate(conn);
+        SchemaMigrator.Migration checked = plain.requires("нічого", "SELECT 1 WHERE FALSE");
+        assertEquals(plain.checksum(), checked.checksum());
+        assertEquals(0, new SchemaMigrator(List.of(checked)).migrate(conn));
+    }
+
+    @Test
+    void changedMigrationIsDetected() throws SQLException {
+        new SchemaMigrator(List.of(new SchemaMigrator.Migration(1, "таблиця",
+                "CREATE TABLE IF NOT EXISTS t (id INT)"))).migrate(conn);
+        SchemaMigrator changed = new SchemaMigrator(List.of(new SchemaMigrator.Migration(1, "таблиця",
+                "CREATE TABLE IF NOT EXISTS t (id BIGINT)")));
+        assertThrows(IllegalStateException.class, () -> changed.migrate(conn));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private boolean indexExists(String name) throws SQLException {
+        return count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = '" + name + "'") > 0;
+    }
+}
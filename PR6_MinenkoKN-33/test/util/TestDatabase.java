@@ -0,0 +1,42 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Спільне налаштування тестів, що працюють з базою даних: окрема база H2 у
+ * пам'яті замість ~/testdb та унікальні значення для стовпців з обмеженням
+ * унікальності.
+ */
+public final class TestDatabase {
+
+    /**
+     * База в пам'яті живе до завершення JVM, тож спільна для всіх тестів запуску.
+     */
+    public static final String URL = "jdbc:h2:mem:guestbook_test;DB_CLOSE_DELAY=-1";
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Спрямовує DatabaseCfg на тестову базу і застосовує міграції. Викликати до
+     * першого звернення до DAO.
+     */
+    public static synchronized void use() {
+        if (System.getProperty("guestbook.db.url") == null) {
+            System.setProperty("guestbook.db.url", URL);
+        }
+        DatabaseInit.EnsureSchema();
+    }
+
+    /**
+     * Повертає рядок, унікальний у межах запуску тестів.
+     *
+     * @param prefix префікс
+     * @return префікс з унікальним суфіксом
+     */
+    public static String unique(String prefix) {
+        return prefix + "-" + System.nanoTime() + "-" + COUNTER.incrementAndGet();
+    }
+}
@@ -0,0 +1,38 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Розбиття українського тексту на слова та терміни.
+ */
+class UkrainianTokenizerTest {
+
+    private final UkrainianTokenizer tokenizer = new UkrainianTokenizer();
+
+    @Test
+    void everyApostropheFormIsDroppedInsideWord() {
+        assertEquals(List.of("пять"), tokenizer.words("п'ять"));
+        assertEquals(List.of("пять"), tokenizer.words("п’ять"));
+        assertEquals(List.of("пять"), tokenizer.words("пʼять"));
+    }
+
+    @Test
+    void apostropheOutsideWordSeparates() {
+        assertEquals(List.of("слово", "інше"), tokenizer.words("ʼслово ʼ інше'"));
+        assertEquals(List.of("а", "б"), tokenizer.words("аʼʼб"));
+    }
+
+    @Test
+    void tokensAreLowercasedFilteredAndStemmed() {
+        assertEquals(List.of("кав", "смачн"), tokenizer.tokenize("Кава та СМАЧНА"));
+        assertEquals(List.of("pizza", "42"), tokenizer.tokenize("Pizza, 42!"));
+    }
+
+    @Test
+    void nullTextHasNoWords() {
+        assertEquals(List.of(), tokenizer.words(null));
+    }
+}
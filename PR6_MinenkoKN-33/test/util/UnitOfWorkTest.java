@@ -0,0 +1,190 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dao.DaoFactory;
+import entity.Service;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Фіксація, відкат, дії після фіксації та проміжні фіксації одиниці роботи.
+ */
+class UnitOfWorkTest {
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.use();
+    }
+
+    @Test
+    void commitsAllDaoCallsTogether() {
+        String first = TestDatabase.unique("Перша");
+        String second = TestDatabase.unique("Друга");
+        int created = UnitOfWork.execute(() -> {
+            createService(first);
+            createService(second);
+            assertTrue(UnitOfWork.isActive());
+            return 2;
+        });
+        assertEquals(2, created);
+        assertFalse(UnitOfWork.isActive());
+        assertEquals(1, countServices(first));
+        assertEquals(1, countServices(second));
+    }
+
+    @Test
+    void failureRollsBackAndDropsHooks() {
+        String name = TestDatabase.unique("Відкат");
+        List<String> events = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("збій");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            createService(name);
+            UnitOfWork.afterCommit(() -> events.add("після фіксації"));
+            throw failure;
+        }));
+        assertSame(failure, thrown);
+        assertEquals(0, countServices(name));
+        assertTrue(events.isEmpty());
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void checkedExceptionIsWrappedOnce() {
+        IOException cause = new IOException("диск");
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> UnitOfWork.execute(() ->
+                UnitOfWork.execute(() -> {
+                    throw cause;
+                })));
+        assertSame(cause, thrown.getCause());
+    }
+
+    @Test
+    void nestedFailureRollsBackOuterWork() {
+        String name = TestDatabase.unique("Вкладена");
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            createService(name);
+            try {
+                UnitOfWork.execute(() -> {
+                    throw new IllegalArgumentException("внутрішня помилка");
+                });
+            } catch (IllegalArgumentException e) {
+                // Зовнішня робота ковтає помилку, але транзакція вже лише для відкату
+            }
+            return null;
+        }));
+        assertEquals(0, countServices(name));
+    }
+
+    @Test
+    void afterCommitRunsOutsideUnitOfWorkInOrder() {
+        String name = TestDatabase.unique("Сповіщення");
+        List<String> events = new ArrayList<>();
+        UnitOfWork.execute(() -> {
+            createService(name);
+            UnitOfWork.afterCommit(() -> {
+                events.add("перша");
+                // Дія бачить зафіксовані дані і вже не в одиниці роботи
+                assertFalse(UnitOfWork.isActive());
+                assertEquals(1, countServices(name));
+            });
+            UnitOfWork.afterCommit(() -> events.add("друга"));
+            events.add("робота");
+            return null;
+        });
+        assertEquals(List.of("робота", "перша", "друга"), events);
+
+        UnitOfWork.afterCommit(() -> events.add("одразу"));
+        assertEquals("одразу", events.get(events.size() - 1));
+    }
+
+    @Test
+    void afterCompletionRunsAfterCommitAndAfterRollback() {
+        List<String> events = new ArrayList<>();
+        UnitOfWork.execute(() -> {
+            UnitOfWork.afterCompletion(() -> events.add("завершення"));
+            UnitOfWork.afterCommit(() -> events.add("фіксація"));
+            // Вкладена робота реєструє дію у зовнішній одиниці роботи
+            UnitOfWork.execute(() -> {
+                UnitOfWork.afterCompletion(() -> events.add("вкладене завершення"));
+                return null;
+            });
+            assertTrue(events.isEmpty());
+            return null;
+        });
+        assertEquals(List.of("фіксація", "завершення", "вкладене завершення"), events);
+
+        events.clear();
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            UnitOfWork.afterCompletion(() -> events.add("завершення"));
+            UnitOfWork.afterCommit(() -> events.add("фіксація"));
+            throw new IllegalStateException("збій");
+        }));
+        assertEquals(List.of("завершення"), events);
+    }
+
+    @Test
+    void checkpointKeepsCommittedPortion() {
+        String kept = TestDatabase.unique("Порція");
+        String lost = TestDatabase.unique("Загублена");
+        List<String> events = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            createService(kept);
+            UnitOfWork.afterCommit(() -> events.add("порція"));
+            UnitOfWork.checkpoint();
+            assertEquals(List.of("порція"), events);
+            assertTrue(UnitOfWork.isActive());
+
+            createService(lost);
+            UnitOfWork.afterCommit(() -> events.add("загублена"));
+            throw new IllegalStateException("збій після порції");
+        }));
+        assertEquals(1, countServices(kept));
+        assertEquals(0, countServices(lost));
+        assertEquals(List.of("порція"), events);
+    }
+
+    @Test
+    void checkpointRejectsRollbackOnly() {
+        String name = TestDatabase.unique("Лише відкат");
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.execute(() -> {
+            createService(name);
+            UnitOfWork.setRollbackOnly();
+            UnitOfWork.checkpoint();
+            return null;
+        }));
+        assertEquals(0, countServices(name));
+        // Поза одиницею роботи проміжна фіксація нічого не робить
+        UnitOfWork.checkpoint();
+    }
+
+    private static void createService(String name) {
+        assertTrue(DaoFactory.getServiceDAO().create(new Service(0, name, "Опис")));
+    }
+
+    private static int countServices(String name) {
+        try (Connection conn = DatabaseCfg.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM services WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}